@@ -1,71 +1,56 @@
 package com.analyzer.cli;
 
+import com.analyzer.core.ColumnarIndex;
 import com.analyzer.core.Index;
-import com.analyzer.model.ClassInfo;
-import com.analyzer.model.MethodInfo;
-import com.containers.GenericList;
-import com.containers.PriorityQueueCustom;
+import com.analyzer.model.SymbolTable;
 
 public class AggregateCommand implements Command {
 
-    private static class StatItem implements Comparable<StatItem> {
-        String name;
-        int value;
-
-        public StatItem(String name, int value) {
-            this.name = name;
-            this.value = value;
-        }
-
-        @Override
-        public int compareTo(StatItem other) {
-            return Integer.compare(this.value, other.value);
-        }
-    }
-
     @Override
-    public void execute(String[] args, Index index) {
-        GenericList<ClassInfo> classes = index.getClasses();
-        int totalClasses = classes.size();
-        int totalMethods = 0;
-        int totalFields = 0;
-
-        PriorityQueueCustom<StatItem> topClassesByMethods = new PriorityQueueCustom<>(
-                (a, b) -> Integer.compare(b.value, a.value));
-        PriorityQueueCustom<StatItem> topMethodsByLoc = new PriorityQueueCustom<>(
-                (a, b) -> Integer.compare(b.value, a.value));
-
-        for (int i = 0; i < classes.size(); i++) {
-            ClassInfo c = classes.get(i);
-            totalMethods += c.getMethodCount();
-            totalFields += c.getFieldCount();
-
-            topClassesByMethods.add(new StatItem(c.getName(), c.getMethodCount()));
-
-            GenericList<MethodInfo> methods = c.getMethods();
-            for (int j = 0; j < methods.size(); j++) {
-                MethodInfo m = methods.get(j);
-                topMethodsByLoc.add(new StatItem(c.getName() + "." + m.getName(), m.getLoc()));
-            }
+    public void execute(String[] args, Index index, Output out) {
+        // Runs entirely on the columnar copy: int array scans, no model objects
+        ColumnarIndex columns = Main.withBodies(index).snapshot().getColumns();
+        SymbolTable symbols = SymbolTable.global();
+        int totalClasses = columns.getClassCount();
+        long totalMethods = ColumnarIndex.sum(columns.classMethodCounts());
+        long totalFields = ColumnarIndex.sum(columns.classFieldCounts());
+        long totalComplexity = ColumnarIndex.sum(columns.methodComplexities());
+        long totalStatements = ColumnarIndex.sum(columns.methodStatementCounts());
+        long totalCallSites = ColumnarIndex.sum(columns.methodCallSiteCounts());
+
+        out.println("=== Aggregate Stats ===");
+        out.println("Total Classes: " + totalClasses);
+        out.println("Total Methods: " + totalMethods);
+        out.println("Total Fields: " + totalFields);
+        out.println("Avg Methods/Class: " + (totalClasses > 0 ? (double) totalMethods / totalClasses : 0));
+        out.println("Avg Fields/Class: " + (totalClasses > 0 ? (double) totalFields / totalClasses : 0));
+        out.println("Total Statements: " + totalStatements);
+        out.println("Total Call Sites: " + totalCallSites);
+        out.println("Avg Complexity/Method: "
+                + (totalMethods > 0 ? (double) totalComplexity / totalMethods : 0));
+
+        out.println("\nTop 5 Classes by Method Count:");
+        int[] classNames = columns.classNameIds();
+        int[] methodCounts = columns.classMethodCounts();
+        for (int row : ColumnarIndex.topK(methodCounts, 5)) {
+            out.println(symbols.get(classNames[row]) + ": " + methodCounts[row]);
         }
 
-        System.out.println("=== Aggregate Stats ===");
-        System.out.println("Total Classes: " + totalClasses);
-        System.out.println("Total Methods: " + totalMethods);
-        System.out.println("Total Fields: " + totalFields);
-        System.out.println("Avg Methods/Class: " + (totalClasses > 0 ? (double) totalMethods / totalClasses : 0));
-        System.out.println("Avg Fields/Class: " + (totalClasses > 0 ? (double) totalFields / totalClasses : 0));
-
-        System.out.println("\nTop 5 Classes by Method Count:");
-        for (int i = 0; i < 5 && !topClassesByMethods.isEmpty(); i++) {
-            StatItem item = topClassesByMethods.remove();
-            System.out.println(item.name + ": " + item.value);
+        out.println("\nTop 5 Methods by LOC:");
+        int[] methodClasses = columns.methodClasses();
+        int[] methodNames = columns.methodNameIds();
+        int[] locs = columns.methodLocs();
+        for (int row : ColumnarIndex.topK(locs, 5)) {
+            out.println(symbols.get(classNames[methodClasses[row]]) + "." + symbols.get(methodNames[row])
+                    + ": " + locs[row]);
         }
 
-        System.out.println("\nTop 5 Methods by LOC:");
-        for (int i = 0; i < 5 && !topMethodsByLoc.isEmpty(); i++) {
-            StatItem item = topMethodsByLoc.remove();
-            System.out.println(item.name + ": " + item.value);
+        out.println("\nTop 5 Methods by Complexity:");
+        int[] complexities = columns.methodComplexities();
+        int[] nestings = columns.methodMaxNestings();
+        for (int row : ColumnarIndex.topK(complexities, 5)) {
+            out.println(symbols.get(classNames[methodClasses[row]]) + "." + symbols.get(methodNames[row])
+                    + ": " + complexities[row] + " (nesting " + nestings[row] + ")");
         }
     }
 }
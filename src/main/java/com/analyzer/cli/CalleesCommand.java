@@ -0,0 +1,86 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.core.ReferenceGraph;
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.SymbolTable;
+
+public class CalleesCommand implements Command {
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        if (args.length < 1) {
+            System.err.println("Usage: callees <method>");
+            System.err.println("Example: callees main");
+            System.err.println("Example: callees Main.main");
+            return;
+        }
+
+        String target = args[0];
+        IndexSnapshot snapshot = Main.withBodies(index).snapshot();
+        ReferenceGraph graph = snapshot.getReferences();
+        SymbolTable symbols = SymbolTable.global();
+
+        int[] methods = graph.findMethods(target);
+        if (methods.length == 0) {
+            if (!out.isPlain()) {
+                out.println("No method " + target + " found in the index.");
+            }
+            return;
+        }
+
+        for (int row : methods) {
+            int[] callees = graph.callees(row);
+            if (callees.length == 0) {
+                // A method calling nothing is one row on its own
+                if (!out.row()) {
+                    continue;
+                }
+                if (out.isPlain()) {
+                    CallersCommand.cells(out, snapshot, graph, row).cell("").cell("").endRow();
+                } else {
+                    out.println("=== " + CallersCommand.describe(snapshot, graph, row) + " calls 0 method(s) ===");
+                }
+                continue;
+            }
+            // The heading goes before the method's first callee in the window
+            boolean headed = false;
+            for (int nameId : callees) {
+                if (!out.row()) {
+                    continue;
+                }
+                String declaredIn = declaringClasses(snapshot, graph, graph.declarations(nameId));
+                if (out.isPlain()) {
+                    CallersCommand.cells(out, snapshot, graph, row).cell(symbols.get(nameId)).cell(declaredIn)
+                            .endRow();
+                    continue;
+                }
+                if (!headed) {
+                    out.println("=== " + CallersCommand.describe(snapshot, graph, row) + " calls "
+                            + callees.length + " method(s) ===");
+                    headed = true;
+                }
+                out.print("  ").print(symbols.get(nameId))
+                        .println(declaredIn.isEmpty() ? " (not in index)" : " -> " + declaredIn);
+            }
+        }
+    }
+
+    // Name-based resolution: every class declaring the name, or "" if none
+    private static String declaringClasses(IndexSnapshot snapshot, ReferenceGraph graph, int[] declarations) {
+        StringBuilder names = new StringBuilder();
+        int previousClass = -1;
+        for (int i = 0; i < declarations.length; i++) {
+            int classRow = graph.methodClass(declarations[i]);
+            if (classRow == previousClass) {
+                continue; // overloads in the same class
+            }
+            if (previousClass >= 0) {
+                names.append(", ");
+            }
+            names.append(snapshot.getClass(classRow).getName());
+            previousClass = classRow;
+        }
+        return names.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.core.ReferenceGraph;
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+
+public class CallersCommand implements Command {
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        if (args.length < 1) {
+            System.err.println("Usage: callers <method>");
+            System.err.println("Example: callers parse");
+            return;
+        }
+        // Call sites record only the method name, so a class could not be
+        // told apart from any other declaring the same name
+        if (args[0].indexOf('.') >= 0) {
+            System.err.println("Calls are matched by method name only; give the name without a class: callers "
+                    + args[0].substring(args[0].lastIndexOf('.') + 1));
+            return;
+        }
+
+        String methodName = args[0];
+        IndexSnapshot snapshot = Main.withBodies(index).snapshot();
+        ReferenceGraph graph = snapshot.getReferences();
+
+        int[] callers = graph.callers(SymbolTable.global().lookup(methodName));
+        if (!out.isPlain()) {
+            out.println("=== Callers of " + methodName + " ===");
+            if (graph.findMethods(methodName).length == 0) {
+                out.println("(no method " + methodName + " declared in the index; showing calls by name)");
+            }
+        }
+        for (int row : callers) {
+            if (!out.row()) {
+                continue;
+            }
+            if (out.isPlain()) {
+                cells(out, snapshot, graph, row).endRow();
+            } else {
+                out.print("  ").println(describe(snapshot, graph, row));
+            }
+        }
+        if (!out.isPlain()) {
+            out.println("Total: " + callers.length + " caller(s). Calls are matched by method name.");
+        }
+    }
+
+    /**
+     * "package.Class.method (File.java:line)" for a method row of the graph.
+     */
+    static String describe(IndexSnapshot snapshot, ReferenceGraph graph, int row) {
+        ClassInfo c = snapshot.getClass(graph.methodClass(row));
+        MethodInfo m = c.getMethods().get(graph.methodIndex(row));
+        String owner = c.getPackageName().isEmpty() ? c.getName() : c.getPackageName() + "." + c.getName();
+        return owner + "." + m.getName() + " (" + c.getFileName() + ":" + m.getStartLine() + ")";
+    }
+
+    /**
+     * The same method as --plain cells: qualified name, file path, line.
+     */
+    static Output cells(Output out, IndexSnapshot snapshot, ReferenceGraph graph, int row) {
+        ClassInfo c = snapshot.getClass(graph.methodClass(row));
+        MethodInfo m = c.getMethods().get(graph.methodIndex(row));
+        String owner = c.getPackageName().isEmpty() ? c.getName() : c.getPackageName() + "." + c.getName();
+        return out.cell(owner + "." + m.getName()).cell(c.getFilePath()).cell(m.getStartLine());
+    }
+}
@@ -2,6 +2,29 @@ package com.analyzer.cli;
 
 import com.analyzer.core.Index;
 
+/**
+ * A command run from the command line or the REPL. Each of the two execute
+ * methods defaults to the other, so an implementation overrides one of them.
+ */
 public interface Command {
-    void execute(String[] args, Index index);
+    /**
+     * Runs the command with its output going to the console, windowed as
+     * args say.
+     */
+    default void execute(String[] args, Index index) {
+        try (Output out = Output.console(args)) {
+            execute(args, index, out);
+        }
+    }
+
+    /**
+     * Runs the command with its output going to out, which the caller
+     * flushes. Commands that answer a query override this, so the REPL can
+     * keep their output for replay; those printing long listings also count
+     * rows so --offset, --limit, --page and --plain apply. The rest override
+     * the two-argument form and print directly.
+     */
+    default void execute(String[] args, Index index, Output out) {
+        execute(args, index);
+    }
 }
@@ -0,0 +1,48 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.Index;
+import com.analyzer.core.NameIndex;
+import com.containers.GenericList;
+
+public class CompleteCommand implements Command {
+    private static final int DEFAULT_LIMIT = 20;
+
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        if (args.length == 0) {
+            System.err.println("Usage: complete <prefix> [--limit <N>]");
+            System.err.println("Example: complete Pars");
+            return;
+        }
+
+        String prefix = args[0];
+        int limit = DEFAULT_LIMIT;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--limit") && i + 1 < args.length) {
+                try {
+                    limit = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid limit: " + args[i + 1]);
+                    return;
+                }
+                i++;
+            }
+        }
+
+        GenericList<String> names = index.snapshot().getNames().complete(prefix, limit);
+        for (int i = 0; i < names.size(); i++) {
+            out.println(names.get(i));
+        }
+        if (names.isEmpty()) {
+            out.println("(no names start with '" + prefix + "')");
+            GenericList<NameIndex.Suggestion> suggestions = index.snapshot().getNames().suggestNames(prefix, limit);
+            if (!suggestions.isEmpty()) {
+                out.println("Did you mean:");
+                for (int i = 0; i < suggestions.size(); i++) {
+                    NameIndex.Suggestion s = suggestions.get(i);
+                    out.println("  " + s.getName() + " (" + s.getKind().name().toLowerCase() + ")");
+                }
+            }
+        }
+    }
+}
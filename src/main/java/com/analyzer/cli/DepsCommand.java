@@ -0,0 +1,183 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.core.PackageGraph;
+import com.containers.GenericList;
+
+public class DepsCommand implements Command {
+    // Longest member list printed per cycle
+    private static final int MAX_CYCLE_MEMBERS = 20;
+
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        int top = 10;
+        String[] layers = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--top") && i + 1 < args.length) {
+                try {
+                    top = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid number: " + args[i + 1]);
+                    return;
+                }
+            } else if (args[i].equals("--layers") && i + 1 < args.length) {
+                layers = args[i + 1].split(",");
+            }
+        }
+
+        IndexSnapshot snapshot = index.snapshot();
+        long start = System.nanoTime();
+        PackageGraph graph = snapshot.getPackageGraph();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // In --plain mode every row starts with its section: cycle, fan-out,
+        // fan-in or violation
+        if (!out.isPlain()) {
+            out.println("=== Package Dependencies ===");
+            out.println("Packages: " + graph.getPackageCount() + ", dependencies: " + graph.getEdgeCount()
+                    + ", unresolved imports: " + graph.getUnresolvedCount() + " (outside the index)");
+            if (out.isTimed()) {
+                out.println("Graph built in " + millis + " ms");
+            }
+        }
+
+        printCycles(graph, out);
+        printFan(graph, top, out);
+        if (layers != null) {
+            printLayerViolations(snapshot, graph, layers, out);
+        }
+    }
+
+    private void printCycles(PackageGraph graph, Output out) {
+        GenericList<int[]> cycles = graph.getCycles();
+        if (!out.isPlain()) {
+            out.println();
+            out.println(cycles.isEmpty() ? "No package cycles." : "Package cycles (" + cycles.size() + "):");
+        }
+        for (int i = 0; i < cycles.size(); i++) {
+            if (!out.row()) {
+                continue;
+            }
+            int[] members = cycles.get(i);
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < members.length && j < MAX_CYCLE_MEMBERS; j++) {
+                if (j > 0) {
+                    line.append(", ");
+                }
+                line.append(graph.packageName(members[j]));
+            }
+            if (members.length > MAX_CYCLE_MEMBERS) {
+                line.append(", ... ").append(members.length - MAX_CYCLE_MEMBERS).append(" more");
+            }
+            if (out.isPlain()) {
+                out.cell("cycle").cell(i + 1).cell(members.length).cell(line.toString()).endRow();
+            } else {
+                out.right(i + 1, 2).print(". [").print(members.length).print(" packages] ").println(line.toString());
+            }
+        }
+    }
+
+    private void printFan(PackageGraph graph, int top, Output out) {
+        int n = graph.getPackageCount();
+        int[] fanOut = new int[n];
+        int[] fanIn = new int[n];
+        for (int p = 0; p < n; p++) {
+            fanOut[p] = graph.fanOut(p);
+            fanIn[p] = graph.fanIn(p);
+        }
+
+        if (!out.isPlain()) {
+            out.println();
+            out.println("Top " + top + " packages by fan-out (packages they depend on):");
+        }
+        printFanRows(graph, "fan-out", ColumnarIndex.topK(fanOut, top), fanIn, fanOut, out);
+        if (!out.isPlain()) {
+            out.println();
+            out.println("Top " + top + " packages by fan-in (packages depending on them):");
+        }
+        printFanRows(graph, "fan-in", ColumnarIndex.topK(fanIn, top), fanIn, fanOut, out);
+    }
+
+    private void printFanRows(PackageGraph graph, String section, int[] rows, int[] fanIn, int[] fanOut,
+            Output out) {
+        if (!out.isPlain()) {
+            out.println(String.format("  %-50s %7s %7s %12s", "Package", "Fan-in", "Fan-out", "Instability"));
+        }
+        for (int p : rows) {
+            if (!out.row()) {
+                continue;
+            }
+            int total = fanIn[p] + fanOut[p];
+            // Instability I = Ce / (Ca + Ce): 0 is maximally stable
+            String instability = total == 0 ? "-" : String.format("%.2f", (double) fanOut[p] / total);
+            if (out.isPlain()) {
+                out.cell(section).cell(graph.packageName(p)).cell(fanIn[p]).cell(fanOut[p]).cell(instability)
+                        .endRow();
+            } else {
+                out.print("  ").left(graph.packageName(p), 50).print(' ').right(fanIn[p], 7).print(' ')
+                        .right(fanOut[p], 7).print(' ').println(String.format("%12s", instability));
+            }
+        }
+    }
+
+    /**
+     * Layers are package prefixes listed from the top layer down. A package
+     * may depend on its own layer and the layers below it; an edge to a layer
+     * above is a violation.
+     */
+    private void printLayerViolations(IndexSnapshot snapshot, PackageGraph graph, String[] layers, Output out) {
+        int n = graph.getPackageCount();
+        int[] layerOf = new int[n];
+        for (int p = 0; p < n; p++) {
+            layerOf[p] = layerOf(graph.packageName(p), layers);
+        }
+
+        if (!out.isPlain()) {
+            out.println();
+            out.println("Layer violations (" + String.join(" > ", layers) + "):");
+        }
+        int violations = 0;
+        for (int p = 0; p < n; p++) {
+            if (layerOf[p] < 0) {
+                continue;
+            }
+            for (int e = graph.firstEdge(p); e < graph.edgeEnd(p); e++) {
+                int target = graph.edgeTarget(e);
+                if (layerOf[target] >= 0 && layerOf[target] < layerOf[p]) {
+                    violations++;
+                    if (!out.row()) {
+                        continue;
+                    }
+                    String example = snapshot.getClass(graph.edgeExampleClass(e)).getName();
+                    if (out.isPlain()) {
+                        out.cell("violation").cell(graph.packageName(p)).cell(graph.packageName(target))
+                                .cell(graph.edgeWeight(e)).cell(example).endRow();
+                    } else {
+                        out.print("  ").print(graph.packageName(p)).print(" -> ").print(graph.packageName(target))
+                                .print(" (").print(graph.edgeWeight(e)).print(" class(es), e.g. ").print(example)
+                                .println(")");
+                    }
+                }
+            }
+        }
+        if (!out.isPlain()) {
+            out.println(violations == 0 ? "  None." : "Total: " + violations + " violating dependencies.");
+        }
+    }
+
+    // Longest matching prefix wins, so "app" and "app.core" can be separate layers
+    private int layerOf(String packageName, String[] layers) {
+        int best = -1;
+        int bestLength = -1;
+        for (int i = 0; i < layers.length; i++) {
+            String layer = layers[i].trim();
+            if ((packageName.equals(layer) || packageName.startsWith(layer + ".")) && layer.length() > bestLength) {
+                best = i;
+                bestLength = layer.length();
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,81 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.CloneDetector;
+import com.analyzer.core.Index;
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+
+public class DuplicatesCommand implements Command {
+    // Longest member list printed per group; generated code can produce hundreds
+    private static final int MAX_MEMBERS = 10;
+
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        int minTokens = 50;
+        int top = 20;
+        for (int i = 0; i < args.length; i++) {
+            try {
+                if (args[i].equals("--min-tokens") && i + 1 < args.length) {
+                    minTokens = Integer.parseInt(args[i + 1]);
+                } else if (args[i].equals("--top") && i + 1 < args.length) {
+                    top = Integer.parseInt(args[i + 1]);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid number: " + args[i + 1]);
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        CloneDetector detector = new CloneDetector(minTokens);
+        detector.setContents(index.getContents());
+        CloneDetector.Report report = detector.detect(index.getClasses());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        GenericList<CloneDetector.Group> groups = report.getGroups();
+        if (!out.isPlain()) {
+            out.println("=== Duplicate Code (min " + minTokens + " tokens) ===");
+            String took = out.isTimed() ? " in " + millis + " ms" : "";
+            out.println("Scanned " + report.getMethodCount() + " methods, " + report.getTokenCount() + " tokens, "
+                    + report.getFingerprintCount() + " fingerprints" + took);
+            if (report.getUnreadableFileCount() > 0) {
+                out.println("Skipped " + report.getUnreadableFileCount() + " unreadable file(s)");
+            }
+            out.println("Clone groups: " + groups.size()
+                    + (groups.size() > top ? " (showing top " + top + ")" : ""));
+        }
+
+        // A row is one group; --plain writes one line per member instead,
+        // each starting with its group number
+        for (int i = 0; i < groups.size() && i < top; i++) {
+            if (!out.row()) {
+                continue;
+            }
+            CloneDetector.Group group = groups.get(i);
+            GenericList<CloneDetector.Member> members = group.getMembers();
+            if (!out.isPlain()) {
+                out.println();
+                out.right(i + 1, 2).print(". ").print(members.size()).print(" methods, ")
+                        .print(group.getTokens()).println(" tokens");
+            }
+            for (int j = 0; j < members.size() && (out.isPlain() || j < MAX_MEMBERS); j++) {
+                CloneDetector.Member member = members.get(j);
+                ClassInfo owner = member.getOwner();
+                String name = owner.getPackageName().isEmpty() ? owner.getName()
+                        : owner.getPackageName() + "." + owner.getName();
+                if (out.isPlain()) {
+                    out.cell(i + 1).cell(group.getTokens()).cell(name + "." + member.getMethod().getName())
+                            .cell(owner.getFilePath()).cell(member.getStartLine()).cell(member.getEndLine())
+                            .endRow();
+                    continue;
+                }
+                out.print("    ").print(name).print('.').print(member.getMethod().getName()).print(" (")
+                        .print(owner.getFileName()).print(':').print(member.getStartLine()).print('-')
+                        .print(member.getEndLine()).println(")");
+            }
+            if (!out.isPlain() && members.size() > MAX_MEMBERS) {
+                out.println("    ... " + (members.size() - MAX_MEMBERS) + " more");
+            }
+        }
+    }
+}
@@ -1,58 +1,143 @@
 package com.analyzer.cli;
 
 import com.analyzer.core.Index;
-import com.analyzer.model.ClassInfo;
+import com.analyzer.core.MappedIndex;
+import com.analyzer.core.PackedIndex;
+import com.analyzer.export.CsvExporter;
+import com.analyzer.export.JsonExporter;
 import com.containers.GenericList;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Paths;
 
 public class ExportCommand implements Command {
     @Override
     public void execute(String[] args, Index index) {
         String format = "json";
         String outFile = "report.json";
+        boolean pretty = false;
+        String compress = "none";
+        String tables = null;
+        int shards = 1;
 
         for (int i = 0; i < args.length; i++) {
             if (args[i].equals("--format") && i + 1 < args.length) {
                 format = args[i + 1];
             } else if (args[i].equals("--out") && i + 1 < args.length) {
                 outFile = args[i + 1];
+            } else if (args[i].equals("--pretty")) {
+                pretty = true;
+            } else if (args[i].equals("--compress") && i + 1 < args.length) {
+                compress = args[i + 1];
+            } else if (args[i].equals("--tables") && i + 1 < args.length) {
+                tables = args[i + 1];
+            } else if (args[i].equals("--shards") && i + 1 < args.length) {
+                try {
+                    shards = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    shards = 0;
+                }
+                if (shards < 1) {
+                    System.err.println("--shards expects a positive number, got " + args[i + 1]);
+                    return;
+                }
             }
         }
 
+        if (tables != null || shards > 1) {
+            exportTables(index, tables != null ? tables : "classes", shards, outFile);
+            return;
+        }
+
         if (format.equalsIgnoreCase("json")) {
-            exportJson(index, outFile);
+            exportJson(index, outFile, pretty ? JsonExporter.Style.PRETTY : JsonExporter.Style.COMPACT);
+        } else if (format.equalsIgnoreCase("ndjson")) {
+            exportJson(index, outFile, JsonExporter.Style.NDJSON);
         } else if (format.equalsIgnoreCase("csv")) {
             exportCsv(index, outFile);
+        } else if (format.equalsIgnoreCase("idx")) {
+            exportIndex(index, outFile);
+        } else if (format.equalsIgnoreCase("bin")) {
+            PackedIndex.Compression compression;
+            try {
+                compression = PackedIndex.Compression.valueOf(compress.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unsupported compression: " + compress + " (use none, gzip or deflate)");
+                return;
+            }
+            exportPacked(index, outFile, compression);
         } else {
             System.err.println("Unsupported format: " + format);
         }
     }
 
-    private void exportJson(Index index, String outFile) {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private void exportJson(Index index, String outFile, JsonExporter.Style style) {
+        try {
+            int count = new JsonExporter(style).export(index.snapshot(), Paths.get(outFile));
+            String kind = style == JsonExporter.Style.NDJSON ? "NDJSON" : "JSON";
+            System.out.println("Exported " + count + " classes as " + kind + " to " + outFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-        try (FileWriter writer = new FileWriter(outFile)) {
-            gson.toJson(index.getClasses(), writer);
-            System.out.println("Exported JSON to " + outFile);
+    private void exportIndex(Index index, String outFile) {
+        try {
+            MappedIndex.write(index.snapshot(), Paths.get(outFile));
+            System.out.println("Exported index to " + outFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void exportPacked(Index index, String outFile, PackedIndex.Compression compression) {
+        try {
+            long bytes = PackedIndex.write(index.snapshot(), Paths.get(outFile), compression);
+            System.out.println("Exported packed index to " + outFile + " (" + bytes + " bytes)");
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     private void exportCsv(Index index, String outFile) {
-        try (FileWriter writer = new FileWriter(outFile)) {
-            writer.write("Class,Package,File,Methods,Fields\n");
-            GenericList<ClassInfo> classes = index.getClasses();
-            for (int i = 0; i < classes.size(); i++) {
-                ClassInfo c = classes.get(i);
-                writer.write(String.format("%s,%s,%s,%d,%d\n",
-                        c.getName(), c.getPackageName(), c.getFilePath(), c.getMethodCount(), c.getFieldCount()));
+        try {
+            CsvExporter.Shard shard = new CsvExporter(1).exportTable(index.snapshot(), CsvExporter.Table.CLASSES,
+                    Paths.get(outFile));
+            System.out.println("Exported " + shard.getRows() + " classes as CSV to " + outFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void exportTables(Index index, String tableList, int shards, String outFile) {
+        GenericList<CsvExporter.Table> tables = new GenericList<>();
+        for (String name : tableList.split(",")) {
+            try {
+                CsvExporter.Table table = CsvExporter.Table.valueOf(name.trim().toUpperCase());
+                if (!tables.contains(table)) {
+                    tables.add(table);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown table: " + name + " (use classes, methods or fields)");
+                return;
+            }
+        }
+        // --out names a directory here; the single-file default makes no sense for it
+        String directory = outFile.equals("report.json") ? "export" : outFile;
+        int threads = Math.min(tables.size() * shards, Runtime.getRuntime().availableProcessors());
+        try {
+            long start = System.nanoTime();
+            GenericList<CsvExporter.Shard> written = new CsvExporter(threads).export(index.snapshot(), tables,
+                    shards, Paths.get(directory));
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            long rows = 0;
+            long bytes = 0;
+            for (int i = 0; i < written.size(); i++) {
+                rows += written.get(i).getRows();
+                bytes += written.get(i).getBytes();
             }
-            System.out.println("Exported CSV to " + outFile);
+            System.out.println("Exported " + rows + " rows (" + bytes + " bytes) in " + written.size()
+                    + " files to " + directory + " in " + elapsed + " ms, see " + directory + "/manifest.json");
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -1,65 +1,141 @@
 package com.analyzer.cli;
 
+import com.analyzer.core.Grep;
 import com.analyzer.core.Index;
-import com.analyzer.model.ClassInfo;
 import com.containers.GenericList;
-import com.containers.Queue;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.regex.Matcher;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public class GrepCommand implements Command {
     @Override
-    public void execute(String[] args, Index index) {
+    public void execute(String[] args, Index index, Output out) {
         if (args.length == 0) {
-            System.err.println("Usage: grep <pattern>");
+            System.err.println("Usage: grep <pattern> [--max-count <N>] [-l] [-A <N>] [-B <N>] [-C <N>]");
             return;
         }
 
         String patternStr = args[0];
-        Pattern pattern = Pattern.compile(patternStr);
-        Queue<String> matches = new Queue<>();
+        int maxCount = -1;
+        int before = 0;
+        int after = 0;
+        boolean filesOnly = false;
+        for (int i = 1; i < args.length; i++) {
+            try {
+                if ((args[i].equals("--max-count") || args[i].equals("-m")) && i + 1 < args.length) {
+                    maxCount = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--files-with-matches") || args[i].equals("-l")) {
+                    filesOnly = true;
+                } else if (args[i].equals("-A") && i + 1 < args.length) {
+                    after = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("-B") && i + 1 < args.length) {
+                    before = Integer.parseInt(args[++i]);
+                } else if ((args[i].equals("-C") || args[i].equals("--context")) && i + 1 < args.length) {
+                    before = Integer.parseInt(args[++i]);
+                    after = before;
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid value for " + args[i - 1] + ": " + args[i]);
+                return;
+            }
+        }
 
-        GenericList<ClassInfo> classes = index.getClasses();
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(patternStr);
+        } catch (PatternSyntaxException e) {
+            System.err.println("Invalid pattern: " + e.getDescription() + " in " + patternStr);
+            return;
+        }
 
-        GenericList<String> processedFiles = new GenericList<>();
+        Grep grep = new Grep(pattern);
+        grep.setMaxCount(maxCount);
+        grep.setContext(before, after);
+        grep.setFilesOnly(filesOnly);
+        grep.setContents(index.getContents());
 
-        for (int i = 0; i < classes.size(); i++) {
-            String filePath = classes.get(i).getFilePath();
+        if (!out.isPlain()) {
+            out.println("Grep Results:");
+        }
+        // Matches are written as each file's scan completes, in index order
+        grep.run(index.snapshot().getFilePaths(), new Printer(out, filesOnly, before > 0 || after > 0));
+    }
 
-            // Avoid processing same file multiple times
-            boolean alreadyProcessed = false;
-            for (int j = 0; j < processedFiles.size(); j++) {
-                if (processedFiles.get(j).equals(filePath)) {
-                    alreadyProcessed = true;
-                    break;
-                }
-            }
-            if (alreadyProcessed)
-                continue;
-            processedFiles.add(filePath);
+    /**
+     * Writes each file's result, one row per match (or per file with -l),
+     * and stops the scan once the output window is full.
+     */
+    private static final class Printer implements Predicate<Grep.FileResult> {
+        private final Output out;
+        private final boolean filesOnly;
+        private final boolean context;
+        private String lastPath;
+        private int lastNumber;
 
-            try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-                String line;
-                int lineNumber = 0;
-                while ((line = reader.readLine()) != null) {
-                    lineNumber++;
-                    Matcher matcher = pattern.matcher(line);
-                    if (matcher.find()) {
-                        matches.enqueue(String.format("%s:%d: %s", filePath, lineNumber, line.trim()));
+        Printer(Output out, boolean filesOnly, boolean context) {
+            this.out = out;
+            this.filesOnly = filesOnly;
+            this.context = context;
+        }
+
+        @Override
+        public boolean test(Grep.FileResult result) {
+            String path = result.getPath();
+            if (result.getError() != null) {
+                out.warn("Error reading file: " + path);
+            } else if (filesOnly) {
+                if (result.getMatchCount() > 0 && out.row()) {
+                    if (out.isPlain()) {
+                        out.cell(path).endRow();
+                    } else {
+                        out.println(path);
                     }
                 }
-            } catch (IOException e) {
-                System.err.println("Error reading file: " + filePath);
+            } else {
+                print(result);
+            }
+            if (out.isFull()) {
+                out.truncate();
+                return false;
             }
+            return true;
         }
 
-        System.out.println("Grep Results:");
-        while (!matches.isEmpty()) {
-            System.out.println(matches.dequeue());
+        private void print(Grep.FileResult result) {
+            // Each match is a row; its context lines show only if it does
+            GenericList<Grep.Line> lines = result.getLines();
+            boolean[] shown = new boolean[result.getMatchCount()];
+            for (int i = 0; i < lines.size(); i++) {
+                Grep.Line line = lines.get(i);
+                if (!line.isContext()) {
+                    shown[line.getMatch()] = out.row();
+                }
+            }
+            String path = result.getPath();
+            for (int i = 0; i < lines.size(); i++) {
+                Grep.Line line = lines.get(i);
+                if (!shown[line.getMatch()]) {
+                    continue;
+                }
+                if (out.isPlain()) {
+                    out.cell(path).cell(line.getNumber()).cell(line.getText());
+                    if (context) {
+                        out.cell(line.isContext() ? "context" : "match");
+                    }
+                    out.endRow();
+                    continue;
+                }
+                // Like grep, "--" separates runs of lines that are not adjacent
+                if (context && lastPath != null && (!path.equals(lastPath) || line.getNumber() > lastNumber + 1)) {
+                    out.println("--");
+                }
+                char separator = line.isContext() ? '-' : ':';
+                out.print(path).print(separator).print(line.getNumber()).print(separator).print(' ')
+                        .println(line.getText().trim());
+                lastPath = path;
+                lastNumber = line.getNumber();
+            }
         }
     }
 }
@@ -4,11 +4,14 @@ import com.analyzer.core.Index;
 import com.analyzer.model.ClassInfo;
 import com.analyzer.model.MethodInfo;
 import com.analyzer.model.FieldInfo;
+import com.analyzer.model.SymbolTable;
 import com.containers.GenericList;
 
 public class InspectCommand implements Command {
+    private static final int MAX_SUGGESTIONS = 8;
+
     @Override
-    public void execute(String[] args, Index index) {
+    public void execute(String[] args, Index index, Output out) {
         if (args.length == 0) {
             System.err.println("Usage: inspect <class-name-or-file>");
             System.err.println("Example: inspect Main");
@@ -16,6 +19,7 @@ public class InspectCommand implements Command {
             return;
         }
 
+        index = Main.withBodies(index);
         String target = args[0];
         GenericList<ClassInfo> classes = index.getClasses();
         ClassInfo found = null;
@@ -23,7 +27,7 @@ public class InspectCommand implements Command {
         // Try to find by class name or file name
         for (int i = 0; i < classes.size(); i++) {
             ClassInfo c = classes.get(i);
-            String fileName = extractFileName(c.getFilePath());
+            String fileName = c.getFileName();
 
             if (c.getName().equals(target) ||
                     c.getName().equalsIgnoreCase(target) ||
@@ -36,83 +40,135 @@ public class InspectCommand implements Command {
         }
 
         if (found == null) {
-            System.err.println("Class or file not found: " + target);
-            System.err.println("Use 'list classes' to see available classes");
-            return;
+            // Fall back to prefix and typo matches; a single candidate is shown directly
+            GenericList<ClassInfo> candidates = index.snapshot().getNames().suggestTypes(target, MAX_SUGGESTIONS);
+            if (candidates.size() == 1) {
+                found = candidates.get(0);
+                if (!out.isPlain()) {
+                    out.println("(no exact match for '" + target + "'; showing " + qualifiedName(found) + ")");
+                }
+            } else {
+                System.err.println("Class or file not found: " + target);
+                if (candidates.isEmpty()) {
+                    System.err.println("Use 'list classes' to see available classes");
+                } else {
+                    System.err.println("Did you mean:");
+                    for (int i = 0; i < candidates.size(); i++) {
+                        ClassInfo c = candidates.get(i);
+                        System.err.println("  " + qualifiedName(c) + " (" + c.getFileName() + ")");
+                    }
+                }
+                return;
+            }
         }
 
-        displayClassDetails(found);
+        displayClassDetails(found, out);
     }
 
-    private void displayClassDetails(ClassInfo c) {
-        System.out.println("╔════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                    Class Inspection                            ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
-        System.out.println();
-
-        System.out.println("Class Name:    " + c.getName());
-        System.out.println("Package:       " + c.getPackageName());
-        System.out.println("Full Name:     " + c.getPackageName() + "." + c.getName());
-        System.out.println("File:          " + c.getFilePath());
-        System.out.println();
-
-        System.out.println("═══════════════════════════════════════════════════════════════");
-        System.out.println("                         Statistics");
-        System.out.println("═══════════════════════════════════════════════════════════════");
-        System.out.println("Total Methods: " + c.getMethodCount());
-        System.out.println("Total Fields:  " + c.getFieldCount());
-        System.out.println();
+    private void displayClassDetails(ClassInfo c, Output out) {
+        if (out.isPlain()) {
+            displayMembers(c, out);
+            return;
+        }
+        out.println("╔════════════════════════════════════════════════════════════════╗");
+        out.println("║                    Class Inspection                            ║");
+        out.println("╚════════════════════════════════════════════════════════════════╝");
+        out.println();
+
+        out.println("Class Name:    " + c.getName());
+        out.println("Package:       " + c.getPackageName());
+        out.println("Full Name:     " + c.getPackageName() + "." + c.getName());
+        out.println("File:          " + c.getFilePath());
+        out.println();
+
+        out.println("═══════════════════════════════════════════════════════════════");
+        out.println("                         Statistics");
+        out.println("═══════════════════════════════════════════════════════════════");
+        out.println("Total Methods: " + c.getMethodCount());
+        out.println("Total Fields:  " + c.getFieldCount());
+        out.println();
 
         // List all fields
         if (c.getFieldCount() > 0) {
-            System.out.println("───────────────────────────────────────────────────────────────");
-            System.out.println("Fields (" + c.getFieldCount() + "):");
-            System.out.println("───────────────────────────────────────────────────────────────");
+            out.println("───────────────────────────────────────────────────────────────");
+            out.println("Fields (" + c.getFieldCount() + "):");
+            out.println("───────────────────────────────────────────────────────────────");
             GenericList<FieldInfo> fields = c.getFields();
             for (int i = 0; i < fields.size(); i++) {
+                if (!out.row()) {
+                    continue;
+                }
                 FieldInfo f = fields.get(i);
-                System.out.printf("  %2d. %-30s : %s\n", (i + 1), f.getName(), f.getType());
+                out.print("  ").right(i + 1, 2).print(". ").left(f.getName(), 30).print(" : ").println(f.getType());
             }
-            System.out.println();
+            out.println();
         }
 
         // List all methods
         if (c.getMethodCount() > 0) {
-            System.out.println("───────────────────────────────────────────────────────────────");
-            System.out.println("Methods (" + c.getMethodCount() + "):");
-            System.out.println("───────────────────────────────────────────────────────────────");
+            out.println("───────────────────────────────────────────────────────────────");
+            out.println("Methods (" + c.getMethodCount() + "):");
+            out.println("───────────────────────────────────────────────────────────────");
             GenericList<MethodInfo> methods = c.getMethods();
+            SymbolTable symbols = SymbolTable.global();
 
             int totalLoc = 0;
             for (int i = 0; i < methods.size(); i++) {
                 MethodInfo m = methods.get(i);
                 totalLoc += m.getLoc();
+                if (!out.row()) {
+                    continue;
+                }
 
-                System.out.printf("  %2d. %s %s(", (i + 1), m.getReturnType(), m.getName());
-
-                GenericList<String> params = m.getParameters();
-                for (int j = 0; j < params.size(); j++) {
-                    System.out.print(params.get(j));
-                    if (j < params.size() - 1)
-                        System.out.print(", ");
+                out.print("  ").right(i + 1, 2).print(". ").print(m.getReturnType()).print(' ').print(m.getName())
+                        .print('(');
+                for (int j = 0; j < m.getParameterCount(); j++) {
+                    if (j > 0)
+                        out.print(", ");
+                    out.print(symbols.get(m.getParameterTypeId(j)));
                 }
-                System.out.println(")");
-                System.out.printf("      LOC: %d, Line: %d\n", m.getLoc(), m.getStartLine());
+                out.println(")");
+                out.print("      LOC: ").print(m.getLoc()).print(", Line: ").print(m.getStartLine())
+                        .print(", Complexity: ").print(m.getComplexity()).print(", Nesting: ")
+                        .print(m.getMaxNesting()).println();
             }
-            System.out.println();
-            System.out.println("Total Lines of Code (Methods): " + totalLoc);
+            out.println();
+            out.println("Total Lines of Code (Methods): " + totalLoc);
             if (c.getMethodCount() > 0) {
-                System.out.printf("Average LOC per Method: %.1f\n", (double) totalLoc / c.getMethodCount());
+                out.println(String.format("Average LOC per Method: %.1f", (double) totalLoc / c.getMethodCount()));
             }
         }
 
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
+        out.println("╚════════════════════════════════════════════════════════════════╝");
+    }
+
+    // One row per member: field, name, type or method, name, return type,
+    // parameters, loc, line, complexity, nesting
+    private void displayMembers(ClassInfo c, Output out) {
+        GenericList<FieldInfo> fields = c.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            if (out.row()) {
+                FieldInfo f = fields.get(i);
+                out.cell("field").cell(f.getName()).cell(f.getType()).endRow();
+            }
+        }
+        GenericList<MethodInfo> methods = c.getMethods();
+        SymbolTable symbols = SymbolTable.global();
+        for (int i = 0; i < methods.size(); i++) {
+            if (!out.row()) {
+                continue;
+            }
+            MethodInfo m = methods.get(i);
+            StringBuilder params = new StringBuilder();
+            for (int j = 0; j < m.getParameterCount(); j++) {
+                params.append(j > 0 ? ", " : "").append(symbols.get(m.getParameterTypeId(j)));
+            }
+            out.cell("method").cell(m.getName()).cell(m.getReturnType()).cell(params.toString()).cell(m.getLoc())
+                    .cell(m.getStartLine()).cell(m.getComplexity()).cell(m.getMaxNesting()).endRow();
+        }
     }
 
-    private String extractFileName(String filePath) {
-        if (filePath == null)
-            return "Unknown";
-        int lastSeparator = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\'));
-        return lastSeparator >= 0 ? filePath.substring(lastSeparator + 1) : filePath;
+    private String qualifiedName(ClassInfo c) {
+        return c.getPackageName().isEmpty() ? c.getName() : c.getPackageName() + "." + c.getName();
     }
 }
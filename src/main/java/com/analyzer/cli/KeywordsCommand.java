@@ -6,7 +6,6 @@ import com.containers.GenericList;
 import com.containers.PriorityQueueCustom;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,7 +28,7 @@ public class KeywordsCommand implements Command {
     }
 
     @Override
-    public void execute(String[] args, Index index) {
+    public void execute(String[] args, Index index, Output out) {
         int topN = 10;
 
         Map<String, Integer> counts = new HashMap<>();
@@ -50,7 +49,7 @@ public class KeywordsCommand implements Command {
                 continue;
             processedFiles.add(filePath);
 
-            try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            try (BufferedReader reader = index.getContents().reader(filePath)) {
                 String line;
                 while ((line = reader.readLine()) != null) {
                     String[] words = line.split("\\W+");
@@ -61,7 +60,7 @@ public class KeywordsCommand implements Command {
                     }
                 }
             } catch (IOException e) {
-                e.printStackTrace();
+                out.warn("Error reading file: " + filePath);
             }
         }
 
@@ -72,10 +71,10 @@ public class KeywordsCommand implements Command {
             pq.add(new KeywordCount(entry.getKey(), entry.getValue()));
         }
 
-        System.out.println("Top " + topN + " Keywords:");
+        out.println("Top " + topN + " Keywords:");
         for (int i = 0; i < topN && !pq.isEmpty(); i++) {
             KeywordCount kc = pq.remove();
-            System.out.println(kc.keyword + ": " + kc.count);
+            out.println(kc.keyword + ": " + kc.count);
         }
     }
 }
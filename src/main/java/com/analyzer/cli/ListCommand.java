@@ -1,14 +1,15 @@
 package com.analyzer.cli;
 
 import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
 import com.analyzer.model.ClassInfo;
 import com.analyzer.model.MethodInfo;
 import com.analyzer.model.FieldInfo;
-import com.containers.GenericList;
+import com.analyzer.model.SymbolTable;
 
 public class ListCommand implements Command {
     @Override
-    public void execute(String[] args, Index index) {
+    public void execute(String[] args, Index index, Output out) {
         if (args.length == 0) {
             System.err.println("Usage: list <classes|methods|variables|fields>");
             return;
@@ -16,109 +17,159 @@ public class ListCommand implements Command {
 
         String subCommand = args[0];
         if (subCommand.equals("classes")) {
-            listClasses(index);
+            listClasses(index, out);
         } else if (subCommand.equals("methods")) {
-            listMethods(index);
+            listMethods(index, out);
         } else if (subCommand.equals("variables") || subCommand.equals("fields")) {
-            listVariables(index);
+            listVariables(index, out);
         } else {
             System.err.println("Unknown list subcommand: " + subCommand);
             System.err.println("Available: classes, methods, variables, fields");
         }
     }
 
-    private void listClasses(Index index) {
-        GenericList<ClassInfo> classes = index.getClasses();
-        System.out.println("╔════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                    Classes Found: " + classes.size() + "                         ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
-        System.out.println();
-
-        for (int i = 0; i < classes.size(); i++) {
-            ClassInfo c = classes.get(i);
-            System.out.printf("%3d. %-40s [File: %s]\n",
-                    (i + 1),
-                    c.getPackageName() + "." + c.getName(),
-                    extractFileName(c.getFilePath()));
-            System.out.printf("     Methods: %d, Fields: %d\n",
-                    c.getMethodCount(),
-                    c.getFieldCount());
+    // Only the classes with a row in the window are read from the snapshot,
+    // so a mapped index builds no more model objects than it prints
+
+    private void listClasses(Index index, Output out) {
+        IndexSnapshot snapshot = index.snapshot();
+        int classCount = snapshot.getClassCount();
+        if (!out.isPlain()) {
+            out.println("╔════════════════════════════════════════════════════════════════╗");
+            out.println("║                    Classes Found: " + classCount + "                         ║");
+            out.println("╚════════════════════════════════════════════════════════════════╝");
+            out.println();
+        }
+
+        for (int i = 0; i < classCount; i++) {
+            if (!out.row()) {
+                continue;
+            }
+            ClassInfo c = snapshot.getClass(i);
+            if (out.isPlain()) {
+                out.cell(c.getPackageName() + "." + c.getName()).cell(c.getFilePath())
+                        .cell(c.getMethodCount()).cell(c.getFieldCount()).endRow();
+                continue;
+            }
+            out.right(i + 1, 3).print(". ").left(c.getPackageName() + "." + c.getName(), 40)
+                    .print(" [File: ").print(c.getFileName()).println("]");
+            out.print("     Methods: ").print(c.getMethodCount())
+                    .print(", Fields: ").print(c.getFieldCount()).println();
+        }
+        if (!out.isPlain()) {
+            out.println();
         }
-        System.out.println();
     }
 
-    private void listMethods(Index index) {
-        GenericList<ClassInfo> classes = index.getClasses();
+    private void listMethods(Index index, Output out) {
+        IndexSnapshot snapshot = index.snapshot();
+        int[] methodCounts = snapshot.getColumns().classMethodCounts();
+        SymbolTable symbols = SymbolTable.global();
         int totalMethods = 0;
 
-        System.out.println("╔════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                    Methods Listing                             ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
-        System.out.println();
-
-        for (int i = 0; i < classes.size(); i++) {
-            ClassInfo c = classes.get(i);
-            GenericList<MethodInfo> methods = c.getMethods();
-
-            if (methods.size() > 0) {
-                System.out.println("Class: " + c.getPackageName() + "." + c.getName());
-                System.out.println("File: " + extractFileName(c.getFilePath()));
+        if (!out.isPlain()) {
+            out.println("╔════════════════════════════════════════════════════════════════╗");
+            out.println("║                    Methods Listing                             ║");
+            out.println("╚════════════════════════════════════════════════════════════════╝");
+            out.println();
+        }
 
-                for (int j = 0; j < methods.size(); j++) {
-                    MethodInfo m = methods.get(j);
-                    System.out.printf("  - %s %s(", m.getReturnType(), m.getName());
+        for (int i = 0; i < methodCounts.length; i++) {
+            ClassInfo c = null;
+            String qualifiedName = null;
+            // The class heading goes before its first method in the window
+            boolean headed = false;
 
-                    GenericList<String> params = m.getParameters();
-                    for (int k = 0; k < params.size(); k++) {
-                        System.out.print(params.get(k));
-                        if (k < params.size() - 1)
-                            System.out.print(", ");
+            for (int j = 0; j < methodCounts[i]; j++) {
+                totalMethods++;
+                if (!out.row()) {
+                    continue;
+                }
+                if (c == null) {
+                    c = snapshot.getClass(i);
+                    qualifiedName = c.getPackageName() + "." + c.getName();
+                }
+                MethodInfo m = c.getMethods().get(j);
+                if (out.isPlain()) {
+                    out.cell(qualifiedName).cell(m.getName()).cell(m.getReturnType());
+                    StringBuilder params = new StringBuilder();
+                    for (int k = 0; k < m.getParameterCount(); k++) {
+                        params.append(k > 0 ? ", " : "").append(symbols.get(m.getParameterTypeId(k)));
                     }
-                    System.out.printf(") [LOC: %d, Line: %d]\n", m.getLoc(), m.getStartLine());
-                    totalMethods++;
+                    out.cell(params.toString()).cell(c.getFilePath()).cell(m.getLoc()).cell(m.getStartLine())
+                            .endRow();
+                    continue;
+                }
+                if (!headed) {
+                    out.print("Class: ").println(qualifiedName);
+                    out.print("File: ").println(c.getFileName());
+                    headed = true;
+                }
+                out.print("  - ").print(m.getReturnType()).print(' ').print(m.getName()).print('(');
+                for (int k = 0; k < m.getParameterCount(); k++) {
+                    if (k > 0)
+                        out.print(", ");
+                    out.print(symbols.get(m.getParameterTypeId(k)));
                 }
-                System.out.println();
+                out.print(") [LOC: ").print(m.getLoc()).print(", Line: ").print(m.getStartLine()).println("]");
+            }
+            if (headed) {
+                out.println();
             }
         }
 
-        System.out.println("Total methods found: " + totalMethods);
-        System.out.println();
+        if (!out.isPlain()) {
+            out.println("Total methods found: " + totalMethods);
+            out.println();
+        }
     }
 
-    private void listVariables(Index index) {
-        GenericList<ClassInfo> classes = index.getClasses();
+    private void listVariables(Index index, Output out) {
+        IndexSnapshot snapshot = index.snapshot();
+        int[] fieldCounts = snapshot.getColumns().classFieldCounts();
         int totalFields = 0;
 
-        System.out.println("╔════════════════════════════════════════════════════════════════╗");
-        System.out.println("║                    Variables/Fields Listing                    ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
-        System.out.println();
-
-        for (int i = 0; i < classes.size(); i++) {
-            ClassInfo c = classes.get(i);
-            GenericList<FieldInfo> fields = c.getFields();
+        if (!out.isPlain()) {
+            out.println("╔════════════════════════════════════════════════════════════════╗");
+            out.println("║                    Variables/Fields Listing                    ║");
+            out.println("╚════════════════════════════════════════════════════════════════╝");
+            out.println();
+        }
 
-            if (fields.size() > 0) {
-                System.out.println("Class: " + c.getPackageName() + "." + c.getName());
-                System.out.println("File: " + extractFileName(c.getFilePath()));
+        for (int i = 0; i < fieldCounts.length; i++) {
+            ClassInfo c = null;
+            String qualifiedName = null;
+            boolean headed = false;
 
-                for (int j = 0; j < fields.size(); j++) {
-                    FieldInfo f = fields.get(j);
-                    System.out.printf("  - %s : %s\n", f.getName(), f.getType());
-                    totalFields++;
+            for (int j = 0; j < fieldCounts[i]; j++) {
+                totalFields++;
+                if (!out.row()) {
+                    continue;
+                }
+                if (c == null) {
+                    c = snapshot.getClass(i);
+                    qualifiedName = c.getPackageName() + "." + c.getName();
+                }
+                FieldInfo f = c.getFields().get(j);
+                if (out.isPlain()) {
+                    out.cell(qualifiedName).cell(f.getName()).cell(f.getType()).cell(c.getFilePath()).endRow();
+                    continue;
                 }
-                System.out.println();
+                if (!headed) {
+                    out.print("Class: ").println(qualifiedName);
+                    out.print("File: ").println(c.getFileName());
+                    headed = true;
+                }
+                out.print("  - ").print(f.getName()).print(" : ").println(f.getType());
+            }
+            if (headed) {
+                out.println();
             }
         }
 
-        System.out.println("Total fields found: " + totalFields);
-        System.out.println();
-    }
-
-    private String extractFileName(String filePath) {
-        if (filePath == null)
-            return "Unknown";
-        int lastSeparator = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\'));
-        return lastSeparator >= 0 ? filePath.substring(lastSeparator + 1) : filePath;
+        if (!out.isPlain()) {
+            out.println("Total fields found: " + totalFields);
+            out.println();
+        }
     }
 }
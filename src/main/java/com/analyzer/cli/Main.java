@@ -1,18 +1,32 @@
 package com.analyzer.cli;
 
 import com.analyzer.core.Index;
+import com.analyzer.core.ParseFailure;
 import com.analyzer.core.Parser;
 import com.analyzer.core.Scanner;
 import com.analyzer.model.ClassInfo;
 import com.containers.GenericList;
+import com.github.javaparser.ParserConfiguration;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class Main {
     private static final Map<String, Command> commands = new HashMap<>();
+    // Options read here and in createParser that take a value; --decl-only
+    // is the only indexing flag
+    private static final Set<String> INDEXING_OPTIONS = new HashSet<>(Arrays.asList("--path", "--index",
+            "--parse-report", "--max-file-size", "--parse-timeout", "--threads", "--language-level"));
 
     static {
         commands.put("analyze", new AnalyzeCommand());
@@ -27,6 +41,14 @@ public class Main {
         commands.put("export", new ExportCommand());
         commands.put("inspect", new InspectCommand());
         commands.put("top", new TopCommand());
+        commands.put("callers", new CallersCommand());
+        commands.put("callees", new CalleesCommand());
+        commands.put("usages", new UsagesCommand());
+        commands.put("deps", new DepsCommand());
+        commands.put("duplicates", new DuplicatesCommand());
+        commands.put("complete", new CompleteCommand());
+        commands.put("search", new SearchCommand());
+        commands.put("query", new QueryCommand());
         commands.put("help", null); // Help is handled separately
     }
 
@@ -45,30 +67,182 @@ public class Main {
         String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
 
         String path = ".";
-        for (int i = 0; i < commandArgs.length; i++) {
+        String indexFile = null;
+        String reportFile = null;
+        int end = optionsEnd(commandArgs);
+        for (int i = 0; i < end; i++) {
             if (commandArgs[i].equals("--path") && i + 1 < commandArgs.length) {
                 path = commandArgs[i + 1];
+            } else if (commandArgs[i].equals("--index") && i + 1 < commandArgs.length) {
+                indexFile = commandArgs[i + 1];
+            } else if (commandArgs[i].equals("--parse-report") && i + 1 < commandArgs.length) {
+                reportFile = commandArgs[i + 1];
             }
         }
 
-        System.out.println("Scanning and indexing...");
-        Scanner scanner = new Scanner();
-        GenericList<File> files = scanner.scan(path);
-        Parser parser = new Parser();
-        GenericList<ClassInfo> classes = parser.parse(files);
-        Index index = new Index();
-        index.setClasses(classes);
-        System.out.println("Index built. Found " + classes.size() + " classes.");
+        // With --plain, stdout carries only the rows
+        PrintStream status = Arrays.asList(commandArgs).subList(0, end).contains("--plain") ? System.err : System.out;
+        Parser parser = createParser(commandArgs);
+        Index index;
+        if (indexFile != null) {
+            try {
+                index = Index.open(Paths.get(indexFile));
+            } catch (IOException e) {
+                System.err.println("Could not open index file " + indexFile + ": " + e.getMessage());
+                return;
+            }
+            status.println("Index loaded from " + indexFile + ". Found "
+                    + index.snapshot().getClassCount() + " classes.");
+        } else {
+            status.println("Scanning and indexing...");
+            Scanner scanner = new Scanner();
+            GenericList<File> files = scanner.scan(path);
+            GenericList<ClassInfo> classes = parser.parse(files);
+            index = new Index();
+            index.setClasses(classes, parser.getMode());
+            status.println("Index built. Found " + classes.size() + " classes.");
+            reportFailures(parser.getFailures(), reportFile);
+        }
+        // Commands needing method bodies re-parse a --decl-only index with it
+        index.setParser(parser);
 
         Command command = commands.get(commandName);
         if (command != null) {
-            command.execute(commandArgs, index);
+            // The REPL's watcher re-indexes with the same options, so it
+            // gets them all; other commands only see their own
+            String[] ownArgs = commandName.equals("repl") ? commandArgs : withoutIndexingOptions(commandArgs);
+            command.execute(ownArgs, index);
         } else {
             System.err.println("Unknown command: " + commandName);
             printHelp();
         }
     }
 
+    /**
+     * Where the options in args end: the position of a bare "--", after which
+     * every argument is an operand even if it starts with "--", or the
+     * length of args.
+     */
+    static int optionsEnd(String[] args) {
+        int end = Arrays.asList(args).indexOf("--");
+        return end >= 0 ? end : args.length;
+    }
+
+    /**
+     * args without the indexing options and their values, which main() has
+     * already used to build the index.
+     */
+    static String[] withoutIndexingOptions(String[] args) {
+        int end = optionsEnd(args);
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < end; i++) {
+            if (INDEXING_OPTIONS.contains(args[i])) {
+                i++;
+            } else if (!args[i].equals("--decl-only")) {
+                kept.add(args[i]);
+            }
+        }
+        kept.addAll(Arrays.asList(args).subList(end, args.length));
+        return kept.toArray(new String[0]);
+    }
+
+    /**
+     * For commands that use method bodies: index itself if it has them. If
+     * it was built with --decl-only, a pinned copy whose files are parsed
+     * again in full, once per version, with the same parser settings.
+     */
+    static Index withBodies(Index index) {
+        if (index.snapshot().getParseMode() == Parser.Mode.FULL) {
+            return index;
+        }
+        return index.pinWithBodies();
+    }
+
+    /**
+     * Builds a Parser from the indexing options: --decl-only,
+     * --max-file-size <bytes[k|m]>, --parse-timeout <ms>, --threads <N> and
+     * --language-level <level>.
+     */
+    static Parser createParser(String[] args) {
+        Parser.Mode mode = Parser.Mode.FULL;
+        long maxFileSize = 0;
+        long timeoutMillis = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        ParserConfiguration.LanguageLevel level = null;
+        int end = optionsEnd(args);
+        for (int i = 0; i < end; i++) {
+            try {
+                if (args[i].equals("--decl-only")) {
+                    mode = Parser.Mode.DECLARATIONS;
+                } else if (args[i].equals("--max-file-size") && i + 1 < args.length) {
+                    maxFileSize = parseSize(args[i + 1]);
+                } else if (args[i].equals("--parse-timeout") && i + 1 < args.length) {
+                    timeoutMillis = Long.parseLong(args[i + 1]);
+                } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[i + 1]);
+                } else if (args[i].equals("--language-level") && i + 1 < args.length) {
+                    level = parseLanguageLevel(args[i + 1]);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid value for " + args[i] + ": " + args[i + 1]);
+            }
+        }
+        Parser parser = new Parser(mode);
+        parser.setMaxFileSize(maxFileSize);
+        parser.setTimeoutMillis(timeoutMillis);
+        parser.setThreads(threads);
+        if (level != null) {
+            parser.setLanguageLevel(level);
+        }
+        return parser;
+    }
+
+    // Accepts "17", "1.8", "JAVA_17" or a named level such as "raw"
+    private static ParserConfiguration.LanguageLevel parseLanguageLevel(String value) {
+        String v = value.trim().toUpperCase();
+        // An empty value falls through to valueOf, which rejects it
+        if (!v.isEmpty() && Character.isDigit(v.charAt(0))) {
+            v = "JAVA_" + (v.startsWith("1.") && !v.equals("1.0") && !v.equals("1.1")
+                    && !v.equals("1.2") && !v.equals("1.3") && !v.equals("1.4") ? v.substring(2) : v.replace('.', '_'));
+        }
+        return ParserConfiguration.LanguageLevel.valueOf(v);
+    }
+
+    static long parseSize(String value) {
+        String v = value.trim().toLowerCase();
+        long unit = 1;
+        if (v.endsWith("k")) {
+            unit = 1024;
+        } else if (v.endsWith("m")) {
+            unit = 1024 * 1024;
+        }
+        if (unit > 1) {
+            v = v.substring(0, v.length() - 1);
+        }
+        return Long.parseLong(v) * unit;
+    }
+
+    private static void reportFailures(GenericList<ParseFailure> failures, String reportFile) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        System.err.println(ParseFailure.summarize(failures));
+
+        if (reportFile == null) {
+            System.err.println("Use --parse-report <file> to write the list of skipped files.");
+            return;
+        }
+        try (FileWriter writer = new FileWriter(reportFile)) {
+            for (int i = 0; i < failures.size(); i++) {
+                writer.write(failures.get(i).toString());
+                writer.write(System.lineSeparator());
+            }
+            System.err.println("Parse failures written to " + reportFile);
+        } catch (IOException e) {
+            System.err.println("Could not write parse report: " + e.getMessage());
+        }
+    }
+
     private static void printHelp() {
         System.out.println("╔══════════════════════════════════════════════════════════════╗");
         System.out.println("║           Codebase Analyzer - Help                           ║");
@@ -85,35 +259,96 @@ public class Main {
         System.out.println("      Scans and indexes Java files in the specified directory.");
         System.out.println("      Default path is current directory (.)");
         System.out.println("      Example: analyze --path ./src");
+        System.out.println("      Any command accepts --index <file> to open a saved index");
+        System.out.println("      (see export --format idx) instead of scanning.");
+        System.out.println("      --decl-only skips method bodies while parsing: much faster,");
+        System.out.println("      same signatures and LOC, but classes declared inside");
+        System.out.println("      method bodies are not indexed. Commands that need bodies");
+        System.out.println("      parse the files again in full when first run.");
+        System.out.println("      --max-file-size <bytes[k|m]> and --parse-timeout <ms> skip");
+        System.out.println("      oversized or slow files; --parse-report <file> lists every");
+        System.out.println("      skipped file with the reason.");
+        System.out.println("      --threads <N> parses N files in parallel (default: all cores);");
+        System.out.println("      --language-level <level> selects the Java version (default 17).");
         System.out.println();
         System.out.println("  list <type>");
         System.out.println("      Lists classes, methods, or variables from the indexed codebase.");
         System.out.println("      Types: classes | methods | variables | fields");
         System.out.println("      Example: list classes");
         System.out.println("      Example: list methods");
+        System.out.println("      list and the other commands that list rows (grep, inspect, top,");
+        System.out.println("      callers, callees, usages, deps, duplicates, search, query) take");
+        System.out.println("      --offset <N>, --limit <N> and --page <N> (pages of --limit rows,");
+        System.out.println("      default 50) to show a window of the rows, and --plain for");
+        System.out.println("      tab-separated rows without banners.");
+        System.out.println("      Example: list methods --page 2 --plain");
         System.out.println();
-        System.out.println("  grep <pattern>");
+        System.out.println("  grep <pattern> [--max-count <N>] [-l] [-A <N>] [-B <N>] [-C <N>]");
         System.out.println("      Search for identifiers or regex patterns in the codebase.");
+        System.out.println("      --max-count stops each file after N matches, -l prints only file");
+        System.out.println("      names, -A/-B/-C show lines of context. Results stream in index order");
+        System.out.println("      and the scan stops once --limit matches are shown.");
         System.out.println("      Example: grep \"ArrayList\"");
+        System.out.println("      Example: grep modCount -C 2 --limit 20");
         System.out.println();
         System.out.println("  inspect <class-name-or-file>");
         System.out.println("      Show detailed information about a specific class or file.");
+        System.out.println("      Unknown names get prefix and typo suggestions.");
         System.out.println("      Example: inspect Main");
         System.out.println("      Example: inspect Main.java");
         System.out.println();
         System.out.println("  top <N> <metric>");
-        System.out.println("      Show top N classes by a specific metric.");
-        System.out.println("      Metrics: methods | fields | variables");
+        System.out.println("      Show top N classes by a specific metric, or top N methods");
+        System.out.println("      by cyclomatic complexity.");
+        System.out.println("      Metrics: methods | fields | variables | complexity");
         System.out.println("      Example: top 5 methods");
         System.out.println("      Example: top 10 fields");
+        System.out.println("      Example: top 10 complexity");
+        System.out.println();
+        System.out.println("  callers <method> | callees <method> | usages <type>");
+        System.out.println("      Who calls a method, what a method calls, and which classes");
+        System.out.println("      refer to a type. Calls are matched by method name.");
+        System.out.println("      Example: callers parse");
+        System.out.println("      Example: callees Parser.parse");
+        System.out.println("      Example: usages GenericList");
+        System.out.println();
+        System.out.println("  deps [--top <N>] [--layers <pkg,pkg,...>]");
+        System.out.println("      Package dependency graph from imports: cycles, fan-in and");
+        System.out.println("      fan-out, and dependencies that point up the given layers");
+        System.out.println("      (listed from the top layer down).");
+        System.out.println("      Example: deps --layers com.analyzer.cli,com.analyzer.core,com.analyzer.model");
+        System.out.println();
+        System.out.println("  duplicates [--min-tokens <N>] [--top <N>]");
+        System.out.println("      Find copy-pasted methods, also when names and literals were");
+        System.out.println("      changed. Reports clone groups of at least N tokens (default 50).");
+        System.out.println("      Example: duplicates --min-tokens 80");
+        System.out.println();
+        System.out.println("  search <terms...> [--top <N>] [--classes | --methods]");
+        System.out.println("      Rank classes and methods by relevance (BM25) to the terms,");
+        System.out.println("      matched against split identifiers and comments.");
+        System.out.println("      Example: search parse file --top 5");
+        System.out.println();
+        System.out.println("  query \"[explain] <methods|classes> [where ...] [order by <col> [desc]] [limit <N>]\"");
+        System.out.println("      Filter and rank rows by their metrics; and, or, not, =, !=, <,");
+        System.out.println("      <=, >, >= and like on names. explain also prints the plan.");
+        System.out.println("      Example: query \"methods where loc > 50 and params >= 4 order by loc desc limit 20\"");
+        System.out.println();
+        System.out.println("  complete <prefix> [--limit <N>]");
+        System.out.println("      Class, file, method and field names starting with prefix,");
+        System.out.println("      ignoring case; with none, class, file and method names a typo away.");
+        System.out.println("      In the REPL, end a line with Tab to complete.");
+        System.out.println("      Example: complete Pars");
         System.out.println();
         System.out.println("  keywords [--top <N>]");
         System.out.println("      Count and list top-N keywords in the codebase.");
         System.out.println("      Example: keywords --top 10");
         System.out.println();
-        System.out.println("  sort-by-keyword <keyword>");
-        System.out.println("      Sort files by the count of a specific keyword.");
+        System.out.println("  sort-by-keyword <keyword> [<keyword>...]");
+        System.out.println("      Sort files by the count of a keyword, or of several combined.");
         System.out.println("      Example: sort-by-keyword \"TODO\"");
+        System.out.println("      Example: sort-by-keyword TODO FIXME XXX");
+        System.out.println("      After --, words are keywords even if they start with --.");
+        System.out.println("      Example: sort-by-keyword -- --verbose");
         System.out.println();
         System.out.println("  sort-by-class-count");
         System.out.println("      Sort packages by the number of classes they contain.");
@@ -127,14 +362,30 @@ public class Main {
         System.out.println("      Show detailed metrics for a specific file.");
         System.out.println("      Example: metrics Main.java");
         System.out.println();
-        System.out.println("  export [--format <json|csv>] [--output <file>]");
-        System.out.println("      Export analysis results to JSON or CSV format.");
-        System.out.println("      Example: export --format json --output results.json");
+        System.out.println("  export [--format <json|ndjson|csv|idx|bin>] [--out <file>] [--pretty]");
+        System.out.println("         [--compress <none|gzip|deflate>]");
+        System.out.println("  export --tables <classes,methods,fields> [--shards <N>] [--out <directory>]");
+        System.out.println("      Export analysis results to JSON, NDJSON or CSV format.");
+        System.out.println("      JSON is compact unless --pretty; ndjson writes one class per line.");
+        System.out.println("      idx writes a memory-mappable index file for --index; bin a compact");
+        System.out.println("      dump (optionally compressed) that --index also reloads.");
+        System.out.println("      --tables writes one CSV per table (per method, per field) into a");
+        System.out.println("      directory, each split into N shards written in parallel, plus a");
+        System.out.println("      manifest.json.");
+        System.out.println("      Example: export --format json --out results.json");
         System.out.println();
-        System.out.println("  repl");
+        System.out.println("  repl [--path <directory>] [--watch] [--content-cache <bytes[k|m]>]");
+        System.out.println("       [--content-cache-raw] [--result-cache <bytes[k|m]>]");
         System.out.println("      Start interactive REPL mode with command history.");
         System.out.println("      Type commands directly and 'exit' to quit.");
-        System.out.println("      Example: repl");
+        System.out.println("      --watch re-indexes changed files in the background.");
+        System.out.println("      --content-cache keeps up to that much compressed source text in");
+        System.out.println("      memory for grep, keywords and sort-by-keyword (64m by default,");
+        System.out.println("      0 to turn it off). --content-cache-raw stores it uncompressed,");
+        System.out.println("      faster to read but about three times larger.");
+        System.out.println("      --result-cache keeps the output of repeated commands while the");
+        System.out.println("      index and files are unchanged (16m by default, 0 to turn it off).");
+        System.out.println("      Example: repl --path ./src --watch");
         System.out.println();
         System.out.println("  help");
         System.out.println("      Show this help message.");
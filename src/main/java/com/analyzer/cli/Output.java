@@ -0,0 +1,365 @@
+package com.analyzer.cli;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Where commands write their listings. Unlike System.out it is neither
+ * synchronized nor flushed per line: text collects in a 64 KB buffer that is
+ * written to standard output when full and when the command is done, so a
+ * listing of a million rows costs about as much as writing the bytes.
+ *
+ * A listing is a sequence of rows, each announced with {@link #row()}. The
+ * --offset, --limit and --page options pick a window of them; rows outside
+ * it are counted but not written, and a footer says which rows were shown.
+ * --plain drops banners and alignment and writes each row as tab-separated
+ * cells, for scripts.
+ *
+ * Problems found along the way go to standard error through
+ * {@link #warn(String)}, which also marks the output as incomplete.
+ *
+ * Not thread-safe: one command writes to one Output. A write error such as
+ * a closed pipe is remembered rather than thrown, and makes
+ * {@link #isFull()} true so long loops stop.
+ */
+public final class Output implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    // The options read by to(); each takes a value except --plain
+    static final Set<String> OPTIONS_WITH_VALUE = new HashSet<>(Arrays.asList("--offset", "--limit", "--page"));
+
+    private final Writer out;
+    private final int offset;
+    private final int limit;
+    private final boolean plain;
+    private final char[] digits = new char[11];
+    private int rows;
+    private boolean firstCell = true;
+    private boolean truncated;
+    private boolean error;
+    private boolean warned;
+    private boolean timed = true;
+
+    Output(Writer out, int offset, int limit, boolean plain) {
+        this.out = out;
+        this.offset = offset;
+        this.limit = limit;
+        this.plain = plain;
+    }
+
+    /**
+     * Standard output, with the window and mode given by --offset <N>,
+     * --limit <N>, --page <N> (pages of --limit rows, 50 by default) and
+     * --plain in args.
+     */
+    public static Output console(String[] args) {
+        // Anything already printed through System.out must come first
+        System.out.flush();
+        return to(new FileOutputStream(FileDescriptor.out), args);
+    }
+
+    /**
+     * Output written to stream in the console's encoding, with the window
+     * and mode given in args as for {@link #console(String[])}. Closing it
+     * flushes stream but leaves it open.
+     */
+    public static Output to(OutputStream stream, String[] args) {
+        int offset = 0;
+        int limit = -1;
+        int page = 0;
+        boolean plain = false;
+        boolean invalid = false;
+        int end = Main.optionsEnd(args);
+        for (int i = 0; i < end; i++) {
+            try {
+                if (args[i].equals("--plain")) {
+                    plain = true;
+                } else if (args[i].equals("--offset") && i + 1 < args.length) {
+                    offset = nonNegative(args[i + 1]);
+                } else if (args[i].equals("--limit") && i + 1 < args.length) {
+                    limit = nonNegative(args[i + 1]);
+                } else if (args[i].equals("--page") && i + 1 < args.length) {
+                    page = nonNegative(args[i + 1]);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid value for " + args[i] + ": " + args[i + 1]);
+                invalid = true;
+            }
+        }
+        if (page > 0) {
+            if (limit < 0) {
+                limit = DEFAULT_PAGE_SIZE;
+            }
+            offset = (page - 1) * limit;
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, consoleCharset()), BUFFER_SIZE);
+        Output output = new Output(writer, offset, limit, plain);
+        output.warned = invalid;
+        return output;
+    }
+
+    // The encoding System.out uses: the console's where the JDK reports one
+    static Charset consoleCharset() {
+        for (String property : new String[] { "stdout.encoding", "sun.stdout.encoding" }) {
+            String name = System.getProperty(property);
+            if (name != null && Charset.isSupported(name)) {
+                return Charset.forName(name);
+            }
+        }
+        return Charset.defaultCharset();
+    }
+
+    private static int nonNegative(String text) {
+        int value = Integer.parseInt(text);
+        if (value < 0) {
+            throw new IllegalArgumentException(text);
+        }
+        return value;
+    }
+
+    /**
+     * Reports a problem, such as a file that could not be read, on standard
+     * error so it stays apart from the rows.
+     */
+    public void warn(String message) {
+        warned = true;
+        System.err.println(message);
+    }
+
+    /**
+     * True if anything was reported with warn(), or an option of this
+     * Output had an invalid value: the rows may be incomplete.
+     */
+    boolean hasWarnings() {
+        return warned;
+    }
+
+    /**
+     * Whether to write how long the command took. Output kept for replay is
+     * untimed, since a saved timing would be stale.
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+
+    Output untimed() {
+        timed = false;
+        return this;
+    }
+
+    /**
+     * True in --plain mode: skip banners and write rows as cells.
+     */
+    public boolean isPlain() {
+        return plain;
+    }
+
+    /**
+     * Counts the next row of the listing and says whether it falls in the
+     * window, i.e. whether to write it.
+     */
+    public boolean row() {
+        int row = rows++;
+        return row >= offset && (limit < 0 || row < offset + limit) && !error;
+    }
+
+    /**
+     * True once no further row would be written, so a loop whose remaining
+     * rows are expensive to produce can stop. The footer then cannot count
+     * the rows it never saw.
+     */
+    public boolean isFull() {
+        return error || (limit >= 0 && rows >= offset + limit);
+    }
+
+    /**
+     * Records that the command stopped announcing rows once the window was
+     * full, so the footer does not present the rows seen as a total.
+     */
+    public void truncate() {
+        truncated = true;
+    }
+
+    /**
+     * Rows announced so far, written or not.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    public Output print(String text) {
+        if (!error) {
+            try {
+                out.write(text == null ? "null" : text);
+            } catch (IOException e) {
+                error = true;
+            }
+        }
+        return this;
+    }
+
+    public Output print(char c) {
+        if (!error) {
+            try {
+                out.write(c);
+            } catch (IOException e) {
+                error = true;
+            }
+        }
+        return this;
+    }
+
+    public Output print(int value) {
+        int n = digits.length;
+        long v = Math.abs((long) value);
+        do {
+            digits[--n] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v > 0);
+        if (value < 0) {
+            digits[--n] = '-';
+        }
+        if (!error) {
+            try {
+                out.write(digits, n, digits.length - n);
+            } catch (IOException e) {
+                error = true;
+            }
+        }
+        return this;
+    }
+
+    public Output println(String text) {
+        return print(text).print('\n');
+    }
+
+    public Output println() {
+        return print('\n');
+    }
+
+    /**
+     * text padded with spaces on the right to width, like %-<width>s.
+     */
+    public Output left(String text, int width) {
+        print(text);
+        return spaces(width - (text == null ? 4 : text.length()));
+    }
+
+    /**
+     * value padded with spaces on the left to width, like %<width>d.
+     */
+    public Output right(int value, int width) {
+        int length = 1;
+        for (long v = Math.abs((long) value); v >= 10; v /= 10) {
+            length++;
+        }
+        return spaces(width - length - (value < 0 ? 1 : 0)).print(value);
+    }
+
+    private Output spaces(int count) {
+        for (int i = 0; i < count; i++) {
+            print(' ');
+        }
+        return this;
+    }
+
+    /**
+     * Next cell of a --plain row. Tabs, line breaks and backslashes in text
+     * are escaped as \t, \n, \r and \\ so every row stays one line.
+     */
+    public Output cell(String text) {
+        separate();
+        if (text == null) {
+            return this;
+        }
+        if (!needsEscape(text)) {
+            return print(text);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\t':
+                    print("\\t");
+                    break;
+                case '\n':
+                    print("\\n");
+                    break;
+                case '\r':
+                    print("\\r");
+                    break;
+                case '\\':
+                    print("\\\\");
+                    break;
+                default:
+                    print(c);
+            }
+        }
+        return this;
+    }
+
+    private static boolean needsEscape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\t' || c == '\n' || c == '\r' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Output cell(int value) {
+        separate();
+        return print(value);
+    }
+
+    /**
+     * Ends a --plain row.
+     */
+    public Output endRow() {
+        firstCell = true;
+        return println();
+    }
+
+    private void separate() {
+        if (!firstCell) {
+            print('\t');
+        }
+        firstCell = false;
+    }
+
+    public boolean checkError() {
+        return error;
+    }
+
+    /**
+     * Writes a footer saying which rows were shown if the window hid any,
+     * then flushes. Standard output itself stays open.
+     */
+    @Override
+    public void close() {
+        if (!plain && rows > 0 && (offset > 0 || (limit >= 0 && rows > limit) || truncated)) {
+            int first = Math.min(offset, rows);
+            int last = limit < 0 ? rows : Math.min(rows, offset + limit);
+            if (first >= last) {
+                println("(no rows at offset " + offset + "; there are " + rows + ")");
+            } else {
+                String of = truncated ? "" : " of " + rows;
+                println("(rows " + (first + 1) + "-" + last + of + "; use --offset, --limit or --page for more)");
+            }
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            error = true;
+        }
+    }
+}
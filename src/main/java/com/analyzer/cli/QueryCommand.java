@@ -0,0 +1,157 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.core.Parser;
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.SymbolTable;
+import com.analyzer.query.Query;
+import com.analyzer.query.QueryParser;
+import com.analyzer.query.QueryPlan;
+import com.analyzer.query.QueryPlanner;
+import com.analyzer.query.QueryTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QueryCommand implements Command {
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        StringBuilder text = new StringBuilder();
+        int end = Main.optionsEnd(args);
+        for (int i = 0; i < end; i++) {
+            if (Output.OPTIONS_WITH_VALUE.contains(args[i])) {
+                i++;
+            } else if (!args[i].startsWith("--")) {
+                text.append(text.length() > 0 ? " " : "").append(args[i]);
+            }
+        }
+        for (int i = end + 1; i < args.length; i++) {
+            text.append(text.length() > 0 ? " " : "").append(args[i]);
+        }
+        if (text.length() == 0) {
+            System.err.println("Usage: query [explain] <methods|classes> [where <condition>]"
+                    + " [order by <column> [asc|desc]] [limit <N>]");
+            System.err.println("Method columns: loc, params, complexity, nesting, statements, calls, line,"
+                    + " name, class, package");
+            System.err.println("Class columns: methods, fields, name, package");
+            System.err.println("Example: query \"methods where loc > 50 and params >= 4 order by loc desc limit 20\"");
+            System.err.println("Example: query \"classes where name like '*Command' order by methods desc\"");
+            return;
+        }
+
+        IndexSnapshot snapshot = index.snapshot();
+        Query query;
+        QueryPlan plan;
+        try {
+            query = QueryParser.parse(text.toString());
+            plan = QueryPlanner.plan(query, QueryTable.of(query.getSource(), snapshot.getColumns()));
+            // Body columns of a --decl-only index need the full parse
+            if (snapshot.getParseMode() != Parser.Mode.FULL && usesBodies(plan)) {
+                snapshot = Main.withBodies(index).snapshot();
+                plan = QueryPlanner.plan(query, QueryTable.of(query.getSource(), snapshot.getColumns()));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid query: " + e.getMessage());
+            return;
+        }
+        long start = System.nanoTime();
+        QueryPlan.Result result = plan.execute();
+        long micros = (System.nanoTime() - start) / 1000;
+
+        QueryTable table = plan.getTable();
+        ColumnarIndex columns = snapshot.getColumns();
+        // Without bodies, body columns are left out of the default ones
+        boolean bodies = snapshot.getParseMode() == Parser.Mode.FULL;
+        List<QueryTable.Column> shown = new ArrayList<>();
+        for (String name : table.getDefaultColumns()) {
+            if (bodies || !table.column(name).isFromBodies()) {
+                shown.add(table.column(name));
+            }
+        }
+        for (QueryTable.Column column : plan.getColumns()) {
+            if (!column.isText() && !shown.contains(column)) {
+                shown.add(column);
+            }
+        }
+
+        if (!out.isPlain()) {
+            out.println("=== Query: " + text + " ===");
+            for (QueryTable.Column column : shown) {
+                out.print(String.format("%10s ", column.getName()));
+            }
+            out.print(' ').println(table.isMethods() ? "method" : "class");
+        }
+        for (int i = 0; i < result.size(); i++) {
+            if (!out.row()) {
+                continue;
+            }
+            int row = result.row(i);
+            if (out.isPlain()) {
+                for (QueryTable.Column column : shown) {
+                    out.cell(column.format(row));
+                }
+                cells(out, snapshot, columns, table, row).endRow();
+                continue;
+            }
+            for (QueryTable.Column column : shown) {
+                out.print(String.format("%10s ", column.format(row)));
+            }
+            out.print(' ').println(describe(snapshot, columns, table, row));
+        }
+        if (out.isPlain()) {
+            return;
+        }
+        if (result.size() == 0) {
+            out.println("(no rows)");
+        }
+        String took = out.isTimed() ? String.format(" in %.2f ms", micros / 1000.0) : "";
+        out.println(result.size() + " row(s), " + result.getExamined() + " of " + table.getRowCount() + " "
+                + table.getName() + " examined" + took);
+
+        if (query.isExplain()) {
+            out.println();
+            out.println("Plan:");
+            List<String> steps = plan.explain();
+            for (int i = 0; i < steps.size(); i++) {
+                out.print("  ").print(i + 1).print(". ").println(steps.get(i));
+            }
+        }
+    }
+
+    private static boolean usesBodies(QueryPlan plan) {
+        for (QueryTable.Column column : plan.getColumns()) {
+            if (column.isFromBodies()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Only the printed rows are materialized as ClassInfo
+    private String describe(IndexSnapshot snapshot, ColumnarIndex columns, QueryTable table, int row) {
+        if (!table.isMethods()) {
+            ClassInfo c = snapshot.getClass(row);
+            return qualifiedName(c) + " (" + c.getFileName() + ")";
+        }
+        ClassInfo c = snapshot.getClass(columns.methodClasses()[row]);
+        return qualifiedName(c) + "." + SymbolTable.global().get(columns.methodNameIds()[row]) + " ("
+                + c.getFileName() + ":" + columns.methodStartLines()[row] + ")";
+    }
+
+    // The same row as --plain cells: name, file path, and for a method its line
+    private Output cells(Output out, IndexSnapshot snapshot, ColumnarIndex columns, QueryTable table, int row) {
+        if (!table.isMethods()) {
+            ClassInfo c = snapshot.getClass(row);
+            return out.cell(qualifiedName(c)).cell(c.getFilePath());
+        }
+        ClassInfo c = snapshot.getClass(columns.methodClasses()[row]);
+        return out.cell(qualifiedName(c) + "." + SymbolTable.global().get(columns.methodNameIds()[row]))
+                .cell(c.getFilePath()).cell(columns.methodStartLines()[row]);
+    }
+
+    private String qualifiedName(ClassInfo c) {
+        return c.getPackageName().isEmpty() ? c.getName() : c.getPackageName() + "." + c.getName();
+    }
+}
@@ -1,25 +1,119 @@
 package com.analyzer.cli;
 
+import com.analyzer.core.ContentCache;
 import com.analyzer.core.Index;
+import com.analyzer.core.IndexWatcher;
+import com.containers.GenericList;
 import com.containers.Stack;
 
-import java.util.Scanner;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
 
 public class ReplCommand implements Command {
+    private static final String[] COMMANDS = {
+            "aggregate", "analyze", "cache", "callees", "callers", "complete", "deps", "duplicates", "exit", "export",
+            "grep", "help", "history", "inspect", "keywords", "list", "metrics", "query", "search",
+            "sort-by-class-count", "sort-by-keyword", "top", "usages" };
+    private static final int COMPLETION_LIMIT = 20;
+    private static final long DEFAULT_CONTENT_CACHE = 64L * 1024 * 1024;
+    private static final long DEFAULT_RESULT_CACHE = 16L * 1024 * 1024;
+    // Commands hold no state between runs, so one instance of each serves
+    // the whole session
+    private static final Map<String, Command> COMMAND_TABLE = new HashMap<>();
+
+    static {
+        COMMAND_TABLE.put("analyze", new AnalyzeCommand());
+        COMMAND_TABLE.put("list", new ListCommand());
+        COMMAND_TABLE.put("grep", new GrepCommand());
+        COMMAND_TABLE.put("keywords", new KeywordsCommand());
+        COMMAND_TABLE.put("aggregate", new AggregateCommand());
+        COMMAND_TABLE.put("metrics", new MetricsCommand());
+        COMMAND_TABLE.put("export", new ExportCommand());
+        COMMAND_TABLE.put("inspect", new InspectCommand());
+        COMMAND_TABLE.put("top", new TopCommand());
+        COMMAND_TABLE.put("callers", new CallersCommand());
+        COMMAND_TABLE.put("callees", new CalleesCommand());
+        COMMAND_TABLE.put("usages", new UsagesCommand());
+        COMMAND_TABLE.put("deps", new DepsCommand());
+        COMMAND_TABLE.put("duplicates", new DuplicatesCommand());
+        COMMAND_TABLE.put("complete", new CompleteCommand());
+        COMMAND_TABLE.put("search", new SearchCommand());
+        COMMAND_TABLE.put("query", new QueryCommand());
+        COMMAND_TABLE.put("sort-by-keyword", new SortCommand());
+        COMMAND_TABLE.put("sort-by-class-count", new SortCommand());
+    }
+
     @Override
     public void execute(String[] args, Index index) {
+        String path = ".";
+        boolean watch = false;
+        long contentCache = DEFAULT_CONTENT_CACHE;
+        long resultCache = DEFAULT_RESULT_CACHE;
+        boolean compress = true;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--path") && i + 1 < args.length) {
+                path = args[i + 1];
+            } else if (args[i].equals("--watch")) {
+                watch = true;
+            } else if (args[i].equals("--content-cache-raw")) {
+                compress = false;
+            } else if (args[i].equals("--result-cache") && i + 1 < args.length) {
+                try {
+                    resultCache = Main.parseSize(args[i + 1]);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Invalid value for --result-cache: " + args[i + 1]);
+                }
+            } else if (args[i].equals("--content-cache") && i + 1 < args.length) {
+                try {
+                    contentCache = Main.parseSize(args[i + 1]);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Invalid value for --content-cache: " + args[i + 1]);
+                }
+            }
+        }
+        // Text commands reread every file each time; in a session, keep them
+        if (contentCache > 0) {
+            index.setContents(new ContentCache(contentCache, compress));
+        }
+        // Repeated queries on an unchanged index replay their output
+        ResultCache results = new ResultCache(resultCache);
+
+        IndexWatcher watcher = null;
+        if (watch) {
+            try {
+                watcher = new IndexWatcher(index, path, Main.createParser(args));
+                watcher.start();
+                System.out.println("Watching " + path + " for changes.");
+            } catch (IOException e) {
+                System.err.println("Could not start watcher: " + e.getMessage());
+            }
+        }
+
         Scanner scanner = new Scanner(System.in);
         Stack<String> history = new Stack<>();
 
         System.out.println("Entering REPL mode. Type 'exit' to quit.");
 
+        // After a command, the prompt shows how long it took
+        String prompt = "> ";
         while (true) {
-            System.out.print("> ");
+            System.out.print(prompt);
+            prompt = "> ";
             if (!scanner.hasNextLine())
                 break;
 
-            String line = scanner.nextLine().trim();
+            // A line ending in Tab (typed as Tab then Enter) asks for completions
+            // of its last word instead of running it
+            String raw = scanner.nextLine();
+            if (raw.endsWith("\t")) {
+                printCompletions(raw.substring(0, raw.length() - 1).replaceAll("^\\s+", ""), index.pin());
+                continue;
+            }
+
+            String line = raw.trim();
             if (line.isEmpty())
                 continue;
 
@@ -31,6 +125,20 @@ public class ReplCommand implements Command {
                 continue;
             }
 
+            if (line.equals("cache") || line.equals("cache clear")) {
+                if (line.equals("cache clear")) {
+                    index.getContents().clear();
+                    results.clear();
+                    System.out.println("Caches cleared.");
+                    continue;
+                }
+                System.out.println("Result cache: "
+                        + (results.isEnabled() ? results.getStats() : "off (start with --result-cache <size>)"));
+                System.out.println("Content cache: " + (index.getContents().isEnabled() ? index.getContents().getStats()
+                        : "off (start with --content-cache <size>)"));
+                continue;
+            }
+
             if (line.equals("history")) {
 
                 System.out.println("History (last command on top):");
@@ -54,55 +162,56 @@ public class ReplCommand implements Command {
             String cmdName = parts[0];
             String[] cmdArgs = Arrays.copyOfRange(parts, 1, parts.length);
 
-            Command cmd = null;
-            switch (cmdName) {
-                case "analyze":
-                    cmd = new AnalyzeCommand();
-                    break;
-                case "list":
-                    cmd = new ListCommand();
-                    break;
-                case "grep":
-                    cmd = new GrepCommand();
-                    break;
-                case "keywords":
-                    cmd = new KeywordsCommand();
-                    break;
-                case "aggregate":
-                    cmd = new AggregateCommand();
-                    break;
-                case "metrics":
-                    cmd = new MetricsCommand();
-                    break;
-                case "export":
-                    cmd = new ExportCommand();
-                    break;
-                case "inspect":
-                    cmd = new InspectCommand();
-                    break;
-                case "top":
-                    cmd = new TopCommand();
-                    break;
-                case "sort-by-keyword":
-                case "sort-by-class-count":
-                    cmd = new SortCommand();
-                    break;
-                default:
-                    System.out.println("Unknown command: " + cmdName);
-                    System.out.println("Type 'help' for available commands.");
+            Command cmd = COMMAND_TABLE.get(cmdName);
+            if (cmd == null) {
+                System.out.println("Unknown command: " + cmdName);
+                System.out.println("Type 'help' for available commands.");
+                continue;
             }
 
-            if (cmd != null) {
-                try {
-                    cmd.execute(cmdArgs, index);
-                } catch (Exception e) {
-                    System.err.println("Error executing command: " + e.getMessage());
-                    e.printStackTrace();
-                }
+            long start = System.nanoTime();
+            try {
+                boolean replayed = results.run(cmdName, cmdArgs, cmd, index);
+                prompt = "[" + cmdName + " " + formatNanos(System.nanoTime() - start)
+                        + (replayed ? ", cached" : "") + "] > ";
+            } catch (Exception e) {
+                System.err.println("Error executing command: " + e.getMessage());
+                e.printStackTrace();
             }
         }
 
         scanner.close();
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    private static String formatNanos(long nanos) {
+        double millis = nanos / 1e6;
+        return millis < 10 ? String.format("%.1f ms", millis) : Math.round(millis) + " ms";
+    }
+
+    // The first word completes against command names, later words against
+    // class, file, method and field names
+    private void printCompletions(String line, Index index) {
+        String[] parts = line.split("\\s+", -1);
+        String word = parts[parts.length - 1];
+        GenericList<String> candidates = new GenericList<>();
+        if (parts.length == 1) {
+            for (String name : COMMANDS) {
+                if (name.startsWith(word)) {
+                    candidates.add(name);
+                }
+            }
+        } else {
+            candidates = index.snapshot().getNames().complete(word, COMPLETION_LIMIT);
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            System.out.println("  " + candidates.get(i));
+        }
+        if (candidates.isEmpty()) {
+            System.out.println("  (no completions for '" + word + "')");
+        }
     }
 
     private void printReplHelp() {
@@ -116,6 +225,10 @@ public class ReplCommand implements Command {
         System.out.println("  list methods           - List all methods with signatures");
         System.out.println("  list variables         - List all fields/variables");
         System.out.println("  grep <pattern>         - Search for pattern");
+        System.out.println("                           -l, --max-count <N>, -A/-B/-C <N> as in grep");
+        System.out.println("  search <terms>         - Ranked search over names and comments");
+        System.out.println("  query <query>          - Filter and order methods or classes by metrics");
+        System.out.println("                           Example: query methods where loc > 50 order by loc desc limit 20");
         System.out.println("  keywords               - Show keyword statistics");
         System.out.println("  aggregate              - Show codebase statistics");
         System.out.println("  metrics <filename>     - Show metrics for specific file");
@@ -126,15 +239,23 @@ public class ReplCommand implements Command {
         System.out.println("  top <N> <metric>       - Top N classes by metric");
         System.out.println("                           Example: top 5 methods");
         System.out.println("                           Example: top 10 fields");
+        System.out.println("                           Example: top 10 complexity");
+        System.out.println("  callers <method>       - Methods that call a method (by name)");
+        System.out.println("  callees <method>       - Methods called by a method");
+        System.out.println("  usages <type>          - Classes that refer to a type");
+        System.out.println("  deps [--layers a,b,c]  - Package cycles, fan-in/fan-out, layer checks");
+        System.out.println("  duplicates             - Copy-pasted methods (--min-tokens <N>)");
         System.out.println();
         System.out.println("SORTING:");
-        System.out.println("  sort-by-keyword <kw>   - Sort files by keyword count");
+        System.out.println("  sort-by-keyword <kw>.. - Sort files by keyword count");
         System.out.println("  sort-by-class-count    - Sort packages by class count");
         System.out.println();
         System.out.println("EXPORT:");
         System.out.println("  export                 - Export results to JSON/CSV");
         System.out.println();
         System.out.println("REPL COMMANDS:");
+        System.out.println("  complete <prefix>      - Names starting with prefix (or end a line with Tab)");
+        System.out.println("  cache [clear]          - Show or empty the result and file content caches");
         System.out.println("  help                   - Show this help message");
         System.out.println("  history                - Show command history");
         System.out.println("  exit                   - Exit REPL mode");
@@ -0,0 +1,156 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.Index;
+import com.containers.Cache;
+import com.containers.GenericList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Output of REPL commands kept for replay, so repeating a query such as
+ * aggregate or keywords prints its answer again instead of recomputing it.
+ *
+ * A result is keyed by the command line (words separated by single spaces)
+ * and the index version it was computed on; publishing a new version, by
+ * analyze or a --watch re-index, drops every result. Commands that read
+ * source text are also keyed by the modification times and sizes of the
+ * indexed files, since those can change without the index changing. A
+ * result is only kept if the command wrote rows through its Output, warned
+ * about nothing and did not throw, and never if the command has effects
+ * beyond its output (analyze, export).
+ *
+ * Only what the command writes to its Output is saved, not whatever else
+ * reaches the console meanwhile, such as a --watch re-index message. Timings
+ * are left out of the output of cached commands, since a replay would show
+ * stale ones; the REPL prompt gives the time each command took.
+ */
+final class ResultCache {
+    private static final Set<String> UNCACHED = new HashSet<>(Arrays.asList("analyze", "export"));
+    private static final Set<String> READS_SOURCES = new HashSet<>(
+            Arrays.asList("duplicates", "grep", "keywords", "sort-by-keyword"));
+
+    private final Cache<String, byte[]> results;
+    private long version = -1;
+
+    /**
+     * Keeps up to budget bytes of output, by W-TinyLFU; a budget of 0 keeps
+     * nothing.
+     */
+    ResultCache(long budget) {
+        results = budget > 0 ? new Cache<>(budget, Cache.Policy.TINY_LFU, bytes -> bytes.length) : null;
+    }
+
+    boolean isEnabled() {
+        return results != null;
+    }
+
+    /**
+     * Runs command on a pinned copy of index, or replays the output it gave
+     * for the same line and index before. Returns true if it was replayed.
+     */
+    boolean run(String name, String[] args, Command command, Index index) {
+        Index pinned = index.pin();
+        if (results == null || UNCACHED.contains(name)) {
+            command.execute(args, pinned);
+            return false;
+        }
+        if (pinned.getVersion() != version) {
+            results.clear();
+            version = pinned.getVersion();
+        }
+        String key = name + (args.length > 0 ? " " + String.join(" ", args) : "");
+        if (READS_SOURCES.contains(name)) {
+            key += "\0" + sourceStamp(pinned.snapshot().getFilePaths());
+        }
+        byte[] saved = results.get(key);
+        if (saved != null) {
+            System.out.write(saved, 0, saved.length);
+            System.out.flush();
+            return true;
+        }
+
+        // The output still reaches the console as it is written
+        System.out.flush();
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        Output out = Output.to(new Tee(System.out, captured), args).untimed();
+        try {
+            command.execute(args, pinned, out);
+        } finally {
+            out.close();
+        }
+        // Nothing written means the command only printed an error
+        if (captured.size() > 0 && !out.hasWarnings() && !out.checkError()) {
+            results.put(key, captured.toByteArray());
+        }
+        return false;
+    }
+
+    void clear() {
+        if (results != null) {
+            results.clear();
+        }
+    }
+
+    String getStats() {
+        return results.size() + " results, " + (results.weight() + 1023) / 1024 + " KB of "
+                + (results.capacity() + 1023) / 1024 + " KB; " + results.getStats();
+    }
+
+    // Changes whenever any indexed file is modified, resized or removed
+    private static long sourceStamp(GenericList<String> paths) {
+        long stamp = paths.size();
+        for (int i = 0; i < paths.size(); i++) {
+            long modified = -1;
+            long size = -1;
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(Paths.get(paths.get(i)),
+                        BasicFileAttributes.class);
+                modified = attributes.lastModifiedTime().toMillis();
+                size = attributes.size();
+            } catch (IOException e) {
+                // A missing file stamps as -1
+            }
+            stamp = stamp * 31 + modified;
+            stamp = stamp * 31 + size;
+        }
+        return stamp;
+    }
+
+    /**
+     * Passes bytes on to the console while keeping a copy.
+     */
+    private static final class Tee extends OutputStream {
+        private final OutputStream console;
+        private final ByteArrayOutputStream copy;
+
+        Tee(OutputStream console, ByteArrayOutputStream copy) {
+            this.console = console;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            console.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            console.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            console.flush();
+        }
+    }
+}
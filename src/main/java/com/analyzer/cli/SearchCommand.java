@@ -0,0 +1,102 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.core.SearchIndex;
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+
+public class SearchCommand implements Command {
+    private static final int DEFAULT_TOP = 10;
+
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        int top = DEFAULT_TOP;
+        boolean classes = true;
+        boolean methods = true;
+        StringBuilder query = new StringBuilder();
+        int end = Main.optionsEnd(args);
+        for (int i = 0; i < end; i++) {
+            if (args[i].equals("--top") && i + 1 < args.length) {
+                try {
+                    top = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid number: " + args[i + 1]);
+                    return;
+                }
+                i++;
+            } else if (args[i].equals("--classes")) {
+                methods = false;
+            } else if (args[i].equals("--methods")) {
+                classes = false;
+            } else if (Output.OPTIONS_WITH_VALUE.contains(args[i])) {
+                i++;
+            } else if (!args[i].startsWith("--")) {
+                query.append(query.length() > 0 ? " " : "").append(args[i]);
+            }
+        }
+        for (int i = end + 1; i < args.length; i++) {
+            query.append(query.length() > 0 ? " " : "").append(args[i]);
+        }
+        if (query.length() == 0) {
+            System.err.println("Usage: search <terms...> [--top <N>] [--classes | --methods]");
+            System.err.println("Example: search parse file");
+            System.err.println("Example: search \"package cycle\" --methods");
+            return;
+        }
+
+        IndexSnapshot snapshot = Main.withBodies(index).snapshot();
+        SearchIndex search = snapshot.getSearch();
+        long start = System.nanoTime();
+        SearchIndex.Hits hits = search.search(query.toString(), top, classes, methods);
+        long micros = (System.nanoTime() - start) / 1000;
+
+        if (!out.isPlain()) {
+            out.println("=== Search: " + query + " ===");
+        }
+        ColumnarIndex columns = snapshot.getColumns();
+        for (int rank = 0; rank < hits.size(); rank++) {
+            if (!out.row()) {
+                continue;
+            }
+            int doc = hits.document(rank);
+            String score = String.format("%.2f", hits.score(rank));
+            if (search.isClass(doc)) {
+                ClassInfo c = snapshot.getClass(search.row(doc));
+                if (out.isPlain()) {
+                    out.cell(rank + 1).cell(score).cell("class").cell(qualifiedName(c)).cell(c.getFilePath())
+                            .cell("").endRow();
+                } else {
+                    out.right(rank + 1, 3).print(". ").println(String.format("%7s", score) + "  class   "
+                            + qualifiedName(c) + " (" + c.getFileName() + ")");
+                }
+            } else {
+                int methodRow = search.row(doc);
+                int classRow = columns.methodClasses()[methodRow];
+                ClassInfo c = snapshot.getClass(classRow);
+                MethodInfo m = c.getMethods().get(methodRow - columns.classFirstMethods()[classRow]);
+                String name = qualifiedName(c) + "." + m.getName();
+                if (out.isPlain()) {
+                    out.cell(rank + 1).cell(score).cell("method").cell(name).cell(c.getFilePath())
+                            .cell(m.getStartLine()).endRow();
+                } else {
+                    out.right(rank + 1, 3).print(". ").println(String.format("%7s", score) + "  method  " + name
+                            + " (" + c.getFileName() + ":" + m.getStartLine() + ")");
+                }
+            }
+        }
+        if (!out.isPlain()) {
+            if (hits.size() == 0) {
+                out.println("(no matches)");
+            }
+            String took = out.isTimed() ? String.format(" in %.2f ms", micros / 1000.0) : "";
+            out.println("Matched " + hits.getMatchedCount() + " of " + search.getDocumentCount()
+                    + " classes and methods" + took);
+        }
+    }
+
+    private String qualifiedName(ClassInfo c) {
+        return c.getPackageName().isEmpty() ? c.getName() : c.getPackageName() + "." + c.getName();
+    }
+}
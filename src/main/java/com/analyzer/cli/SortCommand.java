@@ -1,23 +1,26 @@
 package com.analyzer.cli;
 
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.ContentCache;
 import com.analyzer.core.Index;
-import com.analyzer.model.ClassInfo;
+import com.analyzer.core.LiteralMatcher;
+import com.analyzer.model.SymbolTable;
 import com.containers.GenericList;
 import com.containers.PriorityQueueCustom;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class SortCommand implements Command {
-
     private static class ItemCount implements Comparable<ItemCount> {
         String name;
         int count;
+        int[] counts;
 
-        public ItemCount(String name, int count) {
+        public ItemCount(String name, int count, int[] counts) {
             this.name = name;
             this.count = count;
+            this.counts = counts;
         }
 
         @Override
@@ -27,81 +30,138 @@ public class SortCommand implements Command {
     }
 
     @Override
-    public void execute(String[] args, Index index) {
-        if (args.length == 0) {
-            sortByClassCount(index);
-        } else {
-            String keyword = args[0];
-            if (keyword.startsWith("\"") && keyword.endsWith("\"")) {
-                keyword = keyword.substring(1, keyword.length() - 1);
+    public void execute(String[] args, Index index, Output out) {
+        GenericList<String> keywords = new GenericList<>();
+        int end = Main.optionsEnd(args);
+        for (int i = 0; i < args.length; i++) {
+            if (i < end && Output.OPTIONS_WITH_VALUE.contains(args[i])) {
+                // Consumed by Output; skip the value too
+                i++;
+            } else if (i > end || !args[i].startsWith("--")) {
+                String keyword = args[i];
+                if (keyword.length() > 1 && keyword.startsWith("\"") && keyword.endsWith("\"")) {
+                    keyword = keyword.substring(1, keyword.length() - 1);
+                }
+                if (!keyword.isEmpty()) {
+                    keywords.add(keyword);
+                }
             }
-            sortByKeyword(index, keyword);
+        }
+        if (keywords.isEmpty()) {
+            sortByClassCount(index, out);
+        } else {
+            sortByKeyword(index, keywords, out);
         }
     }
 
-    private void sortByKeyword(Index index, String keyword) {
-        GenericList<ClassInfo> classes = index.getClasses();
+    private void sortByKeyword(Index index, GenericList<String> keywords, Output out) {
         PriorityQueueCustom<ItemCount> pq = new PriorityQueueCustom<>((a, b) -> Integer.compare(b.count, a.count));
-        GenericList<String> processedFiles = new GenericList<>();
-
-        for (int i = 0; i < classes.size(); i++) {
-            String filePath = classes.get(i).getFilePath();
-            boolean alreadyProcessed = false;
-            for (int j = 0; j < processedFiles.size(); j++) {
-                if (processedFiles.get(j).equals(filePath)) {
-                    alreadyProcessed = true;
-                    break;
-                }
-            }
-            if (alreadyProcessed)
-                continue;
-            processedFiles.add(filePath);
+        GenericList<String> files = index.snapshot().getFilePaths();
+        ContentCache contents = index.getContents();
+        // Plain ASCII keywords are counted in the raw bytes, without decoding,
+        // all of them in one pass over each file
+        LiteralMatcher literals = canMatchAll(keywords) ? LiteralMatcher.anyOf(keywords) : null;
+        int[] totals = new int[keywords.size()];
+        int fileCount = 0;
 
-            int count = 0;
-            try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    int lastIndex = 0;
-                    while ((lastIndex = line.indexOf(keyword, lastIndex)) != -1) {
-                        count++;
-                        lastIndex += keyword.length();
-                    }
+        for (int i = 0; i < files.size(); i++) {
+            String filePath = files.get(i);
+            int[] counts = new int[keywords.size()];
+            try {
+                if (literals != null) {
+                    byte[] text = contents.read(filePath);
+                    literals.countEach(text, 0, text.length, counts);
+                } else {
+                    countLines(contents, filePath, keywords, counts);
                 }
             } catch (IOException e) {
-                e.printStackTrace();
+                out.warn("Error reading file: " + filePath);
             }
 
+            int count = 0;
+            for (int k = 0; k < counts.length; k++) {
+                count += counts[k];
+                totals[k] += counts[k];
+            }
             if (count > 0) {
-                pq.add(new ItemCount(filePath, count));
+                pq.add(new ItemCount(filePath, count, counts));
+                fileCount++;
             }
         }
 
-        System.out.println("Top files for keyword '" + keyword + "':");
         int topN = 10;
+        if (keywords.size() == 1) {
+            out.println("Top files for keyword '" + keywords.get(0) + "':");
+            for (int i = 0; i < topN && !pq.isEmpty(); i++) {
+                ItemCount item = pq.remove();
+                out.println(item.name + ": " + item.count);
+            }
+            return;
+        }
+
+        // Ranked by the combined count, with each keyword's share alongside
+        StringBuilder header = new StringBuilder("Top files for keywords ");
+        for (int k = 0; k < keywords.size(); k++) {
+            header.append(k > 0 ? ", '" : "'").append(keywords.get(k)).append('\'');
+        }
+        out.println(header.append(':').toString());
         for (int i = 0; i < topN && !pq.isEmpty(); i++) {
             ItemCount item = pq.remove();
-            System.out.println(item.name + ": " + item.count);
+            out.println(item.name + ": " + item.count + " (" + breakdown(keywords, item.counts) + ")");
         }
+        out.println("Total in " + fileCount + " files: " + breakdown(keywords, totals));
     }
 
-    private void sortByClassCount(Index index) {
-        GenericList<ClassInfo> classes = index.getClasses();
-        java.util.Map<String, Integer> packageCounts = new java.util.HashMap<>();
-        for (int i = 0; i < classes.size(); i++) {
-            String pkg = classes.get(i).getPackageName();
-            packageCounts.put(pkg, packageCounts.getOrDefault(pkg, 0) + 1);
+    private static String breakdown(GenericList<String> keywords, int[] counts) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < keywords.size(); k++) {
+            if (k > 0) {
+                sb.append(", ");
+            }
+            sb.append(keywords.get(k)).append(' ').append(counts[k]);
         }
+        return sb.toString();
+    }
 
-        PriorityQueueCustom<ItemCount> pq = new PriorityQueueCustom<>((a, b) -> Integer.compare(b.count, a.count));
-        for (java.util.Map.Entry<String, Integer> entry : packageCounts.entrySet()) {
-            pq.add(new ItemCount(entry.getKey(), entry.getValue()));
+    private static boolean canMatchAll(GenericList<String> keywords) {
+        for (int i = 0; i < keywords.size(); i++) {
+            if (!LiteralMatcher.canMatch(keywords.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reads the file once, counting every keyword on each line
+    private void countLines(ContentCache contents, String filePath, GenericList<String> keywords, int[] counts)
+            throws IOException {
+        try (BufferedReader reader = contents.reader(filePath)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (int k = 0; k < keywords.size(); k++) {
+                    String keyword = keywords.get(k);
+                    int lastIndex = 0;
+                    while ((lastIndex = line.indexOf(keyword, lastIndex)) != -1) {
+                        counts[k]++;
+                        lastIndex += keyword.length();
+                    }
+                }
+            }
         }
+    }
 
-        System.out.println("Top Packages by Class Count:");
+    private void sortByClassCount(Index index, Output out) {
+        ColumnarIndex columns = index.snapshot().getColumns();
+        int[] packageCounts = new int[columns.getPackageCount()];
+        for (int pkg : columns.classPackages()) {
+            packageCounts[pkg]++;
+        }
+
+        out.println("Top Packages by Class Count:");
         int topN = 10;
-        for (int i = 0; i < topN && !pq.isEmpty(); i++) {
-            ItemCount item = pq.remove();
-            System.out.println(item.name + ": " + item.count);
+        int[] packageNames = columns.packageNameIds();
+        for (int pkg : ColumnarIndex.topK(packageCounts, topN)) {
+            out.println(SymbolTable.global().get(packageNames[pkg]) + ": " + packageCounts[pkg]);
         }
     }
 }
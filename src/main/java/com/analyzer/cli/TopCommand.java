@@ -1,18 +1,17 @@
 package com.analyzer.cli;
 
+import com.analyzer.core.ColumnarIndex;
 import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
 import com.analyzer.model.ClassInfo;
-import com.containers.GenericList;
-import com.containers.PriorityQueueCustom;
-
-import java.util.Comparator;
+import com.analyzer.model.SymbolTable;
 
 public class TopCommand implements Command {
     @Override
-    public void execute(String[] args, Index index) {
+    public void execute(String[] args, Index index, Output out) {
         if (args.length < 2) {
             System.err.println("Usage: top <N> <metric>");
-            System.err.println("Metrics: methods, fields, variables");
+            System.err.println("Metrics: methods, fields, variables, complexity");
             System.err.println("Example: top 5 methods");
             System.err.println("Example: top 10 fields");
             return;
@@ -29,79 +28,124 @@ public class TopCommand implements Command {
         String metric = args[1];
 
         if (metric.equals("methods")) {
-            topByMethods(index, n);
+            topByMethods(index, n, out);
         } else if (metric.equals("fields") || metric.equals("variables")) {
-            topByFields(index, n);
+            topByFields(index, n, out);
+        } else if (metric.equals("complexity")) {
+            topByComplexity(index, n, out);
         } else {
             System.err.println("Unknown metric: " + metric);
-            System.err.println("Available metrics: methods, fields, variables");
+            System.err.println("Available metrics: methods, fields, variables, complexity");
         }
     }
 
-    private void topByMethods(Index index, int n) {
-        GenericList<ClassInfo> classes = index.getClasses();
+    private void topByMethods(Index index, int n, Output out) {
+        IndexSnapshot snapshot = index.snapshot();
 
-        // Use PriorityQueueCustom with max-heap (reversed comparator)
-        Comparator<ClassInfo> methodComparator = Comparator.comparingInt(ClassInfo::getMethodCount).reversed();
-        PriorityQueueCustom<ClassInfo> pq = new PriorityQueueCustom<>(methodComparator);
+        // Bounded top-K over the method count column
+        int[] rows = ColumnarIndex.topK(snapshot.getColumns().classMethodCounts(), n);
 
-        // Add all classes to priority queue
-        for (int i = 0; i < classes.size(); i++) {
-            pq.add(classes.get(i));
+        if (!out.isPlain()) {
+            out.println("╔════════════════════════════════════════════════════════════════╗");
+            out.println("║              Top " + n + " Classes by Method Count                     ║");
+            out.println("╚════════════════════════════════════════════════════════════════╝");
+            out.println();
         }
 
-        System.out.println("╔════════════════════════════════════════════════════════════════╗");
-        System.out.println("║              Top " + n + " Classes by Method Count                     ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
-        System.out.println();
-
         int count = 0;
-        while (!pq.isEmpty() && count < n) {
-            ClassInfo c = pq.remove();
+        for (int row : rows) {
             count++;
-            System.out.printf("%2d. %-45s : %3d methods\n",
-                    count,
-                    c.getPackageName() + "." + c.getName(),
-                    c.getMethodCount());
-            System.out.printf("    File: %s\n", extractFileName(c.getFilePath()));
+            if (!out.row()) {
+                continue;
+            }
+            ClassInfo c = snapshot.getClass(row);
+            printClass(out, count, c, c.getMethodCount(), "methods");
+        }
+        if (!out.isPlain()) {
+            out.println();
         }
-        System.out.println();
     }
 
-    private void topByFields(Index index, int n) {
-        GenericList<ClassInfo> classes = index.getClasses();
+    private void topByFields(Index index, int n, Output out) {
+        IndexSnapshot snapshot = index.snapshot();
 
-        // Use PriorityQueueCustom with max-heap (reversed comparator)
-        Comparator<ClassInfo> fieldComparator = Comparator.comparingInt(ClassInfo::getFieldCount).reversed();
-        PriorityQueueCustom<ClassInfo> pq = new PriorityQueueCustom<>(fieldComparator);
+        // Bounded top-K over the field count column
+        int[] rows = ColumnarIndex.topK(snapshot.getColumns().classFieldCounts(), n);
 
-        // Add all classes to priority queue
-        for (int i = 0; i < classes.size(); i++) {
-            pq.add(classes.get(i));
+        if (!out.isPlain()) {
+            out.println("╔════════════════════════════════════════════════════════════════╗");
+            out.println("║              Top " + n + " Classes by Field Count                      ║");
+            out.println("╚════════════════════════════════════════════════════════════════╝");
+            out.println();
         }
 
-        System.out.println("╔════════════════════════════════════════════════════════════════╗");
-        System.out.println("║              Top " + n + " Classes by Field Count                      ║");
-        System.out.println("╚════════════════════════════════════════════════════════════════╝");
-        System.out.println();
+        int count = 0;
+        for (int row : rows) {
+            count++;
+            if (!out.row()) {
+                continue;
+            }
+            ClassInfo c = snapshot.getClass(row);
+            printClass(out, count, c, c.getFieldCount(), "fields");
+        }
+        if (!out.isPlain()) {
+            out.println();
+        }
+    }
 
+    private void topByComplexity(Index index, int n, Output out) {
+        IndexSnapshot snapshot = Main.withBodies(index).snapshot();
+        ColumnarIndex columns = snapshot.getColumns();
+        SymbolTable symbols = SymbolTable.global();
+
+        // Bounded top-K over the method complexity column
+        int[] complexities = columns.methodComplexities();
+        int[] rows = ColumnarIndex.topK(complexities, n);
+
+        if (!out.isPlain()) {
+            out.println("╔════════════════════════════════════════════════════════════════╗");
+            out.println("║              Top " + n + " Methods by Cyclomatic Complexity            ║");
+            out.println("╚════════════════════════════════════════════════════════════════╝");
+            out.println();
+        }
+
+        int[] methodClasses = columns.methodClasses();
+        int[] methodNames = columns.methodNameIds();
+        int[] nestings = columns.methodMaxNestings();
+        int[] statements = columns.methodStatementCounts();
+        int[] callSites = columns.methodCallSiteCounts();
         int count = 0;
-        while (!pq.isEmpty() && count < n) {
-            ClassInfo c = pq.remove();
+        int[] startLines = columns.methodStartLines();
+        for (int row : rows) {
             count++;
-            System.out.printf("%2d. %-45s : %3d fields\n",
-                    count,
-                    c.getPackageName() + "." + c.getName(),
-                    c.getFieldCount());
-            System.out.printf("    File: %s\n", extractFileName(c.getFilePath()));
+            if (!out.row()) {
+                continue;
+            }
+            ClassInfo c = snapshot.getClass(methodClasses[row]);
+            String name = c.getPackageName() + "." + c.getName() + "." + symbols.get(methodNames[row]);
+            if (out.isPlain()) {
+                out.cell(count).cell(name).cell(complexities[row]).cell(nestings[row]).cell(statements[row])
+                        .cell(callSites[row]).cell(c.getFilePath()).cell(startLines[row]).endRow();
+                continue;
+            }
+            out.right(count, 2).print(". ").left(name, 45).print(" : ").right(complexities[row], 3)
+                    .println(" complexity");
+            out.print("    Nesting: ").print(nestings[row]).print(", Statements: ").print(statements[row])
+                    .print(", Calls: ").print(callSites[row]).print(", File: ")
+                    .print(c.getFileName()).print(':').print(startLines[row]).println();
+        }
+        if (!out.isPlain()) {
+            out.println();
         }
-        System.out.println();
     }
 
-    private String extractFileName(String filePath) {
-        if (filePath == null)
-            return "Unknown";
-        int lastSeparator = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\'));
-        return lastSeparator >= 0 ? filePath.substring(lastSeparator + 1) : filePath;
+    private void printClass(Output out, int rank, ClassInfo c, int value, String unit) {
+        String name = c.getPackageName() + "." + c.getName();
+        if (out.isPlain()) {
+            out.cell(rank).cell(name).cell(value).cell(c.getFilePath()).endRow();
+            return;
+        }
+        out.right(rank, 2).print(". ").left(name, 45).print(" : ").right(value, 3).print(' ').println(unit);
+        out.print("    File: ").println(c.getFileName());
     }
 }
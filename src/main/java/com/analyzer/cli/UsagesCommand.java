@@ -0,0 +1,42 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.Index;
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.model.ClassInfo;
+
+public class UsagesCommand implements Command {
+    @Override
+    public void execute(String[] args, Index index, Output out) {
+        if (args.length < 1) {
+            System.err.println("Usage: usages <type>");
+            System.err.println("Example: usages GenericList");
+            return;
+        }
+
+        String type = args[0];
+        IndexSnapshot snapshot = Main.withBodies(index).snapshot();
+        int[] users = snapshot.getReferences().usages(type);
+
+        if (!out.isPlain()) {
+            out.println("=== Usages of " + type + " ===");
+            if (snapshot.getReferences().classesNamed(type).length == 0) {
+                out.println("(" + type + " is not declared in the index)");
+            }
+        }
+        for (int row : users) {
+            if (!out.row()) {
+                continue;
+            }
+            ClassInfo c = snapshot.getClass(row);
+            String name = c.getPackageName().isEmpty() ? c.getName() : c.getPackageName() + "." + c.getName();
+            if (out.isPlain()) {
+                out.cell(name).cell(c.getFilePath()).endRow();
+            } else {
+                out.print("  ").left(name, 50).print(' ').println(c.getFileName());
+            }
+        }
+        if (!out.isPlain()) {
+            out.println("Total: " + users.length + " class(es) refer to " + type + ".");
+        }
+    }
+}
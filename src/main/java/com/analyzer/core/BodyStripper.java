@@ -0,0 +1,173 @@
+package com.analyzer.core;
+
+/**
+ * Blanks out method bodies so JavaParser only has to build declarations.
+ *
+ * Works on raw source text by tracking brace depth: a '{' opened directly in a
+ * type body (outside parentheses) is a type body if its header declares a
+ * class, interface, enum or record, and is otherwise a method, constructor,
+ * initializer or field initializer body. Those blocks are kept balanced but
+ * every character inside them except line breaks is replaced with a space, so
+ * begin/end lines (and with them LOC) are unchanged. Strings, text blocks,
+ * char literals and comments are skipped so their braces are not counted.
+ *
+ * Types declared inside method bodies are dropped along with the body.
+ */
+public final class BodyStripper {
+
+    private BodyStripper() {
+    }
+
+    public static String strip(String source) {
+        char[] out = source.toCharArray();
+        int n = out.length;
+        int typeDepth = 0;
+        int parenDepth = 0;
+        int headerStart = 0;
+        int i = 0;
+
+        while (i < n) {
+            char c = out[i];
+            int skipped = skipLiteralOrComment(out, i);
+            if (skipped > i) {
+                i = skipped;
+                continue;
+            }
+            if (c == '(') {
+                parenDepth++;
+            } else if (c == ')') {
+                parenDepth = Math.max(0, parenDepth - 1);
+            } else if (parenDepth == 0 && c == ';') {
+                headerStart = i + 1;
+            } else if (parenDepth == 0 && c == '}') {
+                typeDepth = Math.max(0, typeDepth - 1);
+                headerStart = i + 1;
+            } else if (parenDepth == 0 && c == '{') {
+                if (declaresType(out, headerStart, i)) {
+                    typeDepth++;
+                } else if (typeDepth > 0) {
+                    i = blankBlock(out, i);
+                }
+                headerStart = i + 1;
+            }
+            i++;
+        }
+        return new String(out);
+    }
+
+    /**
+     * Blanks the block whose '{' is at open and returns the index of its
+     * matching '}' (or the end of input if unbalanced).
+     */
+    private static int blankBlock(char[] out, int open) {
+        int depth = 1;
+        int i = open + 1;
+        while (i < out.length) {
+            char c = out[i];
+            int skipped = skipLiteralOrComment(out, i);
+            if (skipped > i) {
+                blank(out, i, skipped);
+                i = skipped;
+                continue;
+            }
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+            blank(out, i, i + 1);
+            i++;
+        }
+        return out.length - 1;
+    }
+
+    private static void blank(char[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (out[i] != '\n' && out[i] != '\r') {
+                out[i] = ' ';
+            }
+        }
+    }
+
+    /**
+     * If a comment or literal starts at i, returns the index just past it;
+     * otherwise returns i.
+     */
+    private static int skipLiteralOrComment(char[] s, int i) {
+        int n = s.length;
+        char c = s[i];
+        if (c == '/' && i + 1 < n && s[i + 1] == '/') {
+            int j = i + 2;
+            while (j < n && s[j] != '\n')
+                j++;
+            return j;
+        }
+        if (c == '/' && i + 1 < n && s[i + 1] == '*') {
+            int j = i + 2;
+            while (j + 1 < n && !(s[j] == '*' && s[j + 1] == '/'))
+                j++;
+            return Math.min(n, j + 2);
+        }
+        if (c == '"' && i + 2 < n && s[i + 1] == '"' && s[i + 2] == '"') {
+            int j = i + 3;
+            while (j + 2 < n && !(s[j] == '"' && s[j + 1] == '"' && s[j + 2] == '"')) {
+                if (s[j] == '\\')
+                    j++;
+                j++;
+            }
+            return Math.min(n, j + 3);
+        }
+        if (c == '"' || c == '\'') {
+            int j = i + 1;
+            while (j < n && s[j] != c && s[j] != '\n') {
+                if (s[j] == '\\')
+                    j++;
+                j++;
+            }
+            return Math.min(n, j + 1);
+        }
+        return i;
+    }
+
+    /**
+     * True if the header text [from, to) declares a type: it contains class,
+     * interface, enum or record as a keyword (not ".class" and not a method
+     * named record).
+     */
+    private static boolean declaresType(char[] s, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int skipped = skipLiteralOrComment(s, i);
+            if (skipped > i) {
+                i = skipped;
+                continue;
+            }
+            if (!Character.isJavaIdentifierStart(s[i])) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < to && Character.isJavaIdentifierPart(s[i]))
+                i++;
+            String word = new String(s, start, i - start);
+            if (word.equals("class") || word.equals("interface") || word.equals("enum")) {
+                if (!precededByDot(s, from, start))
+                    return true;
+            } else if (word.equals("record")) {
+                int next = i;
+                while (next < to && Character.isWhitespace(s[next]))
+                    next++;
+                if (next > i && next < to && Character.isJavaIdentifierStart(s[next]))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean precededByDot(char[] s, int from, int pos) {
+        int j = pos - 1;
+        while (j >= from && Character.isWhitespace(s[j]))
+            j--;
+        return j >= from && s[j] == '.';
+    }
+}
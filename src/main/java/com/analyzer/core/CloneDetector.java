@@ -0,0 +1,409 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.containers.GenericList;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Finds copy-pasted methods. Each method's source is turned into a
+ * normalized TokenStream slice (names and literals abstracted), so renamed
+ * copies still match.
+ *
+ * Matching never compares methods pairwise:
+ * <ol>
+ * <li>Rabin-Karp rolling hashes of every k-gram of tokens</li>
+ * <li>winnowing keeps the minimum hash of every window of w k-grams, which
+ * guarantees a shared fingerprint for any match of at least w + k - 1 =
+ * minTokens tokens</li>
+ * <li>fingerprints are packed into longs and sorted, so equal hashes form
+ * runs (buckets)</li>
+ * <li>neighbours in a bucket are verified token by token and extended to the
+ * maximal match; matches of at least minTokens join their methods with
+ * union-find</li>
+ * </ol>
+ * Cost is linear in the number of tokens apart from the sort and the length
+ * of the clones found. Matches within a single method are not reported.
+ */
+public final class CloneDetector {
+    private static final long BASE = 1_000_003L;
+    // Packed fingerprint: high bits of the hash, low bits the fingerprint number
+    private static final int INDEX_BITS = 28;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final int minTokens;
+    private final int k;
+    private final int window;
+    private ContentCache contents = ContentCache.NONE;
+
+    /**
+     * One method of a clone group and the lines of its longest match.
+     */
+    public static final class Member {
+        private final ClassInfo owner;
+        private final MethodInfo method;
+        private final int startLine;
+        private final int endLine;
+
+        Member(ClassInfo owner, MethodInfo method, int startLine, int endLine) {
+            this.owner = owner;
+            this.method = method;
+            this.startLine = startLine;
+            this.endLine = endLine;
+        }
+
+        public ClassInfo getOwner() {
+            return owner;
+        }
+
+        public MethodInfo getMethod() {
+            return method;
+        }
+
+        public int getStartLine() {
+            return startLine;
+        }
+
+        public int getEndLine() {
+            return endLine;
+        }
+    }
+
+    /**
+     * Methods connected by matches of at least minTokens tokens.
+     */
+    public static final class Group {
+        private final GenericList<Member> members = new GenericList<>();
+        private int tokens;
+
+        public GenericList<Member> getMembers() {
+            return members;
+        }
+
+        /**
+         * Length of the longest match in the group.
+         */
+        public int getTokens() {
+            return tokens;
+        }
+    }
+
+    public static final class Report {
+        private final GenericList<Group> groups;
+        private final int methods;
+        private final long tokens;
+        private final int fingerprints;
+        private final int unreadableFiles;
+
+        Report(GenericList<Group> groups, int methods, long tokens, int fingerprints, int unreadableFiles) {
+            this.groups = groups;
+            this.methods = methods;
+            this.tokens = tokens;
+            this.fingerprints = fingerprints;
+            this.unreadableFiles = unreadableFiles;
+        }
+
+        /**
+         * Clone groups, most duplicated code (members x tokens) first.
+         */
+        public GenericList<Group> getGroups() {
+            return groups;
+        }
+
+        public int getMethodCount() {
+            return methods;
+        }
+
+        public long getTokenCount() {
+            return tokens;
+        }
+
+        public int getFingerprintCount() {
+            return fingerprints;
+        }
+
+        public int getUnreadableFileCount() {
+            return unreadableFiles;
+        }
+    }
+
+    public CloneDetector(int minTokens) {
+        this.minTokens = Math.max(2, minTokens);
+        this.k = Math.max(1, this.minTokens / 2);
+        this.window = this.minTokens - k + 1;
+    }
+
+    /**
+     * Where file contents come from; straight from disk by default.
+     */
+    public void setContents(ContentCache contents) {
+        this.contents = contents;
+    }
+
+    public Report detect(GenericList<ClassInfo> classes) {
+        // Methods in index order, grouped by file so each file is read once
+        Map<String, List<int[]>> byFile = new LinkedHashMap<>();
+        List<ClassInfo> owners = new ArrayList<>();
+        List<MethodInfo> methods = new ArrayList<>();
+        for (int c = 0; c < classes.size(); c++) {
+            ClassInfo info = classes.get(c);
+            GenericList<MethodInfo> classMethods = info.getMethods();
+            for (int j = 0; j < classMethods.size(); j++) {
+                byFile.computeIfAbsent(info.getFilePath(), f -> new ArrayList<>()).add(new int[] { methods.size() });
+                owners.add(info);
+                methods.add(classMethods.get(j));
+            }
+        }
+        int methodCount = methods.size();
+        List<String> files = new ArrayList<>(byFile.keySet());
+
+        // Tokenize files in parallel; each yields the token slices of its methods
+        int[][] methodCodes = new int[methodCount][];
+        int[][] methodLines = new int[methodCount][];
+        int unreadable = (int) IntStream.range(0, files.size()).parallel().filter(f -> {
+            String file = files.get(f);
+            TokenStream tokens;
+            try {
+                tokens = TokenStream.of(new String(contents.read(file), Charset.defaultCharset()));
+            } catch (IOException e) {
+                return true;
+            }
+            for (int[] ref : byFile.get(file)) {
+                MethodInfo m = methods.get(ref[0]);
+                int from = tokens.firstTokenAtLine(m.getStartLine());
+                int to = tokens.firstTokenAtLine(m.getStartLine() + m.getLoc());
+                int[] codes = new int[to - from];
+                int[] lines = new int[to - from];
+                for (int t = from; t < to; t++) {
+                    codes[t - from] = tokens.code(t);
+                    lines[t - from] = tokens.line(t);
+                }
+                methodCodes[ref[0]] = codes;
+                methodLines[ref[0]] = lines;
+            }
+            return false;
+        }).count();
+
+        // Winnowed fingerprints: (hash, method, position)
+        long[] hashes = new long[1024];
+        int[] fpMethod = new int[1024];
+        int[] fpPosition = new int[1024];
+        int fingerprints = 0;
+        long tokenTotal = 0;
+        long[] kgrams = new long[0];
+        int[] deque = new int[window];
+        for (int m = 0; m < methodCount; m++) {
+            int[] codes = methodCodes[m];
+            if (codes == null) {
+                continue;
+            }
+            tokenTotal += codes.length;
+            if (codes.length < minTokens) {
+                continue;
+            }
+            int grams = codes.length - k + 1;
+            if (kgrams.length < grams) {
+                kgrams = new long[grams];
+            }
+            rollingHashes(codes, kgrams);
+
+            // Sliding-window minimum with a monotonic deque of k-gram positions;
+            // the rightmost minimum wins ties
+            int head = 0;
+            int tail = 0;
+            int lastPicked = -1;
+            for (int g = 0; g < grams; g++) {
+                if (tail > head && deque[head % window] <= g - window) {
+                    head++;
+                }
+                while (tail > head && kgrams[deque[(tail - 1) % window]] >= kgrams[g]) {
+                    tail--;
+                }
+                deque[tail++ % window] = g;
+                if (g >= window - 1) {
+                    int picked = deque[head % window];
+                    if (picked != lastPicked) {
+                        if (fingerprints == hashes.length) {
+                            hashes = Arrays.copyOf(hashes, fingerprints * 2);
+                            fpMethod = Arrays.copyOf(fpMethod, fingerprints * 2);
+                            fpPosition = Arrays.copyOf(fpPosition, fingerprints * 2);
+                        }
+                        hashes[fingerprints] = kgrams[picked];
+                        fpMethod[fingerprints] = m;
+                        fpPosition[fingerprints] = picked;
+                        fingerprints++;
+                        lastPicked = picked;
+                    }
+                }
+            }
+        }
+        if (fingerprints > INDEX_MASK) {
+            throw new IllegalStateException("Too many fingerprints: " + fingerprints);
+        }
+
+        // Bucket equal hashes by sorting packed (hash, fingerprint) longs
+        long[] packed = new long[fingerprints];
+        for (int f = 0; f < fingerprints; f++) {
+            packed[f] = (hashes[f] & ~INDEX_MASK) | f;
+        }
+        Arrays.parallelSort(packed);
+
+        int[] parent = new int[methodCount];
+        for (int m = 0; m < methodCount; m++) {
+            parent[m] = m;
+        }
+        int[] bestLength = new int[methodCount];
+        int[] bestFrom = new int[methodCount];
+        int[] bestTo = new int[methodCount];
+        // Matches already extended, per method pair: diagonal -> [start, end)
+        Map<Long, Map<Integer, int[]>> extended = new HashMap<>();
+
+        for (int run = 0; run < fingerprints;) {
+            int end = run + 1;
+            while (end < fingerprints && (packed[end] & ~INDEX_MASK) == (packed[run] & ~INDEX_MASK)) {
+                end++;
+            }
+            // Neighbours in a bucket; transitivity links the rest
+            for (int i = run + 1; i < end; i++) {
+                int a = (int) (packed[i - 1] & INDEX_MASK);
+                int b = (int) (packed[i] & INDEX_MASK);
+                match(fpMethod[a], fpPosition[a], fpMethod[b], fpPosition[b], methodCodes, methodLines, owners,
+                        methods, parent, bestLength, bestFrom, bestTo, extended);
+            }
+            run = end;
+        }
+
+        // Collect groups by union-find root
+        Map<Integer, Group> roots = new LinkedHashMap<>();
+        for (int m = 0; m < methodCount; m++) {
+            if (bestLength[m] < minTokens) {
+                continue;
+            }
+            Group group = roots.computeIfAbsent(find(parent, m), r -> new Group());
+            group.members.add(new Member(owners.get(m), methods.get(m), methodLines[m][bestFrom[m]],
+                    methodLines[m][bestTo[m] - 1]));
+            group.tokens = Math.max(group.tokens, bestLength[m]);
+        }
+        List<Group> sorted = new ArrayList<>(roots.values());
+        sorted.sort((x, y) -> Long.compare((long) y.members.size() * y.tokens, (long) x.members.size() * x.tokens));
+        GenericList<Group> groups = new GenericList<>();
+        for (Group g : sorted) {
+            groups.add(g);
+        }
+        return new Report(groups, methodCount, tokenTotal, fingerprints, unreadable);
+    }
+
+    /**
+     * Verifies a shared fingerprint and extends it to the maximal match.
+     */
+    private void match(int m1, int p1, int m2, int p2, int[][] codes, int[][] lines, List<ClassInfo> owners,
+            List<MethodInfo> methods, int[] parent, int[] bestLength, int[] bestFrom, int[] bestTo,
+            Map<Long, Map<Integer, int[]>> extended) {
+        if (m1 == m2 || overlaps(m1, m2, owners, methods)) {
+            return;
+        }
+        if (m1 > m2) {
+            int t = m1;
+            m1 = m2;
+            m2 = t;
+            t = p1;
+            p1 = p2;
+            p2 = t;
+        }
+        Map<Integer, int[]> diagonals = extended.computeIfAbsent(((long) m1 << 32) | m2, key -> new HashMap<>());
+        int[] covered = diagonals.get(p2 - p1);
+        if (covered != null && p1 >= covered[0] && p1 < covered[1]) {
+            return;
+        }
+
+        int[] a = codes[m1];
+        int[] b = codes[m2];
+        for (int t = 0; t < k; t++) {
+            if (a[p1 + t] != b[p2 + t]) {
+                return; // hash collision
+            }
+        }
+        int from = 0;
+        while (p1 - from > 0 && p2 - from > 0 && a[p1 - from - 1] == b[p2 - from - 1]) {
+            from++;
+        }
+        int to = k;
+        while (p1 + to < a.length && p2 + to < b.length && a[p1 + to] == b[p2 + to]) {
+            to++;
+        }
+        diagonals.put(p2 - p1, new int[] { p1 - from, p1 + to });
+
+        int length = from + to;
+        if (length < minTokens) {
+            return;
+        }
+        record(m1, p1 - from, p1 + to, length, bestLength, bestFrom, bestTo);
+        record(m2, p2 - from, p2 + to, length, bestLength, bestFrom, bestTo);
+        int r1 = find(parent, m1);
+        int r2 = find(parent, m2);
+        if (r1 != r2) {
+            parent[r1] = r2;
+        }
+    }
+
+    private static void record(int m, int from, int to, int length, int[] bestLength, int[] bestFrom, int[] bestTo) {
+        if (length > bestLength[m]) {
+            bestLength[m] = length;
+            bestFrom[m] = from;
+            bestTo[m] = to;
+        }
+    }
+
+    // A local class method lies inside its enclosing method's lines
+    private static boolean overlaps(int m1, int m2, List<ClassInfo> owners, List<MethodInfo> methods) {
+        if (owners.get(m1).getFilePathId() != owners.get(m2).getFilePathId()) {
+            return false;
+        }
+        MethodInfo a = methods.get(m1);
+        MethodInfo b = methods.get(m2);
+        return a.getStartLine() < b.getStartLine() + b.getLoc() && b.getStartLine() < a.getStartLine() + a.getLoc();
+    }
+
+    private void rollingHashes(int[] codes, long[] out) {
+        long power = 1;
+        for (int i = 1; i < k; i++) {
+            power *= BASE;
+        }
+        long h = 0;
+        for (int i = 0; i < k; i++) {
+            h = h * BASE + codes[i];
+        }
+        out[0] = mix(h);
+        for (int i = k; i < codes.length; i++) {
+            h = (h - codes[i - k] * power) * BASE + codes[i];
+            out[i - k + 1] = mix(h);
+        }
+    }
+
+    // Spreads the polynomial hash so its high bits are usable for bucketing
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int find(int[] parent, int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+}
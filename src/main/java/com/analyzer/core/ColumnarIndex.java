@@ -0,0 +1,344 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.containers.GenericList;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays copy of the numeric model data. Class rows line up with
+ * IndexSnapshot.getClasses(); method rows are grouped by class, so the methods
+ * of class c are rows classFirstMethod[c] to classFirstMethod[c + 1] - 1.
+ * Packages get dense ids so per-package aggregates can use plain int arrays.
+ *
+ * The arrays are shared with every reader and must not be modified. Sorted
+ * secondary indexes over them are built on request and cached here, so they
+ * live exactly as long as the snapshot they describe.
+ */
+public final class ColumnarIndex {
+    private final int classCount;
+    private final int methodCount;
+    private final int packageCount;
+
+    // Class columns
+    private final int[] classNameId;
+    private final int[] classPackage;
+    private final int[] classMethodCount;
+    private final int[] classFieldCount;
+    private final int[] classFirstMethod;
+
+    // Method columns
+    private final int[] methodClass;
+    private final int[] methodNameId;
+    private final int[] methodLoc;
+    private final int[] methodStartLine;
+    private final int[] methodParamCount;
+    private final int[] methodComplexity;
+    private final int[] methodMaxNesting;
+    private final int[] methodStatements;
+    private final int[] methodCallSites;
+
+    // Package columns
+    private final int[] packageNameId;
+
+    // Column array -> its secondary index, filled by sorted()
+    private final Map<int[], SortedColumn> sortedColumns = new IdentityHashMap<>();
+
+    public ColumnarIndex(GenericList<ClassInfo> classes) {
+        classCount = classes.size();
+        int methods = 0;
+        for (int i = 0; i < classCount; i++) {
+            methods += classes.get(i).getMethods().size();
+        }
+        methodCount = methods;
+
+        classNameId = new int[classCount];
+        classPackage = new int[classCount];
+        classMethodCount = new int[classCount];
+        classFieldCount = new int[classCount];
+        classFirstMethod = new int[classCount + 1];
+        methodClass = new int[methodCount];
+        methodNameId = new int[methodCount];
+        methodLoc = new int[methodCount];
+        methodStartLine = new int[methodCount];
+        methodParamCount = new int[methodCount];
+        methodComplexity = new int[methodCount];
+        methodMaxNesting = new int[methodCount];
+        methodStatements = new int[methodCount];
+        methodCallSites = new int[methodCount];
+
+        Map<Integer, Integer> packages = new HashMap<>();
+        int[] packageNames = new int[16];
+        int row = 0;
+        for (int c = 0; c < classCount; c++) {
+            ClassInfo info = classes.get(c);
+            Integer pkg = packages.get(info.getPackageId());
+            if (pkg == null) {
+                pkg = packages.size();
+                packages.put(info.getPackageId(), pkg);
+                if (pkg == packageNames.length) {
+                    packageNames = Arrays.copyOf(packageNames, pkg * 2);
+                }
+                packageNames[pkg] = info.getPackageId();
+            }
+            classNameId[c] = info.getNameId();
+            classPackage[c] = pkg;
+            classMethodCount[c] = info.getMethodCount();
+            classFieldCount[c] = info.getFieldCount();
+            classFirstMethod[c] = row;
+
+            GenericList<MethodInfo> classMethods = info.getMethods();
+            for (int j = 0; j < classMethods.size(); j++, row++) {
+                MethodInfo m = classMethods.get(j);
+                methodClass[row] = c;
+                methodNameId[row] = m.getNameId();
+                methodLoc[row] = m.getLoc();
+                methodStartLine[row] = m.getStartLine();
+                methodParamCount[row] = m.getParameterCount();
+                methodComplexity[row] = m.getComplexity();
+                methodMaxNesting[row] = m.getMaxNesting();
+                methodStatements[row] = m.getStatementCount();
+                methodCallSites[row] = m.getCallSiteCount();
+            }
+        }
+        classFirstMethod[classCount] = row;
+        packageCount = packages.size();
+        packageNameId = Arrays.copyOf(packageNames, packageCount);
+    }
+
+    /**
+     * Reads the columns straight from a mapped index file, without building
+     * any ClassInfo objects.
+     */
+    public ColumnarIndex(MappedIndex mapped) {
+        classCount = mapped.getClassCount();
+        methodCount = mapped.getMethodCount();
+
+        classNameId = new int[classCount];
+        classPackage = new int[classCount];
+        classMethodCount = new int[classCount];
+        classFieldCount = new int[classCount];
+        classFirstMethod = new int[classCount + 1];
+        methodClass = new int[methodCount];
+        methodNameId = new int[methodCount];
+        methodLoc = new int[methodCount];
+        methodStartLine = new int[methodCount];
+        methodParamCount = new int[methodCount];
+        methodComplexity = new int[methodCount];
+        methodMaxNesting = new int[methodCount];
+        methodStatements = new int[methodCount];
+        methodCallSites = new int[methodCount];
+
+        Map<Integer, Integer> packages = new HashMap<>();
+        int[] packageNames = new int[16];
+        for (int c = 0; c < classCount; c++) {
+            int packageId = mapped.symbol(mapped.classInt(c, MappedIndex.CLASS_PACKAGE));
+            Integer pkg = packages.get(packageId);
+            if (pkg == null) {
+                pkg = packages.size();
+                packages.put(packageId, pkg);
+                if (pkg == packageNames.length) {
+                    packageNames = Arrays.copyOf(packageNames, pkg * 2);
+                }
+                packageNames[pkg] = packageId;
+            }
+            classNameId[c] = mapped.symbol(mapped.classInt(c, MappedIndex.CLASS_NAME));
+            classPackage[c] = pkg;
+            classMethodCount[c] = mapped.classInt(c, MappedIndex.CLASS_METHOD_COUNT);
+            classFieldCount[c] = mapped.classInt(c, MappedIndex.CLASS_FIELD_COUNT);
+            classFirstMethod[c] = mapped.classInt(c, MappedIndex.CLASS_FIRST_METHOD);
+            for (int m = classFirstMethod[c]; m < classFirstMethod[c] + classMethodCount[c]; m++) {
+                methodClass[m] = c;
+            }
+        }
+        classFirstMethod[classCount] = methodCount;
+        for (int m = 0; m < methodCount; m++) {
+            methodNameId[m] = mapped.symbol(mapped.methodInt(m, MappedIndex.METHOD_NAME));
+            methodLoc[m] = mapped.methodInt(m, MappedIndex.METHOD_LOC);
+            methodStartLine[m] = mapped.methodInt(m, MappedIndex.METHOD_START_LINE);
+            methodParamCount[m] = mapped.methodInt(m, MappedIndex.METHOD_PARAM_COUNT);
+            methodComplexity[m] = mapped.methodInt(m, MappedIndex.METHOD_COMPLEXITY);
+            methodMaxNesting[m] = mapped.methodInt(m, MappedIndex.METHOD_MAX_NESTING);
+            methodStatements[m] = mapped.methodInt(m, MappedIndex.METHOD_STATEMENTS);
+            methodCallSites[m] = mapped.methodInt(m, MappedIndex.METHOD_CALL_SITES);
+        }
+        packageCount = packages.size();
+        packageNameId = Arrays.copyOf(packageNames, packageCount);
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public int getPackageCount() {
+        return packageCount;
+    }
+
+    public int[] classNameIds() {
+        return classNameId;
+    }
+
+    public int[] classPackages() {
+        return classPackage;
+    }
+
+    public int[] classMethodCounts() {
+        return classMethodCount;
+    }
+
+    public int[] classFieldCounts() {
+        return classFieldCount;
+    }
+
+    public int[] classFirstMethods() {
+        return classFirstMethod;
+    }
+
+    public int[] methodClasses() {
+        return methodClass;
+    }
+
+    public int[] methodNameIds() {
+        return methodNameId;
+    }
+
+    public int[] methodLocs() {
+        return methodLoc;
+    }
+
+    public int[] methodStartLines() {
+        return methodStartLine;
+    }
+
+    public int[] methodParamCounts() {
+        return methodParamCount;
+    }
+
+    public int[] methodComplexities() {
+        return methodComplexity;
+    }
+
+    public int[] methodMaxNestings() {
+        return methodMaxNesting;
+    }
+
+    public int[] methodStatementCounts() {
+        return methodStatements;
+    }
+
+    public int[] methodCallSiteCounts() {
+        return methodCallSites;
+    }
+
+    public int[] packageNameIds() {
+        return packageNameId;
+    }
+
+    /**
+     * Secondary index over one of this index's columns, built on first use.
+     */
+    public synchronized SortedColumn sorted(int[] column) {
+        return sortedColumns.computeIfAbsent(column, SortedColumn::new);
+    }
+
+    public static long sum(int[] column) {
+        long total = 0;
+        for (int v : column) {
+            total += v;
+        }
+        return total;
+    }
+
+    /**
+     * Rows of the k largest values, largest first. Equal values keep row order.
+     * Uses a bounded min-heap of row numbers, so no objects are allocated per
+     * row and the full column is never sorted.
+     */
+    public static int[] topK(int[] column, int k) {
+        return topK(column, null, column.length, k, false);
+    }
+
+    /**
+     * Like topK(column, k), restricted to the first count entries of rows,
+     * and picking the smallest values first when ascending is set. A null
+     * rows array stands for all rows.
+     */
+    public static int[] topK(int[] column, int[] rows, int count, int k, boolean ascending) {
+        k = Math.min(k, count);
+        if (k <= 0) {
+            return new int[0];
+        }
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int row = rows == null ? i : rows[i];
+            if (size < k) {
+                heap[size] = row;
+                siftUp(heap, size++, column, ascending);
+            } else if (worse(heap[0], row, column, ascending)) {
+                heap[0] = row;
+                siftDown(heap, size, column, ascending);
+            }
+        }
+        // Pop the heap back to front to get best-first order
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, column, ascending);
+        }
+        return result;
+    }
+
+    // True if row a ranks below row b: smaller value (larger when ascending),
+    // or later row on ties
+    private static boolean worse(int a, int b, int[] column, boolean ascending) {
+        if (column[a] != column[b]) {
+            return ascending ? column[a] > column[b] : column[a] < column[b];
+        }
+        return a > b;
+    }
+
+    private static void siftUp(int[] heap, int i, int[] column, boolean ascending) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!worse(heap[i], heap[parent], column, ascending)) {
+                break;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] column, boolean ascending) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            int right = left + 1;
+            int worst = i;
+            if (left < size && worse(heap[left], heap[worst], column, ascending)) {
+                worst = left;
+            }
+            if (right < size && worse(heap[right], heap[worst], column, ascending)) {
+                worst = right;
+            }
+            if (worst == i) {
+                break;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[worst];
+            heap[worst] = tmp;
+            i = worst;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.analyzer.core;
+
+import com.containers.Cache;
+import com.containers.ConcurrentCache;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source file bytes kept in memory between queries, so text commands run
+ * in a long session (grep, keywords, sort-by-keyword) read each file from
+ * disk once rather than on every invocation.
+ *
+ * Contents are stored compressed in the LZ4 block format, which shrinks
+ * source text about threefold and decodes at around the speed of reading a
+ * file the operating system already caches; contents it barely shrinks, or
+ * all of them if compression is turned off, are stored as they are. The
+ * stored sizes are held under a budget by a W-TinyLFU
+ * {@link ConcurrentCache}: files read in query after query stay, and a
+ * one-off scan over more files than fit cannot push them out, as it would
+ * with plain LRU eviction.
+ *
+ * Every read checks the file's modification time and size, so an edited
+ * file is read again; that one stat is far cheaper than the read it saves.
+ * Safe to share between the threads of one scan.
+ */
+public final class ContentCache {
+    /** Reads straight from disk and keeps nothing. */
+    public static final ContentCache NONE = new ContentCache(0, false);
+
+    // Compressed contents are kept only if they save at least an eighth
+    private static final int MIN_SAVING_SHIFT = 3;
+    private static final int STRIPES = 8;
+
+    private static final class Entry {
+        final long modified;
+        final long size;
+        final byte[] data;
+        final boolean compressed;
+
+        Entry(long modified, long size, byte[] data, boolean compressed) {
+            this.modified = modified;
+            this.size = size;
+            this.data = data;
+            this.compressed = compressed;
+        }
+    }
+
+    private final long budget;
+    private final boolean compress;
+    private final ConcurrentCache<String, Entry> entries;
+    private final AtomicLong stale = new AtomicLong();
+
+    /**
+     * A cache holding at most budget bytes of stored contents, compressed if
+     * compress is set; a budget of 0 keeps nothing.
+     */
+    public ContentCache(long budget, boolean compress) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Negative budget: " + budget);
+        }
+        this.budget = budget;
+        this.compress = compress;
+        this.entries = new ConcurrentCache<>(budget, Cache.Policy.TINY_LFU, e -> e.data.length, STRIPES);
+    }
+
+    public boolean isEnabled() {
+        return budget > 0;
+    }
+
+    /**
+     * The bytes of the file, from memory if they are cached and the file has
+     * not changed since, otherwise from disk.
+     */
+    public byte[] read(String path) throws IOException {
+        if (budget == 0) {
+            return Files.readAllBytes(Paths.get(path));
+        }
+        Path file = Paths.get(path);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        Entry entry = entries.get(path);
+        if (entry != null && entry.modified == modified && entry.size == attributes.size()) {
+            return entry.compressed ? decompress(entry) : entry.data.clone();
+        }
+        if (entry != null) {
+            stale.incrementAndGet();
+            entries.remove(path);
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length == attributes.size()) {
+            // A file that changed while being read is not kept
+            entries.put(path, store(modified, bytes));
+        }
+        return bytes;
+    }
+
+    /**
+     * A reader over the file's text in the default charset, as FileReader
+     * would give.
+     */
+    public BufferedReader reader(String path) throws IOException {
+        if (budget == 0) {
+            return new BufferedReader(new FileReader(path));
+        }
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(read(path))));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * One line of counters: files and bytes held, and hits, misses, reloads
+     * of changed files and evictions so far.
+     */
+    public String getStats() {
+        long[] original = { 0 };
+        entries.forEach((path, entry) -> original[0] += entry.size);
+        // A cached copy found out of date counts as a hit in the cache itself
+        Cache.Stats stats = entries.getStats();
+        long changed = stale.get();
+        return entries.size() + " files, " + kilobytes(entries.weight()) + " KB of " + kilobytes(budget) + " KB"
+                + (compress ? " (" + kilobytes(original[0]) + " KB uncompressed)" : "") + "; "
+                + (stats.getHits() - changed) + " hits, " + stats.getMisses() + " misses, " + changed + " changed, "
+                + stats.getEvictions() + " evicted";
+    }
+
+    private static long kilobytes(long bytes) {
+        return (bytes + 1023) / 1024;
+    }
+
+    private Entry store(long modified, byte[] bytes) {
+        byte[] packed = compress ? Lz4Block.compress(bytes) : null;
+        if (packed != null && packed.length <= bytes.length - (bytes.length >> MIN_SAVING_SHIFT)) {
+            return new Entry(modified, bytes.length, packed, true);
+        }
+        return new Entry(modified, bytes.length, bytes.clone(), false);
+    }
+
+    private static byte[] decompress(Entry entry) throws IOException {
+        try {
+            return Lz4Block.decompress(entry.data, (int) entry.size);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Cached contents are damaged", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.analyzer.core;
+
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.comments.Comment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The comments of one source file, handed to the classes and methods they
+ * belong to as search terms. Comment attribution is switched off in the
+ * parser configuration, so ownership is decided by lines here: a member owns
+ * the comments within its lines plus the one ending on the line above it,
+ * which is where its Javadoc sits.
+ *
+ * Each comment is given out once. ClassVisitor reaches nested classes and
+ * methods before their enclosing class, so the innermost owner wins.
+ */
+final class FileComments {
+    private final List<Comment> comments = new ArrayList<>();
+    private final int[] beginLines;
+    private final int[] endLines;
+    private final boolean[] claimed;
+
+    /**
+     * @param all comments of the file in source order, as JavaParser's
+     *            CommentsCollection returns them
+     */
+    FileComments(Collection<Comment> all) {
+        for (Comment comment : all) {
+            if (comment.getRange().isPresent()) {
+                comments.add(comment);
+            }
+        }
+        int n = comments.size();
+        beginLines = new int[n];
+        endLines = new int[n];
+        claimed = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Range range = comments.get(i).getRange().get();
+            beginLines[i] = range.begin.line;
+            endLines[i] = range.end.line;
+        }
+    }
+
+    /**
+     * Adds the text of the unclaimed comments belonging to node to terms.
+     */
+    void claim(Node node, SearchTerms terms) {
+        Optional<Range> range = node.getRange();
+        if (!range.isPresent() || comments.isEmpty()) {
+            return;
+        }
+        int begin = range.get().begin.line;
+        int end = range.get().end.line;
+        // Comments do not overlap, so end lines are sorted like begin lines
+        int lo = 0;
+        int hi = endLines.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (endLines[mid] < begin - 1) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo; i < beginLines.length && beginLines[i] <= end; i++) {
+            if (!claimed[i]) {
+                claimed[i] = true;
+                terms.add(comments.get(i).getContent());
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.analyzer.core;
+
+import com.containers.GenericList;
+import com.containers.Queue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Line search over source files. Files are scanned in parallel, a few ahead
+ * of the consumer, and their results handed over strictly in the order of
+ * the file list, so output is the same as a sequential scan but starts as
+ * soon as the first file is done. Only the results of files in flight are
+ * held in memory, and the consumer can stop the scan at any file.
+ *
+ * Within a file, lines around each match can be kept as context, and the
+ * scan of the file stops once it has maxCount matches (and their trailing
+ * context) or, when only the file names are wanted, at the first match.
+ */
+public final class Grep {
+    // Files scanned ahead of the consumer, per worker
+    private static final int LOOKAHEAD = 4;
+
+    /**
+     * A matching line, or a context line of the match with index match in
+     * the file.
+     */
+    public static final class Line {
+        private final int number;
+        private final String text;
+        private final int match;
+        private final boolean context;
+
+        Line(int number, String text, int match, boolean context) {
+            this.number = number;
+            this.text = text;
+            this.match = match;
+            this.context = context;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Index within the file of the match this line is, or belongs to as
+         * context.
+         */
+        public int getMatch() {
+            return match;
+        }
+
+        public boolean isContext() {
+            return context;
+        }
+    }
+
+    /**
+     * Lines found in one file, in line order.
+     */
+    public static final class FileResult {
+        private final String path;
+        private final GenericList<Line> lines = new GenericList<>();
+        private int matchCount;
+        private Exception error;
+
+        FileResult(String path) {
+            this.path = path;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public GenericList<Line> getLines() {
+            return lines;
+        }
+
+        /**
+         * Matching lines found, which stops at maxCount (or 1 when only file
+         * names are wanted).
+         */
+        public int getMatchCount() {
+            return matchCount;
+        }
+
+        /**
+         * Why the file could not be read, or null.
+         */
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    private final Pattern pattern;
+    // Finds the candidate lines in a file's bytes, or null to run the regex
+    // on every line
+    private final LiteralMatcher literals;
+    // Whether a candidate line is a match without running the regex
+    private final boolean exact;
+    private int maxCount = -1;
+    private int before;
+    private int after;
+    private boolean filesOnly;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private ContentCache contents = ContentCache.NONE;
+
+    public Grep(Pattern pattern) {
+        this.pattern = pattern;
+        RegexLiterals found = pattern.flags() == 0 ? RegexLiterals.of(pattern.pattern()) : null;
+        if (found != null && allMatchable(found.getLiterals())) {
+            literals = LiteralMatcher.anyOf(found.getLiterals());
+            exact = found.isExact();
+        } else {
+            literals = null;
+            exact = false;
+        }
+    }
+
+    private static boolean allMatchable(GenericList<String> literals) {
+        for (int i = 0; i < literals.size(); i++) {
+            if (!LiteralMatcher.canMatch(literals.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * How lines are matched: "literal" when the pattern is plain text, so
+     * no regex runs at all; "prefilter" when the regex only runs on lines
+     * containing text it requires; "regex" otherwise.
+     */
+    public String getStrategy() {
+        return literals == null ? "regex" : exact ? "literal" : "prefilter";
+    }
+
+    /**
+     * Stop reading a file after this many matching lines; negative for no
+     * limit.
+     */
+    public void setMaxCount(int maxCount) {
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * Lines of context to keep before and after each match.
+     */
+    public void setContext(int before, int after) {
+        this.before = Math.max(0, before);
+        this.after = Math.max(0, after);
+    }
+
+    /**
+     * Only find out whether each file matches: stop at its first match and
+     * keep no lines.
+     */
+    public void setFilesOnly(boolean filesOnly) {
+        this.filesOnly = filesOnly;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Where file contents come from; straight from disk by default.
+     */
+    public void setContents(ContentCache contents) {
+        this.contents = contents;
+    }
+
+    /**
+     * Scans paths and passes each file's result to sink in order, stopping
+     * as soon as sink returns false.
+     */
+    public void run(GenericList<String> paths, Predicate<FileResult> sink) {
+        if (threads == 1 || paths.size() < 2) {
+            for (int i = 0; i < paths.size(); i++) {
+                if (!sink.test(scan(paths.get(i)))) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "grep-worker");
+                    t.setDaemon(true);
+                    return t;
+                });
+        try {
+            int window = threads * LOOKAHEAD;
+            Queue<Future<FileResult>> pending = new Queue<>();
+            int submitted = 0;
+            for (int i = 0; i < paths.size(); i++) {
+                while (submitted < paths.size() && submitted < i + window) {
+                    String path = paths.get(submitted++);
+                    pending.enqueue(pool.submit(() -> scan(path)));
+                }
+                if (!sink.test(await(pending.dequeue(), paths.get(i)))) {
+                    return;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static FileResult await(Future<FileResult> future, String path) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            FileResult failed = new FileResult(path);
+            failed.error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            return failed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            FileResult failed = new FileResult(path);
+            failed.error = e;
+            return failed;
+        }
+    }
+
+    /**
+     * Scans one file on the calling thread.
+     */
+    public FileResult scan(String path) {
+        return literals != null ? scanBytes(path) : scanLines(path);
+    }
+
+    private FileResult scanLines(String path) {
+        FileResult result = new FileResult(path);
+        // Lines not yet known to be context, kept in a ring of the last before
+        String[] ring = new String[before];
+        int ringStart = 0;
+        int ringSize = 0;
+        int afterLeft = 0;
+        try (BufferedReader reader = contents.reader(path)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (maxCount >= 0 && result.matchCount >= maxCount) {
+                    // Done matching; finish the last match's context
+                    if (afterLeft-- <= 0) {
+                        break;
+                    }
+                    result.lines.add(new Line(number, line, result.matchCount - 1, true));
+                    continue;
+                }
+                if (pattern.matcher(line).find()) {
+                    int match = result.matchCount++;
+                    if (filesOnly) {
+                        break;
+                    }
+                    for (int i = 0; i < ringSize; i++) {
+                        result.lines.add(new Line(number - ringSize + i, ring[(ringStart + i) % before], match,
+                                true));
+                    }
+                    ringSize = 0;
+                    result.lines.add(new Line(number, line, match, false));
+                    afterLeft = after;
+                } else if (afterLeft > 0) {
+                    afterLeft--;
+                    result.lines.add(new Line(number, line, result.matchCount - 1, true));
+                } else if (before > 0) {
+                    if (ringSize < before) {
+                        ring[(ringStart + ringSize++) % before] = line;
+                    } else {
+                        ring[ringStart] = line;
+                        ringStart = (ringStart + 1) % before;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            result.error = e;
+        }
+        return result;
+    }
+
+    /**
+     * Scan over the raw bytes of the file: the literal search jumps from
+     * candidate to candidate, and only candidate lines, and the context
+     * lines around matches, are decoded. Lines end at \n, \r or \r\n, as
+     * for BufferedReader.readLine, so line numbers and text agree with
+     * scanLines.
+     */
+    private FileResult scanBytes(String path) {
+        FileResult result = new FileResult(path);
+        byte[] text;
+        try {
+            text = contents.read(path);
+        } catch (IOException e) {
+            result.error = e;
+            return result;
+        }
+        Charset charset = Charset.defaultCharset();
+        int n = text.length;
+        // Line number of the line starting at counted
+        int counted = 0;
+        int number = 1;
+        // Last line added to the result, and where the last match's line ends
+        int emitted = 0;
+        int matchLine = 0;
+        int matchNext = 0;
+        int pos = 0;
+        while (pos < n && (maxCount < 0 || result.matchCount < maxCount)) {
+            int hit = literals.find(text, pos, n);
+            if (hit < 0) {
+                break;
+            }
+            int start = lineStart(text, hit);
+            int end = lineEnd(text, hit);
+            int next = nextLine(text, end);
+            pos = next;
+            String line = null;
+            if (!exact) {
+                line = new String(text, start, end - start, charset);
+                if (!pattern.matcher(line).find()) {
+                    continue;
+                }
+            }
+            number += countLines(text, counted, start);
+            counted = start;
+            int match = result.matchCount++;
+            if (filesOnly) {
+                break;
+            }
+            if (match > 0) {
+                emitted = addAfter(result, text, matchNext, matchLine, number - 1, match - 1, charset);
+            }
+            emitted = addBefore(result, text, start, number, emitted, match, charset);
+            result.lines.add(new Line(number, line != null ? line : new String(text, start, end - start, charset),
+                    match, false));
+            emitted = number;
+            matchLine = number;
+            matchNext = next;
+        }
+        if (result.matchCount > 0 && !filesOnly) {
+            addAfter(result, text, matchNext, matchLine, Integer.MAX_VALUE, result.matchCount - 1, charset);
+        }
+        return result;
+    }
+
+    // Up to after lines following the match on line matchLine, whose next
+    // line starts at from, and no further than line last; returns the last
+    // line added
+    private int addAfter(FileResult result, byte[] text, int from, int matchLine, int last, int match,
+            Charset charset) {
+        int number = matchLine;
+        int p = from;
+        for (int k = 0; k < after && p < text.length && number < last; k++) {
+            number++;
+            int end = lineEnd(text, p);
+            result.lines.add(new Line(number, new String(text, p, end - p, charset), match, true));
+            p = nextLine(text, end);
+        }
+        return number;
+    }
+
+    // Up to before lines preceding the match line starting at start, none of
+    // them at or before line emitted; returns the last line added
+    private int addBefore(FileResult result, byte[] text, int start, int number, int emitted, int match,
+            Charset charset) {
+        int first = Math.max(Math.max(number - before, emitted + 1), 1);
+        int count = number - first;
+        if (count <= 0) {
+            return emitted;
+        }
+        int p = start;
+        for (int k = 0; k < count; k++) {
+            p = previousLine(text, p);
+        }
+        for (int line = first; line < number; line++) {
+            int end = lineEnd(text, p);
+            result.lines.add(new Line(line, new String(text, p, end - p, charset), match, true));
+            p = nextLine(text, end);
+        }
+        return number - 1;
+    }
+
+    private static int lineStart(byte[] text, int i) {
+        while (i > 0 && text[i - 1] != '\n' && text[i - 1] != '\r') {
+            i--;
+        }
+        return i;
+    }
+
+    private static int lineEnd(byte[] text, int i) {
+        while (i < text.length && text[i] != '\n' && text[i] != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    // Start of the line after the one ending at end
+    private static int nextLine(byte[] text, int end) {
+        if (end + 1 < text.length && text[end] == '\r' && text[end + 1] == '\n') {
+            return end + 2;
+        }
+        return Math.min(end + 1, text.length);
+    }
+
+    // Start of the line before the one starting at start
+    private static int previousLine(byte[] text, int start) {
+        int end = start - 1;
+        if (end > 0 && text[end] == '\n' && text[end - 1] == '\r') {
+            end--;
+        }
+        return lineStart(text, end);
+    }
+
+    // Line breaks in text[from, to)
+    private static int countLines(byte[] text, int from, int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) {
+            byte b = text[i];
+            if (b == '\n' || (b == '\r' && (i + 1 >= text.length || text[i + 1] != '\n'))) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -3,23 +3,143 @@ package com.analyzer.core;
 import com.analyzer.model.ClassInfo;
 import com.containers.GenericList;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the current IndexSnapshot. Readers never lock: they read whichever
+ * snapshot is published, or pin one for the duration of a query. Writers build
+ * the next snapshot off-thread and publish it atomically.
+ */
 public class Index {
-    private GenericList<ClassInfo> classes;
+    private final AtomicReference<IndexSnapshot> current;
+    private final boolean pinned;
+    private volatile ContentCache contents = ContentCache.NONE;
+    private volatile Parser parser = new Parser();
 
     public Index() {
-        this.classes = new GenericList<>();
+        this.current = new AtomicReference<>(IndexSnapshot.EMPTY);
+        this.pinned = false;
+    }
+
+    private Index(IndexSnapshot snapshot, boolean pinned) {
+        this.current = new AtomicReference<>(snapshot);
+        this.pinned = pinned;
+    }
+
+    /**
+     * Opens an index file written by MappedIndex.write or PackedIndex.write,
+     * told apart by their first bytes. A mapped file is mapped, not read, so
+     * this returns immediately regardless of index size; a packed dump is
+     * decoded (and decompressed) into memory.
+     */
+    public static Index open(Path file) throws IOException {
+        if (!isMapped(file) && PackedIndex.isPacked(file)) {
+            return new Index(PackedIndex.read(file), false);
+        }
+        return new Index(IndexSnapshot.of(1, MappedIndex.open(file)), false);
+    }
+
+    private static boolean isMapped(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] magic = new byte[4];
+            return in.readNBytes(magic, 0, 4) == 4 && ByteBuffer.wrap(magic).getInt() == MappedIndex.MAGIC;
+        }
     }
 
     public void setClasses(GenericList<ClassInfo> classes) {
-        this.classes = classes;
+        setClasses(classes, Parser.Mode.FULL);
+    }
+
+    /**
+     * Publishes classes parsed in the given mode as the next version.
+     */
+    public void setClasses(GenericList<ClassInfo> classes, Parser.Mode parseMode) {
+        update(s -> IndexSnapshot.of(s.getVersion() + 1, classes, parseMode));
+    }
+
+    /**
+     * Replaces the classes of the given files in a new version. An empty list
+     * removes the file.
+     */
+    public IndexSnapshot replaceFiles(Map<String, GenericList<ClassInfo>> updates) {
+        return update(s -> s.withFiles(updates));
+    }
+
+    /**
+     * Publishes the snapshot derived from the current one. The function may be
+     * retried if another writer published first, so it must not have side
+     * effects.
+     */
+    public IndexSnapshot update(UnaryOperator<IndexSnapshot> next) {
+        if (pinned) {
+            throw new IllegalStateException("Pinned index is read-only");
+        }
+        return current.updateAndGet(next);
+    }
+
+    public IndexSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Returns a read-only Index fixed to the current snapshot, so a query sees
+     * one consistent version no matter what is published meanwhile.
+     */
+    public Index pin() {
+        Index pinned = new Index(current.get(), true);
+        pinned.contents = contents;
+        pinned.parser = parser;
+        return pinned;
+    }
+
+    /**
+     * Like pin, but with method bodies: a snapshot built with --decl-only is
+     * swapped for its files parsed in full, once per version.
+     */
+    public Index pinWithBodies() {
+        Index pinned = new Index(current.get().withBodies(parser), true);
+        pinned.contents = contents;
+        pinned.parser = parser;
+        return pinned;
+    }
+
+    /**
+     * The parser the files were indexed with, whose settings pinWithBodies
+     * uses for a full parse. Pinned copies share it.
+     */
+    public void setParser(Parser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Where commands that read source text get file contents: straight from
+     * disk unless a cache has been set. Pinned copies share the cache.
+     */
+    public ContentCache getContents() {
+        return contents;
+    }
+
+    public void setContents(ContentCache contents) {
+        this.contents = contents == null ? ContentCache.NONE : contents;
+    }
+
+    public long getVersion() {
+        return current.get().getVersion();
     }
 
     public GenericList<ClassInfo> getClasses() {
-        return classes;
+        return current.get().getClasses();
     }
 
     // Example query method using functional extensions
     public GenericList<ClassInfo> findClassesByName(String name) {
-        return classes.filter(c -> c.getName().equals(name));
+        return getClasses().filter(c -> c.getName().equals(name));
     }
 }
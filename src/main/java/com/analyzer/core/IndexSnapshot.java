@@ -0,0 +1,322 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the index. Classes are grouped per source file;
+ * deriving the next version copies only the file table (one entry per file)
+ * and shares the class lists of every file that did not change. The flat
+ * class list is built from the file table the first time it is asked for.
+ *
+ * A snapshot opened from a MappedIndex starts without model objects: counts,
+ * columns, file paths and single classes or files are read from the mapped
+ * file, and the ClassInfo list is built the first time it is asked for.
+ */
+public final class IndexSnapshot {
+    static final IndexSnapshot EMPTY = new IndexSnapshot(0, Collections.emptyMap(), 0, Parser.Mode.FULL);
+
+    private final long version;
+    private final MappedIndex mapped;
+    private volatile Map<String, GenericList<ClassInfo>> files;
+    private volatile GenericList<ClassInfo> classes;
+    private final int classCount;
+    private final Parser.Mode parseMode;
+    // Built on first use; racing builders produce equal copies
+    private volatile ColumnarIndex columns;
+    private volatile ReferenceGraph references;
+    private volatile PackageGraph packages;
+    private volatile NameIndex names;
+    private volatile SearchIndex search;
+    private volatile IndexSnapshot withBodies;
+    // File path -> class rows of a mapped snapshot, read from its file column
+    private volatile Map<String, int[]> mappedFiles;
+
+    private IndexSnapshot(long version, Map<String, GenericList<ClassInfo>> files, int classCount,
+            Parser.Mode parseMode) {
+        this.version = version;
+        this.mapped = null;
+        this.files = files;
+        this.classCount = classCount;
+        this.parseMode = parseMode;
+    }
+
+    private IndexSnapshot(long version, MappedIndex mapped) {
+        this.version = version;
+        this.mapped = mapped;
+        this.classCount = mapped.getClassCount();
+        this.parseMode = mapped.getParseMode();
+    }
+
+    /**
+     * Builds a snapshot from a flat class list parsed in the given mode,
+     * grouping it by file.
+     */
+    static IndexSnapshot of(long version, GenericList<ClassInfo> classes, Parser.Mode parseMode) {
+        return new IndexSnapshot(version, groupByFile(classes), classes.size(), parseMode);
+    }
+
+    static IndexSnapshot of(long version, MappedIndex mapped) {
+        return new IndexSnapshot(version, mapped);
+    }
+
+    /**
+     * Returns the next version with the given files replaced. An empty list
+     * removes the file from the index. The replacements must have been parsed
+     * in this snapshot's mode.
+     */
+    public IndexSnapshot withFiles(Map<String, GenericList<ClassInfo>> updates) {
+        Map<String, GenericList<ClassInfo>> next = new LinkedHashMap<>(getFiles());
+        int count = classCount;
+        for (Map.Entry<String, GenericList<ClassInfo>> entry : updates.entrySet()) {
+            GenericList<ClassInfo> old = entry.getValue().isEmpty() ? next.remove(entry.getKey())
+                    : next.put(entry.getKey(), entry.getValue().readOnly());
+            count += entry.getValue().size() - (old != null ? old.size() : 0);
+        }
+        return new IndexSnapshot(version + 1, Collections.unmodifiableMap(next), count, parseMode);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * All classes of this version in file order, as a read-only list shared
+     * between readers.
+     */
+    public GenericList<ClassInfo> getClasses() {
+        if (classes == null) {
+            materialize();
+        }
+        return classes;
+    }
+
+    /**
+     * How the classes were parsed. In DECLARATIONS mode there are no method
+     * bodies: body metrics are zero, and callees, references and search
+     * terms from bodies are missing.
+     */
+    public Parser.Mode getParseMode() {
+        return parseMode;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * The class at a row of getClasses(). For a mapped snapshot that has not
+     * been materialized, only this one class is built.
+     */
+    public ClassInfo getClass(int row) {
+        GenericList<ClassInfo> built = classes;
+        if (built == null && mapped != null) {
+            return mapped.materialize(row);
+        }
+        return getClasses().get(row);
+    }
+
+    public ColumnarIndex getColumns() {
+        ColumnarIndex built = columns;
+        if (built == null) {
+            built = isUnmaterialized() ? new ColumnarIndex(mapped) : new ColumnarIndex(getClasses());
+            columns = built;
+        }
+        return built;
+    }
+
+    /**
+     * Call and type-reference graph, built on first use. A mapped snapshot is
+     * materialized for this, since references are stored per class.
+     */
+    public ReferenceGraph getReferences() {
+        ReferenceGraph built = references;
+        if (built == null) {
+            built = new ReferenceGraph(getClasses());
+            references = built;
+        }
+        return built;
+    }
+
+    /**
+     * Package dependency graph, built on first use. Like getReferences, this
+     * materializes a mapped snapshot.
+     */
+    public PackageGraph getPackageGraph() {
+        PackageGraph built = packages;
+        if (built == null) {
+            built = new PackageGraph(getClasses(), getColumns());
+            packages = built;
+        }
+        return built;
+    }
+
+    /**
+     * Full-text search index. A mapped snapshot uses the index stored in the
+     * file, without materializing.
+     */
+    public SearchIndex getSearch() {
+        SearchIndex built = search;
+        if (built == null) {
+            built = isUnmaterialized() ? new SearchIndex(mapped) : new SearchIndex(getClasses());
+            search = built;
+        }
+        return built;
+    }
+
+    /**
+     * This version with method bodies: the snapshot itself if it was parsed
+     * in FULL mode, otherwise its files parsed again by a FULL copy of
+     * parser. Built on first use and kept with this version. Files that no
+     * longer parse are left out.
+     */
+    public IndexSnapshot withBodies(Parser parser) {
+        if (parseMode == Parser.Mode.FULL) {
+            return this;
+        }
+        IndexSnapshot built = withBodies;
+        if (built == null) {
+            GenericList<String> paths = getFilePaths();
+            GenericList<File> files = new GenericList<>();
+            for (int i = 0; i < paths.size(); i++) {
+                files.add(new File(paths.get(i)));
+            }
+            built = of(version, parser.withMode(Parser.Mode.FULL).parse(files), Parser.Mode.FULL);
+            withBodies = built;
+        }
+        return built;
+    }
+
+    public NameIndex getNames() {
+        NameIndex built = names;
+        if (built == null) {
+            built = new NameIndex(getClasses());
+            names = built;
+        }
+        return built;
+    }
+
+    /**
+     * The classes of one file. For a mapped snapshot that has not been
+     * materialized, only those classes are built.
+     */
+    public GenericList<ClassInfo> getClassesInFile(String filePath) {
+        if (isUnmaterialized()) {
+            GenericList<ClassInfo> fileClasses = new GenericList<>();
+            int[] rows = getMappedFiles().get(filePath);
+            for (int row : rows != null ? rows : new int[0]) {
+                fileClasses.add(mapped.materialize(row));
+            }
+            return fileClasses;
+        }
+        GenericList<ClassInfo> fileClasses = getFiles().get(filePath);
+        return fileClasses != null ? fileClasses : new GenericList<>();
+    }
+
+    public int getFileCount() {
+        return isUnmaterialized() ? getMappedFiles().size() : getFiles().size();
+    }
+
+    /**
+     * Every source file once, in the order its first class was indexed. A
+     * mapped snapshot reads them from its file column.
+     */
+    public GenericList<String> getFilePaths() {
+        GenericList<String> paths = new GenericList<>();
+        for (String path : isUnmaterialized() ? getMappedFiles().keySet() : getFiles().keySet()) {
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    private Map<String, int[]> getMappedFiles() {
+        Map<String, int[]> built = mappedFiles;
+        if (built != null) {
+            return built;
+        }
+        // Number the distinct file ids in row order, then bucket the rows
+        Map<Integer, Integer> fileOfId = new HashMap<>();
+        GenericList<Integer> fileIds = new GenericList<>();
+        int[] fileOf = new int[classCount];
+        int[] sizes = new int[classCount];
+        for (int row = 0; row < classCount; row++) {
+            int id = mapped.classInt(row, MappedIndex.CLASS_FILE);
+            Integer file = fileOfId.get(id);
+            if (file == null) {
+                file = fileIds.size();
+                fileOfId.put(id, file);
+                fileIds.add(id);
+            }
+            fileOf[row] = file;
+            sizes[file]++;
+        }
+        int[][] rows = new int[fileIds.size()][];
+        for (int f = 0; f < rows.length; f++) {
+            rows[f] = new int[sizes[f]];
+            sizes[f] = 0;
+        }
+        for (int row = 0; row < classCount; row++) {
+            rows[fileOf[row]][sizes[fileOf[row]]++] = row;
+        }
+        Map<String, int[]> files = new LinkedHashMap<>();
+        for (int f = 0; f < rows.length; f++) {
+            files.put(mapped.string(fileIds.get(f)), rows[f]);
+        }
+        built = Collections.unmodifiableMap(files);
+        mappedFiles = built;
+        return built;
+    }
+
+    private Map<String, GenericList<ClassInfo>> getFiles() {
+        if (files == null) {
+            materialize();
+        }
+        return files;
+    }
+
+    private boolean isUnmaterialized() {
+        return mapped != null && classes == null;
+    }
+
+    private synchronized void materialize() {
+        if (classes != null) {
+            return;
+        }
+        if (mapped == null) {
+            classes = flatten(files);
+            return;
+        }
+        GenericList<ClassInfo> all = new GenericList<>();
+        for (int row = 0; row < mapped.getClassCount(); row++) {
+            all.add(mapped.materialize(row));
+        }
+        files = groupByFile(all);
+        classes = all.readOnly();
+    }
+
+    private static Map<String, GenericList<ClassInfo>> groupByFile(GenericList<ClassInfo> classes) {
+        Map<String, GenericList<ClassInfo>> files = new LinkedHashMap<>();
+        for (int i = 0; i < classes.size(); i++) {
+            ClassInfo c = classes.get(i);
+            files.computeIfAbsent(c.getFilePath(), k -> new GenericList<>()).add(c);
+        }
+        files.replaceAll((path, fileClasses) -> fileClasses.readOnly());
+        return Collections.unmodifiableMap(files);
+    }
+
+    private static GenericList<ClassInfo> flatten(Map<String, GenericList<ClassInfo>> files) {
+        GenericList<ClassInfo> classes = new GenericList<>();
+        for (GenericList<ClassInfo> fileClasses : files.values()) {
+            for (int i = 0; i < fileClasses.size(); i++) {
+                classes.add(fileClasses.get(i));
+            }
+        }
+        return classes.readOnly();
+    }
+}
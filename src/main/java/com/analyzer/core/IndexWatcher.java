@@ -0,0 +1,196 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps an Index live while sources change. Events are collected on a
+ * background thread and debounced; once the tree has been quiet for the
+ * debounce interval only the touched files are re-parsed and published as the
+ * next IndexSnapshot.
+ *
+ * The thread only turns watch events into batches of paths; what an event
+ * adds to a batch (collect) and how a batch becomes a snapshot (reindex) are
+ * package-private, so they can be tested without waiting on the file system.
+ */
+public class IndexWatcher implements AutoCloseable {
+    private static final long DEFAULT_DEBOUNCE_MS = 300;
+
+    private final Index index;
+    private final Path root;
+    private final Parser parser;
+    private final long debounceMs;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private Thread thread;
+
+    public IndexWatcher(Index index, String rootPath, Parser parser) throws IOException {
+        this(index, rootPath, parser, DEFAULT_DEBOUNCE_MS);
+    }
+
+    public IndexWatcher(Index index, String rootPath, Parser parser, long debounceMs) throws IOException {
+        this.index = index;
+        this.root = Paths.get(rootPath);
+        this.parser = parser;
+        this.debounceMs = debounceMs;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    public void start() throws IOException {
+        registerTree(root);
+        thread = new Thread(this::run, "index-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Error closing watch service: " + e.getMessage());
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                // Block for the first event, then keep draining until quiet
+                WatchKey key = watchService.take();
+                collect(key, changed);
+                while ((key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                if (!changed.isEmpty()) {
+                    reindex(changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher closed
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                continue;
+            }
+            collect(event.kind(), dir.resolve((Path) event.context()), changed);
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * Adds the sources one event on child touches to the batch.
+     */
+    void collect(WatchEvent.Kind<?> kind, Path child, Set<Path> changed) {
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+            try {
+                registerTree(child);
+                // Files created before the directory was registered were missed
+                try (Stream<Path> walk = Files.walk(child)) {
+                    walk.filter(p -> p.toString().endsWith(".java")).forEach(changed::add);
+                }
+            } catch (IOException e) {
+                System.err.println("Error watching directory: " + child);
+            }
+        } else if (child.toString().endsWith(".java") || kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            // A deleted entry may have been a directory full of sources
+            changed.add(child);
+        }
+    }
+
+    /**
+     * Re-parses one batch of changed paths and publishes the result.
+     */
+    IndexSnapshot reindex(Set<Path> changed) {
+        // Parse everything first, in one batch; the index only sees the
+        // finished version
+        IndexSnapshot current = index.snapshot();
+        Map<String, GenericList<ClassInfo>> updates = new LinkedHashMap<>();
+        GenericList<File> files = new GenericList<>();
+        for (Path p : changed) {
+            File file = p.toFile();
+            String path = file.getAbsolutePath();
+            if (file.isFile()) {
+                files.add(file);
+                updates.put(path, new GenericList<>());
+            } else {
+                // Gone: a file, or a directory whose files all go with it
+                updates.put(path, new GenericList<>());
+                String prefix = path + File.separator;
+                GenericList<String> indexed = current.getFilePaths();
+                for (int i = 0; i < indexed.size(); i++) {
+                    if (indexed.get(i).startsWith(prefix)) {
+                        updates.put(indexed.get(i), new GenericList<>());
+                    }
+                }
+            }
+        }
+
+        GenericList<ParseFailure> failures = parser.getFailures();
+        int failuresBefore = failures.size();
+        GenericList<ClassInfo> classes = parser.parse(files);
+        for (int i = 0; i < classes.size(); i++) {
+            ClassInfo c = classes.get(i);
+            updates.get(c.getFilePath()).add(c);
+        }
+
+        IndexSnapshot next = index.replaceFiles(updates);
+        System.out.println("\n[watch] Re-indexed " + updates.size() + " file(s). "
+                + next.getClassCount() + " classes in index (version " + next.getVersion() + ").");
+        if (failures.size() > failuresBefore) {
+            GenericList<ParseFailure> skipped = new GenericList<>();
+            for (int i = failuresBefore; i < failures.size(); i++) {
+                skipped.add(failures.get(i));
+            }
+            System.err.println("[watch] " + ParseFailure.summarize(skipped));
+            for (int i = 0; i < skipped.size(); i++) {
+                System.err.println("  " + skipped.get(i));
+            }
+        }
+        return next;
+    }
+
+    int getWatchedDirectoryCount() {
+        return keys.size();
+    }
+
+    private void registerTree(Path start) throws IOException {
+        try (Stream<Path> walk = Files.walk(start)) {
+            for (Path dir : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                WatchKey key = dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(key, dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.analyzer.core;
+
+import com.containers.AhoCorasick;
+import com.containers.GenericList;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Search for fixed strings in the raw bytes of a file, without decoding it.
+ * One literal is found with Boyer-Moore-Horspool, which looks at the last
+ * byte of each window and skips ahead by up to the literal's length on a
+ * mismatch; several are found together with an Aho-Corasick automaton.
+ *
+ * Byte offsets only mean the same as character positions when the literal
+ * is ASCII and the files are read in a charset where ASCII bytes always
+ * stand for themselves (UTF-8, Latin-1 and other single-byte charsets), so
+ * {@link #canMatch(String)} must be checked before use.
+ */
+public abstract class LiteralMatcher {
+    private static final boolean ASCII_SAFE = isAsciiSafe(Charset.defaultCharset());
+
+    /**
+     * Start offset of the first occurrence in text[from, to), or -1.
+     */
+    public abstract int find(byte[] text, int from, int to);
+
+    /**
+     * Occurrences in text[from, to) counted the way repeated indexOf would:
+     * leftmost first, not overlapping. A matcher of several literals counts
+     * each on its own and returns the total.
+     */
+    public abstract int count(byte[] text, int from, int to);
+
+    /**
+     * Adds to counts[i] the occurrences of literal i in text[from, to), each
+     * literal counted on its own as {@link #count(byte[], int, int)} would.
+     */
+    public void countEach(byte[] text, int from, int to, int[] counts) {
+        counts[0] += count(text, from, to);
+    }
+
+    public static LiteralMatcher of(String literal) {
+        return new Horspool(literal.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Finds whichever of literals occurs first, or counts each of them in
+     * one pass.
+     */
+    public static LiteralMatcher anyOf(GenericList<String> literals) {
+        if (literals.size() == 1) {
+            return of(literals.get(0));
+        }
+        GenericList<byte[]> patterns = new GenericList<>();
+        for (int i = 0; i < literals.size(); i++) {
+            patterns.add(literals.get(i).getBytes(StandardCharsets.US_ASCII));
+        }
+        AhoCorasick automaton = new AhoCorasick(patterns);
+        return new LiteralMatcher() {
+            @Override
+            public int find(byte[] text, int from, int to) {
+                return automaton.find(text, from, to);
+            }
+
+            @Override
+            public int count(byte[] text, int from, int to) {
+                int[] counts = new int[patterns.size()];
+                countEach(text, from, to, counts);
+                int total = 0;
+                for (int c : counts) {
+                    total += c;
+                }
+                return total;
+            }
+
+            @Override
+            public void countEach(byte[] text, int from, int to, int[] counts) {
+                automaton.count(text, from, to, counts);
+            }
+        };
+    }
+
+    /**
+     * Whether a byte search for literal agrees with searching the text of
+     * files read in the default charset: literal is non-empty ASCII without
+     * line breaks, and the charset keeps ASCII bytes unambiguous.
+     */
+    public static boolean canMatch(String literal) {
+        if (!ASCII_SAFE || literal.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c >= 0x80 || c == '\n' || c == '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // In UTF-8 and single-byte ASCII supersets, a byte below 0x80 is always
+    // that ASCII character; in Shift_JIS or UTF-16 it can be half of another
+    private static boolean isAsciiSafe(Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f) {
+            return false;
+        }
+        char[] ascii = new char[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (char) i;
+        }
+        byte[] encoded = new String(ascii).getBytes(charset);
+        if (encoded.length != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (encoded[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Horspool extends LiteralMatcher {
+        private final byte[] needle;
+        // How far the window may move when its last byte is b
+        private final int[] shift = new int[256];
+
+        Horspool(byte[] needle) {
+            this.needle = needle;
+            int m = needle.length;
+            Arrays.fill(shift, m);
+            for (int i = 0; i < m - 1; i++) {
+                shift[needle[i] & 0xff] = m - 1 - i;
+            }
+        }
+
+        @Override
+        public int find(byte[] text, int from, int to) {
+            int m = needle.length;
+            if (m == 1) {
+                byte b = needle[0];
+                for (int i = from; i < to; i++) {
+                    if (text[i] == b) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            int last = m - 1;
+            byte lastByte = needle[last];
+            int end = to - m;
+            int i = from;
+            while (i <= end) {
+                byte b = text[i + last];
+                if (b == lastByte && matchesAt(text, i)) {
+                    return i;
+                }
+                i += shift[b & 0xff];
+            }
+            return -1;
+        }
+
+        @Override
+        public int count(byte[] text, int from, int to) {
+            int count = 0;
+            int at = find(text, from, to);
+            while (at >= 0) {
+                count++;
+                at = find(text, at + needle.length, to);
+            }
+            return count;
+        }
+
+        private boolean matchesAt(byte[] text, int at) {
+            for (int j = needle.length - 2; j >= 0; j--) {
+                if (text[at + j] != needle[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.analyzer.core;
+
+import java.util.Arrays;
+
+/**
+ * Byte compression in the LZ4 block format: a stream of sequences, each a
+ * run of literal bytes followed by a copy of earlier output (at most 64 KB
+ * back, at least 4 bytes long). It compresses source text about half as well
+ * as deflate but decompresses several times faster, since decoding is only
+ * array copies, which is what matters for contents read far more often than
+ * they are stored.
+ *
+ * Compression finds matches through a hash table of 4-byte sequences and
+ * skips ahead faster the longer it goes without one, so incompressible data
+ * costs little time.
+ */
+final class Lz4Block {
+    private static final int MIN_MATCH = 4;
+    // The format ends every block with at least 5 literals, and a match
+    // may not start in the last 12 bytes
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FREE_END = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_BITS = 14;
+    // Each further 64 bytes without a match makes the search step one longer
+    private static final int SKIP_SHIFT = 6;
+
+    private Lz4Block() {
+    }
+
+    /**
+     * The compressed block, or null if it would not be smaller than src.
+     */
+    static byte[] compress(byte[] src) {
+        int n = src.length;
+        byte[] dst = new byte[n + n / 255 + 16];
+        int o = 0;
+        int anchor = 0;
+        if (n > MATCH_FREE_END) {
+            // Position + 1 of the last sequence seen with each hash, 0 if none
+            int[] table = new int[1 << HASH_BITS];
+            int matchLimit = n - MATCH_FREE_END;
+            int extendLimit = n - LAST_LITERALS;
+            int i = 0;
+            int searched = 0;
+            while (i < matchLimit) {
+                int sequence = readInt(src, i);
+                int hash = (sequence * -1640531535) >>> (32 - HASH_BITS);
+                int ref = table[hash] - 1;
+                table[hash] = i + 1;
+                if (ref < 0 || i - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                    i += 1 + (searched++ >>> SKIP_SHIFT);
+                    continue;
+                }
+                searched = 0;
+                while (i > anchor && ref > 0 && src[i - 1] == src[ref - 1]) {
+                    i--;
+                    ref--;
+                }
+                int length = MIN_MATCH;
+                while (i + length < extendLimit && src[i + length] == src[ref + length]) {
+                    length++;
+                }
+                o = writeSequence(src, anchor, i - anchor, dst, o, i - ref, length);
+                i += length;
+                anchor = i;
+            }
+        }
+        // The last sequence is literals only
+        int literals = n - anchor;
+        int token = o++;
+        dst[token] = (byte) (Math.min(literals, 15) << 4);
+        o = writeLength(dst, o, literals);
+        System.arraycopy(src, anchor, dst, o, literals);
+        o += literals;
+        return o < n ? Arrays.copyOf(dst, o) : null;
+    }
+
+    /**
+     * Decodes a block produced by compress back into its size bytes.
+     *
+     * @throws IllegalArgumentException if the block is damaged
+     */
+    static byte[] decompress(byte[] src, int size) {
+        byte[] dst = new byte[size];
+        int i = 0;
+        int o = 0;
+        try {
+            while (true) {
+                int token = src[i++] & 0xff;
+                int literals = token >>> 4;
+                if (literals == 15) {
+                    int b;
+                    do {
+                        b = src[i++] & 0xff;
+                        literals += b;
+                    } while (b == 255);
+                }
+                System.arraycopy(src, i, dst, o, literals);
+                i += literals;
+                o += literals;
+                if (i >= src.length) {
+                    break;
+                }
+                int offset = (src[i] & 0xff) | (src[i + 1] & 0xff) << 8;
+                i += 2;
+                int length = token & 15;
+                if (length == 15) {
+                    int b;
+                    do {
+                        b = src[i++] & 0xff;
+                        length += b;
+                    } while (b == 255);
+                }
+                length += MIN_MATCH;
+                int ref = o - offset;
+                if (offset == 0 || ref < 0) {
+                    throw new IllegalArgumentException("Bad match offset " + offset + " at " + o);
+                }
+                if (offset >= length) {
+                    System.arraycopy(dst, ref, dst, o, length);
+                    o += length;
+                } else {
+                    // Overlapping copy: repeats the last offset bytes
+                    for (int end = o + length; o < end; o++) {
+                        dst[o] = dst[o - offset];
+                    }
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated block", e);
+        }
+        if (o != size) {
+            throw new IllegalArgumentException("Block holds " + o + " bytes, expected " + size);
+        }
+        return dst;
+    }
+
+    private static int writeSequence(byte[] src, int from, int literals, byte[] dst, int o, int offset,
+            int length) {
+        int token = o++;
+        int extra = length - MIN_MATCH;
+        dst[token] = (byte) (Math.min(literals, 15) << 4 | Math.min(extra, 15));
+        o = writeLength(dst, o, literals);
+        System.arraycopy(src, from, dst, o, literals);
+        o += literals;
+        dst[o++] = (byte) offset;
+        dst[o++] = (byte) (offset >>> 8);
+        return writeLength(dst, o, extra);
+    }
+
+    // Lengths of 15 or more continue in bytes of 255 and a final smaller one
+    private static int writeLength(byte[] dst, int o, int length) {
+        if (length < 15) {
+            return o;
+        }
+        int rest = length - 15;
+        while (rest >= 255) {
+            dst[o++] = (byte) 255;
+            rest -= 255;
+        }
+        dst[o++] = (byte) rest;
+        return o;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16 | (b[i + 3] & 0xff) << 24;
+    }
+}
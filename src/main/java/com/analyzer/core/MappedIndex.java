@@ -0,0 +1,654 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.FieldInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only index file that is memory-mapped and queried in place. Opening it
+ * costs one mmap call; ClassInfo objects are only built for the rows that are
+ * actually requested, and processes opening the same file share its pages.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header   magic, version, classCount, methodCount, fieldCount, paramCount, calleeCount,
+ *          typeRefCount, dependencyCount, termCount, searchTermCount, postingBytes, stringCount,
+ *          parseMode (Parser.Mode ordinal)
+ * classes  classCount x [name, package, file, firstMethod, methodCount, firstField, fieldCount,
+ *                        firstTypeRef, typeRefCount, firstDependency, dependencyCount,
+ *                        firstTerm, termCount]
+ * methods  methodCount x [name, returnType, loc, startLine, firstParam, paramCount,
+ *                         complexity, maxNesting, statements, callSites, firstCallee, calleeCount,
+ *                         firstTerm, termCount]
+ * fields   fieldCount x [name, type]
+ * params   paramCount x [type]
+ * callees  calleeCount x [name]
+ * typeRefs typeRefCount x [name]
+ * deps     dependencyCount x [name]
+ * terms    termCount x [name, frequency]
+ * docLens  (classCount + methodCount) x [length]
+ * search   searchTermCount x [name, documents, postingsOffset]
+ * postings postingBytes bytes, see SearchIndex
+ * strings  (stringCount + 1) x offset, then UTF-8 bytes
+ * </pre>
+ * All names are ids into the file's own string table. terms holds each
+ * class's and method's search terms; docLens, search and postings are the
+ * inverted SearchIndex built from them, stored so that opening a file does
+ * not rebuild it.
+ */
+public final class MappedIndex {
+    static final int MAGIC = 0x43414958; // "CAIX"
+    private static final int VERSION = 6;
+
+    // Column numbers for classInt / methodInt
+    public static final int CLASS_NAME = 0;
+    public static final int CLASS_PACKAGE = 1;
+    public static final int CLASS_FILE = 2;
+    public static final int CLASS_FIRST_METHOD = 3;
+    public static final int CLASS_METHOD_COUNT = 4;
+    public static final int CLASS_FIRST_FIELD = 5;
+    public static final int CLASS_FIELD_COUNT = 6;
+    public static final int CLASS_FIRST_TYPE_REF = 7;
+    public static final int CLASS_TYPE_REF_COUNT = 8;
+    public static final int CLASS_FIRST_DEPENDENCY = 9;
+    public static final int CLASS_DEPENDENCY_COUNT = 10;
+    public static final int CLASS_FIRST_TERM = 11;
+    public static final int CLASS_TERM_COUNT = 12;
+
+    public static final int METHOD_NAME = 0;
+    public static final int METHOD_RETURN_TYPE = 1;
+    public static final int METHOD_LOC = 2;
+    public static final int METHOD_START_LINE = 3;
+    public static final int METHOD_FIRST_PARAM = 4;
+    public static final int METHOD_PARAM_COUNT = 5;
+    public static final int METHOD_COMPLEXITY = 6;
+    public static final int METHOD_MAX_NESTING = 7;
+    public static final int METHOD_STATEMENTS = 8;
+    public static final int METHOD_CALL_SITES = 9;
+    public static final int METHOD_FIRST_CALLEE = 10;
+    public static final int METHOD_CALLEE_COUNT = 11;
+    public static final int METHOD_FIRST_TERM = 12;
+    public static final int METHOD_TERM_COUNT = 13;
+
+    // Column numbers for searchTermInt
+    public static final int SEARCH_TERM_NAME = 0;
+    public static final int SEARCH_TERM_DOCUMENTS = 1;
+    public static final int SEARCH_TERM_POSTINGS = 2;
+
+    private static final int HEADER_BYTES = 14 * 4;
+    private static final int CLASS_BYTES = 13 * 4;
+    private static final int METHOD_BYTES = 14 * 4;
+    private static final int FIELD_BYTES = 2 * 4;
+    private static final int TERM_BYTES = 2 * 4;
+    private static final int SEARCH_TERM_BYTES = 3 * 4;
+    private static final int STRING_COUNT_OFFSET = 48;
+    private static final int PARSE_MODE_OFFSET = 52;
+
+    private final ByteBuffer buffer;
+    private final int classCount;
+    private final int methodCount;
+    private final int fieldCount;
+    private final int searchTermCount;
+    private final int postingBytes;
+    private final int stringCount;
+    private final Parser.Mode parseMode;
+    private final int classTable;
+    private final int methodTable;
+    private final int fieldTable;
+    private final int paramTable;
+    private final int calleeTable;
+    private final int typeRefTable;
+    private final int dependencyTable;
+    private final int termTable;
+    private final int documentLengthTable;
+    private final int searchTermTable;
+    private final int postingTable;
+    private final int stringOffsets;
+    private final int stringData;
+    // File string id -> SymbolTable.global() id, filled on demand (-1 = not yet)
+    private final int[] symbolIds;
+
+    private MappedIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an index file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported index file version: " + buffer.getInt(4));
+        }
+        classCount = count(8);
+        methodCount = count(12);
+        fieldCount = count(16);
+        int paramCount = count(20);
+        int calleeCount = count(24);
+        int typeRefCount = count(28);
+        int dependencyCount = count(32);
+        int termCount = count(36);
+        searchTermCount = count(40);
+        postingBytes = count(44);
+        stringCount = count(STRING_COUNT_OFFSET);
+        int mode = buffer.getInt(PARSE_MODE_OFFSET);
+        if (mode < 0 || mode >= Parser.Mode.values().length) {
+            throw new IOException("Corrupt index file: unknown parse mode " + mode);
+        }
+        parseMode = Parser.Mode.values()[mode];
+
+        // Counts are checked, so none of these longs can overflow
+        long end = HEADER_BYTES;
+        classTable = table(end);
+        end += (long) classCount * CLASS_BYTES;
+        methodTable = table(end);
+        end += (long) methodCount * METHOD_BYTES;
+        fieldTable = table(end);
+        end += (long) fieldCount * FIELD_BYTES;
+        paramTable = table(end);
+        end += paramCount * 4L;
+        calleeTable = table(end);
+        end += calleeCount * 4L;
+        typeRefTable = table(end);
+        end += typeRefCount * 4L;
+        dependencyTable = table(end);
+        end += dependencyCount * 4L;
+        termTable = table(end);
+        end += (long) termCount * TERM_BYTES;
+        documentLengthTable = table(end);
+        end += ((long) classCount + methodCount) * 4;
+        searchTermTable = table(end);
+        end += (long) searchTermCount * SEARCH_TERM_BYTES;
+        postingTable = table(end);
+        end += postingBytes;
+        stringOffsets = table(end);
+        end += (stringCount + 1L) * 4;
+        stringData = table(end);
+        int stringBytes = buffer.getInt(stringOffsets + stringCount * 4);
+        if (stringBytes < 0 || end + stringBytes > buffer.capacity()) {
+            throw new IOException("Truncated index file");
+        }
+        for (int id = 0; id < stringCount; id++) {
+            int start = buffer.getInt(stringOffsets + id * 4);
+            if (start < 0 || start > buffer.getInt(stringOffsets + (id + 1) * 4)) {
+                throw new IOException("Corrupt index file: bad offset for string " + id);
+            }
+        }
+        checkRows(paramCount, calleeCount, typeRefCount, dependencyCount, termCount);
+
+        symbolIds = new int[stringCount];
+        Arrays.fill(symbolIds, -1);
+    }
+
+    private int count(int offset) throws IOException {
+        int count = buffer.getInt(offset);
+        if (count < 0) {
+            throw new IOException("Corrupt index file: negative count at byte " + offset);
+        }
+        return count;
+    }
+
+    /**
+     * Checks every row against the table sizes, so that no accessor can read
+     * out of bounds later: each class's and method's ranges must start where
+     * the previous row's ended and add up to the header counts, every string
+     * id must be in the string table, and postings offsets must lie within
+     * the postings section.
+     */
+    private void checkRows(int paramCount, int calleeCount, int typeRefCount, int dependencyCount, int termCount)
+            throws IOException {
+        int[] next = new int[5];
+        for (int c = 0; c < classCount; c++) {
+            int row = classTable + c * CLASS_BYTES;
+            checkIds(row, 3, "class " + c);
+            next[0] = checkRange(row + CLASS_FIRST_METHOD * 4, next[0], methodCount, "class " + c + " methods");
+            next[1] = checkRange(row + CLASS_FIRST_FIELD * 4, next[1], fieldCount, "class " + c + " fields");
+            next[2] = checkRange(row + CLASS_FIRST_TYPE_REF * 4, next[2], typeRefCount, "class " + c + " type refs");
+            next[3] = checkRange(row + CLASS_FIRST_DEPENDENCY * 4, next[3], dependencyCount,
+                    "class " + c + " dependencies");
+            next[4] = checkRange(row + CLASS_FIRST_TERM * 4, next[4], termCount, "class " + c + " terms");
+        }
+        int firstParam = 0;
+        int firstCallee = 0;
+        for (int m = 0; m < methodCount; m++) {
+            int row = methodTable + m * METHOD_BYTES;
+            checkIds(row, 2, "method " + m);
+            firstParam = checkRange(row + METHOD_FIRST_PARAM * 4, firstParam, paramCount, "method " + m + " params");
+            firstCallee = checkRange(row + METHOD_FIRST_CALLEE * 4, firstCallee, calleeCount,
+                    "method " + m + " callees");
+            next[4] = checkRange(row + METHOD_FIRST_TERM * 4, next[4], termCount, "method " + m + " terms");
+        }
+        if (next[0] != methodCount || next[1] != fieldCount || next[2] != typeRefCount
+                || next[3] != dependencyCount || next[4] != termCount || firstParam != paramCount
+                || firstCallee != calleeCount) {
+            throw new IOException("Corrupt index file: row ranges do not add up to the header counts");
+        }
+
+        checkIds(fieldTable, fieldCount * 2, "fields");
+        checkIds(paramTable, paramCount, "params");
+        checkIds(calleeTable, calleeCount, "callees");
+        checkIds(typeRefTable, typeRefCount, "type refs");
+        checkIds(dependencyTable, dependencyCount, "dependencies");
+        for (int t = 0; t < termCount; t++) {
+            checkIds(termTable + t * TERM_BYTES, 1, "term " + t);
+        }
+        for (int t = 0; t < searchTermCount; t++) {
+            int row = searchTermTable + t * SEARCH_TERM_BYTES;
+            checkIds(row, 1, "search term " + t);
+            int postings = buffer.getInt(row + SEARCH_TERM_POSTINGS * 4);
+            if (postings < 0 || postings > postingBytes || buffer.getInt(row + SEARCH_TERM_DOCUMENTS * 4) < 0) {
+                throw new IOException("Corrupt index file: bad postings for search term " + t);
+            }
+        }
+    }
+
+    // The count ints at offset must all be string ids
+    private void checkIds(int offset, int count, String what) throws IOException {
+        for (int i = 0; i < count; i++) {
+            int id = buffer.getInt(offset + i * 4);
+            if (id < 0 || id >= stringCount) {
+                throw new IOException("Corrupt index file: string id " + id + " out of range in " + what);
+            }
+        }
+    }
+
+    // A (first, count) pair at offset that must start at expected and end
+    // within total; returns where the next range starts
+    private int checkRange(int offset, int expected, int total, String what) throws IOException {
+        int first = buffer.getInt(offset);
+        int count = buffer.getInt(offset + 4);
+        if (first != expected || count < 0 || count > total - first) {
+            throw new IOException("Corrupt index file: bad range for " + what);
+        }
+        return first + count;
+    }
+
+    // Offset of a table that must end within the file
+    private int table(long offset) throws IOException {
+        if (offset > buffer.capacity()) {
+            throw new IOException("Truncated index file");
+        }
+        return (int) offset;
+    }
+
+    public static MappedIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Index file too large to map: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedIndex(buffer);
+        }
+    }
+
+    /**
+     * Writes every class of snapshot to path, with the mode it was parsed in.
+     */
+    public static void write(IndexSnapshot snapshot, Path path) throws IOException {
+        GenericList<ClassInfo> classes = snapshot.getClasses();
+        SymbolTable symbols = SymbolTable.global();
+        Map<Integer, Integer> localIds = new HashMap<>();
+        GenericList<String> strings = new GenericList<>();
+
+        int methods = 0;
+        int fields = 0;
+        int params = 0;
+        int callees = 0;
+        int typeRefs = 0;
+        int dependencies = 0;
+        int terms = 0;
+        for (int i = 0; i < classes.size(); i++) {
+            ClassInfo c = classes.get(i);
+            methods += c.getMethods().size();
+            fields += c.getFields().size();
+            typeRefs += c.getTypeReferenceCount();
+            dependencies += c.getDependencyCount();
+            terms += c.getTermCount();
+            for (int j = 0; j < c.getMethods().size(); j++) {
+                params += c.getMethods().get(j).getParameterCount();
+                callees += c.getMethods().get(j).getCalleeCount();
+                terms += c.getMethods().get(j).getTermCount();
+            }
+        }
+        SearchIndex search = new SearchIndex(classes);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(classes.size());
+            out.writeInt(methods);
+            out.writeInt(fields);
+            out.writeInt(params);
+            out.writeInt(callees);
+            out.writeInt(typeRefs);
+            out.writeInt(dependencies);
+            out.writeInt(terms);
+            out.writeInt(search.getTermCount());
+            out.writeInt(search.getPostingBytes());
+            // String count is only known after the tables; patched below
+            out.writeInt(0);
+            out.writeInt(snapshot.getParseMode().ordinal());
+
+            int firstMethod = 0;
+            int firstField = 0;
+            int firstTypeRef = 0;
+            int firstDependency = 0;
+            int firstTerm = 0;
+            for (int i = 0; i < classes.size(); i++) {
+                ClassInfo c = classes.get(i);
+                out.writeInt(local(c.getNameId(), localIds, strings, symbols));
+                out.writeInt(local(c.getPackageId(), localIds, strings, symbols));
+                out.writeInt(local(c.getFilePathId(), localIds, strings, symbols));
+                out.writeInt(firstMethod);
+                out.writeInt(c.getMethods().size());
+                out.writeInt(firstField);
+                out.writeInt(c.getFields().size());
+                out.writeInt(firstTypeRef);
+                out.writeInt(c.getTypeReferenceCount());
+                out.writeInt(firstDependency);
+                out.writeInt(c.getDependencyCount());
+                out.writeInt(firstTerm);
+                out.writeInt(c.getTermCount());
+                firstMethod += c.getMethods().size();
+                firstField += c.getFields().size();
+                firstTypeRef += c.getTypeReferenceCount();
+                firstDependency += c.getDependencyCount();
+                firstTerm += c.getTermCount();
+            }
+
+            int firstParam = 0;
+            int firstCallee = 0;
+            for (int i = 0; i < classes.size(); i++) {
+                GenericList<MethodInfo> classMethods = classes.get(i).getMethods();
+                for (int j = 0; j < classMethods.size(); j++) {
+                    MethodInfo m = classMethods.get(j);
+                    out.writeInt(local(m.getNameId(), localIds, strings, symbols));
+                    out.writeInt(local(m.getReturnTypeId(), localIds, strings, symbols));
+                    out.writeInt(m.getLoc());
+                    out.writeInt(m.getStartLine());
+                    out.writeInt(firstParam);
+                    out.writeInt(m.getParameterCount());
+                    out.writeInt(m.getComplexity());
+                    out.writeInt(m.getMaxNesting());
+                    out.writeInt(m.getStatementCount());
+                    out.writeInt(m.getCallSiteCount());
+                    out.writeInt(firstCallee);
+                    out.writeInt(m.getCalleeCount());
+                    out.writeInt(firstTerm);
+                    out.writeInt(m.getTermCount());
+                    firstParam += m.getParameterCount();
+                    firstCallee += m.getCalleeCount();
+                    firstTerm += m.getTermCount();
+                }
+            }
+
+            for (int i = 0; i < classes.size(); i++) {
+                GenericList<FieldInfo> classFields = classes.get(i).getFields();
+                for (int j = 0; j < classFields.size(); j++) {
+                    FieldInfo f = classFields.get(j);
+                    out.writeInt(local(f.getNameId(), localIds, strings, symbols));
+                    out.writeInt(local(f.getTypeId(), localIds, strings, symbols));
+                }
+            }
+
+            for (int i = 0; i < classes.size(); i++) {
+                GenericList<MethodInfo> classMethods = classes.get(i).getMethods();
+                for (int j = 0; j < classMethods.size(); j++) {
+                    MethodInfo m = classMethods.get(j);
+                    for (int k = 0; k < m.getParameterCount(); k++) {
+                        out.writeInt(local(m.getParameterTypeId(k), localIds, strings, symbols));
+                    }
+                }
+            }
+
+            for (int i = 0; i < classes.size(); i++) {
+                GenericList<MethodInfo> classMethods = classes.get(i).getMethods();
+                for (int j = 0; j < classMethods.size(); j++) {
+                    MethodInfo m = classMethods.get(j);
+                    for (int k = 0; k < m.getCalleeCount(); k++) {
+                        out.writeInt(local(m.getCalleeId(k), localIds, strings, symbols));
+                    }
+                }
+            }
+
+            for (int i = 0; i < classes.size(); i++) {
+                ClassInfo c = classes.get(i);
+                for (int k = 0; k < c.getTypeReferenceCount(); k++) {
+                    out.writeInt(local(c.getTypeReferenceId(k), localIds, strings, symbols));
+                }
+            }
+
+            for (int i = 0; i < classes.size(); i++) {
+                ClassInfo c = classes.get(i);
+                for (int k = 0; k < c.getDependencyCount(); k++) {
+                    out.writeInt(local(c.getDependencyId(k), localIds, strings, symbols));
+                }
+            }
+
+            for (int i = 0; i < classes.size(); i++) {
+                ClassInfo c = classes.get(i);
+                for (int k = 0; k < c.getTermCount(); k++) {
+                    out.writeInt(local(c.getTermId(k), localIds, strings, symbols));
+                    out.writeInt(c.getTermFrequency(k));
+                }
+            }
+            for (int i = 0; i < classes.size(); i++) {
+                GenericList<MethodInfo> classMethods = classes.get(i).getMethods();
+                for (int j = 0; j < classMethods.size(); j++) {
+                    MethodInfo m = classMethods.get(j);
+                    for (int k = 0; k < m.getTermCount(); k++) {
+                        out.writeInt(local(m.getTermId(k), localIds, strings, symbols));
+                        out.writeInt(m.getTermFrequency(k));
+                    }
+                }
+            }
+
+            for (int doc = 0; doc < search.getDocumentCount(); doc++) {
+                out.writeInt(search.documentLength(doc));
+            }
+            for (int t = 0; t < search.getTermCount(); t++) {
+                out.writeInt(local(search.termNameId(t), localIds, strings, symbols));
+                out.writeInt(search.documentFrequency(t));
+                out.writeInt(search.postingOffset(t));
+            }
+            ByteBuffer postings = search.postingBytes();
+            byte[] chunk = new byte[1 << 16];
+            while (postings.hasRemaining()) {
+                int length = Math.min(chunk.length, postings.remaining());
+                postings.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+
+            byte[][] encoded = new byte[strings.size()][];
+            int offset = 0;
+            for (int i = 0; i < strings.size(); i++) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(offset);
+                offset += encoded[i].length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer count = ByteBuffer.allocate(4).putInt(0, strings.size());
+            channel.write(count, STRING_COUNT_OFFSET);
+        }
+    }
+
+    private static int local(int symbolId, Map<Integer, Integer> localIds, GenericList<String> strings,
+            SymbolTable symbols) {
+        Integer id = localIds.get(symbolId);
+        if (id == null) {
+            id = strings.size();
+            localIds.put(symbolId, id);
+            strings.add(symbols.get(symbolId));
+        }
+        return id;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * How the indexed sources were parsed; DECLARATIONS means there is no
+     * body-level data.
+     */
+    public Parser.Mode getParseMode() {
+        return parseMode;
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public int getSearchTermCount() {
+        return searchTermCount;
+    }
+
+    public String string(int id) {
+        int start = buffer.getInt(stringOffsets + id * 4);
+        int end = buffer.getInt(stringOffsets + (id + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringData + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Global SymbolTable id for a file string id, interned on first use.
+     */
+    public int symbol(int id) {
+        int symbolId = symbolIds[id];
+        if (symbolId < 0) {
+            symbolId = SymbolTable.global().intern(string(id));
+            symbolIds[id] = symbolId;
+        }
+        return symbolId;
+    }
+
+    // Raw record accessors: the int at column col of a fixed-width row
+
+    public int classInt(int row, int col) {
+        return buffer.getInt(classTable + row * CLASS_BYTES + col * 4);
+    }
+
+    public int methodInt(int row, int col) {
+        return buffer.getInt(methodTable + row * METHOD_BYTES + col * 4);
+    }
+
+    public int searchTermInt(int row, int col) {
+        return buffer.getInt(searchTermTable + row * SEARCH_TERM_BYTES + col * 4);
+    }
+
+    /**
+     * Term count of every class, then every method document; see SearchIndex.
+     */
+    public int[] searchDocumentLengths() {
+        int[] lengths = new int[classCount + methodCount];
+        for (int doc = 0; doc < lengths.length; doc++) {
+            lengths[doc] = buffer.getInt(documentLengthTable + doc * 4);
+        }
+        return lengths;
+    }
+
+    /**
+     * The encoded postings section, as a view of the mapping.
+     */
+    public ByteBuffer postings() {
+        ByteBuffer view = buffer.duplicate();
+        view.position(postingTable);
+        view.limit(postingTable + postingBytes);
+        return view.slice();
+    }
+
+    private void readTerms(int first, int count, int[] ids, int[] frequencies) {
+        for (int k = 0; k < count; k++) {
+            int base = termTable + (first + k) * TERM_BYTES;
+            ids[k] = symbol(buffer.getInt(base));
+            frequencies[k] = buffer.getInt(base + 4);
+        }
+    }
+
+    /**
+     * Builds the ClassInfo for one row, with its methods and fields.
+     */
+    public ClassInfo materialize(int row) {
+        ClassInfo c = new ClassInfo(string(classInt(row, CLASS_NAME)), string(classInt(row, CLASS_PACKAGE)),
+                string(classInt(row, CLASS_FILE)));
+
+        int firstMethod = classInt(row, CLASS_FIRST_METHOD);
+        int methods = classInt(row, CLASS_METHOD_COUNT);
+        for (int m = firstMethod; m < firstMethod + methods; m++) {
+            MethodInfo method = new MethodInfo(string(methodInt(m, METHOD_NAME)),
+                    string(methodInt(m, METHOD_RETURN_TYPE)), methodInt(m, METHOD_LOC),
+                    methodInt(m, METHOD_START_LINE));
+            method.setBodyMetrics(methodInt(m, METHOD_COMPLEXITY), methodInt(m, METHOD_MAX_NESTING),
+                    methodInt(m, METHOD_STATEMENTS), methodInt(m, METHOD_CALL_SITES));
+            int firstParam = methodInt(m, METHOD_FIRST_PARAM);
+            int paramCount = methodInt(m, METHOD_PARAM_COUNT);
+            for (int p = firstParam; p < firstParam + paramCount; p++) {
+                method.addParameter(string(buffer.getInt(paramTable + p * 4)));
+            }
+            int firstCallee = methodInt(m, METHOD_FIRST_CALLEE);
+            int calleeCount = methodInt(m, METHOD_CALLEE_COUNT);
+            for (int k = firstCallee; k < firstCallee + calleeCount; k++) {
+                method.addCallee(string(buffer.getInt(calleeTable + k * 4)));
+            }
+            int methodTerms = methodInt(m, METHOD_TERM_COUNT);
+            int[] methodTermIds = new int[methodTerms];
+            int[] methodTermFrequencies = new int[methodTerms];
+            readTerms(methodInt(m, METHOD_FIRST_TERM), methodTerms, methodTermIds, methodTermFrequencies);
+            method.setTerms(methodTermIds, methodTermFrequencies);
+            c.addMethod(method);
+        }
+
+        int firstField = classInt(row, CLASS_FIRST_FIELD);
+        int fields = classInt(row, CLASS_FIELD_COUNT);
+        for (int f = firstField; f < firstField + fields; f++) {
+            int base = fieldTable + f * FIELD_BYTES;
+            c.addField(new FieldInfo(string(buffer.getInt(base)), string(buffer.getInt(base + 4))));
+        }
+
+        int firstTypeRef = classInt(row, CLASS_FIRST_TYPE_REF);
+        int typeRefCount = classInt(row, CLASS_TYPE_REF_COUNT);
+        for (int k = firstTypeRef; k < firstTypeRef + typeRefCount; k++) {
+            c.addTypeReference(string(buffer.getInt(typeRefTable + k * 4)));
+        }
+
+        int firstDependency = classInt(row, CLASS_FIRST_DEPENDENCY);
+        int dependencyCount = classInt(row, CLASS_DEPENDENCY_COUNT);
+        for (int k = firstDependency; k < firstDependency + dependencyCount; k++) {
+            c.addDependency(string(buffer.getInt(dependencyTable + k * 4)));
+        }
+
+        int classTerms = classInt(row, CLASS_TERM_COUNT);
+        int[] classTermIds = new int[classTerms];
+        int[] classTermFrequencies = new int[classTerms];
+        readTerms(classInt(row, CLASS_FIRST_TERM), classTerms, classTermIds, classTermFrequencies);
+        c.setTerms(classTermIds, classTermFrequencies);
+        return c;
+    }
+}
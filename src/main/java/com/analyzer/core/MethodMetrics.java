@@ -0,0 +1,135 @@
+package com.analyzer.core;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.SimpleName;
+import com.github.javaparser.ast.expr.SwitchExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.DoStmt;
+import com.github.javaparser.ast.stmt.ExplicitConstructorInvocationStmt;
+import com.github.javaparser.ast.stmt.ForEachStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.stmt.SwitchEntry;
+import com.github.javaparser.ast.stmt.SwitchStmt;
+import com.github.javaparser.ast.stmt.SynchronizedStmt;
+import com.github.javaparser.ast.stmt.TryStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Body metrics of one method, gathered in a single walk over the method's
+ * subtree while ClassVisitor is already on it:
+ * <ul>
+ * <li>cyclomatic complexity: 1 + if, loops, catch, ?:, &amp;&amp;, || and case labels</li>
+ * <li>max nesting: deepest stack of if/loop/switch/try/synchronized blocks;
+ * an else-if stays at the depth of its if</li>
+ * <li>statements: every statement except blocks</li>
+ * <li>call sites: method calls, object creations and this()/super() calls</li>
+ * </ul>
+ * The same walk collects the names of called methods and of referenced
+ * types, for the call and type-reference graphs, and every identifier in the
+ * body as search terms.
+ *
+ * Local classes are not descended into; they are indexed as classes of their
+ * own. Anonymous class bodies have no ClassInfo, so they count as part of the
+ * enclosing method, like lambdas. Methods without a body report all zeros.
+ */
+final class MethodMetrics {
+    int complexity;
+    int maxNesting;
+    int statements;
+    int callSites;
+    final Set<String> callees = new LinkedHashSet<>();
+    final TypeReferences types = new TypeReferences();
+    final SearchTerms terms = new SearchTerms();
+
+    private MethodMetrics() {
+    }
+
+    static MethodMetrics of(MethodDeclaration method) {
+        MethodMetrics metrics = new MethodMetrics();
+        method.getBody().ifPresent(body -> {
+            metrics.complexity = 1;
+            metrics.walk(body, 0);
+        });
+        return metrics;
+    }
+
+    private void walk(Node node, int depth) {
+        if (node instanceof ClassOrInterfaceType) {
+            // Types hold no statements or calls
+            types.add((ClassOrInterfaceType) node);
+            terms.add(((ClassOrInterfaceType) node).asString());
+            return;
+        }
+        if (node instanceof SimpleName) {
+            terms.add(((SimpleName) node).getIdentifier());
+            return;
+        }
+        if (node instanceof MethodCallExpr) {
+            MethodCallExpr call = (MethodCallExpr) node;
+            callees.add(call.getNameAsString());
+            types.addScope(call.getScope());
+        } else if (node instanceof FieldAccessExpr) {
+            types.addScope(Optional.of(((FieldAccessExpr) node).getScope()));
+        }
+        if (node instanceof Statement && !(node instanceof BlockStmt)) {
+            statements++;
+        }
+        complexity += decisions(node);
+        if (node instanceof MethodCallExpr || node instanceof ObjectCreationExpr
+                || node instanceof ExplicitConstructorInvocationStmt) {
+            callSites++;
+        }
+
+        int childDepth = depth;
+        if (nests(node)) {
+            childDepth = depth + 1;
+            maxNesting = Math.max(maxNesting, childDepth);
+        }
+        for (Node child : node.getChildNodes()) {
+            if (child instanceof TypeDeclaration) {
+                continue;
+            }
+            boolean elseIf = node instanceof IfStmt && child instanceof IfStmt
+                    && ((IfStmt) node).getElseStmt().map(e -> e == child).orElse(false);
+            walk(child, elseIf ? depth : childDepth);
+        }
+    }
+
+    private static int decisions(Node node) {
+        if (node instanceof IfStmt || node instanceof ForStmt || node instanceof ForEachStmt
+                || node instanceof WhileStmt || node instanceof DoStmt || node instanceof CatchClause
+                || node instanceof ConditionalExpr) {
+            return 1;
+        }
+        if (node instanceof BinaryExpr) {
+            BinaryExpr.Operator op = ((BinaryExpr) node).getOperator();
+            return op == BinaryExpr.Operator.AND || op == BinaryExpr.Operator.OR ? 1 : 0;
+        }
+        if (node instanceof SwitchEntry) {
+            // "case A, B ->" is two branches; default has no labels
+            return ((SwitchEntry) node).getLabels().size();
+        }
+        return 0;
+    }
+
+    private static boolean nests(Node node) {
+        return node instanceof IfStmt || node instanceof ForStmt || node instanceof ForEachStmt
+                || node instanceof WhileStmt || node instanceof DoStmt || node instanceof SwitchStmt
+                || node instanceof SwitchExpr || node instanceof TryStmt || node instanceof SynchronizedStmt;
+    }
+}
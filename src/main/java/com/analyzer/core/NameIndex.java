@@ -0,0 +1,210 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.FieldInfo;
+import com.analyzer.model.MethodInfo;
+import com.containers.BKTree;
+import com.containers.GenericList;
+import com.containers.Trie;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Case-insensitive name lookup over one snapshot, for inspect suggestions and
+ * REPL completion. Three structures share lowercased keys:
+ *
+ * - names: every class, qualified class, file, method and field name, mapped
+ *   to its spelling in the source, for prefix completion;
+ * - types: class, qualified class and file names mapped to class rows, for
+ *   prefix suggestions that resolve to a class;
+ * - fuzzy: simple class names, file names without ".java" and method names
+ *   in a BK-tree, each tagged with its kind, for typo suggestions.
+ *
+ * A prefix query costs the length of the prefix plus the size of the answer;
+ * a fuzzy query only visits the part of the BK-tree within reach of the
+ * query, not every name. Everything is built once per snapshot, on first use.
+ */
+public final class NameIndex {
+    private final GenericList<ClassInfo> classes;
+    private final Trie<String> names = new Trie<>();
+    private final Trie<Integer> types = new Trie<>();
+    private final BKTree<Suggestion> fuzzy = new BKTree<>();
+
+    public enum Kind {
+        CLASS, FILE, METHOD
+    }
+
+    /**
+     * A name close to a misspelled query: its kind, its spelling in the
+     * source and the row of a class declaring it.
+     */
+    public static final class Suggestion {
+        private final Kind kind;
+        private final String name;
+        private final int row;
+
+        Suggestion(Kind kind, String name, int row) {
+            this.kind = kind;
+            this.name = name;
+            this.row = row;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The declaring class; for a method name shared by several classes,
+         * the first of them.
+         */
+        public int getRow() {
+            return row;
+        }
+    }
+
+    public NameIndex(GenericList<ClassInfo> classes) {
+        this.classes = classes;
+        Set<String> seen = new HashSet<>();
+        Set<String> methodNames = new HashSet<>();
+        for (int row = 0; row < classes.size(); row++) {
+            ClassInfo c = classes.get(row);
+            String simple = c.getName();
+            String qualified = c.getPackageName().isEmpty() ? simple : c.getPackageName() + "." + simple;
+            String file = c.getFileName();
+
+            addName(seen, simple);
+            addName(seen, qualified);
+            addName(seen, file);
+            types.put(simple.toLowerCase(), row);
+            if (!qualified.equals(simple)) {
+                types.put(qualified.toLowerCase(), row);
+            }
+            // A file holding several classes maps to each of them
+            types.put(file.toLowerCase(), row);
+            fuzzy.add(simple.toLowerCase(), new Suggestion(Kind.CLASS, simple, row));
+            fuzzy.add(fuzzyKey(file), new Suggestion(Kind.FILE, file, row));
+
+            GenericList<MethodInfo> methods = c.getMethods();
+            for (int i = 0; i < methods.size(); i++) {
+                String method = methods.get(i).getName();
+                addName(seen, method);
+                // One entry per spelling; overloads and overrides add nothing
+                if (!method.isEmpty() && methodNames.add(method)) {
+                    fuzzy.add(method.toLowerCase(), new Suggestion(Kind.METHOD, method, row));
+                }
+            }
+            GenericList<FieldInfo> fields = c.getFields();
+            for (int i = 0; i < fields.size(); i++) {
+                addName(seen, fields.get(i).getName());
+            }
+        }
+    }
+
+    private void addName(Set<String> seen, String name) {
+        if (!name.isEmpty() && seen.add(name)) {
+            names.put(name.toLowerCase(), name);
+        }
+    }
+
+    /**
+     * Up to limit names of any kind starting with prefix, ignoring case, in
+     * lexicographic order.
+     */
+    public GenericList<String> complete(String prefix, int limit) {
+        GenericList<String> result = new GenericList<>();
+        GenericList<String> keys = names.keysWithPrefix(prefix.toLowerCase(), limit);
+        for (int i = 0; i < keys.size() && result.size() < limit; i++) {
+            GenericList<String> spellings = names.get(keys.get(i));
+            for (int j = 0; j < spellings.size() && result.size() < limit; j++) {
+                result.add(spellings.get(j));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Up to limit classes the user may have meant by query: first those whose
+     * simple, qualified or file name starts with it, then those whose simple
+     * or file name is within a small edit distance of it, nearest first.
+     */
+    public GenericList<ClassInfo> suggestTypes(String query, int limit) {
+        String lower = query.toLowerCase();
+        Set<Integer> rows = new LinkedHashSet<>();
+
+        GenericList<String> keys = types.keysWithPrefix(lower, limit);
+        for (int i = 0; i < keys.size() && rows.size() < limit; i++) {
+            addRows(rows, types.get(keys.get(i)), limit);
+        }
+
+        // Widen one edit at a time: most typos are a single edit, and a
+        // distance-1 search visits far less of the tree than distance 2
+        String key = fuzzyKey(lower);
+        int found = rows.size();
+        for (int distance = 1; distance <= maxDistance(key) && rows.size() == found && found < limit; distance++) {
+            GenericList<BKTree.Match<Suggestion>> matches = fuzzy.search(key, distance);
+            for (int i = 0; i < matches.size() && rows.size() < limit; i++) {
+                GenericList<Suggestion> values = matches.get(i).getValues();
+                for (int j = 0; j < values.size() && rows.size() < limit; j++) {
+                    if (values.get(j).kind != Kind.METHOD) {
+                        rows.add(values.get(j).row);
+                    }
+                }
+            }
+        }
+
+        GenericList<ClassInfo> result = new GenericList<>();
+        for (int row : rows) {
+            result.add(classes.get(row));
+        }
+        return result;
+    }
+
+    private static void addRows(Set<Integer> rows, GenericList<Integer> values, int limit) {
+        for (int i = 0; i < values.size() && rows.size() < limit; i++) {
+            rows.add(values.get(i));
+        }
+    }
+
+    /**
+     * Up to limit class, file and method names within a small edit distance
+     * of query, ignoring case, nearest first.
+     */
+    public GenericList<Suggestion> suggestNames(String query, int limit) {
+        String key = fuzzyKey(query);
+        GenericList<Suggestion> result = new GenericList<>();
+        GenericList<BKTree.Match<Suggestion>> matches = new GenericList<>();
+        for (int distance = 1; distance <= maxDistance(key) && matches.isEmpty(); distance++) {
+            matches = fuzzy.search(key, distance);
+        }
+        for (int i = 0; i < matches.size() && result.size() < limit; i++) {
+            GenericList<Suggestion> values = matches.get(i).getValues();
+            for (int j = 0; j < values.size() && result.size() < limit; j++) {
+                result.add(values.get(j));
+            }
+        }
+        return result;
+    }
+
+    // "Mian.java" and "com.foo.Mian" are matched on "mian"
+    private static String fuzzyKey(String name) {
+        String lower = name.toLowerCase();
+        if (lower.endsWith(".java")) {
+            lower = lower.substring(0, lower.length() - 5);
+        }
+        return lower.substring(lower.lastIndexOf('.') + 1);
+    }
+
+    private static int maxDistance(String key) {
+        return key.length() < 5 ? 1 : 2;
+    }
+
+    public int getNameCount() {
+        return names.size();
+    }
+}
@@ -0,0 +1,417 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Dependencies between the packages of one snapshot. Package ids are the
+ * dense ids of ColumnarIndex. A class depends on a package when one of its
+ * imports or fully qualified type names resolves to it; names that resolve
+ * to no indexed package (the JDK, libraries) are counted but not kept.
+ *
+ * Edges are stored in CSR form with, per edge, the number of classes causing
+ * it and the first such class. Strongly connected components are found with
+ * an iterative Tarjan, so depth is bounded by the heap rather than the call
+ * stack; on large graphs the weakly connected components are searched in
+ * parallel, since no cycle can span two of them.
+ *
+ * The arrays are shared with every reader and must not be modified.
+ */
+public final class PackageGraph {
+    // Below this many packages a parallel search costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private final int packageCount;
+    private final int[] packageNameId;
+    private final int unresolvedCount;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] outExampleClass;
+    private final int[] inOffsets;
+    private final int[] inSources;
+
+    private final GenericList<int[]> cycles;
+
+    public PackageGraph(GenericList<ClassInfo> classes, ColumnarIndex columns) {
+        packageCount = columns.getPackageCount();
+        packageNameId = columns.packageNameIds();
+        int[] classPackage = columns.classPackages();
+        SymbolTable symbols = SymbolTable.global();
+
+        Map<String, Integer> packages = new HashMap<>();
+        for (int p = 0; p < packageCount; p++) {
+            packages.put(symbols.get(packageNameId[p]), p);
+        }
+
+        // Raw edges, one per (class, target package): a class importing
+        // several types of a package counts once towards the edge weight
+        Map<Integer, Integer> resolved = new HashMap<>();
+        // Last class that recorded an edge to each package
+        int[] recordedBy = new int[packageCount];
+        Arrays.fill(recordedBy, -1);
+        Set<Integer> unresolved = new HashSet<>();
+        int[] edgeSource = new int[64];
+        int[] edgeTarget = new int[64];
+        int[] edgeClass = new int[64];
+        int edges = 0;
+        for (int c = 0; c < classes.size(); c++) {
+            ClassInfo info = classes.get(c);
+            int source = classPackage[c];
+            for (int k = 0; k < info.getDependencyCount(); k++) {
+                int nameId = info.getDependencyId(k);
+                Integer target = resolved.get(nameId);
+                if (target == null) {
+                    target = resolve(symbols.get(nameId), packages);
+                    resolved.put(nameId, target);
+                }
+                if (target < 0) {
+                    unresolved.add(nameId);
+                    continue;
+                }
+                if (target == source || recordedBy[target] == c) {
+                    continue;
+                }
+                recordedBy[target] = c;
+                if (edges == edgeSource.length) {
+                    edgeSource = Arrays.copyOf(edgeSource, edges * 2);
+                    edgeTarget = Arrays.copyOf(edgeTarget, edges * 2);
+                    edgeClass = Arrays.copyOf(edgeClass, edges * 2);
+                }
+                edgeSource[edges] = source;
+                edgeTarget[edges] = target;
+                edgeClass[edges] = c;
+                edges++;
+            }
+        }
+        unresolvedCount = unresolved.size();
+
+        // Group by source (counting sort), then merge duplicate targets
+        int[] offsets = new int[packageCount + 1];
+        for (int e = 0; e < edges; e++) {
+            offsets[edgeSource[e] + 1]++;
+        }
+        for (int p = 0; p < packageCount; p++) {
+            offsets[p + 1] += offsets[p];
+        }
+        int[] next = Arrays.copyOf(offsets, packageCount);
+        int[] sortedTarget = new int[edges];
+        int[] sortedClass = new int[edges];
+        for (int e = 0; e < edges; e++) {
+            int slot = next[edgeSource[e]]++;
+            sortedTarget[slot] = edgeTarget[e];
+            sortedClass[slot] = edgeClass[e];
+        }
+
+        outOffsets = new int[packageCount + 1];
+        int[] targets = new int[edges];
+        int[] weights = new int[edges];
+        int[] examples = new int[edges];
+        // Position of target t in the current source's run, valid while
+        // seenBy[t] == source
+        int[] seenBy = new int[packageCount];
+        int[] slotOf = new int[packageCount];
+        Arrays.fill(seenBy, -1);
+        int merged = 0;
+        for (int p = 0; p < packageCount; p++) {
+            outOffsets[p] = merged;
+            for (int e = offsets[p]; e < offsets[p + 1]; e++) {
+                int t = sortedTarget[e];
+                if (seenBy[t] != p) {
+                    seenBy[t] = p;
+                    slotOf[t] = merged;
+                    targets[merged] = t;
+                    examples[merged] = sortedClass[e];
+                    merged++;
+                }
+                weights[slotOf[t]]++;
+            }
+        }
+        outOffsets[packageCount] = merged;
+        outTargets = Arrays.copyOf(targets, merged);
+        outWeights = Arrays.copyOf(weights, merged);
+        outExampleClass = Arrays.copyOf(examples, merged);
+
+        inOffsets = new int[packageCount + 1];
+        for (int e = 0; e < merged; e++) {
+            inOffsets[outTargets[e] + 1]++;
+        }
+        for (int p = 0; p < packageCount; p++) {
+            inOffsets[p + 1] += inOffsets[p];
+        }
+        int[] inNext = Arrays.copyOf(inOffsets, packageCount);
+        inSources = new int[merged];
+        for (int p = 0; p < packageCount; p++) {
+            for (int e = outOffsets[p]; e < outOffsets[p + 1]; e++) {
+                inSources[inNext[outTargets[e]]++] = p;
+            }
+        }
+
+        cycles = findCycles();
+    }
+
+    /**
+     * Dense id of the package a qualified name belongs to, or -1. "a.b.*" and
+     * "a.b.C" map to a.b; nested types and static members ("a.b.C.D",
+     * "a.b.C.m") climb past capitalized segments to the package. A lowercase
+     * segment is a package, so "a.b.lib.C" with only a.b indexed is a library
+     * name, not a.b.
+     */
+    private static int resolve(String name, Map<String, Integer> packages) {
+        boolean wildcard = name.endsWith(".*");
+        String candidate = wildcard ? name.substring(0, name.length() - 2) : name;
+        if (!wildcard) {
+            int dot = candidate.lastIndexOf('.');
+            if (dot < 0) {
+                return -1;
+            }
+            candidate = candidate.substring(0, dot);
+        }
+        while (true) {
+            Integer id = packages.get(candidate);
+            if (id != null) {
+                return id;
+            }
+            int dot = candidate.lastIndexOf('.');
+            if (dot < 0 || !Character.isUpperCase(candidate.charAt(dot + 1))) {
+                return -1;
+            }
+            candidate = candidate.substring(0, dot);
+        }
+    }
+
+    /**
+     * Strongly connected components with more than one package, largest
+     * first.
+     */
+    private GenericList<int[]> findCycles() {
+        // Weakly connected components with union-find
+        int[] parent = new int[packageCount];
+        for (int p = 0; p < packageCount; p++) {
+            parent[p] = p;
+        }
+        for (int p = 0; p < packageCount; p++) {
+            for (int e = outOffsets[p]; e < outOffsets[p + 1]; e++) {
+                int a = find(parent, p);
+                int b = find(parent, outTargets[e]);
+                if (a != b) {
+                    parent[a] = b;
+                }
+            }
+        }
+        int[] componentOf = new int[packageCount];
+        int[] componentOffsets = new int[packageCount + 1];
+        int componentCount = 0;
+        int[] rootComponent = new int[packageCount];
+        Arrays.fill(rootComponent, -1);
+        for (int p = 0; p < packageCount; p++) {
+            int root = find(parent, p);
+            if (rootComponent[root] < 0) {
+                rootComponent[root] = componentCount++;
+            }
+            componentOf[p] = rootComponent[root];
+            componentOffsets[componentOf[p] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            componentOffsets[c + 1] += componentOffsets[c];
+        }
+        int[] members = new int[packageCount];
+        int[] memberNext = Arrays.copyOf(componentOffsets, componentCount);
+        for (int p = 0; p < packageCount; p++) {
+            members[memberNext[componentOf[p]]++] = p;
+        }
+
+        // Components touch disjoint packages, so they can share these arrays
+        int[] order = new int[packageCount];
+        int[] low = new int[packageCount];
+        boolean[] onStack = new boolean[packageCount];
+        Arrays.fill(order, -1);
+
+        List<List<int[]>> found = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            found.add(null);
+        }
+        IntStream components = IntStream.range(0, componentCount);
+        if (packageCount >= PARALLEL_THRESHOLD) {
+            components = components.parallel();
+        }
+        components.forEach(c -> found.set(c, tarjan(members, componentOffsets[c], componentOffsets[c + 1],
+                order, low, onStack)));
+
+        List<int[]> all = new ArrayList<>();
+        for (List<int[]> sccs : found) {
+            all.addAll(sccs);
+        }
+        all.sort((a, b) -> Integer.compare(b.length, a.length));
+        GenericList<int[]> result = new GenericList<>();
+        for (int[] scc : all) {
+            result.add(scc);
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Iterative Tarjan over the packages members[from..to). Each frame holds
+     * a package and the next outgoing edge to follow.
+     */
+    private List<int[]> tarjan(int[] members, int from, int to, int[] order, int[] low, boolean[] onStack) {
+        List<int[]> sccs = new ArrayList<>();
+        int size = to - from;
+        if (size < 2) {
+            return sccs;
+        }
+        int[] frameNode = new int[size];
+        int[] frameEdge = new int[size];
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int counter = 0;
+
+        for (int m = from; m < to; m++) {
+            int root = members[m];
+            if (order[root] >= 0) {
+                continue;
+            }
+            int frames = 0;
+            frameNode[frames] = root;
+            frameEdge[frames++] = outOffsets[root];
+            order[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (frames > 0) {
+                int v = frameNode[frames - 1];
+                int e = frameEdge[frames - 1];
+                if (e < outOffsets[v + 1]) {
+                    frameEdge[frames - 1]++;
+                    int w = outTargets[e];
+                    if (order[w] < 0) {
+                        order[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        frameNode[frames] = w;
+                        frameEdge[frames++] = outOffsets[w];
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                    continue;
+                }
+                frames--;
+                if (frames > 0) {
+                    int u = frameNode[frames - 1];
+                    low[u] = Math.min(low[u], low[v]);
+                }
+                if (low[v] == order[v]) {
+                    int start = stackSize;
+                    do {
+                        onStack[stack[--start]] = false;
+                    } while (stack[start] != v);
+                    if (stackSize - start > 1) {
+                        int[] scc = Arrays.copyOfRange(stack, start, stackSize);
+                        Arrays.sort(scc);
+                        sccs.add(scc);
+                    }
+                    stackSize = start;
+                }
+            }
+        }
+        return sccs;
+    }
+
+    public int getPackageCount() {
+        return packageCount;
+    }
+
+    public int getEdgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * Distinct imports and qualified names that matched no indexed package.
+     */
+    public int getUnresolvedCount() {
+        return unresolvedCount;
+    }
+
+    public String packageName(int pkg) {
+        String name = SymbolTable.global().get(packageNameId[pkg]);
+        return name.isEmpty() ? "(default)" : name;
+    }
+
+    public int fanOut(int pkg) {
+        return outOffsets[pkg + 1] - outOffsets[pkg];
+    }
+
+    public int fanIn(int pkg) {
+        return inOffsets[pkg + 1] - inOffsets[pkg];
+    }
+
+    /**
+     * Packages this one depends on.
+     */
+    public int[] dependencies(int pkg) {
+        return Arrays.copyOfRange(outTargets, outOffsets[pkg], outOffsets[pkg + 1]);
+    }
+
+    /**
+     * Packages that depend on this one.
+     */
+    public int[] dependents(int pkg) {
+        return Arrays.copyOfRange(inSources, inOffsets[pkg], inOffsets[pkg + 1]);
+    }
+
+    /**
+     * Edge positions leaving pkg, for edgeTarget / edgeWeight / edgeExampleClass.
+     */
+    public int firstEdge(int pkg) {
+        return outOffsets[pkg];
+    }
+
+    public int edgeEnd(int pkg) {
+        return outOffsets[pkg + 1];
+    }
+
+    public int edgeTarget(int edge) {
+        return outTargets[edge];
+    }
+
+    /**
+     * Number of classes in the source package that depend on the target.
+     */
+    public int edgeWeight(int edge) {
+        return outWeights[edge];
+    }
+
+    /**
+     * Row of the first class that caused the edge.
+     */
+    public int edgeExampleClass(int edge) {
+        return outExampleClass[edge];
+    }
+
+    /**
+     * Package cycles: strongly connected components of two or more packages,
+     * largest first, each sorted by package id.
+     */
+    public GenericList<int[]> getCycles() {
+        return cycles;
+    }
+}
@@ -0,0 +1,456 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.FieldInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact index dump for shipping and archiving, as opposed to MappedIndex,
+ * which is laid out for querying in place. Everything is written in one
+ * sequential pass and read back the same way, so the format suits pipes and
+ * compression, and a dump can be reloaded as an Index without re-parsing.
+ *
+ * Layout:
+ * <pre>
+ * magic "CAIP" (4 bytes), version
+ * parseMode (Parser.Mode ordinal), classCount
+ * class    name, package, file, methodCount, fieldCount,
+ *          methodCount x method, fieldCount x [name, type],
+ *          typeRefCount, refs, dependencyCount, refs, termCount x [term, frequency]
+ * method   name, returnType, loc, startLine delta, complexity, maxNesting, statements,
+ *          callSites, paramCount, refs, calleeCount, refs, termCount x [term, frequency]
+ * </pre>
+ * All numbers are unsigned LEB128 varints; the start line is stored as a
+ * zigzag delta from the previous method of the class. Strings are references
+ * into a string table that grows as the dump is read: 0 introduces a new
+ * string (byte length, then UTF-8 bytes) that gets the next id, n > 0 repeats
+ * string n - 1. No string is written twice and no second pass is needed.
+ *
+ * The whole stream may be wrapped in gzip or zlib deflate; read() tells the
+ * three apart by their first bytes. The search index is not stored, it is
+ * rebuilt from the terms on first use.
+ */
+public final class PackedIndex {
+    static final int MAGIC = 0x43414950; // "CAIP"
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Compression {
+        NONE, GZIP, DEFLATE
+    }
+
+    private PackedIndex() {
+    }
+
+    /**
+     * Writes every class of snapshot to file and returns the number of bytes
+     * written (after compression). Classes of a mapped snapshot are
+     * materialized one at a time.
+     */
+    public static long write(IndexSnapshot snapshot, Path file, Compression compression) throws IOException {
+        OutputStream fileOut = Files.newOutputStream(file);
+        OutputStream out;
+        switch (compression) {
+            case GZIP:
+                out = new GZIPOutputStream(fileOut, BUFFER_SIZE);
+                break;
+            case DEFLATE:
+                // The default deflater is ended on close; its small output
+                // buffer is made up for by buffering the file
+                out = new DeflaterOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+                break;
+            default:
+                out = fileOut;
+        }
+        try (Encoder encoder = new Encoder(out)) {
+            encoder.fixedInt(MAGIC);
+            encoder.varint(VERSION);
+            encoder.varint(snapshot.getParseMode().ordinal());
+            int count = snapshot.getClassCount();
+            encoder.varint(count);
+            for (int row = 0; row < count; row++) {
+                writeClass(encoder, snapshot.getClass(row));
+            }
+        }
+        return Files.size(file);
+    }
+
+    private static void writeClass(Encoder e, ClassInfo c) throws IOException {
+        e.string(c.getNameId());
+        e.string(c.getPackageId());
+        e.string(c.getFilePathId());
+        GenericList<MethodInfo> methods = c.getMethods();
+        GenericList<FieldInfo> fields = c.getFields();
+        e.varint(methods.size());
+        e.varint(fields.size());
+        int line = 0;
+        for (int i = 0; i < methods.size(); i++) {
+            MethodInfo m = methods.get(i);
+            e.string(m.getNameId());
+            e.string(m.getReturnTypeId());
+            e.varint(m.getLoc());
+            e.zigzag(m.getStartLine() - line);
+            line = m.getStartLine();
+            e.varint(m.getComplexity());
+            e.varint(m.getMaxNesting());
+            e.varint(m.getStatementCount());
+            e.varint(m.getCallSiteCount());
+            e.varint(m.getParameterCount());
+            for (int k = 0; k < m.getParameterCount(); k++) {
+                e.string(m.getParameterTypeId(k));
+            }
+            e.varint(m.getCalleeCount());
+            for (int k = 0; k < m.getCalleeCount(); k++) {
+                e.string(m.getCalleeId(k));
+            }
+            e.varint(m.getTermCount());
+            for (int k = 0; k < m.getTermCount(); k++) {
+                e.string(m.getTermId(k));
+                e.varint(m.getTermFrequency(k));
+            }
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            e.string(fields.get(i).getNameId());
+            e.string(fields.get(i).getTypeId());
+        }
+        e.varint(c.getTypeReferenceCount());
+        for (int k = 0; k < c.getTypeReferenceCount(); k++) {
+            e.string(c.getTypeReferenceId(k));
+        }
+        e.varint(c.getDependencyCount());
+        for (int k = 0; k < c.getDependencyCount(); k++) {
+            e.string(c.getDependencyId(k));
+        }
+        e.varint(c.getTermCount());
+        for (int k = 0; k < c.getTermCount(); k++) {
+            e.string(c.getTermId(k));
+            e.varint(c.getTermFrequency(k));
+        }
+    }
+
+    /**
+     * True if the file starts like a packed dump, compressed or not.
+     */
+    public static boolean isPacked(Path file) {
+        try (InputStream in = open(file)) {
+            return new Decoder(in).fixedInt() == MAGIC;
+        } catch (IOException e) {
+            // Too short, unreadable, or only looks like a compression header
+            return false;
+        }
+    }
+
+    /**
+     * Reads a dump written by write(), in any compression, as the first
+     * version of an index.
+     */
+    public static IndexSnapshot read(Path file) throws IOException {
+        try (InputStream in = open(file)) {
+            Decoder d = new Decoder(in);
+            if (d.fixedInt() != MAGIC) {
+                throw new IOException("Not a packed index file: " + file);
+            }
+            int version = d.varint();
+            if (version != VERSION) {
+                throw new IOException("Unsupported packed index version: " + version);
+            }
+            int mode = d.varint();
+            if (mode < 0 || mode >= Parser.Mode.values().length) {
+                throw new IOException("Unknown parse mode in packed index: " + mode);
+            }
+            int count = d.varint();
+            GenericList<ClassInfo> classes = new GenericList<>();
+            for (int row = 0; row < count; row++) {
+                classes.add(readClass(d));
+            }
+            return IndexSnapshot.of(1, classes, Parser.Mode.values()[mode]);
+        }
+    }
+
+    private static ClassInfo readClass(Decoder d) throws IOException {
+        ClassInfo c = new ClassInfo(d.string(), d.string(), d.string());
+        int methods = d.varint();
+        int fields = d.varint();
+        int line = 0;
+        for (int i = 0; i < methods; i++) {
+            String name = d.string();
+            String returnType = d.string();
+            int loc = d.varint();
+            line += d.zigzag();
+            MethodInfo m = new MethodInfo(name, returnType, loc, line);
+            m.setBodyMetrics(d.varint(), d.varint(), d.varint(), d.varint());
+            int params = d.varint();
+            for (int k = 0; k < params; k++) {
+                m.addParameter(d.string());
+            }
+            int callees = d.varint();
+            for (int k = 0; k < callees; k++) {
+                m.addCallee(d.string());
+            }
+            int[][] terms = d.terms();
+            m.setTerms(terms[0], terms[1]);
+            c.addMethod(m);
+        }
+        for (int i = 0; i < fields; i++) {
+            c.addField(new FieldInfo(d.string(), d.string()));
+        }
+        int typeRefs = d.varint();
+        for (int k = 0; k < typeRefs; k++) {
+            c.addTypeReference(d.string());
+        }
+        int dependencies = d.varint();
+        for (int k = 0; k < dependencies; k++) {
+            c.addDependency(d.string());
+        }
+        int[][] terms = d.terms();
+        c.setTerms(terms[0], terms[1]);
+        return c;
+    }
+
+    // The file's stream with any gzip or zlib wrapper removed
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        // Not buffered again: Decoder has its own buffer, and a buffer here
+        // would read ahead into the end of a truncated stream before the
+        // magic number has been checked
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        // zlib header: deflate method, and the two bytes are a multiple of 31
+        if (b0 >= 0 && b1 >= 0 && (b0 & 0x0f) == 8 && ((b0 << 8) | b1) % 31 == 0) {
+            return new InflaterInputStream(in);
+        }
+        return in;
+    }
+
+    /**
+     * Varint writer over a reused byte buffer; maps SymbolTable ids to the
+     * dump's string ids.
+     */
+    private static final class Encoder implements AutoCloseable {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        // SymbolTable id -> string id + 1, 0 if not written yet
+        private int[] stringIds = new int[SymbolTable.global().size()];
+        private int stringCount;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        void fixedInt(int value) throws IOException {
+            ensure(4);
+            buffer[position++] = (byte) (value >>> 24);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        void varint(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        // Small negative and positive numbers both stay short
+        void zigzag(int value) throws IOException {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        void string(int symbolId) throws IOException {
+            if (symbolId >= stringIds.length) {
+                stringIds = Arrays.copyOf(stringIds, Math.max(symbolId + 1, stringIds.length * 2));
+            }
+            if (stringIds[symbolId] > 0) {
+                varint(stringIds[symbolId]);
+                return;
+            }
+            stringIds[symbolId] = ++stringCount;
+            byte[] bytes = SymbolTable.global().get(symbolId).getBytes(StandardCharsets.UTF_8);
+            varint(0);
+            varint(bytes.length);
+            if (bytes.length > buffer.length - position) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (position + bytes > buffer.length) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                // Also finishes the gzip or deflate stream
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Varint reader over its own refilled buffer, so the hot path is an array
+     * access rather than a stream call per byte.
+     */
+    private static final class Decoder {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private final List<String> strings = new ArrayList<>();
+        // String id -> SymbolTable id, for search terms (-1 = not yet)
+        private int[] symbols = new int[256];
+
+        Decoder(InputStream in) {
+            this.in = in;
+            Arrays.fill(symbols, -1);
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    throw new EOFException("Truncated packed index");
+                }
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        int fixedInt() throws IOException {
+            return (read() << 24) | (read() << 16) | (read() << 8) | read();
+        }
+
+        int varint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in packed index");
+        }
+
+        int zigzag() throws IOException {
+            int v = varint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        String string() throws IOException {
+            return strings.get(stringId());
+        }
+
+        private int stringId() throws IOException {
+            int ref = varint();
+            if (ref > 0) {
+                if (ref > strings.size()) {
+                    throw new IOException("Bad string reference in packed index: " + ref);
+                }
+                return ref - 1;
+            }
+            int length = length();
+            if (length <= limit - position) {
+                strings.add(new String(buffer, position, length, StandardCharsets.UTF_8));
+                position += length;
+                return strings.size() - 1;
+            }
+            // Past the buffered input the length is unchecked, so the array
+            // grows with the bytes actually read: a damaged length ends in
+            // EOFException, not in allocating whatever it claims
+            byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+            int copied = 0;
+            while (copied < length) {
+                if (copied == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * copied));
+                }
+                bytes[copied++] = (byte) read();
+                int n = Math.min(bytes.length - copied, limit - position);
+                System.arraycopy(buffer, position, bytes, copied, n);
+                position += n;
+                copied += n;
+            }
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+            return strings.size() - 1;
+        }
+
+        // A count or length: a varint of five bytes can come out negative
+        private int length() throws IOException {
+            int length = varint();
+            if (length < 0) {
+                throw new IOException("Negative length in packed index: " + length);
+            }
+            return length;
+        }
+
+        // Term ids and frequencies, as the parallel arrays setTerms takes
+        int[][] terms() throws IOException {
+            int count = length();
+            // Each term takes at least two bytes, so the arrays are sized
+            // by what has been read rather than by the untrusted count
+            int[] ids = new int[Math.min(count, BUFFER_SIZE)];
+            int[] frequencies = new int[ids.length];
+            for (int k = 0; k < count; k++) {
+                if (k == ids.length) {
+                    ids = Arrays.copyOf(ids, (int) Math.min(count, 2L * k));
+                    frequencies = Arrays.copyOf(frequencies, ids.length);
+                }
+                int id = stringId();
+                if (id >= symbols.length) {
+                    int old = symbols.length;
+                    symbols = Arrays.copyOf(symbols, Math.max(id + 1, old * 2));
+                    Arrays.fill(symbols, old, symbols.length, -1);
+                }
+                if (symbols[id] < 0) {
+                    symbols[id] = SymbolTable.global().intern(strings.get(id));
+                }
+                ids[k] = symbols[id];
+                frequencies[k] = varint();
+            }
+            return new int[][] { ids, frequencies };
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.analyzer.core;
+
+import com.containers.GenericList;
+
+/**
+ * A file the Parser skipped, and why.
+ */
+public class ParseFailure {
+
+    /**
+     * INTERNAL is a crash inside the parser or the model visitor, as opposed
+     * to a problem with the file itself.
+     */
+    public enum Reason {
+        TOO_LARGE, TIMEOUT, SYNTAX, IO, INTERNAL
+    }
+
+    private final String filePath;
+    private final Reason reason;
+    private final String detail;
+
+    public ParseFailure(String filePath, Reason reason, String detail) {
+        this.filePath = filePath;
+        this.reason = reason;
+        this.detail = detail;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * One line counting the failures by reason, e.g.
+     * "Skipped 3 file(s): TIMEOUT=1 SYNTAX=2".
+     */
+    public static String summarize(GenericList<ParseFailure> failures) {
+        int[] counts = new int[Reason.values().length];
+        for (int i = 0; i < failures.size(); i++) {
+            counts[failures.get(i).getReason().ordinal()]++;
+        }
+        StringBuilder summary = new StringBuilder("Skipped " + failures.size() + " file(s):");
+        for (Reason reason : Reason.values()) {
+            if (counts[reason.ordinal()] > 0) {
+                summary.append(' ').append(reason).append('=').append(counts[reason.ordinal()]);
+            }
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public String toString() {
+        return filePath + ": " + reason + " - " + detail;
+    }
+}
@@ -6,51 +6,322 @@ import com.analyzer.model.MethodInfo;
 import com.containers.GenericList;
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
 import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.comments.Comment;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class Parser {
 
+    /**
+     * FULL builds the complete AST. DECLARATIONS blanks method bodies with
+     * BodyStripper first, which is much cheaper and yields the same classes,
+     * signatures, fields and LOC, but no body-level data (complexity,
+     * nesting, statement and call site counts are left at zero, and callees
+     * and search terms from bodies are missing).
+     */
+    public enum Mode {
+        FULL, DECLARATIONS
+    }
+
+    private final Mode mode;
+    // 0 disables the limit
+    private long maxFileSize;
+    private long timeoutMillis;
+    private int threads = 1;
+    private final GenericList<ParseFailure> failures = new GenericList<>();
+
+    // One configuration shared by every JavaParser this Parser creates. The
+    // model never reads comments, so attributing them to nodes is skipped.
+    // Tokens stay on: JavaParser derives node ranges (and so LOC) from them.
+    private final ParserConfiguration configuration = new ParserConfiguration()
+            .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17)
+            .setAttributeComments(false)
+            .setLexicalPreservationEnabled(false);
+
+    // JavaParser instances are not thread-safe but are reusable, so each
+    // worker thread keeps its own for every file it parses.
+    private final ThreadLocal<JavaParser> parsers = ThreadLocal.withInitial(() -> new JavaParser(configuration));
+
+    public Parser() {
+        this(Mode.FULL);
+    }
+
+    public Parser(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * A new parser with this one's limits, threads and language level, in
+     * the given mode.
+     */
+    public Parser withMode(Mode mode) {
+        Parser copy = new Parser(mode);
+        copy.maxFileSize = maxFileSize;
+        copy.timeoutMillis = timeoutMillis;
+        copy.threads = threads;
+        copy.setLanguageLevel(configuration.getLanguageLevel());
+        return copy;
+    }
+
+    /**
+     * Files larger than this many bytes are skipped and reported.
+     */
+    public void setMaxFileSize(long bytes) {
+        this.maxFileSize = bytes;
+    }
+
+    /**
+     * Per-file parse deadline. Parses then run on worker threads; a file that
+     * misses the deadline is skipped and reported.
+     */
+    public void setTimeoutMillis(long millis) {
+        this.timeoutMillis = millis;
+    }
+
+    /**
+     * Number of files parsed in parallel. Results keep the input file order.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Must be called before the first parse.
+     */
+    public void setLanguageLevel(ParserConfiguration.LanguageLevel level) {
+        configuration.setLanguageLevel(level);
+    }
+
+    /**
+     * Every file skipped so far: too large, timed out, unreadable, with
+     * syntax errors, or one the parser crashed on.
+     */
+    public GenericList<ParseFailure> getFailures() {
+        return failures;
+    }
+
     public GenericList<ClassInfo> parse(GenericList<File> files) {
         GenericList<ClassInfo> classes = new GenericList<>();
-        JavaParser javaParser = new JavaParser();
-
-        for (int i = 0; i < files.size(); i++) {
-            File file = files.get(i);
-            try {
-                ParseResult<CompilationUnit> result = javaParser.parse(file);
-                if (result.isSuccessful() && result.getResult().isPresent()) {
-                    CompilationUnit cu = result.getResult().get();
-                    cu.accept(new ClassVisitor(file.getAbsolutePath(), classes), null);
-                }
-            } catch (IOException e) {
-                System.err.println("Error parsing file: " + file.getAbsolutePath());
+        if (threads == 1 && timeoutMillis <= 0) {
+            for (int i = 0; i < files.size(); i++) {
+                collect(parseOne(files.get(i)), classes);
+            }
+            return classes;
+        }
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "parser-worker");
+                    t.setDaemon(true);
+                    return t;
+                });
+        try {
+            GenericList<ParseTask> tasks = new GenericList<>();
+            for (int i = 0; i < files.size(); i++) {
+                ParseTask task = new ParseTask(files.get(i));
+                task.future = pool.submit(task);
+                tasks.add(task);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                collect(await(tasks.get(i), pool), classes);
             }
+        } finally {
+            pool.shutdownNow();
         }
         return classes;
     }
 
+    /**
+     * Outcome of one file: its classes, or the reason it was skipped.
+     */
+    private static class FileOutcome {
+        final GenericList<ClassInfo> classes;
+        final ParseFailure failure;
+
+        FileOutcome(GenericList<ClassInfo> classes, ParseFailure failure) {
+            this.classes = classes;
+            this.failure = failure;
+        }
+    }
+
+    private class ParseTask implements Callable<FileOutcome> {
+        final File file;
+        // 0 until a worker picks the task up; the deadline counts from then
+        volatile long startNanos;
+        Future<FileOutcome> future;
+
+        ParseTask(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public FileOutcome call() {
+            startNanos = System.nanoTime();
+            return parseOne(file);
+        }
+    }
+
+    private void collect(FileOutcome outcome, GenericList<ClassInfo> classes) {
+        if (outcome.failure != null) {
+            failures.add(outcome.failure);
+            return;
+        }
+        for (int i = 0; i < outcome.classes.size(); i++) {
+            classes.add(outcome.classes.get(i));
+        }
+    }
+
+    private FileOutcome await(ParseTask task, ThreadPoolExecutor pool) {
+        String path = task.file.getAbsolutePath();
+        try {
+            if (timeoutMillis <= 0) {
+                return task.future.get();
+            }
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (true) {
+                long start = task.startNanos;
+                long wait = start == 0 ? timeoutNanos : start + timeoutNanos - System.nanoTime();
+                try {
+                    return task.future.get(Math.max(wait, 1), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    start = task.startNanos;
+                    if (start != 0 && System.nanoTime() - start >= timeoutNanos) {
+                        break;
+                    }
+                    // Still queued behind other files; keep waiting
+                }
+            }
+            // JavaParser does not check for interrupts, so the stuck worker (a
+            // daemon) is abandoned together with its thread-local JavaParser.
+            // The pool grows by one so the remaining files keep their
+            // parallelism.
+            task.future.cancel(true);
+            pool.setMaximumPoolSize(pool.getMaximumPoolSize() + 1);
+            pool.setCorePoolSize(pool.getCorePoolSize() + 1);
+            return new FileOutcome(null, new ParseFailure(path, ParseFailure.Reason.TIMEOUT,
+                    "no result after " + timeoutMillis + " ms"));
+        } catch (ExecutionException e) {
+            // parseOne reports its own failures, so this is an Error thrown
+            // by the parser, or a read error that escaped it
+            Throwable cause = e.getCause();
+            ParseFailure.Reason reason = cause instanceof IOException || cause instanceof UncheckedIOException
+                    ? ParseFailure.Reason.IO : ParseFailure.Reason.INTERNAL;
+            return new FileOutcome(null, new ParseFailure(path, reason, String.valueOf(cause)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FileOutcome(null, new ParseFailure(path, ParseFailure.Reason.IO, "interrupted"));
+        }
+    }
+
+    /**
+     * Parses one file on the calling thread with that thread's JavaParser. A
+     * crash in JavaParser or the visitor skips only this file.
+     */
+    private FileOutcome parseOne(File file) {
+        try {
+            return parseOrFail(file);
+        } catch (UncheckedIOException e) {
+            return new FileOutcome(null, new ParseFailure(file.getAbsolutePath(), ParseFailure.Reason.IO,
+                    String.valueOf(e.getCause())));
+        } catch (RuntimeException | StackOverflowError e) {
+            // Deeply nested expressions overflow JavaParser's recursive descent
+            return new FileOutcome(null, new ParseFailure(file.getAbsolutePath(), ParseFailure.Reason.INTERNAL,
+                    String.valueOf(e)));
+        }
+    }
+
+    private FileOutcome parseOrFail(File file) {
+        String path = file.getAbsolutePath();
+        if (maxFileSize > 0 && file.length() > maxFileSize) {
+            return new FileOutcome(null, new ParseFailure(path, ParseFailure.Reason.TOO_LARGE,
+                    file.length() + " bytes exceeds limit of " + maxFileSize));
+        }
+
+        ParseResult<CompilationUnit> result;
+        try {
+            JavaParser javaParser = parsers.get();
+            if (mode == Mode.DECLARATIONS) {
+                String source = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+                result = javaParser.parse(BodyStripper.strip(source));
+            } else {
+                result = javaParser.parse(file);
+            }
+        } catch (IOException e) {
+            return new FileOutcome(null, new ParseFailure(path, ParseFailure.Reason.IO, e.getMessage()));
+        }
+
+        if (result.isSuccessful() && result.getResult().isPresent()) {
+            GenericList<ClassInfo> classes = new GenericList<>();
+            Collection<Comment> fileComments = result.getCommentsCollection()
+                    .<Collection<Comment>>map(c -> c.getComments()).orElse(Collections.emptyList());
+            FileComments comments = new FileComments(fileComments);
+            result.getResult().get().accept(new ClassVisitor(path, classes, comments, mode == Mode.FULL), null);
+            return new FileOutcome(classes, null);
+        }
+        String detail = result.getProblems().isEmpty() ? "no compilation unit"
+                : result.getProblem(0).getVerboseMessage().replace('\n', ' ');
+        if (result.getProblems().size() > 1) {
+            detail += " (+" + (result.getProblems().size() - 1) + " more)";
+        }
+        return new FileOutcome(null, new ParseFailure(path, ParseFailure.Reason.SYNTAX, detail));
+    }
+
     private static class ClassVisitor extends VoidVisitorAdapter<Void> {
         private final String filePath;
         private final GenericList<ClassInfo> classes;
+        private final FileComments comments;
+        // False when bodies were stripped and there is nothing to measure
+        private final boolean bodies;
 
-        public ClassVisitor(String filePath, GenericList<ClassInfo> classes) {
+        public ClassVisitor(String filePath, GenericList<ClassInfo> classes, FileComments comments,
+                boolean bodies) {
             this.filePath = filePath;
             this.classes = classes;
+            this.comments = comments;
+            this.bodies = bodies;
         }
 
         @Override
         public void visit(ClassOrInterfaceDeclaration n, Void arg) {
             super.visit(n, arg);
-            String packageName = n.findCompilationUnit().flatMap(CompilationUnit::getPackageDeclaration)
+            Optional<CompilationUnit> unit = n.findCompilationUnit();
+            String packageName = unit.flatMap(CompilationUnit::getPackageDeclaration)
                     .map(pd -> pd.getNameAsString()).orElse("");
 
             ClassInfo classInfo = new ClassInfo(n.getNameAsString(), packageName, filePath);
+            // Referenced types, gathered alongside the methods
+            TypeReferences types = new TypeReferences();
+            n.getTypeParameters().forEach(types::collect);
+            n.getExtendedTypes().forEach(types::collect);
+            n.getImplementedTypes().forEach(types::collect);
+            SearchTerms classTerms = new SearchTerms();
+            classTerms.add(n.getNameAsString());
+            n.getExtendedTypes().forEach(t -> classTerms.add(t.asString()));
+            n.getImplementedTypes().forEach(t -> classTerms.add(t.asString()));
 
             // Extract methods
             n.getMethods().forEach(m -> {
@@ -60,17 +331,66 @@ public class Parser {
                         m.getBegin().map(b -> b.line).orElse(0));
                 for (Parameter p : m.getParameters()) {
                     methodInfo.addParameter(p.getTypeAsString());
+                    types.collect(p.getType());
                 }
+                types.collect(m.getType());
+                m.getThrownExceptions().forEach(types::collect);
+                m.getTypeParameters().forEach(types::collect);
+                SearchTerms terms;
+                if (bodies) {
+                    // Measured on the tree already in memory; no second parse
+                    MethodMetrics metrics = MethodMetrics.of(m);
+                    methodInfo.setBodyMetrics(metrics.complexity, metrics.maxNesting, metrics.statements,
+                            metrics.callSites);
+                    metrics.callees.forEach(methodInfo::addCallee);
+                    types.addAll(metrics.types);
+                    terms = metrics.terms;
+                } else {
+                    terms = new SearchTerms();
+                }
+                terms.add(m.getNameAsString());
+                terms.add(m.getTypeAsString());
+                for (Parameter p : m.getParameters()) {
+                    terms.add(p.getNameAsString());
+                    terms.add(p.getTypeAsString());
+                }
+                comments.claim(m, terms);
+                methodInfo.setTerms(terms.ids(), terms.frequencies());
                 classInfo.addMethod(methodInfo);
             });
 
+            // Constructors and initializers are not indexed as methods, but the
+            // types they use still count as references of the class
+            n.getConstructors().forEach(types::collect);
+            n.getMembers().forEach(member -> {
+                if (member instanceof InitializerDeclaration) {
+                    types.collect(member);
+                }
+            });
+
             // Extract fields
             n.getFields().forEach(f -> {
                 String type = f.getElementType().asString();
                 f.getVariables().forEach(v -> {
                     classInfo.addField(new FieldInfo(v.getNameAsString(), type));
+                    classTerms.add(v.getNameAsString());
                 });
+                classTerms.add(type);
+                types.collect(f);
             });
+            // Whatever nested classes and methods did not claim: class Javadoc,
+            // field and constructor comments
+            comments.claim(n, classTerms);
+            classInfo.setTerms(classTerms.ids(), classTerms.frequencies());
+
+            types.simpleNames.remove(n.getNameAsString());
+            types.simpleNames.forEach(classInfo::addTypeReference);
+
+            // Package dependencies: the file's imports plus qualified names
+            // written in this class
+            unit.ifPresent(cu -> cu.getImports().forEach(i -> classInfo.addDependency(
+                    i.isAsterisk() ? i.getNameAsString() + ".*" : i.getNameAsString())));
+            types.qualifiedNames.forEach(classInfo::addDependency);
 
             classes.add(classInfo);
         }
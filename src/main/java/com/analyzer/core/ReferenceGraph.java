@@ -0,0 +1,249 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+
+import java.util.Arrays;
+
+/**
+ * Call graph and type-reference graph of one snapshot, in compressed sparse
+ * row form: for every key, its targets sit in one int array between
+ * offsets[key] and offsets[key + 1]. Method and class rows line up with
+ * ColumnarIndex; names are SymbolTable ids. A name-keyed table maps the ids
+ * that occur in it to dense keys through a sorted id array, so its size
+ * follows the graph rather than the global symbol table, which only grows.
+ *
+ * Calls are resolved by method name only (there is no symbol solver), so
+ * "callers of Foo.run" means every method that calls something named run.
+ *
+ * The arrays are shared with every reader and must not be modified.
+ */
+public final class ReferenceGraph {
+    private static final int[] NONE = new int[0];
+
+    private final int[] classNameId;
+    private final int[] methodClass;
+    private final int[] classFirstMethod;
+    private final int[] methodNameId;
+
+    // method row -> called method names
+    private final int[] calleeOffsets;
+    private final int[] calleeNames;
+    // method name -> rows of the methods calling it
+    private final NameTable callers;
+    // method name -> rows of the methods declaring it
+    private final NameTable declarations;
+    // class row -> referenced type names
+    private final int[] typeRefOffsets;
+    private final int[] typeRefNames;
+    // type name -> rows of the classes referring to it
+    private final NameTable users;
+    // class name -> rows of the classes with that name
+    private final NameTable classNames;
+
+    public ReferenceGraph(GenericList<ClassInfo> classes) {
+        int classCount = classes.size();
+        int methodCount = 0;
+        int edgeCount = 0;
+        int refCount = 0;
+        for (int c = 0; c < classCount; c++) {
+            ClassInfo info = classes.get(c);
+            GenericList<MethodInfo> methods = info.getMethods();
+            methodCount += methods.size();
+            refCount += info.getTypeReferenceCount();
+            for (int j = 0; j < methods.size(); j++) {
+                edgeCount += methods.get(j).getCalleeCount();
+            }
+        }
+
+        classNameId = new int[classCount];
+        classFirstMethod = new int[classCount + 1];
+        methodClass = new int[methodCount];
+        methodNameId = new int[methodCount];
+        calleeOffsets = new int[methodCount + 1];
+        calleeNames = new int[edgeCount];
+        typeRefOffsets = new int[classCount + 1];
+        typeRefNames = new int[refCount];
+        int[] callerOf = new int[edgeCount];
+        int[] userOf = new int[refCount];
+
+        int row = 0;
+        int edge = 0;
+        int ref = 0;
+        for (int c = 0; c < classCount; c++) {
+            ClassInfo info = classes.get(c);
+            classNameId[c] = info.getNameId();
+            classFirstMethod[c] = row;
+            typeRefOffsets[c] = ref;
+            for (int k = 0; k < info.getTypeReferenceCount(); k++, ref++) {
+                typeRefNames[ref] = info.getTypeReferenceId(k);
+                userOf[ref] = c;
+            }
+            GenericList<MethodInfo> methods = info.getMethods();
+            for (int j = 0; j < methods.size(); j++, row++) {
+                MethodInfo m = methods.get(j);
+                methodClass[row] = c;
+                methodNameId[row] = m.getNameId();
+                calleeOffsets[row] = edge;
+                for (int k = 0; k < m.getCalleeCount(); k++, edge++) {
+                    calleeNames[edge] = m.getCalleeId(k);
+                    callerOf[edge] = row;
+                }
+            }
+        }
+        classFirstMethod[classCount] = row;
+        calleeOffsets[methodCount] = edge;
+        typeRefOffsets[classCount] = ref;
+
+        int[] rows = new int[methodCount];
+        for (int m = 0; m < methodCount; m++) {
+            rows[m] = m;
+        }
+        int[] classRowIds = new int[classCount];
+        for (int c = 0; c < classCount; c++) {
+            classRowIds[c] = c;
+        }
+
+        callers = new NameTable(calleeNames, callerOf);
+        declarations = new NameTable(methodNameId, rows);
+        users = new NameTable(typeRefNames, userOf);
+        classNames = new NameTable(classNameId, classRowIds);
+    }
+
+    /**
+     * Values grouped by symbol id. The distinct ids are sorted once; an id's
+     * position among them is its dense key into the offsets.
+     */
+    private static final class NameTable {
+        private final int[] ids;
+        private final int[] offsets;
+        private final int[] values;
+
+        /**
+         * Counting sort of values by name, keeping their original order
+         * within each name.
+         */
+        NameTable(int[] names, int[] values) {
+            int[] sorted = names.clone();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            ids = Arrays.copyOf(sorted, distinct);
+
+            int[] keys = new int[names.length];
+            offsets = new int[distinct + 1];
+            for (int i = 0; i < names.length; i++) {
+                keys[i] = Arrays.binarySearch(ids, names[i]);
+                offsets[keys[i] + 1]++;
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] next = Arrays.copyOf(offsets, distinct);
+            this.values = new int[values.length];
+            for (int i = 0; i < keys.length; i++) {
+                this.values[next[keys[i]]++] = values[i];
+            }
+        }
+
+        int[] get(int id) {
+            int key = id < 0 ? -1 : Arrays.binarySearch(ids, id);
+            if (key < 0) {
+                return NONE;
+            }
+            return Arrays.copyOfRange(values, offsets[key], offsets[key + 1]);
+        }
+
+        int[] get(String name) {
+            return name == null ? NONE : get(SymbolTable.global().lookup(name));
+        }
+    }
+
+    /**
+     * Method rows matching "name" or "Class.name".
+     */
+    public int[] findMethods(String query) {
+        int dot = query.lastIndexOf('.');
+        int[] rows = declarations.get(query.substring(dot + 1));
+        if (dot < 0) {
+            return rows;
+        }
+        int owner = SymbolTable.global().lookup(simpleName(query.substring(0, dot)));
+        int n = 0;
+        for (int r : rows) {
+            if (classNameId[methodClass[r]] == owner) {
+                rows[n++] = r;
+            }
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    /**
+     * Rows of the methods that call a method with this name.
+     */
+    public int[] callers(int methodNameId) {
+        return callers.get(methodNameId);
+    }
+
+    /**
+     * Names of the methods called by the method at this row.
+     */
+    public int[] callees(int methodRow) {
+        return Arrays.copyOfRange(calleeNames, calleeOffsets[methodRow], calleeOffsets[methodRow + 1]);
+    }
+
+    /**
+     * Rows of the methods declared with this name.
+     */
+    public int[] declarations(int methodNameId) {
+        return declarations.get(methodNameId);
+    }
+
+    /**
+     * Rows of the classes that refer to a type, given by simple or qualified
+     * name.
+     */
+    public int[] usages(String typeName) {
+        return users.get(simpleName(typeName));
+    }
+
+    /**
+     * Rows of the classes declared with this simple name.
+     */
+    public int[] classesNamed(String typeName) {
+        return classNames.get(simpleName(typeName));
+    }
+
+    public int getMethodCount() {
+        return methodClass.length;
+    }
+
+    public int getEdgeCount() {
+        return calleeNames.length;
+    }
+
+    public int methodClass(int methodRow) {
+        return methodClass[methodRow];
+    }
+
+    /**
+     * Position of the method at this row within its class's method list.
+     */
+    public int methodIndex(int methodRow) {
+        return methodRow - classFirstMethod[methodClass[methodRow]];
+    }
+
+    public int methodNameId(int methodRow) {
+        return methodNameId[methodRow];
+    }
+
+    private static String simpleName(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,316 @@
+package com.analyzer.core;
+
+import com.containers.GenericList;
+
+/**
+ * What a regex says about the fixed text of the lines it matches, found by
+ * a conservative look at its syntax:
+ *
+ * <ul>
+ * <li>a pure literal, such as {@code ArrayList} or {@code \.parse\(}, or an
+ * alternation of them such as {@code TODO|FIXME}, matches exactly the lines
+ * containing one of its literals ({@link #isExact()});</li>
+ * <li>otherwise the longest run of plain characters that every match must
+ * contain, such as {@code extends} in {@code class\s+\w+\s+extends}, picks
+ * the candidate lines worth running the regex on.</li>
+ * </ul>
+ *
+ * Anything not understood (groups, classes, inline flags, escapes other than
+ * quoted punctuation, each skipped whole with its hex, octal or name part)
+ * only ends a run, or for an alternation gives up, so the
+ * literals found are always necessary.
+ */
+final class RegexLiterals {
+    // Shorter required runs filter too little to pay for themselves
+    private static final int MIN_REQUIRED = 3;
+
+    private final GenericList<String> literals;
+    private final boolean exact;
+
+    private RegexLiterals(GenericList<String> literals, boolean exact) {
+        this.literals = literals;
+        this.exact = exact;
+    }
+
+    /**
+     * Literals every matching line contains at least one of.
+     */
+    GenericList<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * True if containing one of the literals is also enough to match.
+     */
+    boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * The literals of regex, or null if it has none worth searching for.
+     */
+    static RegexLiterals of(String regex) {
+        if (regex.contains("\\Q") || regex.contains("(?")) {
+            return null;
+        }
+        GenericList<String> branches = splitAlternation(regex);
+        if (branches == null) {
+            return null;
+        }
+        GenericList<String> literals = new GenericList<>();
+        if (branches.size() > 1) {
+            for (int i = 0; i < branches.size(); i++) {
+                String literal = new Scan(branches.get(i)).pureLiteral();
+                if (literal == null || literal.isEmpty()) {
+                    return null;
+                }
+                literals.add(literal);
+            }
+            return new RegexLiterals(literals, true);
+        }
+        Scan scan = new Scan(regex);
+        String literal = scan.pureLiteral();
+        if (literal != null) {
+            if (literal.isEmpty()) {
+                return null;
+            }
+            literals.add(literal);
+            return new RegexLiterals(literals, true);
+        }
+        if (scan.longest.length() < MIN_REQUIRED) {
+            return null;
+        }
+        literals.add(scan.longest);
+        return new RegexLiterals(literals, false);
+    }
+
+    // Top-level branches of an alternation, or null if the regex cannot be
+    // split safely
+    private static GenericList<String> splitAlternation(String regex) {
+        GenericList<String> branches = new GenericList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escapeEnd(regex, i) - 1;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+                if (i < 0) {
+                    return null;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                branches.add(regex.substring(start, i));
+                start = i + 1;
+            }
+        }
+        branches.add(regex.substring(start));
+        return branches;
+    }
+
+    // Index of the ']' closing the class opened at i, or -1
+    private static int skipClass(String regex, int i) {
+        int j = i + 1;
+        if (j < regex.length() && regex.charAt(j) == '^') {
+            j++;
+        }
+        if (j < regex.length() && regex.charAt(j) == ']') {
+            j++;
+        }
+        int depth = 1;
+        for (; j < regex.length(); j++) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                j = escapeEnd(regex, j) - 1;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    // Index just past the escape whose backslash is at i, including the
+    // digits, hex, name or control character that belong to it
+    private static int escapeEnd(String regex, int i) {
+        int n = regex.length();
+        int j = i + 1;
+        if (j >= n) {
+            return n;
+        }
+        char c = regex.charAt(j++);
+        if ((c == 'x' || c == 'p' || c == 'P' || c == 'N') && j < n && regex.charAt(j) == '{') {
+            int close = regex.indexOf('}', j);
+            return close < 0 ? n : close + 1;
+        }
+        if (c == 'k' && j < n && regex.charAt(j) == '<') {
+            int close = regex.indexOf('>', j);
+            return close < 0 ? n : close + 1;
+        }
+        switch (c) {
+            case 'x':
+                return Math.min(n, j + 2);
+            case 'u':
+                return Math.min(n, j + 4);
+            case 'c':
+            case 'p':
+            case 'P':
+                return Math.min(n, j + 1);
+            case '0':
+                return digitsEnd(regex, j, 3, '7');
+            default:
+                // A back reference takes as many digits as follow it
+                return c >= '1' && c <= '9' ? digitsEnd(regex, j, n, '9') : j;
+        }
+    }
+
+    private static int digitsEnd(String regex, int j, int max, char highest) {
+        int end = Math.min(regex.length(), j + max);
+        while (j < end && regex.charAt(j) >= '0' && regex.charAt(j) <= highest) {
+            j++;
+        }
+        return j;
+    }
+
+    /**
+     * One pass over a branch collecting runs of literal characters.
+     */
+    private static final class Scan {
+        private final String regex;
+        private final StringBuilder run = new StringBuilder();
+        private String longest = "";
+        private boolean pure = true;
+
+        Scan(String regex) {
+            this.regex = regex;
+            scan();
+        }
+
+        String pureLiteral() {
+            return pure ? run.toString() : null;
+        }
+
+        private void scan() {
+            int i = 0;
+            int n = regex.length();
+            while (i < n) {
+                char c = regex.charAt(i);
+                if (c == '\\' && i + 1 < n && isQuotable(regex.charAt(i + 1))) {
+                    i = literal(regex.charAt(i + 1), i + 2);
+                } else if (c == '\\' && i + 1 < n && regex.charAt(i + 1) == 't') {
+                    i = literal('\t', i + 2);
+                } else if (c == '[') {
+                    int close = skipClass(regex, i);
+                    i = other(close < 0 ? n : close + 1);
+                } else if (c == '(') {
+                    i = other(skipGroup(i));
+                } else if (c == '\\') {
+                    // \s, \w, \b, \d, \1, \x41, ...: none of them plain text
+                    i = other(escapeEnd(regex, i));
+                } else if (".^$|)".indexOf(c) >= 0) {
+                    i = other(i + 1);
+                } else if ("?*+{".indexOf(c) >= 0) {
+                    // A quantifier with nothing literal before it
+                    i = other(skipQuantifier(i));
+                } else {
+                    i = literal(c, i + 1);
+                }
+            }
+            end();
+        }
+
+        // Appends c, then deals with a quantifier applying to it
+        private int literal(char c, int next) {
+            if (next >= regex.length() || "?*+{".indexOf(regex.charAt(next)) < 0) {
+                run.append(c);
+                return next;
+            }
+            pure = false;
+            char q = regex.charAt(next);
+            boolean required = q == '+' || (q == '{' && minimumOf(next) > 0);
+            if (required) {
+                // At least one c, but what follows need not be adjacent
+                run.append(c);
+            }
+            end();
+            return skipQuantifier(next);
+        }
+
+        private int other(int next) {
+            pure = false;
+            end();
+            if (next < regex.length() && "?*+{".indexOf(regex.charAt(next)) >= 0) {
+                return skipQuantifier(next);
+            }
+            return next;
+        }
+
+        private void end() {
+            if (run.length() > longest.length()) {
+                longest = run.toString();
+            }
+            if (!pure) {
+                run.setLength(0);
+            }
+        }
+
+        private int minimumOf(int brace) {
+            int j = brace + 1;
+            int value = 0;
+            boolean digits = false;
+            while (j < regex.length() && Character.isDigit(regex.charAt(j))) {
+                value = value * 10 + (regex.charAt(j++) - '0');
+                digits = true;
+                if (value > 1000) {
+                    break;
+                }
+            }
+            return digits ? value : 0;
+        }
+
+        // Past a quantifier at i and any lazy or possessive suffix
+        private int skipQuantifier(int i) {
+            if (regex.charAt(i) == '{') {
+                int close = regex.indexOf('}', i);
+                i = close < 0 ? regex.length() : close + 1;
+            } else {
+                i++;
+            }
+            if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+                i++;
+            }
+            return i;
+        }
+
+        private int skipGroup(int i) {
+            int depth = 0;
+            for (int j = i; j < regex.length(); j++) {
+                char c = regex.charAt(j);
+                if (c == '\\') {
+                    j = escapeEnd(regex, j) - 1;
+                } else if (c == '[') {
+                    int close = skipClass(regex, j);
+                    if (close < 0) {
+                        return regex.length();
+                    }
+                    j = close;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return j + 1;
+                }
+            }
+            return regex.length();
+        }
+
+        // Escaped punctuation stands for itself
+        private static boolean isQuotable(char c) {
+            return c < 0x80 && !Character.isLetterOrDigit(c);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Inverted index over the search terms of every class and method, ranked
+ * with BM25. Documents are numbered like ColumnarIndex rows: classes first,
+ * then all methods, so a document number maps back to a row without a
+ * lookup table.
+ *
+ * Each term's postings list holds its documents in ascending order as
+ * (gap to the previous document, term frequency) pairs, both varint-encoded
+ * with 7 bits per byte. Most gaps and frequencies fit in one byte, so a
+ * posting usually costs two bytes instead of eight. All lists sit in one
+ * buffer; a mapped index hands its postings section over as is.
+ *
+ * The arrays are shared with every reader and must not be modified.
+ */
+public final class SearchIndex {
+    // Standard BM25 parameters: term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Top documents of one query, best first.
+     */
+    public static final class Hits {
+        private final int[] documents;
+        private final float[] scores;
+        private final int matched;
+
+        Hits(int[] documents, float[] scores, int matched) {
+            this.documents = documents;
+            this.scores = scores;
+            this.matched = matched;
+        }
+
+        public int size() {
+            return documents.length;
+        }
+
+        public int document(int rank) {
+            return documents[rank];
+        }
+
+        public float score(int rank) {
+            return scores[rank];
+        }
+
+        /**
+         * Number of documents containing at least one query term.
+         */
+        public int getMatchedCount() {
+            return matched;
+        }
+    }
+
+    private final int classCount;
+    private final int documentCount;
+    private final int[] documentLengths;
+    private final double averageLength;
+    // Term row -> SymbolTable id, number of documents, start of its postings
+    private final int[] termNameIds;
+    private final int[] documentFrequencies;
+    private final int[] postingOffsets;
+    private final ByteBuffer postings;
+    // SymbolTable id -> term row + 1, 0 for ids that are not terms
+    private final int[] rowBySymbol;
+
+    public SearchIndex(GenericList<ClassInfo> classes) {
+        classCount = classes.size();
+        int methods = 0;
+        for (int i = 0; i < classes.size(); i++) {
+            methods += classes.get(i).getMethodCount();
+        }
+        documentCount = classCount + methods;
+        documentLengths = new int[documentCount];
+
+        // Pass 1: number the terms and count their documents. Term ids are
+        // SymbolTable ids, so there are at most as many terms as symbols.
+        int symbolCount = SymbolTable.global().size();
+        int[] rowOf = new int[symbolCount];
+        int[] names = new int[symbolCount];
+        int[] frequencies = new int[symbolCount];
+        int[] counts = new int[2];
+        forEachTerm(classes, (doc, symbol, frequency) -> {
+            if (rowOf[symbol] == 0) {
+                names[counts[0]] = symbol;
+                rowOf[symbol] = ++counts[0];
+            }
+            frequencies[rowOf[symbol] - 1]++;
+            documentLengths[doc] += frequency;
+            counts[1]++;
+        });
+        int terms = counts[0];
+        int totalPostings = counts[1];
+        termNameIds = Arrays.copyOf(names, terms);
+        documentFrequencies = Arrays.copyOf(frequencies, terms);
+
+        // Pass 2: lay the postings out per term. Documents are visited in
+        // ascending order, so every list comes out sorted.
+        int[] starts = new int[terms + 1];
+        for (int t = 0; t < terms; t++) {
+            starts[t + 1] = starts[t] + documentFrequencies[t];
+        }
+        int[] cursor = Arrays.copyOf(starts, terms);
+        int[] postingDocs = new int[totalPostings];
+        int[] postingFrequencies = new int[totalPostings];
+        forEachTerm(classes, (doc, symbol, frequency) -> {
+            int slot = cursor[rowOf[symbol] - 1]++;
+            postingDocs[slot] = doc;
+            postingFrequencies[slot] = frequency;
+        });
+
+        // Pass 3: delta + varint encoding
+        byte[] bytes = new byte[totalPostings * 2 + 16];
+        int size = 0;
+        postingOffsets = new int[terms + 1];
+        for (int t = 0; t < terms; t++) {
+            postingOffsets[t] = size;
+            int previous = 0;
+            for (int slot = starts[t]; slot < starts[t + 1]; slot++) {
+                if (size + 10 > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length + (bytes.length >> 1));
+                }
+                size = writeVarint(bytes, size, postingDocs[slot] - previous);
+                size = writeVarint(bytes, size, postingFrequencies[slot]);
+                previous = postingDocs[slot];
+            }
+        }
+        postingOffsets[terms] = size;
+        postings = ByteBuffer.wrap(Arrays.copyOf(bytes, size));
+
+        rowBySymbol = rowOf;
+        averageLength = average(documentLengths);
+    }
+
+    /**
+     * Wraps the search section of a mapped index. Only the term table is
+     * read; postings are decoded from the mapping.
+     */
+    public SearchIndex(MappedIndex mapped) {
+        classCount = mapped.getClassCount();
+        documentCount = classCount + mapped.getMethodCount();
+        documentLengths = mapped.searchDocumentLengths();
+        int terms = mapped.getSearchTermCount();
+        termNameIds = new int[terms];
+        documentFrequencies = new int[terms];
+        postingOffsets = new int[terms + 1];
+        int maxSymbol = -1;
+        for (int t = 0; t < terms; t++) {
+            termNameIds[t] = mapped.symbol(mapped.searchTermInt(t, MappedIndex.SEARCH_TERM_NAME));
+            documentFrequencies[t] = mapped.searchTermInt(t, MappedIndex.SEARCH_TERM_DOCUMENTS);
+            postingOffsets[t] = mapped.searchTermInt(t, MappedIndex.SEARCH_TERM_POSTINGS);
+            maxSymbol = Math.max(maxSymbol, termNameIds[t]);
+        }
+        postings = mapped.postings();
+        postingOffsets[terms] = postings.capacity();
+
+        rowBySymbol = new int[maxSymbol + 1];
+        for (int t = 0; t < terms; t++) {
+            rowBySymbol[termNameIds[t]] = t + 1;
+        }
+        averageLength = average(documentLengths);
+    }
+
+    /**
+     * The k best documents for a free-text query, optionally restricted to
+     * classes or to methods. Query words are split like indexed text, and
+     * every term found contributes its BM25 score.
+     */
+    public Hits search(String query, int k, boolean classes, boolean methods) {
+        Set<Integer> rows = new LinkedHashSet<>();
+        SymbolTable symbols = SymbolTable.global();
+        SearchTerms.split(query, term -> {
+            int symbol = symbols.lookup(term);
+            if (symbol >= 0 && symbol < rowBySymbol.length && rowBySymbol[symbol] > 0) {
+                rows.add(rowBySymbol[symbol] - 1);
+            }
+        });
+
+        float[] scores = new float[documentCount];
+        int[] touched = new int[16];
+        int matched = 0;
+        int[] position = new int[1];
+        for (int row : rows) {
+            int df = documentFrequencies[row];
+            double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            position[0] = postingOffsets[row];
+            int end = postingOffsets[row + 1];
+            int doc = 0;
+            while (position[0] < end) {
+                doc += readVarint(postings, position);
+                int tf = readVarint(postings, position);
+                if (doc < classCount ? !classes : !methods) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * documentLengths[doc] / averageLength);
+                if (scores[doc] == 0) {
+                    if (matched == touched.length) {
+                        touched = Arrays.copyOf(touched, matched * 2);
+                    }
+                    touched[matched++] = doc;
+                }
+                scores[doc] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+            }
+        }
+
+        int[] top = topK(scores, touched, matched, k);
+        float[] topScores = new float[top.length];
+        for (int i = 0; i < top.length; i++) {
+            topScores[i] = scores[top[i]];
+        }
+        return new Hits(top, topScores, matched);
+    }
+
+    // Bounded min-heap of the k best candidates, as in ColumnarIndex.topK;
+    // only documents that matched a term are looked at
+    private static int[] topK(float[] scores, int[] candidates, int count, int k) {
+        k = Math.min(k, count);
+        if (k <= 0) {
+            return new int[0];
+        }
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int doc = candidates[i];
+            if (size < k) {
+                heap[size] = doc;
+                siftUp(heap, size++, scores);
+            } else if (worse(heap[0], doc, scores)) {
+                heap[0] = doc;
+                siftDown(heap, size, scores);
+            }
+        }
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, scores);
+        }
+        return result;
+    }
+
+    // True if document a ranks below b: lower score, or later document on ties
+    private static boolean worse(int a, int b, float[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] < scores[b];
+        }
+        return a > b;
+    }
+
+    private static void siftUp(int[] heap, int i, float[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!worse(heap[i], heap[parent], scores)) {
+                break;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            int right = left + 1;
+            int smallest = i;
+            if (left < size && worse(heap[left], heap[smallest], scores)) {
+                smallest = left;
+            }
+            if (right < size && worse(heap[right], heap[smallest], scores)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = tmp;
+            i = smallest;
+        }
+    }
+
+    private static int writeVarint(byte[] bytes, int at, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[at++] = (byte) value;
+        return at;
+    }
+
+    private static int readVarint(ByteBuffer buffer, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position[0]++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static double average(int[] lengths) {
+        long total = 0;
+        for (int length : lengths) {
+            total += length;
+        }
+        return lengths.length == 0 || total == 0 ? 1 : (double) total / lengths.length;
+    }
+
+    private interface TermVisitor {
+        void visit(int document, int symbolId, int frequency);
+    }
+
+    // Every term of every document, in document order: classes, then the
+    // methods of each class
+    private static void forEachTerm(GenericList<ClassInfo> classes, TermVisitor visitor) {
+        for (int row = 0; row < classes.size(); row++) {
+            ClassInfo c = classes.get(row);
+            for (int k = 0; k < c.getTermCount(); k++) {
+                visitor.visit(row, c.getTermId(k), c.getTermFrequency(k));
+            }
+        }
+        int doc = classes.size();
+        for (int row = 0; row < classes.size(); row++) {
+            GenericList<MethodInfo> methods = classes.get(row).getMethods();
+            for (int i = 0; i < methods.size(); i++, doc++) {
+                MethodInfo m = methods.get(i);
+                for (int k = 0; k < m.getTermCount(); k++) {
+                    visitor.visit(doc, m.getTermId(k), m.getTermFrequency(k));
+                }
+            }
+        }
+    }
+
+    public boolean isClass(int document) {
+        return document < classCount;
+    }
+
+    /**
+     * Class row of a class document, or method row (as in ColumnarIndex) of a
+     * method document.
+     */
+    public int row(int document) {
+        return document < classCount ? document : document - classCount;
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public int getTermCount() {
+        return termNameIds.length;
+    }
+
+    public int getPostingBytes() {
+        return postings.capacity();
+    }
+
+    // Raw tables, for MappedIndex.write
+
+    int termNameId(int row) {
+        return termNameIds[row];
+    }
+
+    int documentFrequency(int row) {
+        return documentFrequencies[row];
+    }
+
+    int postingOffset(int row) {
+        return postingOffsets[row];
+    }
+
+    int documentLength(int document) {
+        return documentLengths[document];
+    }
+
+    ByteBuffer postingBytes() {
+        return postings.duplicate();
+    }
+}
@@ -0,0 +1,130 @@
+package com.analyzer.core;
+
+import com.analyzer.model.SymbolTable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Search terms of one class or method, with how often each occurs. Text is
+ * cut into words at anything that is not a letter or digit, and each word is
+ * split again at camelCase and letter/digit boundaries, so "parseHTTPRequest"
+ * yields parse, http and request, plus parsehttprequest for whole-word
+ * queries. Terms are lowercased; single letters, numbers and common English
+ * and Javadoc words are dropped.
+ *
+ * Queries go through the same split, so "HashMap" finds hashMap and
+ * hash_map alike.
+ */
+final class SearchTerms {
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "an", "and", "are", "as", "at", "be", "by", "for", "from", "if", "in", "into", "is", "it", "its",
+            "no", "not", "of", "on", "or", "so", "than", "that", "the", "then", "this", "to", "was", "we",
+            "will", "with", "param", "return", "returns", "throws", "link", "code", "see", "since", "author"));
+
+    private final Map<String, int[]> counts = new LinkedHashMap<>();
+
+    /**
+     * Adds the terms of an identifier, type or comment.
+     */
+    void add(String text) {
+        split(text, term -> counts.computeIfAbsent(term, t -> new int[1])[0]++);
+    }
+
+    boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * SymbolTable ids of the distinct terms, in first-seen order.
+     */
+    int[] ids() {
+        SymbolTable symbols = SymbolTable.global();
+        int[] ids = new int[counts.size()];
+        int i = 0;
+        for (String term : counts.keySet()) {
+            ids[i++] = symbols.intern(term);
+        }
+        return ids;
+    }
+
+    /**
+     * Occurrences of each term, in the order of ids().
+     */
+    int[] frequencies() {
+        int[] frequencies = new int[counts.size()];
+        int i = 0;
+        for (int[] count : counts.values()) {
+            frequencies[i++] = count[0];
+        }
+        return frequencies;
+    }
+
+    static void split(String text, Consumer<String> sink) {
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < n && Character.isLetterOrDigit(text.charAt(end)))
+                end++;
+            splitWord(text, i, end, sink);
+            i = end;
+        }
+    }
+
+    private static void splitWord(String text, int start, int end, Consumer<String> sink) {
+        int parts = 0;
+        int partStart = start;
+        for (int k = start + 1; k <= end; k++) {
+            if (k == end || isBoundary(text, k, end)) {
+                emit(text.substring(partStart, k), sink);
+                partStart = k;
+                parts++;
+            }
+        }
+        if (parts > 1) {
+            emit(text.substring(start, end), sink);
+        }
+    }
+
+    // Parts start at the B of "aB", the R of "HTTPRequest", and where letters
+    // and digits meet
+    private static boolean isBoundary(String text, int k, int end) {
+        char previous = text.charAt(k - 1);
+        char c = text.charAt(k);
+        if (Character.isDigit(previous) != Character.isDigit(c)) {
+            return true;
+        }
+        if (Character.isLowerCase(previous) && Character.isUpperCase(c)) {
+            return true;
+        }
+        return Character.isUpperCase(previous) && Character.isUpperCase(c) && k + 1 < end
+                && Character.isLowerCase(text.charAt(k + 1));
+    }
+
+    private static void emit(String part, Consumer<String> sink) {
+        if (part.length() < 2 || isNumber(part)) {
+            return;
+        }
+        String term = part.toLowerCase();
+        if (!STOP_WORDS.contains(term)) {
+            sink.accept(term);
+        }
+    }
+
+    private static boolean isNumber(String part) {
+        for (int i = 0; i < part.length(); i++) {
+            if (!Character.isDigit(part.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package com.analyzer.core;
+
+import java.util.Arrays;
+
+/**
+ * Secondary index over one int column of a ColumnarIndex: the row numbers
+ * sorted by value, with equal values in row order, next to the values in that
+ * order. A range predicate becomes two binary searches, and "order by" can
+ * walk the rows in value order instead of sorting them.
+ *
+ * Built with a single primitive sort of (value, row) pairs packed into longs,
+ * so no objects are created per row.
+ */
+public final class SortedColumn {
+    private final int[] rows;
+    private final int[] values;
+
+    SortedColumn(int[] column) {
+        int n = column.length;
+        long[] keys = new long[n];
+        for (int row = 0; row < n; row++) {
+            // Signed value in the high half, so negative values sort first
+            keys[row] = ((long) column[row] << 32) | row;
+        }
+        if (n >= 1 << 16) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        rows = new int[n];
+        values = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = (int) keys[i];
+            values[i] = (int) (keys[i] >> 32);
+        }
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Row at a position in value order.
+     */
+    public int row(int position) {
+        return rows[position];
+    }
+
+    public int value(int position) {
+        return values[position];
+    }
+
+    /**
+     * First position whose value is at least value (size() if none).
+     */
+    public int lowerBound(int value) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * First position whose value is greater than value (size() if none).
+     */
+    public int upperBound(int value) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
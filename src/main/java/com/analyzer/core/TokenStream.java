@@ -0,0 +1,168 @@
+package com.analyzer.core;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Normalized token stream of one Java source file, for clone detection.
+ * Comments and whitespace are dropped, every identifier becomes IDENTIFIER
+ * and every literal becomes LITERAL, so code that only differs in names and
+ * constants produces the same stream. Keywords, operators and separators
+ * keep their own code (the hash of their text).
+ *
+ * Tokens are stored as two parallel int arrays, code and line, rather than
+ * objects; a file of n tokens costs 8n bytes.
+ */
+public final class TokenStream {
+    public static final int IDENTIFIER = 1;
+    public static final int LITERAL = 2;
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile", "while", "var", "yield", "record"));
+
+    // Longest first, so ">>>=" is not read as ">>" then ">="
+    private static final String[] OPERATORS = {
+            ">>>=", "<<=", ">>=", ">>>", "...", "->", "::", "++", "--", "&&", "||", "==", "!=", "<=", ">=",
+            "+=", "-=", "*=", "/=", "&=", "|=", "^=", "%=", "<<", ">>" };
+
+    private int[] codes;
+    private int[] lines;
+    private int size;
+
+    private TokenStream(int capacity) {
+        codes = new int[capacity];
+        lines = new int[capacity];
+    }
+
+    public static TokenStream of(String source) {
+        // Roughly one token per five characters of typical Java source
+        TokenStream tokens = new TokenStream(Math.max(16, source.length() / 5));
+        int n = source.length();
+        int line = 1;
+        int i = 0;
+        while (i < n) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '/' && i + 1 < n && source.charAt(i + 1) == '/') {
+                while (i < n && source.charAt(i) != '\n')
+                    i++;
+            } else if (c == '/' && i + 1 < n && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                line += countLines(source, i, end);
+                i = end;
+            } else if (c == '"' && source.startsWith("\"\"\"", i)) {
+                int end = source.indexOf("\"\"\"", i + 3);
+                while (end > 0 && source.charAt(end - 1) == '\\') {
+                    end = source.indexOf("\"\"\"", end + 1);
+                }
+                end = end < 0 ? n : end + 3;
+                tokens.add(LITERAL, line);
+                line += countLines(source, i, end);
+                i = end;
+            } else if (c == '"' || c == '\'') {
+                int j = i + 1;
+                while (j < n && source.charAt(j) != c && source.charAt(j) != '\n') {
+                    if (source.charAt(j) == '\\')
+                        j++;
+                    j++;
+                }
+                tokens.add(LITERAL, line);
+                i = Math.min(n, j + 1);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int j = i + 1;
+                while (j < n && Character.isJavaIdentifierPart(source.charAt(j)))
+                    j++;
+                String word = source.substring(i, j);
+                if (KEYWORDS.contains(word)) {
+                    tokens.add(word.hashCode(), line);
+                } else if (word.equals("true") || word.equals("false") || word.equals("null")) {
+                    tokens.add(LITERAL, line);
+                } else {
+                    tokens.add(IDENTIFIER, line);
+                }
+                i = j;
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < n && Character.isDigit(source.charAt(i + 1)))) {
+                int j = i + 1;
+                while (j < n && (Character.isLetterOrDigit(source.charAt(j)) || source.charAt(j) == '.'
+                        || source.charAt(j) == '_'
+                        || ((source.charAt(j) == '+' || source.charAt(j) == '-')
+                                && (source.charAt(j - 1) == 'e' || source.charAt(j - 1) == 'E'
+                                        || source.charAt(j - 1) == 'p' || source.charAt(j - 1) == 'P')))) {
+                    j++;
+                }
+                tokens.add(LITERAL, line);
+                i = j;
+            } else {
+                int length = 1;
+                for (String op : OPERATORS) {
+                    if (source.startsWith(op, i)) {
+                        length = op.length();
+                        break;
+                    }
+                }
+                tokens.add(source.substring(i, i + length).hashCode(), line);
+                i += length;
+            }
+        }
+        return tokens;
+    }
+
+    private static int countLines(String source, int from, int to) {
+        int count = 0;
+        for (int k = from; k < to; k++) {
+            if (source.charAt(k) == '\n')
+                count++;
+        }
+        return count;
+    }
+
+    private void add(int code, int line) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        codes[size] = code;
+        lines[size] = line;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int code(int index) {
+        return codes[index];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    /**
+     * Index of the first token on or after the given line (size() if none).
+     */
+    public int firstTokenAtLine(int line) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lines[mid] < line) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
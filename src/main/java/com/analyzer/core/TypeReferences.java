@@ -0,0 +1,72 @@
+package com.analyzer.core;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Types mentioned by one class or method, collected from the AST the parser
+ * already holds. Simple names feed the type-reference graph; fully qualified
+ * names written in the source ("java.util.List") feed the package
+ * dependency graph together with the imports.
+ */
+final class TypeReferences {
+    final Set<String> simpleNames = new LinkedHashSet<>();
+    final Set<String> qualifiedNames = new LinkedHashSet<>();
+
+    /**
+     * Adds all types mentioned under node, such as a signature, supertype or
+     * field declaration. Nested type declarations are skipped.
+     */
+    void collect(Node node) {
+        if (node instanceof ClassOrInterfaceType) {
+            add((ClassOrInterfaceType) node);
+            return;
+        }
+        for (Node child : node.getChildNodes()) {
+            if (!(child instanceof TypeDeclaration)) {
+                collect(child);
+            }
+        }
+    }
+
+    // "java.util.List<Foo>" adds List and Foo, and java.util.List as a
+    // qualified name; "Map.Entry" only adds Entry
+    void add(ClassOrInterfaceType type) {
+        simpleNames.add(type.getName().getIdentifier());
+        Optional<ClassOrInterfaceType> scope = type.getScope();
+        if (scope.isPresent()) {
+            ClassOrInterfaceType outermost = scope.get();
+            while (outermost.getScope().isPresent()) {
+                outermost = outermost.getScope().get();
+            }
+            if (Character.isLowerCase(outermost.getName().getIdentifier().charAt(0))) {
+                qualifiedNames.add(type.getNameWithScope());
+            }
+        }
+        type.getTypeArguments().ifPresent(args -> args.forEach(this::collect));
+    }
+
+    // Heuristic for static access without a symbol solver: "Foo.bar()" and
+    // "Foo.BAR" refer to type Foo when the scope is a capitalized plain name
+    // (but not an all-caps constant such as "LOG.info()")
+    void addScope(Optional<Expression> scope) {
+        if (scope.isPresent() && scope.get() instanceof NameExpr) {
+            String name = ((NameExpr) scope.get()).getNameAsString();
+            if (Character.isUpperCase(name.charAt(0)) && !name.equals(name.toUpperCase())) {
+                simpleNames.add(name);
+            }
+        }
+    }
+
+    void addAll(TypeReferences other) {
+        simpleNames.addAll(other.simpleNames);
+        qualifiedNames.addAll(other.qualifiedNames);
+    }
+}
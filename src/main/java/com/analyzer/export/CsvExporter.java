@@ -0,0 +1,430 @@
+package com.analyzer.export;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.FieldInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the index as CSV tables of classes, methods and fields, optionally
+ * split into shards that are written in parallel, one file per table and
+ * shard, with a manifest.json describing them.
+ *
+ * Shards are contiguous ranges of classes chosen so each holds about the same
+ * number of rows of its table: a class with 300 methods weighs 300 in the
+ * methods table. Every shard is written by its own task into its own reused
+ * byte buffer, which is flushed to a FileChannel when full; numbers are
+ * written digit by digit and the class, package and file cells are encoded
+ * once per class, so the hot path builds no strings.
+ *
+ * Cells follow RFC 4180: a cell containing a comma, quote or line break is
+ * quoted, with quotes doubled.
+ */
+public final class CsvExporter {
+    private static final int BUFFER_SIZE = 1 << 18;
+    private static final String MANIFEST = "manifest.json";
+
+    public enum Table {
+        CLASSES("Class,Package,File,Methods,Fields"),
+        METHODS("Class,Package,File,Method,ReturnType,Parameters,Loc,StartLine,Complexity,MaxNesting,"
+                + "Statements,CallSites"),
+        FIELDS("Class,Package,File,Field,Type");
+
+        private final String header;
+
+        Table(String header) {
+            this.header = header;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public String fileName() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * One written file: which table and shard, and how much went into it.
+     */
+    public static final class Shard {
+        private final Table table;
+        private final int index;
+        private final Path file;
+        private long rows;
+        private long bytes;
+
+        Shard(Table table, int index, Path file) {
+            this.table = table;
+            this.index = index;
+            this.file = file;
+        }
+
+        public Table getTable() {
+            return table;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private final int threads;
+
+    public CsvExporter(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Writes one table to one file.
+     */
+    public Shard exportTable(IndexSnapshot snapshot, Table table, Path file) throws IOException {
+        Shard shard = new Shard(table, 0, file);
+        write(snapshot, shard, 0, snapshot.getClassCount());
+        return shard;
+    }
+
+    /**
+     * Writes each table as shardCount files into directory, in parallel, then
+     * the manifest. Returns the shards in table order.
+     */
+    public GenericList<Shard> export(IndexSnapshot snapshot, GenericList<Table> tables, int shardCount,
+            Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ColumnarIndex columns = snapshot.getColumns();
+        GenericList<Shard> shards = new GenericList<>();
+        GenericList<int[]> ranges = new GenericList<>();
+        for (int t = 0; t < tables.size(); t++) {
+            Table table = tables.get(t);
+            int[] bounds = partition(weights(table, columns), snapshot.getClassCount(), shardCount);
+            for (int s = 0; s < shardCount; s++) {
+                String name = shardCount == 1 ? table.fileName() + ".csv"
+                        : String.format("%s-%03d.csv", table.fileName(), s);
+                shards.add(new Shard(table, s, directory.resolve(name)));
+                ranges.add(new int[] { bounds[s], bounds[s + 1] });
+            }
+        }
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "export-worker");
+                    t.setDaemon(true);
+                    return t;
+                });
+        try {
+            GenericList<Future<Void>> futures = new GenericList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                Shard shard = shards.get(i);
+                int[] range = ranges.get(i);
+                Callable<Void> task = () -> {
+                    write(snapshot, shard, range[0], range[1]);
+                    return null;
+                };
+                futures.add(pool.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        writeManifest(shards, shardCount, directory.resolve(MANIFEST));
+        return shards;
+    }
+
+    // Rows each class contributes to a table
+    private static int[] weights(Table table, ColumnarIndex columns) {
+        switch (table) {
+            case METHODS:
+                return columns.classMethodCounts();
+            case FIELDS:
+                return columns.classFieldCounts();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Class row boundaries of count shards of about equal weight: shard s
+     * covers rows bounds[s] to bounds[s + 1] - 1. A null weights array
+     * weighs every class 1.
+     */
+    static int[] partition(int[] weights, int classes, int count) {
+        long total = 0;
+        for (int row = 0; row < classes; row++) {
+            total += weights == null ? 1 : weights[row];
+        }
+        int[] bounds = new int[count + 1];
+        long running = 0;
+        int row = 0;
+        for (int s = 1; s < count; s++) {
+            long target = total * s / count;
+            while (row < classes && running + (weights == null ? 1 : weights[row]) <= target) {
+                running += weights == null ? 1 : weights[row];
+                row++;
+            }
+            bounds[s] = row;
+        }
+        bounds[count] = classes;
+        return bounds;
+    }
+
+    private static void write(IndexSnapshot snapshot, Shard shard, int from, int to) throws IOException {
+        try (RowWriter out = new RowWriter(shard.file)) {
+            out.raw(shard.table.getHeader());
+            out.newline();
+            SymbolTable symbols = SymbolTable.global();
+            StringBuilder params = new StringBuilder();
+            for (int row = from; row < to; row++) {
+                ClassInfo c = snapshot.getClass(row);
+                // Shared by every method and field row of the class
+                byte[] classCells = cells(c.getName(), c.getPackageName(), c.getFilePath());
+                switch (shard.table) {
+                    case CLASSES:
+                        out.bytes(classCells);
+                        out.number(c.getMethodCount());
+                        out.comma();
+                        out.number(c.getFieldCount());
+                        out.newline();
+                        shard.rows++;
+                        break;
+                    case METHODS:
+                        GenericList<MethodInfo> methods = c.getMethods();
+                        for (int i = 0; i < methods.size(); i++) {
+                            MethodInfo m = methods.get(i);
+                            out.bytes(classCells);
+                            out.text(m.getName());
+                            out.comma();
+                            out.text(m.getReturnType());
+                            out.comma();
+                            params.setLength(0);
+                            for (int k = 0; k < m.getParameterCount(); k++) {
+                                params.append(k > 0 ? ";" : "").append(symbols.get(m.getParameterTypeId(k)));
+                            }
+                            out.text(params.toString());
+                            out.comma();
+                            out.number(m.getLoc());
+                            out.comma();
+                            out.number(m.getStartLine());
+                            out.comma();
+                            out.number(m.getComplexity());
+                            out.comma();
+                            out.number(m.getMaxNesting());
+                            out.comma();
+                            out.number(m.getStatementCount());
+                            out.comma();
+                            out.number(m.getCallSiteCount());
+                            out.newline();
+                            shard.rows++;
+                        }
+                        break;
+                    default:
+                        GenericList<FieldInfo> fields = c.getFields();
+                        for (int i = 0; i < fields.size(); i++) {
+                            FieldInfo f = fields.get(i);
+                            out.bytes(classCells);
+                            out.text(f.getName());
+                            out.comma();
+                            out.text(f.getType());
+                            out.newline();
+                            shard.rows++;
+                        }
+                }
+            }
+            shard.bytes = out.written();
+        }
+    }
+
+    // The encoded cells, each followed by a comma
+    private static byte[] cells(String... values) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            sb.append(escape(value)).append(',');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char ch = value.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    private static void writeManifest(GenericList<Shard> shards, int shardCount, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            JsonWriter json = new JsonWriter(out);
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("format").value("csv");
+            json.name("shards").value(shardCount);
+            json.name("tables").beginArray();
+            for (int i = 0; i < shards.size(); i += shardCount) {
+                Table table = shards.get(i).table;
+                long rows = 0;
+                for (int s = i; s < i + shardCount; s++) {
+                    rows += shards.get(s).rows;
+                }
+                json.beginObject();
+                json.name("name").value(table.fileName());
+                json.name("columns").beginArray();
+                for (String column : table.getHeader().split(",")) {
+                    json.value(column);
+                }
+                json.endArray();
+                json.name("rows").value(rows);
+                json.name("files").beginArray();
+                for (int s = i; s < i + shardCount; s++) {
+                    Shard shard = shards.get(s);
+                    json.beginObject();
+                    json.name("file").value(shard.file.getFileName().toString());
+                    json.name("rows").value(shard.rows);
+                    json.name("bytes").value(shard.bytes);
+                    json.endObject();
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+            out.write('\n');
+        }
+    }
+
+    /**
+     * CSV output into one reused buffer, flushed to the file channel when
+     * full.
+     */
+    private static final class RowWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final byte[] digits = new byte[11];
+        private long written;
+
+        RowWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void comma() throws IOException {
+            ensure(1);
+            buffer.put((byte) ',');
+        }
+
+        void newline() throws IOException {
+            ensure(1);
+            buffer.put((byte) '\n');
+        }
+
+        void number(int value) throws IOException {
+            ensure(digits.length);
+            if (value == 0) {
+                buffer.put((byte) '0');
+                return;
+            }
+            long v = value;
+            if (v < 0) {
+                buffer.put((byte) '-');
+                v = -v;
+            }
+            int n = 0;
+            while (v > 0) {
+                digits[n++] = (byte) ('0' + v % 10);
+                v /= 10;
+            }
+            while (n > 0) {
+                buffer.put(digits[--n]);
+            }
+        }
+
+        void text(String value) throws IOException {
+            bytes(escape(value).getBytes(StandardCharsets.UTF_8));
+        }
+
+        void raw(String value) throws IOException {
+            bytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void bytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.remaining()) {
+                flush();
+                if (bytes.length > buffer.capacity()) {
+                    write(ByteBuffer.wrap(bytes));
+                    return;
+                }
+            }
+            buffer.put(bytes);
+        }
+
+        long written() throws IOException {
+            flush();
+            return written;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                written += channel.write(bytes);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
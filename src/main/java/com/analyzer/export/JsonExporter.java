@@ -0,0 +1,137 @@
+package com.analyzer.export;
+
+import com.analyzer.core.IndexSnapshot;
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.FieldInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the classes of a snapshot as JSON, one class at a time. Each class
+ * is streamed through a JsonWriter by hand-written serializers, so there is
+ * no reflection, no intermediate tree, and nothing about the container
+ * classes ends up in the output. Classes of a mapped snapshot are
+ * materialized one by one as they are written.
+ *
+ * Output goes through a 1 MB buffer straight to a FileChannel, so the file
+ * is written in large sequential chunks.
+ */
+public final class JsonExporter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    public enum Style {
+        /** One JSON array, no whitespace. */
+        COMPACT,
+        /** One JSON array, indented by two spaces. */
+        PRETTY,
+        /** One compact class object per line, for line-by-line consumers. */
+        NDJSON
+    }
+
+    private final Style style;
+
+    public JsonExporter(Style style) {
+        this.style = style;
+    }
+
+    /**
+     * Writes every class of snapshot to file, replacing it, and returns the
+     * number of classes written.
+     */
+    public int export(IndexSnapshot snapshot, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8),
+                        BUFFER_SIZE)) {
+            return write(snapshot, out);
+        }
+    }
+
+    /**
+     * Writes every class of snapshot to out, which is flushed but not closed.
+     */
+    public int write(IndexSnapshot snapshot, Writer out) throws IOException {
+        int count = snapshot.getClassCount();
+        if (style == Style.NDJSON) {
+            for (int row = 0; row < count; row++) {
+                // A JsonWriter holds no buffer of its own, so one per line is cheap
+                writeClass(new JsonWriter(out), snapshot.getClass(row));
+                out.write('\n');
+            }
+        } else {
+            JsonWriter json = new JsonWriter(out);
+            if (style == Style.PRETTY) {
+                json.setIndent("  ");
+            }
+            json.beginArray();
+            for (int row = 0; row < count; row++) {
+                writeClass(json, snapshot.getClass(row));
+            }
+            json.endArray();
+            if (style == Style.PRETTY) {
+                out.write('\n');
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    private static void writeClass(JsonWriter json, ClassInfo c) throws IOException {
+        json.beginObject();
+        json.name("name").value(c.getName());
+        json.name("packageName").value(c.getPackageName());
+        json.name("filePath").value(c.getFilePath());
+        json.name("methodCount").value(c.getMethodCount());
+        json.name("fieldCount").value(c.getFieldCount());
+        json.name("methods").beginArray();
+        GenericList<MethodInfo> methods = c.getMethods();
+        for (int i = 0; i < methods.size(); i++) {
+            writeMethod(json, methods.get(i));
+        }
+        json.endArray();
+        json.name("fields").beginArray();
+        GenericList<FieldInfo> fields = c.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            FieldInfo f = fields.get(i);
+            json.beginObject();
+            json.name("name").value(f.getName());
+            json.name("type").value(f.getType());
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private static void writeMethod(JsonWriter json, MethodInfo m) throws IOException {
+        json.beginObject();
+        json.name("name").value(m.getName());
+        json.name("returnType").value(m.getReturnType());
+        json.name("parameters").beginArray();
+        // By id: getParameters() would build a list per method
+        SymbolTable symbols = SymbolTable.global();
+        for (int i = 0; i < m.getParameterCount(); i++) {
+            json.value(symbols.get(m.getParameterTypeId(i)));
+        }
+        json.endArray();
+        json.name("loc").value(m.getLoc());
+        json.name("startLine").value(m.getStartLine());
+        json.name("complexity").value(m.getComplexity());
+        json.name("maxNesting").value(m.getMaxNesting());
+        json.name("statements").value(m.getStatementCount());
+        json.name("callSites").value(m.getCallSiteCount());
+        json.endObject();
+    }
+}
@@ -2,19 +2,32 @@ package com.analyzer.model;
 
 import com.containers.GenericList;
 
+import java.util.Arrays;
+
 public class ClassInfo {
-    private String name;
-    private String packageName;
-    private String filePath;
+    private static final int[] NO_REFERENCES = new int[0];
+
+    // Symbol ids into SymbolTable.global()
+    private final int nameId;
+    private final int packageId;
+    private final int filePathId;
     private int methodCount;
     private int fieldCount;
     private GenericList<MethodInfo> methods;
     private GenericList<FieldInfo> fields;
+    // Distinct simple names of the types this class refers to
+    private int[] typeReferenceIds = NO_REFERENCES;
+    // Distinct imports and fully qualified type names used by this class
+    private int[] dependencyIds = NO_REFERENCES;
+    // Search terms of the class itself (not its methods) and their counts
+    private int[] termIds = NO_REFERENCES;
+    private int[] termFrequencies = NO_REFERENCES;
 
     public ClassInfo(String name, String packageName, String filePath) {
-        this.name = name;
-        this.packageName = packageName;
-        this.filePath = filePath;
+        SymbolTable symbols = SymbolTable.global();
+        this.nameId = symbols.intern(name);
+        this.packageId = symbols.intern(packageName);
+        this.filePathId = symbols.intern(filePath);
         this.methods = new GenericList<>();
         this.fields = new GenericList<>();
     }
@@ -29,16 +42,107 @@ public class ClassInfo {
         fieldCount++;
     }
 
+    /**
+     * Records a reference to a type by simple name, from a signature, field,
+     * supertype or method body. Repeated names are kept once.
+     */
+    public void addTypeReference(String typeName) {
+        int id = SymbolTable.global().intern(typeName);
+        for (int existing : typeReferenceIds) {
+            if (existing == id)
+                return;
+        }
+        int n = typeReferenceIds.length;
+        typeReferenceIds = Arrays.copyOf(typeReferenceIds, n + 1);
+        typeReferenceIds[n] = id;
+    }
+
+    public int getTypeReferenceId(int index) {
+        return typeReferenceIds[index];
+    }
+
+    public int getTypeReferenceCount() {
+        return typeReferenceIds.length;
+    }
+
+    /**
+     * Records a qualified name this class depends on: an import ("a.b.C",
+     * "a.b.*", or a static import "a.b.C.m") or a fully qualified type
+     * written in the source. Repeated names are kept once.
+     */
+    public void addDependency(String qualifiedName) {
+        int id = SymbolTable.global().intern(qualifiedName);
+        for (int existing : dependencyIds) {
+            if (existing == id)
+                return;
+        }
+        int n = dependencyIds.length;
+        dependencyIds = Arrays.copyOf(dependencyIds, n + 1);
+        dependencyIds[n] = id;
+    }
+
+    public int getDependencyId(int index) {
+        return dependencyIds[index];
+    }
+
+    public int getDependencyCount() {
+        return dependencyIds.length;
+    }
+
+    public int getTermId(int index) {
+        return termIds[index];
+    }
+
+    public int getTermFrequency(int index) {
+        return termFrequencies[index];
+    }
+
+    public int getTermCount() {
+        return termIds.length;
+    }
+
+    /**
+     * Sets the search terms found in the class name, fields, supertypes and
+     * class-level comments. Methods are searched as documents of their own.
+     */
+    public void setTerms(int[] ids, int[] frequencies) {
+        this.termIds = ids;
+        this.termFrequencies = frequencies;
+    }
+
     public String getName() {
-        return name;
+        return SymbolTable.global().get(nameId);
     }
 
     public String getPackageName() {
-        return packageName;
+        return SymbolTable.global().get(packageId);
     }
 
     public String getFilePath() {
-        return filePath;
+        return SymbolTable.global().get(filePathId);
+    }
+
+    /**
+     * The file name without its directories, e.g. "Main.java".
+     */
+    public String getFileName() {
+        String filePath = getFilePath();
+        if (filePath == null)
+            return "Unknown";
+        int lastSeparator = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\'));
+        return lastSeparator >= 0 ? filePath.substring(lastSeparator + 1) : filePath;
+    }
+
+    public int getNameId() {
+        return nameId;
+    }
+
+    public int getPackageId() {
+        return packageId;
+    }
+
+    public int getFilePathId() {
+        return filePathId;
     }
 
     public int getMethodCount() {
@@ -59,6 +163,6 @@ public class ClassInfo {
 
     @Override
     public String toString() {
-        return "ClassInfo{name='" + name + "', methods=" + methodCount + "}";
+        return "ClassInfo{name='" + getName() + "', methods=" + methodCount + "}";
     }
 }
@@ -1,19 +1,29 @@
 package com.analyzer.model;
 
 public class FieldInfo {
-    private String name;
-    private String type;
+    // Symbol ids into SymbolTable.global()
+    private final int nameId;
+    private final int typeId;
 
     public FieldInfo(String name, String type) {
-        this.name = name;
-        this.type = type;
+        SymbolTable symbols = SymbolTable.global();
+        this.nameId = symbols.intern(name);
+        this.typeId = symbols.intern(type);
     }
 
     public String getName() {
-        return name;
+        return SymbolTable.global().get(nameId);
     }
 
     public String getType() {
-        return type;
+        return SymbolTable.global().get(typeId);
+    }
+
+    public int getNameId() {
+        return nameId;
+    }
+
+    public int getTypeId() {
+        return typeId;
     }
 }
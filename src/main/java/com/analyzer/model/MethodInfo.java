@@ -2,31 +2,91 @@ package com.analyzer.model;
 
 import com.containers.GenericList;
 
+import java.util.Arrays;
+
 public class MethodInfo {
-    private String name;
-    private String returnType;
-    private GenericList<String> parameters;
+    private static final int[] EMPTY = new int[0];
+
+    // Symbol ids into SymbolTable.global()
+    private final int nameId;
+    private final int returnTypeId;
+    private int[] parameterTypeIds;
+    // Distinct names of the methods this one calls, in first-call order
+    private int[] calleeIds;
+    // Search terms and their counts, parallel arrays
+    private int[] termIds;
+    private int[] termFrequencies;
     private int loc;
     private int startLine;
+    // Body metrics; all zero when the body was not parsed
+    private int complexity;
+    private int maxNesting;
+    private int statementCount;
+    private int callSiteCount;
 
     public MethodInfo(String name, String returnType, int loc, int startLine) {
-        this.name = name;
-        this.returnType = returnType;
+        SymbolTable symbols = SymbolTable.global();
+        this.nameId = symbols.intern(name);
+        this.returnTypeId = symbols.intern(returnType);
         this.loc = loc;
         this.startLine = startLine;
-        this.parameters = new GenericList<>();
+        this.parameterTypeIds = EMPTY;
+        this.calleeIds = EMPTY;
+        this.termIds = EMPTY;
+        this.termFrequencies = EMPTY;
     }
 
     public void addParameter(String paramType) {
-        parameters.add(paramType);
+        int n = parameterTypeIds.length;
+        parameterTypeIds = Arrays.copyOf(parameterTypeIds, n + 1);
+        parameterTypeIds[n] = SymbolTable.global().intern(paramType);
+    }
+
+    /**
+     * Records a call to a method by simple name. Call sites are not resolved to
+     * a declaring type; repeated names are kept once.
+     */
+    public void addCallee(String methodName) {
+        int id = SymbolTable.global().intern(methodName);
+        for (int existing : calleeIds) {
+            if (existing == id)
+                return;
+        }
+        int n = calleeIds.length;
+        calleeIds = Arrays.copyOf(calleeIds, n + 1);
+        calleeIds[n] = id;
+    }
+
+    /**
+     * Sets the search terms of this method, as distinct SymbolTable ids, with
+     * how often each appears in its signature, body and comments.
+     */
+    public void setTerms(int[] ids, int[] frequencies) {
+        this.termIds = ids;
+        this.termFrequencies = frequencies;
+    }
+
+    public void setBodyMetrics(int complexity, int maxNesting, int statementCount, int callSiteCount) {
+        this.complexity = complexity;
+        this.maxNesting = maxNesting;
+        this.statementCount = statementCount;
+        this.callSiteCount = callSiteCount;
     }
 
     public String getName() {
-        return name;
+        return SymbolTable.global().get(nameId);
     }
 
     public String getReturnType() {
-        return returnType;
+        return SymbolTable.global().get(returnTypeId);
+    }
+
+    public int getNameId() {
+        return nameId;
+    }
+
+    public int getReturnTypeId() {
+        return returnTypeId;
     }
 
     public int getLoc() {
@@ -37,16 +97,64 @@ public class MethodInfo {
         return startLine;
     }
 
+    public int getComplexity() {
+        return complexity;
+    }
+
+    public int getMaxNesting() {
+        return maxNesting;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getCallSiteCount() {
+        return callSiteCount;
+    }
+
+    /**
+     * Parameter types resolved to Strings. Built on each call; use
+     * getParameterTypeId for hot loops.
+     */
     public GenericList<String> getParameters() {
+        GenericList<String> parameters = new GenericList<>();
+        for (int id : parameterTypeIds) {
+            parameters.add(SymbolTable.global().get(id));
+        }
         return parameters;
     }
 
+    public int getParameterTypeId(int index) {
+        return parameterTypeIds[index];
+    }
+
     public int getParameterCount() {
-        return parameters.size();
+        return parameterTypeIds.length;
+    }
+
+    public int getCalleeId(int index) {
+        return calleeIds[index];
+    }
+
+    public int getCalleeCount() {
+        return calleeIds.length;
+    }
+
+    public int getTermId(int index) {
+        return termIds[index];
+    }
+
+    public int getTermFrequency(int index) {
+        return termFrequencies[index];
+    }
+
+    public int getTermCount() {
+        return termIds.length;
     }
 
     @Override
     public String toString() {
-        return name + "()";
+        return getName() + "()";
     }
 }
@@ -0,0 +1,68 @@
+package com.analyzer.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * String pool for identifiers, type names, packages and file paths. Model
+ * objects store the int id instead of their own String copy, so a name like
+ * "String" or a file path shared by several classes is held once.
+ *
+ * Ids are stable for the lifetime of the table, which for global() is the
+ * process: symbols are never dropped, so the table holds every distinct string
+ * seen so far. Re-parsing a file adds only the strings it did not have before.
+ *
+ * Interning a known symbol and looking one up take no lock; only adding a new
+ * symbol does. Lookups by id need none either, since an id can only be
+ * observed after the intern call that published it.
+ */
+public final class SymbolTable {
+    private static final SymbolTable GLOBAL = new SymbolTable();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Append-only; a new symbol is stored before its id is published in ids
+    private volatile String[] symbols = new String[1024];
+    private volatile int size;
+
+    public static SymbolTable global() {
+        return GLOBAL;
+    }
+
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : add(symbol);
+    }
+
+    private synchronized int add(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null)
+            return id;
+        String[] table = symbols;
+        if (size == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        int next = size;
+        table[next] = symbol;
+        symbols = table;
+        size = next + 1;
+        ids.put(symbol, next);
+        return next;
+    }
+
+    /**
+     * @return the id of symbol, or -1 if it was never interned.
+     */
+    public int lookup(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    public String get(int id) {
+        return symbols[id];
+    }
+
+    public int size() {
+        return size;
+    }
+}
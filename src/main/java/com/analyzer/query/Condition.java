@@ -0,0 +1,438 @@
+package com.analyzer.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The where clause of a query. QueryParser builds the tree with bare column
+ * names; bind() resolves them against a table before anything is evaluated.
+ *
+ * A bound condition can be evaluated a row at a time with matches(), or a
+ * batch at a time with filter(), which runs one tight loop per comparison over
+ * a selection vector of row numbers. The planner uses the batch form for scans
+ * and the row form when it walks a secondary index in order.
+ */
+public abstract class Condition {
+
+    public enum Op {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">="), LIKE("like");
+
+        private final String symbol;
+
+        Op(String symbol) {
+            this.symbol = symbol;
+        }
+
+        @Override
+        public String toString() {
+            return symbol;
+        }
+    }
+
+    abstract Condition bind(QueryTable table);
+
+    abstract boolean matches(int row);
+
+    /**
+     * Moves the rows among the first count entries of rows that satisfy this
+     * condition to the front, keeping their order, and returns how many there
+     * are.
+     */
+    abstract int filter(int[] rows, int count);
+
+    /**
+     * Adds the bound columns this condition reads to out, once each.
+     */
+    abstract void collectColumns(List<QueryTable.Column> out);
+
+    /**
+     * column op literal. The literal is a number for numeric columns and a
+     * name for text columns; like takes a pattern where * (or %) matches any
+     * run of characters and ? a single one, ignoring case.
+     */
+    public static final class Comparison extends Condition {
+        private final String columnName;
+        private final Op op;
+        private final String literal;
+
+        // Set by bind()
+        private final QueryTable.Column column;
+        private final int value;
+        private final byte[] likeCache;
+        private final Pattern pattern;
+
+        Comparison(String columnName, Op op, String literal) {
+            this(columnName, op, literal, null, 0, null);
+        }
+
+        private Comparison(String columnName, Op op, String literal, QueryTable.Column column, int value,
+                Pattern pattern) {
+            this.columnName = columnName;
+            this.op = op;
+            this.literal = literal;
+            this.column = column;
+            this.value = value;
+            this.pattern = pattern;
+            // Per distinct value: 0 not yet tested, 1 matches, 2 does not
+            this.likeCache = pattern == null ? null : new byte[column.getValueSpace()];
+        }
+
+        public QueryTable.Column getColumn() {
+            return column;
+        }
+
+        public Op getOp() {
+            return op;
+        }
+
+        /**
+         * The bound literal: the number for numeric columns, the resolved
+         * name value (-1 if it never occurs) for text columns.
+         */
+        public int getValue() {
+            return value;
+        }
+
+        @Override
+        Condition bind(QueryTable table) {
+            QueryTable.Column c = table.column(columnName);
+            if (!c.isText()) {
+                if (op == Op.LIKE) {
+                    throw new IllegalArgumentException("'like' needs a text column, " + columnName + " is numeric");
+                }
+                try {
+                    return new Comparison(columnName, op, literal, c, Integer.parseInt(literal), null);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(columnName + " is numeric, got '" + literal + "'");
+                }
+            }
+            if (op == Op.LIKE) {
+                return new Comparison(columnName, op, literal, c, 0, likePattern(literal));
+            }
+            if (op != Op.EQ && op != Op.NE) {
+                throw new IllegalArgumentException(columnName + " is text and supports only =, != and like");
+            }
+            return new Comparison(columnName, op, literal, c, c.valueOf(literal), null);
+        }
+
+        @Override
+        void collectColumns(List<QueryTable.Column> out) {
+            if (!out.contains(column)) {
+                out.add(column);
+            }
+        }
+
+        @Override
+        boolean matches(int row) {
+            int v = column.get(row);
+            switch (op) {
+                case EQ:
+                    return v == value;
+                case NE:
+                    return v != value;
+                case LT:
+                    return v < value;
+                case LE:
+                    return v <= value;
+                case GT:
+                    return v > value;
+                case GE:
+                    return v >= value;
+                default:
+                    return like(v);
+            }
+        }
+
+        @Override
+        int filter(int[] rows, int count) {
+            if (column.isText()) {
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    if (matches(rows[i])) {
+                        rows[kept++] = rows[i];
+                    }
+                }
+                return kept;
+            }
+            // Numeric columns are direct arrays; one loop per operator keeps
+            // the comparison out of the loop body
+            int[] values = column.values();
+            int v = value;
+            int kept = 0;
+            switch (op) {
+                case EQ:
+                    for (int i = 0; i < count; i++) {
+                        int row = rows[i];
+                        if (values[row] == v)
+                            rows[kept++] = row;
+                    }
+                    break;
+                case NE:
+                    for (int i = 0; i < count; i++) {
+                        int row = rows[i];
+                        if (values[row] != v)
+                            rows[kept++] = row;
+                    }
+                    break;
+                case LT:
+                    for (int i = 0; i < count; i++) {
+                        int row = rows[i];
+                        if (values[row] < v)
+                            rows[kept++] = row;
+                    }
+                    break;
+                case LE:
+                    for (int i = 0; i < count; i++) {
+                        int row = rows[i];
+                        if (values[row] <= v)
+                            rows[kept++] = row;
+                    }
+                    break;
+                case GT:
+                    for (int i = 0; i < count; i++) {
+                        int row = rows[i];
+                        if (values[row] > v)
+                            rows[kept++] = row;
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < count; i++) {
+                        int row = rows[i];
+                        if (values[row] >= v)
+                            rows[kept++] = row;
+                    }
+                    break;
+            }
+            return kept;
+        }
+
+        // The pattern is tested once per distinct name, not once per row
+        private boolean like(int v) {
+            if (v < 0 || v >= likeCache.length) {
+                return v >= 0 && pattern.matcher(column.name(v)).matches();
+            }
+            if (likeCache[v] == 0) {
+                likeCache[v] = (byte) (pattern.matcher(column.name(v)).matches() ? 1 : 2);
+            }
+            return likeCache[v] == 1;
+        }
+
+        private static Pattern likePattern(String glob) {
+            StringBuilder regex = new StringBuilder();
+            int start = 0;
+            for (int i = 0; i < glob.length(); i++) {
+                char ch = glob.charAt(i);
+                if (ch == '*' || ch == '%' || ch == '?') {
+                    if (i > start) {
+                        regex.append(Pattern.quote(glob.substring(start, i)));
+                    }
+                    regex.append(ch == '?' ? "." : ".*");
+                    start = i + 1;
+                }
+            }
+            if (start < glob.length()) {
+                regex.append(Pattern.quote(glob.substring(start)));
+            }
+            return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        }
+
+        @Override
+        public String toString() {
+            boolean quote = column != null ? column.isText() : !literal.matches("-?\\d+");
+            return columnName + " " + op + " " + (quote ? "'" + literal + "'" : literal);
+        }
+    }
+
+    public static final class And extends Condition {
+        private final List<Condition> terms;
+
+        And(List<Condition> terms) {
+            this.terms = terms;
+        }
+
+        public List<Condition> getTerms() {
+            return terms;
+        }
+
+        @Override
+        Condition bind(QueryTable table) {
+            List<Condition> bound = new ArrayList<>();
+            for (Condition term : terms) {
+                bound.add(term.bind(table));
+            }
+            return new And(bound);
+        }
+
+        @Override
+        void collectColumns(List<QueryTable.Column> out) {
+            for (Condition term : terms) {
+                term.collectColumns(out);
+            }
+        }
+
+        @Override
+        boolean matches(int row) {
+            for (Condition term : terms) {
+                if (!term.matches(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int filter(int[] rows, int count) {
+            for (Condition term : terms) {
+                if (count == 0) {
+                    break;
+                }
+                count = term.filter(rows, count);
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return join(terms, " and ");
+        }
+    }
+
+    public static final class Or extends Condition {
+        private final List<Condition> terms;
+
+        Or(List<Condition> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        Condition bind(QueryTable table) {
+            List<Condition> bound = new ArrayList<>();
+            for (Condition term : terms) {
+                bound.add(term.bind(table));
+            }
+            return new Or(bound);
+        }
+
+        @Override
+        void collectColumns(List<QueryTable.Column> out) {
+            for (Condition term : terms) {
+                term.collectColumns(out);
+            }
+        }
+
+        @Override
+        boolean matches(int row) {
+            for (Condition term : terms) {
+                if (term.matches(row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int filter(int[] rows, int count) {
+            // Each branch only sees the rows no earlier branch accepted; the
+            // accepted rows are merged back into row order at the end
+            boolean[] accepted = new boolean[count];
+            int[] pending = new int[count];
+            int[] slot = new int[count];
+            int remaining = 0;
+            for (int i = 0; i < count; i++) {
+                pending[remaining] = rows[i];
+                slot[remaining++] = i;
+            }
+            int[] batch = new int[count];
+            for (Condition term : terms) {
+                if (remaining == 0) {
+                    break;
+                }
+                System.arraycopy(pending, 0, batch, 0, remaining);
+                int hits = term.filter(batch, remaining);
+                // batch keeps the order of pending, so one merge pass finds
+                // which pending rows were accepted
+                int h = 0;
+                int left = 0;
+                for (int i = 0; i < remaining; i++) {
+                    if (h < hits && batch[h] == pending[i]) {
+                        accepted[slot[i]] = true;
+                        h++;
+                    } else {
+                        pending[left] = pending[i];
+                        slot[left++] = slot[i];
+                    }
+                }
+                remaining = left;
+            }
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (accepted[i]) {
+                    rows[kept++] = rows[i];
+                }
+            }
+            return kept;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + join(terms, " or ") + ")";
+        }
+    }
+
+    public static final class Not extends Condition {
+        private final Condition term;
+
+        Not(Condition term) {
+            this.term = term;
+        }
+
+        @Override
+        Condition bind(QueryTable table) {
+            return new Not(term.bind(table));
+        }
+
+        @Override
+        void collectColumns(List<QueryTable.Column> out) {
+            term.collectColumns(out);
+        }
+
+        @Override
+        boolean matches(int row) {
+            return !term.matches(row);
+        }
+
+        @Override
+        int filter(int[] rows, int count) {
+            int[] batch = Arrays.copyOf(rows, count);
+            int hits = term.filter(batch, count);
+            int h = 0;
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (h < hits && batch[h] == rows[i]) {
+                    h++;
+                } else {
+                    rows[kept++] = rows[i];
+                }
+            }
+            return kept;
+        }
+
+        @Override
+        public String toString() {
+            return "not " + term;
+        }
+    }
+
+    private static String join(List<Condition> terms, String separator) {
+        StringBuilder sb = new StringBuilder();
+        for (Condition term : terms) {
+            if (sb.length() > 0) {
+                sb.append(separator);
+            }
+            sb.append(term);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.analyzer.query;
+
+/**
+ * A parsed query: which table, an optional where condition, an optional
+ * order by column and direction, and an optional row limit. Column names are
+ * not checked until the query is planned against a table.
+ */
+public final class Query {
+    private final String source;
+    private final Condition where;
+    private final String orderBy;
+    private final boolean descending;
+    private final int limit;
+    private final boolean explain;
+
+    Query(String source, Condition where, String orderBy, boolean descending, int limit, boolean explain) {
+        this.source = source;
+        this.where = where;
+        this.orderBy = orderBy;
+        this.descending = descending;
+        this.limit = limit;
+        this.explain = explain;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * The where clause, or null to select every row.
+     */
+    public Condition getWhere() {
+        return where;
+    }
+
+    /**
+     * Column to order by, or null to keep row order.
+     */
+    public String getOrderBy() {
+        return orderBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Maximum number of rows, or -1 for no limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * True if the query started with explain: print the plan with the rows.
+     */
+    public boolean isExplain() {
+        return explain;
+    }
+}
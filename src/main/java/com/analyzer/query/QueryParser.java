@@ -0,0 +1,246 @@
+package com.analyzer.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser for the query language:
+ *
+ * <pre>
+ * query      := [explain] table [where or] [order by column [asc | desc]] [limit number]
+ * or         := and (or and)*
+ * and        := unary (and unary)*
+ * unary      := not unary | ( or ) | comparison
+ * comparison := column (= | == | != | &lt;&gt; | &lt; | &lt;= | &gt; | &gt;=) value
+ *             | column [not] like value
+ * value      := number | 'text' | "text" | word
+ * </pre>
+ *
+ * Keywords are case-insensitive. Errors are reported as
+ * IllegalArgumentException with the position of the offending token.
+ */
+public final class QueryParser {
+    private enum Kind {
+        WORD, NUMBER, STRING, OPERATOR, OPEN, CLOSE, END
+    }
+
+    private static final class Token {
+        final Kind kind;
+        final String text;
+        final int position;
+
+        Token(Kind kind, String text, int position) {
+            this.kind = kind;
+            this.text = text;
+            this.position = position;
+        }
+
+        boolean is(String keyword) {
+            return kind == Kind.WORD && text.equalsIgnoreCase(keyword);
+        }
+
+        String describe() {
+            return kind == Kind.END ? "end of query" : "'" + text + "'";
+        }
+    }
+
+    private final List<Token> tokens;
+    private int next;
+
+    private QueryParser(String text) {
+        this.tokens = tokenize(text);
+    }
+
+    public static Query parse(String text) {
+        return new QueryParser(text).query();
+    }
+
+    private Query query() {
+        boolean explain = false;
+        if (peek().is("explain")) {
+            explain = true;
+            next++;
+        }
+        Token source = expect(Kind.WORD, "table name (methods or classes)");
+        Condition where = null;
+        String orderBy = null;
+        boolean descending = false;
+        int limit = -1;
+        if (accept("where")) {
+            where = or();
+        }
+        if (accept("order")) {
+            expectKeyword("by");
+            orderBy = expect(Kind.WORD, "column name").text;
+            if (accept("desc")) {
+                descending = true;
+            } else {
+                accept("asc");
+            }
+        }
+        if (accept("limit")) {
+            Token n = expect(Kind.NUMBER, "row count");
+            try {
+                limit = Integer.parseInt(n.text);
+            } catch (NumberFormatException e) {
+                throw error(n, "limit " + n.text + " is too large");
+            }
+            if (limit < 0) {
+                throw error(n, "limit must not be negative");
+            }
+        }
+        if (peek().kind != Kind.END) {
+            throw error(peek(), "expected where, order by or limit but found " + peek().describe());
+        }
+        return new Query(source.text, where, orderBy, descending, limit, explain);
+    }
+
+    private Condition or() {
+        List<Condition> terms = new ArrayList<>();
+        terms.add(and());
+        while (accept("or")) {
+            terms.add(and());
+        }
+        return terms.size() == 1 ? terms.get(0) : new Condition.Or(terms);
+    }
+
+    private Condition and() {
+        List<Condition> terms = new ArrayList<>();
+        terms.add(unary());
+        while (accept("and")) {
+            terms.add(unary());
+        }
+        return terms.size() == 1 ? terms.get(0) : new Condition.And(terms);
+    }
+
+    private Condition unary() {
+        if (accept("not")) {
+            return new Condition.Not(unary());
+        }
+        if (peek().kind == Kind.OPEN) {
+            next++;
+            Condition inner = or();
+            expect(Kind.CLOSE, "')'");
+            return inner;
+        }
+        Token column = expect(Kind.WORD, "column name");
+        boolean negate = accept("not");
+        if (negate || peek().is("like")) {
+            expectKeyword("like");
+            Condition like = new Condition.Comparison(column.text, Condition.Op.LIKE, value().text);
+            return negate ? new Condition.Not(like) : like;
+        }
+        Token op = expect(Kind.OPERATOR, "comparison operator");
+        return new Condition.Comparison(column.text, operator(op), value().text);
+    }
+
+    private Token value() {
+        Token t = peek();
+        if (t.kind == Kind.NUMBER || t.kind == Kind.STRING || t.kind == Kind.WORD) {
+            next++;
+            return t;
+        }
+        throw error(t, "expected a value but found " + t.describe());
+    }
+
+    private Condition.Op operator(Token t) {
+        switch (t.text) {
+            case "=":
+            case "==":
+                return Condition.Op.EQ;
+            case "!=":
+            case "<>":
+                return Condition.Op.NE;
+            case "<":
+                return Condition.Op.LT;
+            case "<=":
+                return Condition.Op.LE;
+            case ">":
+                return Condition.Op.GT;
+            default:
+                return Condition.Op.GE;
+        }
+    }
+
+    private Token peek() {
+        return tokens.get(next);
+    }
+
+    private boolean accept(String keyword) {
+        if (peek().is(keyword)) {
+            next++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectKeyword(String keyword) {
+        if (!accept(keyword)) {
+            throw error(peek(), "expected '" + keyword + "' but found " + peek().describe());
+        }
+    }
+
+    private Token expect(Kind kind, String what) {
+        Token t = peek();
+        if (t.kind != kind) {
+            throw error(t, "expected " + what + " but found " + t.describe());
+        }
+        next++;
+        return t;
+    }
+
+    private static IllegalArgumentException error(Token at, String message) {
+        return new IllegalArgumentException(message + " (at position " + (at.position + 1) + ")");
+    }
+
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(new Token(c == '(' ? Kind.OPEN : Kind.CLOSE, String.valueOf(c), start));
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = text.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw error(new Token(Kind.STRING, "", start), "unterminated string");
+                }
+                tokens.add(new Token(Kind.STRING, text.substring(i + 1, end), start));
+                i = end + 1;
+            } else if ("=!<>".indexOf(c) >= 0) {
+                i++;
+                if (i < n && (text.charAt(i) == '=' || (c == '<' && text.charAt(i) == '>'))) {
+                    i++;
+                }
+                String op = text.substring(start, i);
+                if (op.equals("!")) {
+                    throw error(new Token(Kind.OPERATOR, op, start), "expected '!=' after '!'");
+                }
+                tokens.add(new Token(Kind.OPERATOR, op, start));
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < n && Character.isDigit(text.charAt(i + 1)))) {
+                i++;
+                while (i < n && Character.isDigit(text.charAt(i)))
+                    i++;
+                tokens.add(new Token(Kind.NUMBER, text.substring(start, i), start));
+            } else if (isWordChar(c)) {
+                while (i < n && isWordChar(text.charAt(i)))
+                    i++;
+                tokens.add(new Token(Kind.WORD, text.substring(start, i), start));
+            } else {
+                throw error(new Token(Kind.WORD, String.valueOf(c), start), "unexpected character '" + c + "'");
+            }
+        }
+        tokens.add(new Token(Kind.END, "", n));
+        return tokens;
+    }
+
+    // Bare values may be names or like patterns: foo.Bar, get*, $init
+    private static boolean isWordChar(char c) {
+        return Character.isJavaIdentifierPart(c) || c == '.' || c == '*' || c == '%' || c == '?';
+    }
+}
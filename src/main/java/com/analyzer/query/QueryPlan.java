@@ -0,0 +1,263 @@
+package com.analyzer.query;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.SortedColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A planned query, ready to run against the table it was planned for. See
+ * QueryPlanner for how the access path is chosen; explain() describes the
+ * choice step by step.
+ *
+ * Every path returns the same rows in the same order: by the order by column,
+ * then by row number, so index walks and heap selection agree on ties.
+ */
+public final class QueryPlan {
+    // Rows per filter batch when a limit without order by allows stopping early
+    private static final int BATCH = 1024;
+
+    /**
+     * Rows a query returned, and how many rows it looked at to find them.
+     */
+    public static final class Result {
+        private final int[] rows;
+        private final int examined;
+
+        Result(int[] rows, int examined) {
+            this.rows = rows;
+            this.examined = examined;
+        }
+
+        public int size() {
+            return rows.length;
+        }
+
+        public int row(int i) {
+            return rows[i];
+        }
+
+        public int getExamined() {
+            return examined;
+        }
+    }
+
+    private final QueryTable table;
+    private final QueryPlanner.Range range;
+    private final Condition filter;
+    private final QueryTable.Column order;
+    private final boolean descending;
+    private final int limit;
+    private final List<QueryTable.Column> columns = new ArrayList<>();
+
+    QueryPlan(Query query, QueryTable table, QueryPlanner.Range range, Condition filter, QueryTable.Column order,
+            Condition where) {
+        this.table = table;
+        this.range = range;
+        this.filter = filter;
+        this.order = order;
+        this.descending = query.isDescending();
+        this.limit = query.getLimit();
+        if (where != null) {
+            where.collectColumns(columns);
+        }
+        if (order != null && !columns.contains(order)) {
+            columns.add(order);
+        }
+    }
+
+    public QueryTable getTable() {
+        return table;
+    }
+
+    /**
+     * Columns the query reads, in the order it names them.
+     */
+    public List<QueryTable.Column> getColumns() {
+        return columns;
+    }
+
+    // Walk the range in index order rather than collecting its rows
+    private boolean isOrderedWalk() {
+        return range != null && range.column == order;
+    }
+
+    public Result execute() {
+        if (limit == 0) {
+            return new Result(new int[0], 0);
+        }
+        if (isOrderedWalk()) {
+            return walk();
+        }
+        if (order == null && limit > 0) {
+            return firstRows();
+        }
+        int[] rows;
+        int count;
+        if (range != null) {
+            count = range.size();
+            rows = new int[count];
+            for (int i = 0; i < count; i++) {
+                rows[i] = range.sorted.row(range.lo + i);
+            }
+            // Back to row order, which the filter and tie-breaking expect
+            Arrays.sort(rows);
+        } else {
+            count = table.getRowCount();
+            rows = new int[count];
+            for (int i = 0; i < count; i++) {
+                rows[i] = i;
+            }
+        }
+        int examined = count;
+        if (filter != null) {
+            count = filter.filter(rows, count);
+        }
+
+        int k = limit < 0 ? count : Math.min(limit, count);
+        if (order == null) {
+            return new Result(Arrays.copyOf(rows, k), examined);
+        }
+        if (!order.isText()) {
+            return new Result(ColumnarIndex.topK(order.values(), rows, count, k, !descending), examined);
+        }
+        return new Result(sortByText(rows, count, k), examined);
+    }
+
+    // Unordered limit: filter one batch at a time and stop once enough rows
+    // have passed
+    private Result firstRows() {
+        int total = range != null ? range.size() : table.getRowCount();
+        int[] candidates = range != null ? new int[total] : null;
+        if (range != null) {
+            for (int i = 0; i < total; i++) {
+                candidates[i] = range.sorted.row(range.lo + i);
+            }
+            Arrays.sort(candidates);
+        }
+        int[] rows = new int[limit];
+        int[] batch = new int[BATCH];
+        int found = 0;
+        int examined = 0;
+        while (examined < total && found < limit) {
+            int n = Math.min(BATCH, total - examined);
+            for (int i = 0; i < n; i++) {
+                batch[i] = candidates != null ? candidates[examined + i] : examined + i;
+            }
+            examined += n;
+            int passed = filter == null ? n : filter.filter(batch, n);
+            int take = Math.min(passed, limit - found);
+            System.arraycopy(batch, 0, rows, found, take);
+            found += take;
+        }
+        return new Result(Arrays.copyOf(rows, found), examined);
+    }
+
+    private Result walk() {
+        SortedColumn sorted = range.sorted;
+        int wanted = limit < 0 ? range.size() : Math.min(limit, range.size());
+        int[] rows = new int[wanted];
+        int found = 0;
+        int examined = 0;
+        if (!descending) {
+            for (int p = range.lo; p < range.hi && found < wanted; p++) {
+                int row = sorted.row(p);
+                examined++;
+                if (filter == null || filter.matches(row)) {
+                    rows[found++] = row;
+                }
+            }
+        } else {
+            // Largest values first, but each run of equal values in row order
+            int end = range.hi;
+            while (end > range.lo && found < wanted) {
+                int start = Math.max(range.lo, sorted.lowerBound(sorted.value(end - 1)));
+                for (int p = start; p < end && found < wanted; p++) {
+                    int row = sorted.row(p);
+                    examined++;
+                    if (filter == null || filter.matches(row)) {
+                        rows[found++] = row;
+                    }
+                }
+                end = start;
+            }
+        }
+        return new Result(Arrays.copyOf(rows, found), examined);
+    }
+
+    private int[] sortByText(int[] rows, int count, int k) {
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            boxed[i] = rows[i];
+        }
+        // Stable sort, so equal names stay in row order
+        Arrays.sort(boxed, (a, b) -> {
+            int cmp = order.format(a).compareTo(order.format(b));
+            return descending ? -cmp : cmp;
+        });
+        int[] result = new int[k];
+        for (int i = 0; i < k; i++) {
+            result[i] = boxed[i];
+        }
+        return result;
+    }
+
+    /**
+     * The plan as numbered steps, with the row counts the secondary indexes
+     * already know.
+     */
+    public List<String> explain() {
+        List<String> steps = new ArrayList<>();
+        int rows = table.getRowCount();
+        String direction = descending ? " desc" : " asc";
+        if (isOrderedWalk()) {
+            String over = range.isFull() ? "all " + rows + " rows"
+                    : range.size() + " of " + rows + " rows (" + join(range.terms) + ")";
+            steps.add("Walk index on " + order.getName() + direction + " over " + over);
+            if (filter != null) {
+                steps.add("Filter each row: " + filter);
+            }
+            if (limit >= 0) {
+                steps.add("Stop after " + limit + " rows");
+            }
+            return steps;
+        }
+        if (range != null) {
+            steps.add("Index range on " + range.column.getName() + " (" + join(range.terms) + "): " + range.size()
+                    + " of " + rows + " rows");
+        } else {
+            steps.add("Full scan of " + rows + " " + table.getName());
+        }
+        if (filter != null) {
+            steps.add("Vectorized filter: " + filter);
+        }
+        if (order != null) {
+            if (order.isText()) {
+                steps.add("Sort by " + order.getName() + direction);
+            } else if (limit >= 0) {
+                steps.add("Top-" + limit + " heap by " + order.getName() + direction);
+            } else {
+                steps.add("Heap sort by " + order.getName() + direction);
+            }
+        }
+        if (limit >= 0 && order == null) {
+            steps.add("Stop after " + limit + " rows");
+        } else if (limit >= 0 && order.isText()) {
+            steps.add("Limit " + limit);
+        }
+        return steps;
+    }
+
+    private static String join(List<Condition> terms) {
+        StringBuilder sb = new StringBuilder();
+        for (Condition term : terms) {
+            if (sb.length() > 0) {
+                sb.append(" and ");
+            }
+            sb.append(term);
+        }
+        return sb.toString();
+    }
+}
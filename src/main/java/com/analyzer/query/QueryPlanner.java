@@ -0,0 +1,171 @@
+package com.analyzer.query;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.SortedColumn;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses how to run a query. The top-level and-terms of the where clause
+ * that compare a numeric column with a constant are collected per column and
+ * intersected into one position range of that column's secondary index
+ * (ColumnarIndex.sorted), which costs two binary searches and tells exactly
+ * how many rows the terms leave.
+ *
+ * <ul>
+ * <li>If the narrowest range keeps at most an eighth of the rows, its rows
+ * are the candidates and only the remaining terms are evaluated. When the
+ * query also orders by that column, the range is walked in order instead.</li>
+ * <li>Otherwise, if the query orders by a numeric column and has a limit, that
+ * column's index is walked in order and the walk stops once the limit is
+ * reached, so "order by loc desc limit 20" touches a few dozen rows, not all
+ * of them.</li>
+ * <li>Otherwise every row is scanned with the vectorized filter, a batch at a
+ * time, stopping early when an unordered query has its rows.</li>
+ * </ul>
+ *
+ * Candidates that still need ordering go through a bounded top-K heap when
+ * there is a limit, so the selection is never fully sorted.
+ */
+public final class QueryPlanner {
+    // Use a range as candidates only if it keeps at most 1 / SELECTIVITY of the rows
+    private static final int SELECTIVITY = 8;
+
+    private QueryPlanner() {
+    }
+
+    public static QueryPlan plan(Query query, QueryTable table) {
+        Condition where = query.getWhere() == null ? null : query.getWhere().bind(table);
+        QueryTable.Column order = query.getOrderBy() == null ? null : table.column(query.getOrderBy());
+        List<Condition> terms = new ArrayList<>();
+        if (where instanceof Condition.And) {
+            terms.addAll(((Condition.And) where).getTerms());
+        } else if (where != null) {
+            terms.add(where);
+        }
+
+        // Index ranges per numeric column, intersected over all of its terms
+        ColumnarIndex index = table.getIndex();
+        Map<QueryTable.Column, Range> ranges = new LinkedHashMap<>();
+        for (Condition term : terms) {
+            if (!(term instanceof Condition.Comparison)) {
+                continue;
+            }
+            Condition.Comparison c = (Condition.Comparison) term;
+            if (!c.getColumn().isIndexable() || c.getOp() == Condition.Op.NE) {
+                continue;
+            }
+            Range range = ranges.get(c.getColumn());
+            if (range == null) {
+                SortedColumn sorted = index.sorted(c.getColumn().values());
+                range = new Range(c.getColumn(), sorted, 0, sorted.size());
+                ranges.put(c.getColumn(), range);
+            }
+            range.narrow(c);
+        }
+        Range best = null;
+        for (Range range : ranges.values()) {
+            if (best == null || range.size() < best.size()) {
+                best = range;
+            }
+        }
+
+        int rows = table.getRowCount();
+        if (best != null && (long) best.size() * SELECTIVITY <= rows) {
+            return new QueryPlan(query, table, best, residual(terms, best), order, where);
+        }
+        if (order != null && order.isIndexable()) {
+            Range walk = ranges.get(order);
+            if (walk == null) {
+                SortedColumn sorted = index.sorted(order.values());
+                walk = new Range(order, sorted, 0, sorted.size());
+            }
+            Condition filter = residual(terms, walk);
+            // Without a limit the walk cannot stop early, and testing rows one
+            // at a time in index order is slower than a scan plus a sort
+            if (query.getLimit() >= 0 || filter == null) {
+                return new QueryPlan(query, table, walk, filter, order, where);
+            }
+        }
+        return new QueryPlan(query, table, null, where, order, where);
+    }
+
+    // The terms a range does not already guarantee, or null if none are left
+    private static Condition residual(List<Condition> terms, Range range) {
+        List<Condition> rest = new ArrayList<>();
+        for (Condition term : terms) {
+            if (!range.covers(term)) {
+                rest.add(term);
+            }
+        }
+        if (rest.isEmpty()) {
+            return null;
+        }
+        return rest.size() == 1 ? rest.get(0) : new Condition.And(rest);
+    }
+
+    /**
+     * Positions lo to hi - 1 of a column's secondary index, and the terms
+     * that narrowed it there.
+     */
+    static final class Range {
+        final QueryTable.Column column;
+        final SortedColumn sorted;
+        int lo;
+        int hi;
+        final List<Condition> terms = new ArrayList<>();
+
+        Range(QueryTable.Column column, SortedColumn sorted, int lo, int hi) {
+            this.column = column;
+            this.sorted = sorted;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        void narrow(Condition.Comparison c) {
+            int v = c.getValue();
+            switch (c.getOp()) {
+                case EQ:
+                    lo = Math.max(lo, sorted.lowerBound(v));
+                    hi = Math.min(hi, sorted.upperBound(v));
+                    break;
+                case LT:
+                    hi = Math.min(hi, sorted.lowerBound(v));
+                    break;
+                case LE:
+                    hi = Math.min(hi, sorted.upperBound(v));
+                    break;
+                case GT:
+                    lo = Math.max(lo, sorted.upperBound(v));
+                    break;
+                case GE:
+                    lo = Math.max(lo, sorted.lowerBound(v));
+                    break;
+                default:
+                    throw new IllegalStateException("Not a range operator: " + c.getOp());
+            }
+            hi = Math.max(lo, hi);
+            terms.add(c);
+        }
+
+        boolean covers(Condition term) {
+            for (Condition t : terms) {
+                if (t == term) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int size() {
+            return hi - lo;
+        }
+
+        boolean isFull() {
+            return terms.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.analyzer.query;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.model.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a query can select from: the method or class rows of a ColumnarIndex,
+ * with the columns a where or order by clause may name. Columns are views of
+ * the index arrays, so building a table copies nothing.
+ */
+public final class QueryTable {
+
+    /**
+     * One queryable column. Numeric columns are the index arrays themselves
+     * and can have a secondary index. Text columns hold SymbolTable ids, or
+     * dense ids translated through a dictionary, and may be reached through
+     * another column (a method's class name is the name of its class row).
+     */
+    public static final class Column {
+        private final String name;
+        private final boolean text;
+        private final int[] values;
+        private final int[] through;
+        private final int[] dictionary;
+        private final boolean fromBodies;
+
+        private Column(String name, boolean text, int[] values, int[] through, int[] dictionary) {
+            this(name, text, values, through, dictionary, false);
+        }
+
+        private Column(String name, boolean text, int[] values, int[] through, int[] dictionary,
+                boolean fromBodies) {
+            this.name = name;
+            this.text = text;
+            this.values = values;
+            this.through = through;
+            this.dictionary = dictionary;
+            this.fromBodies = fromBodies;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isText() {
+            return text;
+        }
+
+        /**
+         * Measured on method bodies, so all zero in an index parsed from
+         * declarations only.
+         */
+        public boolean isFromBodies() {
+            return fromBodies;
+        }
+
+        /**
+         * Numeric columns index rows directly, so they can be sorted into a
+         * secondary index and scanned without indirection.
+         */
+        public boolean isIndexable() {
+            return !text && through == null;
+        }
+
+        public int get(int row) {
+            return through == null ? values[row] : values[through[row]];
+        }
+
+        int[] values() {
+            return values;
+        }
+
+        /**
+         * Number of distinct values a text column can hold, for per-value
+         * caches.
+         */
+        int getValueSpace() {
+            return dictionary != null ? dictionary.length : SymbolTable.global().size();
+        }
+
+        /**
+         * Text of a value of a text column.
+         */
+        String name(int value) {
+            return SymbolTable.global().get(dictionary != null ? dictionary[value] : value);
+        }
+
+        /**
+         * Value a text column stores for a name, or -1 if no row has it.
+         */
+        int valueOf(String text) {
+            int symbol = SymbolTable.global().lookup(text);
+            if (symbol < 0 || dictionary == null) {
+                return symbol;
+            }
+            for (int v = 0; v < dictionary.length; v++) {
+                if (dictionary[v] == symbol) {
+                    return v;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Cell text for output: the number, or the name.
+         */
+        public String format(int row) {
+            return text ? name(get(row)) : Integer.toString(get(row));
+        }
+    }
+
+    private final String name;
+    private final int rowCount;
+    private final ColumnarIndex index;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final List<String> defaultColumns = new ArrayList<>();
+
+    private QueryTable(String name, int rowCount, ColumnarIndex index) {
+        this.name = name;
+        this.rowCount = rowCount;
+        this.index = index;
+    }
+
+    /**
+     * The table a query's from word names: methods or classes.
+     */
+    public static QueryTable of(String source, ColumnarIndex index) {
+        switch (source.toLowerCase()) {
+            case "methods":
+            case "method":
+                return methods(index);
+            case "classes":
+            case "class":
+                return classes(index);
+            default:
+                throw new IllegalArgumentException("Unknown table '" + source + "', expected methods or classes");
+        }
+    }
+
+    private static QueryTable methods(ColumnarIndex index) {
+        QueryTable t = new QueryTable("methods", index.getMethodCount(), index);
+        t.number("loc", index.methodLocs());
+        t.number("params", index.methodParamCounts());
+        t.bodyNumber("complexity", index.methodComplexities());
+        t.bodyNumber("nesting", index.methodMaxNestings());
+        t.bodyNumber("statements", index.methodStatementCounts());
+        t.bodyNumber("calls", index.methodCallSiteCounts());
+        t.number("line", index.methodStartLines());
+        t.add(new Column("name", true, index.methodNameIds(), null, null));
+        t.add(new Column("class", true, index.classNameIds(), index.methodClasses(), null));
+        t.add(new Column("package", true, index.classPackages(), index.methodClasses(), index.packageNameIds()));
+        t.defaults("loc", "params", "complexity");
+        return t;
+    }
+
+    private static QueryTable classes(ColumnarIndex index) {
+        QueryTable t = new QueryTable("classes", index.getClassCount(), index);
+        t.number("methods", index.classMethodCounts());
+        t.number("fields", index.classFieldCounts());
+        t.add(new Column("name", true, index.classNameIds(), null, null));
+        t.add(new Column("package", true, index.classPackages(), null, index.packageNameIds()));
+        t.defaults("methods", "fields");
+        return t;
+    }
+
+    private void number(String column, int[] values) {
+        add(new Column(column, false, values, null, null));
+    }
+
+    private void bodyNumber(String column, int[] values) {
+        add(new Column(column, false, values, null, null, true));
+    }
+
+    private void add(Column column) {
+        columns.put(column.getName(), column);
+    }
+
+    private void defaults(String... names) {
+        for (String n : names) {
+            defaultColumns.add(n);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public ColumnarIndex getIndex() {
+        return index;
+    }
+
+    public boolean isMethods() {
+        return name.equals("methods");
+    }
+
+    public Column column(String columnName) {
+        Column c = columns.get(columnName.toLowerCase());
+        if (c == null) {
+            throw new IllegalArgumentException("Unknown column '" + columnName + "' in " + name + ", expected one of "
+                    + String.join(", ", columns.keySet()));
+        }
+        return c;
+    }
+
+    /**
+     * Numeric columns worth showing for every row, before any the query adds.
+     */
+    public List<String> getDefaultColumns() {
+        return defaultColumns;
+    }
+}
@@ -0,0 +1,171 @@
+package com.containers;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Aho-Corasick automaton over byte patterns: finds occurrences of any number
+ * of patterns in one left-to-right pass over the text, whatever the number
+ * of patterns.
+ *
+ * The trie of patterns is compiled into a dense transition table, 256
+ * entries per state, with the failure links folded in, so scanning costs one
+ * table lookup per text byte. States that end a pattern, directly or through
+ * a shorter pattern that is a suffix, are flagged so a scan only looks at
+ * outputs where there are some.
+ */
+public class AhoCorasick {
+    private static final int ALPHABET = 256;
+
+    private final int[] lengths;
+    // delta[state * 256 + byte] is the next state
+    private int[] delta;
+    private int states;
+    // Pattern ending at a state (-1 if none), further patterns with the same
+    // bytes chained through samePattern
+    private int[] terminal;
+    private final int[] samePattern;
+    // Nearest state down the failure chain that ends a pattern, or -1
+    private int[] dictionary;
+    private boolean[] output;
+
+    /**
+     * Builds the automaton; pattern i is reported as index i. Patterns must
+     * not be empty and may repeat.
+     */
+    public AhoCorasick(GenericList<byte[]> patterns) {
+        Objects.requireNonNull(patterns);
+        int total = 1;
+        for (int i = 0; i < patterns.size(); i++) {
+            byte[] p = Objects.requireNonNull(patterns.get(i));
+            if (p.length == 0) {
+                throw new IllegalArgumentException("Empty pattern at index " + i);
+            }
+            total += p.length;
+        }
+        lengths = new int[patterns.size()];
+        samePattern = new int[patterns.size()];
+        Arrays.fill(samePattern, -1);
+        delta = new int[total * ALPHABET];
+        Arrays.fill(delta, -1);
+        terminal = new int[total];
+        Arrays.fill(terminal, -1);
+        states = 1;
+        for (int i = 0; i < patterns.size(); i++) {
+            insert(patterns.get(i), i);
+        }
+        link();
+    }
+
+    private void insert(byte[] pattern, int index) {
+        int state = 0;
+        for (byte b : pattern) {
+            int slot = state * ALPHABET + (b & 0xff);
+            if (delta[slot] < 0) {
+                delta[slot] = states++;
+            }
+            state = delta[slot];
+        }
+        lengths[index] = pattern.length;
+        if (terminal[state] < 0) {
+            terminal[state] = index;
+        } else {
+            // Same bytes as an earlier pattern: chain it after that one
+            int last = terminal[state];
+            while (samePattern[last] >= 0) {
+                last = samePattern[last];
+            }
+            samePattern[last] = index;
+        }
+    }
+
+    // Breadth-first over the trie: failure links, then missing transitions
+    // borrowed from the failure state, which is already complete
+    private void link() {
+        delta = Arrays.copyOf(delta, states * ALPHABET);
+        terminal = Arrays.copyOf(terminal, states);
+        int[] fail = new int[states];
+        dictionary = new int[states];
+        dictionary[0] = -1;
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < ALPHABET; c++) {
+            int s = delta[c];
+            if (s < 0) {
+                delta[c] = 0;
+            } else {
+                fail[s] = 0;
+                queue[tail++] = s;
+            }
+        }
+        while (head < tail) {
+            int r = queue[head++];
+            int f = fail[r];
+            dictionary[r] = terminal[f] >= 0 ? f : dictionary[f];
+            for (int c = 0; c < ALPHABET; c++) {
+                int slot = r * ALPHABET + c;
+                int s = delta[slot];
+                int viaFail = delta[f * ALPHABET + c];
+                if (s < 0) {
+                    delta[slot] = viaFail;
+                } else {
+                    fail[s] = viaFail;
+                    queue[tail++] = s;
+                }
+            }
+        }
+        output = new boolean[states];
+        for (int s = 0; s < states; s++) {
+            output[s] = terminal[s] >= 0 || dictionary[s] >= 0;
+        }
+    }
+
+    public int patternCount() {
+        return lengths.length;
+    }
+
+    /**
+     * Start offset of the first occurrence of any pattern in text[from, to),
+     * first by where it ends, or -1 if there is none.
+     */
+    public int find(byte[] text, int from, int to) {
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = delta[(state << 8) | (text[i] & 0xff)];
+            if (output[state]) {
+                int s = terminal[state] >= 0 ? state : dictionary[state];
+                return i + 1 - lengths[terminal[s]];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds to counts[i] the occurrences of pattern i in text[from, to),
+     * counted for each pattern on its own the way repeated indexOf would:
+     * leftmost first, not overlapping each other. Occurrences of different
+     * patterns may overlap.
+     */
+    public void count(byte[] text, int from, int to, int[] counts) {
+        // Where each pattern's last counted occurrence ended
+        int[] lastEnd = new int[lengths.length];
+        Arrays.fill(lastEnd, from);
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = delta[(state << 8) | (text[i] & 0xff)];
+            if (!output[state]) {
+                continue;
+            }
+            int end = i + 1;
+            for (int s = terminal[state] >= 0 ? state : dictionary[state]; s >= 0; s = dictionary[s]) {
+                for (int p = terminal[s]; p >= 0; p = samePattern[p]) {
+                    if (end - lengths[p] >= lastEnd[p]) {
+                        counts[p]++;
+                        lastEnd[p] = end;
+                    }
+                }
+            }
+        }
+    }
+}
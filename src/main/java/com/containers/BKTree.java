@@ -0,0 +1,216 @@
+package com.containers;
+
+import java.util.Objects;
+
+/**
+ * Burkhard-Keller tree over String keys with Levenshtein distance, for
+ * "did you mean" lookups. Each child edge is labelled with its distance to
+ * the parent, so by the triangle inequality a search for distance at most k
+ * from a node at distance d only descends edges labelled d-k..d+k, touching
+ * a small fraction of the keys.
+ *
+ * Searches use an explicit stack, so a degenerate tree cannot overflow the
+ * call stack.
+ */
+public class BKTree<V> {
+
+    /**
+     * One search result: a key, its distance from the query and its values.
+     */
+    public static final class Match<V> {
+        private final String key;
+        private final int distance;
+        private final GenericList<V> values;
+
+        Match(String key, int distance, GenericList<V> values) {
+            this.key = key;
+            this.distance = distance;
+            this.values = values;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public GenericList<V> getValues() {
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return key + "(" + distance + ")";
+        }
+    }
+
+    private static final class Node<V> {
+        final String key;
+        final GenericList<V> values = new GenericList<>();
+        int[] distances = new int[0];
+        int maxDistance;
+        GenericList<Node<V>> children = new GenericList<>();
+
+        Node(String key) {
+            this.key = key;
+        }
+
+        Node<V> child(int distance) {
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] == distance) {
+                    return children.get(i);
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node<V> child) {
+            int[] grown = new int[distances.length + 1];
+            System.arraycopy(distances, 0, grown, 0, distances.length);
+            grown[distances.length] = distance;
+            distances = grown;
+            maxDistance = Math.max(maxDistance, distance);
+            children.add(child);
+        }
+    }
+
+    private Node<V> root;
+    private int size;
+
+    public void add(String key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        if (root == null) {
+            root = new Node<>(key);
+            root.values.add(value);
+            size++;
+            return;
+        }
+        Node<V> node = root;
+        int[][] rows = new int[2][];
+        while (true) {
+            int d = distance(key, node.key, rows, Integer.MAX_VALUE);
+            if (d == 0) {
+                node.values.add(value);
+                return;
+            }
+            Node<V> next = node.child(d);
+            if (next == null) {
+                Node<V> leaf = new Node<>(key);
+                leaf.values.add(value);
+                node.addChild(d, leaf);
+                size++;
+                return;
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * All keys within maxDistance of query, nearest first (ties by key).
+     */
+    public GenericList<Match<V>> search(String query, int maxDistance) {
+        GenericList<Match<V>> matches = new GenericList<>();
+        if (root == null || maxDistance < 0) {
+            return matches;
+        }
+        Stack<Node<V>> pending = new Stack<>();
+        int[][] rows = new int[2][];
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<V> node = pending.pop();
+            // Beyond maxDistance + the largest edge, neither the node nor any
+            // child can qualify, so the exact distance is not needed
+            int d = distance(query, node.key, rows, maxDistance + node.maxDistance);
+            if (d <= maxDistance) {
+                matches.add(new Match<>(node.key, d, node.values));
+            }
+            for (int i = 0; i < node.distances.length; i++) {
+                int edge = node.distances[i];
+                if (edge >= d - maxDistance && edge <= d + maxDistance) {
+                    pending.push(node.children.get(i));
+                }
+            }
+        }
+        matches.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : a.key.compareTo(b.key));
+        return matches;
+    }
+
+    /**
+     * Number of distinct keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Levenshtein distance (insertions, deletions and substitutions).
+     */
+    public static int distance(String a, String b) {
+        return distance(a, b, new int[2][], Integer.MAX_VALUE);
+    }
+
+    // Shared prefix and suffix are stripped first (cheap, and common among
+    // identifiers); the rest uses two rows of the dynamic-programming table,
+    // kept in rows between calls. Any result above limit is returned as
+    // limit + 1, which lets most comparisons stop after a few rows.
+    private static int distance(String a, String b, int[][] rows, int limit) {
+        int start = 0;
+        int endA = a.length();
+        int endB = b.length();
+        while (start < endA && start < endB && a.charAt(start) == b.charAt(start)) {
+            start++;
+        }
+        while (endA > start && endB > start && a.charAt(endA - 1) == b.charAt(endB - 1)) {
+            endA--;
+            endB--;
+        }
+        int n = endA - start;
+        int m = endB - start;
+        if (n == 0 || m == 0) {
+            return Math.min(n + m, bounded(limit));
+        }
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        }
+        if (rows[0] == null || rows[0].length <= m) {
+            rows[0] = new int[m + 1];
+            rows[1] = new int[m + 1];
+        }
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(start + i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(start + j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            // Row minima never decrease, so the distance is already above limit
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] t = previous;
+            previous = current;
+            current = t;
+        }
+        return Math.min(previous[m], bounded(limit));
+    }
+
+    private static int bounded(int limit) {
+        return limit == Integer.MAX_VALUE ? limit : limit + 1;
+    }
+}
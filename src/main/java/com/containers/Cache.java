@@ -0,0 +1,471 @@
+package com.containers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded key-value cache with O(1) get, put and remove. Capacity is a total
+ * weight rather than an entry count: each value weighs what the weigher says
+ * (bytes, say), or 1 without one, and entries are evicted until the total
+ * fits.
+ *
+ * Two eviction policies:
+ * <ul>
+ * <li>{@link Policy#LRU} drops the least recently used entry. Simple, but a
+ * single pass over more keys than fit flushes everything, however often the
+ * old entries were used.</li>
+ * <li>{@link Policy#TINY_LFU} (W-TinyLFU) puts new entries in a small LRU
+ * window (1% of the capacity); an entry leaving the window only gets into
+ * the main space by being used more often than the entry it would push out,
+ * judged by a count-min sketch of recent use frequencies that halves itself
+ * periodically so old popularity fades. The main space is a segmented LRU:
+ * entries used again move from probation to a protected part (80%), and
+ * only fall back to probation when that overflows. Frequently used entries
+ * survive scans, and recently added ones still get a chance.</li>
+ * </ul>
+ *
+ * Not thread-safe; see {@link ConcurrentCache}.
+ */
+public class Cache<K, V> {
+
+    public enum Policy {
+        LRU, TINY_LFU
+    }
+
+    /**
+     * Counters since the cache was created.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        public Stats(long hits, long misses, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Entries removed to make room, including new ones not admitted.
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        public Stats plus(Stats other) {
+            return new Stats(hits + other.hits, misses + other.misses, evictions + other.evictions);
+        }
+
+        @Override
+        public String toString() {
+            return hits + " hits, " + misses + " misses (" + Math.round(getHitRate() * 100) + "% hit rate), "
+                    + evictions + " evicted";
+        }
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int MIN_SKETCH = 256;
+    private static final int MAX_SKETCH = 1 << 22;
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        int weight;
+        int segment;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes, most recently used at the head.
+     */
+    private static final class Segment<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        long weight;
+
+        void addFirst(Node<K, V> node) {
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            } else {
+                tail = node;
+            }
+            head = node;
+            weight += node.weight;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            weight = 0;
+        }
+    }
+
+    private final long capacity;
+    private final Policy policy;
+    private final ToIntFunction<? super V> weigher;
+    private final Map<K, Node<K, V>> map = new HashMap<>();
+    // LRU keeps everything in the window
+    private final Segment<K, V> window = new Segment<>();
+    private final Segment<K, V> probation = new Segment<>();
+    private final Segment<K, V> protectedSegment = new Segment<>();
+    private final long windowCapacity;
+    private final long protectedCapacity;
+    private final FrequencySketch sketch;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * A cache of at most capacity entries.
+     */
+    public Cache(long capacity, Policy policy) {
+        this(capacity, policy, null);
+    }
+
+    /**
+     * A cache whose values weigh at most capacity in total, each weighed by
+     * weigher (which must not return a negative weight).
+     */
+    public Cache(long capacity, Policy policy, ToIntFunction<? super V> weigher) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = Objects.requireNonNull(policy);
+        this.weigher = weigher;
+        if (policy == Policy.LRU) {
+            windowCapacity = capacity;
+            protectedCapacity = 0;
+            sketch = null;
+        } else {
+            windowCapacity = Math.max(1, capacity * WINDOW_PERCENT / 100);
+            protectedCapacity = (capacity - windowCapacity) * PROTECTED_PERCENT / 100;
+            sketch = new FrequencySketch();
+            // An entry count bounds the sketch from the start; a weighted
+            // cache grows it with the number of entries
+            sketch.ensureCapacity(weigher == null ? (int) Math.min(capacity, MAX_SKETCH) : MIN_SKETCH);
+        }
+    }
+
+    /**
+     * The value for key, or null if it is not cached.
+     */
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (sketch != null) {
+            sketch.increment(hash(key));
+        }
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        touch(node);
+        return node.value;
+    }
+
+    /**
+     * Whether key is cached; unlike get, this does not count as a use.
+     */
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Caches value for key, replacing any previous value, then evicts
+     * entries until the total weight fits. A value weighing more than the
+     * whole capacity is not kept.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int w = weigher == null ? 1 : weigher.applyAsInt(value);
+        if (w < 0) {
+            throw new IllegalArgumentException("Negative weight " + w + " for " + key);
+        }
+        if (sketch != null) {
+            sketch.increment(hash(key));
+        }
+        Node<K, V> node = map.get(key);
+        if (node != null) {
+            segment(node).unlink(node);
+            weight -= node.weight;
+            node.value = value;
+            node.weight = w;
+            if (w > capacity) {
+                map.remove(key);
+                evictions++;
+                return;
+            }
+            // A replaced value counts as a use, and is re-weighed where it is
+            segment(node).addFirst(node);
+            weight += w;
+            if (node.segment == PROTECTED) {
+                demoteProtected();
+            }
+        } else {
+            if (w > capacity) {
+                evictions++;
+                return;
+            }
+            node = new Node<>(key, value, w);
+            node.segment = WINDOW;
+            map.put(key, node);
+            window.addFirst(node);
+            weight += w;
+            if (sketch != null && map.size() <= MAX_SKETCH) {
+                sketch.ensureCapacity(map.size());
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Removes key, returning its value or null if it was not cached.
+     */
+    public V remove(K key) {
+        Node<K, V> node = map.remove(key);
+        if (node == null) {
+            return null;
+        }
+        segment(node).unlink(node);
+        weight -= node.weight;
+        return node.value;
+    }
+
+    public void clear() {
+        map.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        weight = 0;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Total weight of the cached values.
+     */
+    public long weight() {
+        return weight;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public Stats getStats() {
+        return new Stats(hits, misses, evictions);
+    }
+
+    /**
+     * Visits every entry, in no particular order, without counting as uses.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Node<K, V> node : map.values()) {
+            action.accept(node.key, node.value);
+        }
+    }
+
+    private Segment<K, V> segment(Node<K, V> node) {
+        return node.segment == WINDOW ? window : node.segment == PROBATION ? probation : protectedSegment;
+    }
+
+    private void touch(Node<K, V> node) {
+        if (node.segment == PROBATION) {
+            // Used again: promote to protected
+            probation.unlink(node);
+            node.segment = PROTECTED;
+            protectedSegment.addFirst(node);
+            demoteProtected();
+        } else {
+            Segment<K, V> segment = segment(node);
+            segment.unlink(node);
+            segment.addFirst(node);
+        }
+    }
+
+    // The least recently used protected entries fall back to probation
+    private void demoteProtected() {
+        while (protectedSegment.weight > protectedCapacity && protectedSegment.tail != null) {
+            Node<K, V> node = protectedSegment.tail;
+            protectedSegment.unlink(node);
+            node.segment = PROBATION;
+            probation.addFirst(node);
+        }
+    }
+
+    private void evict() {
+        if (policy == Policy.TINY_LFU) {
+            // Entries leaving the window compete for the main space
+            while (window.weight > windowCapacity && window.tail != null) {
+                Node<K, V> candidate = window.tail;
+                window.unlink(candidate);
+                admit(candidate);
+            }
+        }
+        while (weight > capacity) {
+            Node<K, V> victim = probation.tail != null ? probation.tail
+                    : protectedSegment.tail != null ? protectedSegment.tail : window.tail;
+            evict(victim);
+        }
+    }
+
+    // Moves candidate, already out of the window, into probation if it is
+    // used more often than every entry that has to go to make room for it
+    private void admit(Node<K, V> candidate) {
+        long mainCapacity = capacity - windowCapacity;
+        int frequency = sketch.frequency(hash(candidate.key));
+        while (probation.weight + protectedSegment.weight + candidate.weight > mainCapacity) {
+            Node<K, V> victim = probation.tail != null ? probation.tail : protectedSegment.tail;
+            if (victim == null || frequency <= sketch.frequency(hash(victim.key))) {
+                map.remove(candidate.key);
+                weight -= candidate.weight;
+                evictions++;
+                return;
+            }
+            evict(victim);
+        }
+        candidate.segment = PROBATION;
+        probation.addFirst(candidate);
+    }
+
+    private void evict(Node<K, V> node) {
+        segment(node).unlink(node);
+        map.remove(node.key);
+        weight -= node.weight;
+        evictions++;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, 16 to a long, estimating how often
+     * each key was used recently. Each key maps to one counter in each of
+     * four rows, and its estimate is the smallest of them. Once the number of
+     * increments reaches ten times the table size, every counter is halved.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+                0xcbf29ce484222325L };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private long[] table = new long[0];
+        private int sampleSize;
+        private int additions;
+
+        // Grows the table to at least one long per entry; the counts gathered
+        // so far are lost, which is why growing is kept rare
+        void ensureCapacity(int entries) {
+            if (entries <= table.length) {
+                return;
+            }
+            int length = Integer.highestOneBit(Math.max(16, entries) - 1) << 1;
+            table = new long[length];
+            sampleSize = 10 * length;
+            additions = 0;
+        }
+
+        int frequency(int hash) {
+            if (table.length == 0) {
+                return 0;
+            }
+            int start = (hash & 3) << 2;
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                int shift = (start + i) << 2;
+                int count = (int) ((table[indexOf(hash, i)] >>> shift) & 15);
+                min = Math.min(min, count);
+            }
+            return min;
+        }
+
+        void increment(int hash) {
+            if (table.length == 0) {
+                return;
+            }
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int shift = (start + i) << 2;
+                if (((table[index] >>> shift) & 15) != 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & (table.length - 1);
+        }
+    }
+}
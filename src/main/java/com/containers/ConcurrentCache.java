@@ -0,0 +1,129 @@
+package com.containers;
+
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread-safe {@link Cache} split into independently locked stripes, each
+ * holding the keys that hash to it with an equal share of the capacity, so
+ * threads working on different keys rarely wait for each other. Eviction is
+ * decided per stripe: an entry must fit in one stripe's share, and the least
+ * valuable entry overall is not always the one to go. For the same reason,
+ * size, weight and stats are sums over stripes read one at a time.
+ */
+public class ConcurrentCache<K, V> {
+    private final Cache<K, V>[] stripes;
+    private final long capacity;
+
+    /**
+     * A cache whose values weigh at most capacity in total, split into
+     * stripes (rounded up to a power of two). A null weigher weighs every
+     * value as 1.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCache(long capacity, Cache.Policy policy, ToIntFunction<? super V> weigher, int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Need at least one stripe: " + stripes);
+        }
+        int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.capacity = capacity;
+        // Generic arrays cannot be created; every element is a Cache<K, V>
+        this.stripes = (Cache<K, V>[]) new Cache<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            // Shares differ by at most one, and add up to capacity
+            long share = capacity / count + (i < capacity % count ? 1 : 0);
+            this.stripes[i] = new Cache<>(share, policy, weigher);
+        }
+    }
+
+    public V get(K key) {
+        Cache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    public boolean containsKey(K key) {
+        Cache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.containsKey(key);
+        }
+    }
+
+    public void put(K key, V value) {
+        Cache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    public V remove(K key) {
+        Cache<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (Cache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Cache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public long weight() {
+        long weight = 0;
+        for (Cache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                weight += stripe.weight();
+            }
+        }
+        return weight;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    public Cache.Stats getStats() {
+        Cache.Stats stats = new Cache.Stats(0, 0, 0);
+        for (Cache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stats = stats.plus(stripe.getStats());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Visits every entry, one stripe at a time while holding its lock, so
+     * action must not use this cache.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Cache<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.forEach(action);
+            }
+        }
+    }
+
+    private Cache<K, V> stripeFor(K key) {
+        int h = key.hashCode() * 0x85EBCA6B;
+        return stripes[(h ^ (h >>> 15)) & (stripes.length - 1)];
+    }
+}
@@ -1,6 +1,7 @@
 package com.containers;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -71,6 +72,18 @@ public class GenericList<T> extends ListContainer<T> {
         return val;
     }
 
+    /**
+     * Returns a view of this list that throws UnsupportedOperationException on
+     * any change. The view shares the elements and their count, so this list
+     * must not be changed afterwards either.
+     */
+    public GenericList<T> readOnly() {
+        GenericList<T> view = new GenericList<>();
+        view.elements = Collections.unmodifiableList(elements);
+        view.size = size;
+        return view;
+    }
+
     public T get(int index) {
         if (index < 0 || index >= size)
             throw new IndexOutOfBoundsException("get index out of range");
@@ -0,0 +1,184 @@
+package com.containers;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Compressed (radix) trie from String keys to lists of values. Chains of
+ * single-child nodes are merged into one edge label, so the node count is
+ * bounded by twice the number of keys. Prefix queries walk the prefix once
+ * and then enumerate only the matching subtree, in lexicographic order.
+ *
+ * A key may hold several values; put appends.
+ */
+public class Trie<V> {
+
+    private static final class Node<V> {
+        String label;
+        // Children sorted by the first char of their label
+        char[] firsts = new char[0];
+        Node<V>[] children = newArray(0);
+        GenericList<V> values;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int find(char c) {
+            return Arrays.binarySearch(firsts, c);
+        }
+
+        void insertChild(int at, Node<V> child) {
+            int n = firsts.length;
+            char[] f = new char[n + 1];
+            Node<V>[] ch = newArray(n + 1);
+            System.arraycopy(firsts, 0, f, 0, at);
+            System.arraycopy(children, 0, ch, 0, at);
+            f[at] = child.label.charAt(0);
+            ch[at] = child;
+            System.arraycopy(firsts, at, f, at + 1, n - at);
+            System.arraycopy(children, at, ch, at + 1, n - at);
+            firsts = f;
+            children = ch;
+        }
+
+        // Generic arrays cannot be created; the wildcard array only ever
+        // holds Node<V>, so the one cast is safe
+        @SuppressWarnings("unchecked")
+        static <V> Node<V>[] newArray(int n) {
+            return (Node<V>[]) new Node<?>[n];
+        }
+    }
+
+    private final Node<V> root = new Node<>("");
+    private int size;
+
+    public void put(String key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int at = node.find(key.charAt(i));
+            if (at < 0) {
+                Node<V> leaf = new Node<>(key.substring(i));
+                node.insertChild(-at - 1, leaf);
+                node = leaf;
+                break;
+            }
+            Node<V> child = node.children[at];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge: node -> mid -> child
+                Node<V> mid = new Node<>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                mid.firsts = new char[] { child.label.charAt(0) };
+                mid.children = Node.newArray(1);
+                mid.children[0] = child;
+                node.children[at] = mid;
+                child = mid;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.values == null) {
+            node.values = new GenericList<>();
+            size++;
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Values stored under key, or an empty list. The returned list is a copy.
+     */
+    public GenericList<V> get(String key) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int at = node.find(key.charAt(i));
+            if (at < 0) {
+                return new GenericList<>();
+            }
+            node = node.children[at];
+            if (!key.startsWith(node.label, i)) {
+                return new GenericList<>();
+            }
+            i += node.label.length();
+        }
+        GenericList<V> copy = new GenericList<>();
+        if (node.values != null) {
+            for (int k = 0; k < node.values.size(); k++) {
+                copy.add(node.values.get(k));
+            }
+        }
+        return copy;
+    }
+
+    public boolean containsKey(String key) {
+        return !get(key).isEmpty();
+    }
+
+    /**
+     * Up to limit keys starting with prefix, in lexicographic (char) order.
+     */
+    public GenericList<String> keysWithPrefix(String prefix, int limit) {
+        GenericList<String> keys = new GenericList<>();
+        if (limit <= 0) {
+            return keys;
+        }
+        Node<V> node = root;
+        StringBuilder path = new StringBuilder();
+        int i = 0;
+        while (i < prefix.length()) {
+            int at = node.find(prefix.charAt(i));
+            if (at < 0) {
+                return keys;
+            }
+            node = node.children[at];
+            int overlap = Math.min(node.label.length(), prefix.length() - i);
+            if (!node.label.regionMatches(0, prefix, i, overlap)) {
+                return keys;
+            }
+            path.append(node.label);
+            i += node.label.length();
+        }
+
+        // Depth-first, children in order; the stack holds nodes and their paths
+        Stack<Node<V>> nodes = new Stack<>();
+        Stack<String> paths = new Stack<>();
+        nodes.push(node);
+        paths.push(path.toString());
+        while (!nodes.isEmpty() && keys.size() < limit) {
+            Node<V> current = nodes.pop();
+            String currentPath = paths.pop();
+            if (current.values != null) {
+                keys.add(currentPath);
+            }
+            for (int c = current.children.length - 1; c >= 0; c--) {
+                nodes.push(current.children[c]);
+                paths.push(currentPath + current.children[c].label);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Number of distinct keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int n = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+}
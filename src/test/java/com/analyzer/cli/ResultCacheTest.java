@@ -0,0 +1,165 @@
+package com.analyzer.cli;
+
+import com.analyzer.core.Index;
+import com.analyzer.core.Parser;
+import com.analyzer.core.Scanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path source;
+    private Index index;
+
+    /**
+     * Prints one row per run, numbered, so a replay shows an old number.
+     */
+    private static final class Counting implements Command {
+        int runs;
+        boolean warn;
+
+        @Override
+        public void execute(String[] args, Index index, Output out) {
+            runs++;
+            out.println("run " + runs);
+            if (warn) {
+                out.warn("could not read a file");
+            }
+        }
+    }
+
+    @BeforeEach
+    public void indexFixture() throws IOException {
+        source = tempDir.resolve("Main.java");
+        Files.write(source, "public class Main { }\n".getBytes(StandardCharsets.UTF_8));
+        index = new Index();
+        reindex();
+    }
+
+    @Test
+    public void testSecondRunIsReplayed() {
+        System.out.println("\n========================================");
+        System.out.println("Running testSecondRunIsReplayed...");
+        System.out.println("========================================");
+        ResultCache cache = new ResultCache(1 << 20);
+        Counting command = new Counting();
+        String[] args = { "--plain" };
+
+        assertEquals("run 1", run(cache, "aggregate", args, command, false));
+        assertEquals("run 1", run(cache, "aggregate", args, command, true));
+        assertEquals(1, command.runs);
+        System.out.println("Verified the second run replays the saved output.");
+
+        assertEquals("run 2", run(cache, "aggregate", new String[] { "--limit", "5" }, command, false));
+        assertEquals("run 3", run(cache, "top", args, command, false));
+        System.out.println("Verified other arguments and other commands run again.");
+
+        // Uncached commands write to the console itself, so only the run count shows
+        ResultCache disabled = new ResultCache(0);
+        assertFalse(disabled.run("aggregate", args, command, index));
+        assertFalse(disabled.run("aggregate", args, command, index));
+        assertEquals(5, command.runs);
+        System.out.println("Verified a zero budget keeps nothing.");
+        System.out.println("✓ testSecondRunIsReplayed passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testNewVersionDropsResults() {
+        System.out.println("\n========================================");
+        System.out.println("Running testNewVersionDropsResults...");
+        System.out.println("========================================");
+        ResultCache cache = new ResultCache(1 << 20);
+        Counting command = new Counting();
+        String[] args = {};
+        run(cache, "aggregate", args, command, false);
+        run(cache, "aggregate", args, command, true);
+
+        reindex();
+        assertEquals("run 2", run(cache, "aggregate", args, command, false));
+        assertEquals("run 2", run(cache, "aggregate", args, command, true));
+        System.out.println("Verified a new index version recomputes, then replays again.");
+        System.out.println("✓ testNewVersionDropsResults passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testChangedSourceDropsTextResults() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testChangedSourceDropsTextResults...");
+        System.out.println("========================================");
+        ResultCache cache = new ResultCache(1 << 20);
+        Counting grep = new Counting();
+        Counting aggregate = new Counting();
+        String[] args = { "class" };
+        run(cache, "grep", args, grep, false);
+        run(cache, "aggregate", args, aggregate, false);
+        assertEquals("run 1", run(cache, "grep", args, grep, true));
+
+        // Same index version, but the file on disk has changed
+        Files.setLastModifiedTime(source,
+                FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 10_000));
+        assertEquals("run 2", run(cache, "grep", args, grep, false));
+        assertEquals("run 1", run(cache, "aggregate", args, aggregate, true));
+        System.out.println("Verified an edited file recomputes grep but not aggregate.");
+        System.out.println("✓ testChangedSourceDropsTextResults passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testWarningsAndEffectsAreNotKept() {
+        System.out.println("\n========================================");
+        System.out.println("Running testWarningsAndEffectsAreNotKept...");
+        System.out.println("========================================");
+        ResultCache cache = new ResultCache(1 << 20);
+        Counting warning = new Counting();
+        warning.warn = true;
+        String[] args = {};
+        run(cache, "keywords", args, warning, false);
+        run(cache, "keywords", args, warning, false);
+        assertEquals(2, warning.runs);
+        System.out.println("Verified output with a warning is not kept.");
+
+        for (String name : new String[] { "analyze", "export" }) {
+            Counting command = new Counting();
+            assertFalse(cache.run(name, args, command, index));
+            assertFalse(cache.run(name, args, command, index));
+            assertEquals(2, command.runs, name);
+        }
+        System.out.println("Verified analyze and export always run.");
+        System.out.println("✓ testWarningsAndEffectsAreNotKept passed.");
+        System.out.println("========================================\n");
+    }
+
+    private void reindex() {
+        index.setClasses(new Parser().parse(new Scanner().scan(tempDir.toString())));
+    }
+
+    // Runs through the cache with standard output captured, checks whether it
+    // was replayed and returns what was printed
+    private String run(ResultCache cache, String name, String[] args, Command command, boolean replayed) {
+        PrintStream console = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            assertEquals(replayed, cache.run(name, args, command, index));
+        } finally {
+            System.setOut(console);
+        }
+        return new String(bytes.toByteArray()).trim();
+    }
+}
@@ -0,0 +1,112 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BodyStripperTest {
+    private static final String SOURCE = "package p;\n"
+            + "\n"
+            + "public class Outer<T extends Comparable<T>> {\n"
+            + "    private int[] table = { 1, 2 };\n"
+            + "    private Class<?> type = String.class;\n"
+            + "\n"
+            + "    @SuppressWarnings({ \"unchecked\" })\n"
+            + "    public Outer(int size) {\n"
+            + "        String open = \"{\" + '{';\n"
+            + "        // a stray } in a comment\n"
+            + "        /* and { in a block comment */\n"
+            + "        class Local { void run() { } }\n"
+            + "    }\n"
+            + "\n"
+            + "    void classify() { int text = \"\"\"\n"
+            + "        }}} \"\"\".length(); }\n"
+            + "\n"
+            + "    static class Inner {\n"
+            + "        void record() { return; }\n"
+            + "    }\n"
+            + "\n"
+            + "    enum Kind { A, B; int weight() { return 1; } }\n"
+            + "}\n";
+
+    @Test
+    public void testBodiesAreBlanked() {
+        System.out.println("\n========================================");
+        System.out.println("Running testBodiesAreBlanked...");
+        System.out.println("========================================");
+        String stripped = BodyStripper.strip(SOURCE);
+        assertEquals(SOURCE.length(), stripped.length());
+        for (int i = 0; i < SOURCE.length(); i++) {
+            assertEquals(SOURCE.charAt(i) == '\n', stripped.charAt(i) == '\n', "line break at " + i);
+        }
+        System.out.println("Verified the length and every line break are kept.");
+
+        String[] lines = stripped.split("\n", -1);
+        assertEquals("    private int[] table = {      };", lines[3]);
+        assertEquals("    private Class<?> type = String.class;", lines[4]);
+        assertEquals("    @SuppressWarnings({ \"unchecked\" })", lines[6]);
+        assertEquals("    public Outer(int size) {", lines[7]);
+        for (int line = 8; line <= 11; line++) {
+            assertTrue(lines[line].trim().isEmpty(), "line " + (line + 1) + ": " + lines[line]);
+        }
+        assertEquals("    }", lines[12]);
+        System.out.println("Verified a constructor body with braces in strings, chars and comments is blank.");
+
+        assertEquals("    void classify() {", lines[14].stripTrailing());
+        assertEquals("}", lines[15].trim());
+        System.out.println("Verified a method named like a keyword with a text block body is blank.");
+
+        assertEquals("    static class Inner {", lines[17]);
+        assertEquals("        void record() {         }", lines[18]);
+        assertEquals("    enum Kind { A, B; int weight() {           } }", lines[21]);
+        assertEquals("}", lines[22]);
+        System.out.println("Verified nested type bodies are kept while their methods are blanked.");
+        System.out.println("✓ testBodiesAreBlanked passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testDeclarationsMatchFullParse() {
+        System.out.println("\n========================================");
+        System.out.println("Running testDeclarationsMatchFullParse...");
+        System.out.println("========================================");
+        GenericList<File> files = new Scanner().scan("src/main/java");
+        GenericList<ClassInfo> full = new Parser(Parser.Mode.FULL).parse(files);
+        GenericList<ClassInfo> declarations = new Parser(Parser.Mode.DECLARATIONS).parse(files);
+
+        Map<String, ClassInfo> byName = new HashMap<>();
+        for (int i = 0; i < full.size(); i++) {
+            ClassInfo info = full.get(i);
+            byName.put(info.getFilePath() + ":" + info.getName(), info);
+        }
+        int methods = 0;
+        for (int c = 0; c < declarations.size(); c++) {
+            ClassInfo info = declarations.get(c);
+            ClassInfo expected = byName.get(info.getFilePath() + ":" + info.getName());
+            assertNotNull(expected, info.getName());
+            assertEquals(expected.getMethodCount(), info.getMethodCount(), info.getName());
+            assertEquals(expected.getFieldCount(), info.getFieldCount(), info.getName());
+            for (int i = 0; i < info.getMethodCount(); i++) {
+                MethodInfo want = expected.getMethods().get(i);
+                MethodInfo got = info.getMethods().get(i);
+                String where = info.getName() + "." + want.getName();
+                assertEquals(want.getName(), got.getName(), where);
+                assertEquals(want.getStartLine(), got.getStartLine(), where);
+                assertEquals(want.getLoc(), got.getLoc(), where);
+                assertEquals(want.getParameters().size(), got.getParameters().size(), where);
+                methods++;
+            }
+        }
+        System.out.println("Verified " + declarations.size() + " classes and " + methods
+                + " methods keep their names, start lines and LOC.");
+        System.out.println("✓ testDeclarationsMatchFullParse passed.");
+        System.out.println("========================================\n");
+    }
+}
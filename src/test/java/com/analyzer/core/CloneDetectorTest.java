@@ -0,0 +1,110 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CloneDetectorTest {
+
+    private static final String ORIGINAL = "package demo;\n"
+            + "public class Original {\n"
+            + "    public int sumOfSquares(int[] values) {\n"
+            + "        int total = 0;\n"
+            + "        for (int i = 0; i < values.length; i++) {\n"
+            + "            if (values[i] > 0) {\n"
+            + "                total += values[i] * values[i];\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return total;\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRenamedIdentifiersTokenizeAlike() {
+        System.out.println("\n========================================");
+        System.out.println("Running testRenamedIdentifiersTokenizeAlike...");
+        System.out.println("========================================");
+        TokenStream a = TokenStream.of("int total = 0; // counter\ntotal += 1;");
+        TokenStream b = TokenStream.of("int sum = 42; /* other */\nsum += 7;");
+        assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.code(i), b.code(i), "token " + i);
+        }
+        assertEquals(TokenStream.IDENTIFIER, a.code(1));
+        assertEquals(TokenStream.LITERAL, a.code(3));
+        System.out.println("Verified names and literals are abstracted and comments skipped.");
+
+        assertEquals(1, a.line(0));
+        assertEquals(2, a.line(a.size() - 1));
+        assertEquals(5, a.firstTokenAtLine(2));
+        assertEquals(a.size(), a.firstTokenAtLine(3));
+        System.out.println("Verified token lines and firstTokenAtLine.");
+        System.out.println("✓ testRenamedIdentifiersTokenizeAlike passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testCopiesAreGroupedTogether() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testCopiesAreGroupedTogether...");
+        System.out.println("========================================");
+        write("Original.java", ORIGINAL);
+        write("Copy.java", ORIGINAL.replace("Original", "Copy"));
+        write("Renamed.java", ORIGINAL.replace("Original", "Renamed").replace("sumOfSquares", "energy")
+                .replace("values", "samples").replace("total", "acc").replace("0", "1"));
+        write("Unrelated.java", "package demo;\n"
+                + "public class Unrelated {\n"
+                + "    private String name;\n"
+                + "    public String describe(String prefix) {\n"
+                + "        StringBuilder text = new StringBuilder(prefix);\n"
+                + "        switch (name) {\n"
+                + "            case \"a\": text.append(\"first\"); break;\n"
+                + "            default: text.append(name.trim().toLowerCase());\n"
+                + "        }\n"
+                + "        return text.toString();\n"
+                + "    }\n"
+                + "}\n");
+        GenericList<ClassInfo> classes = new Parser().parse(new Scanner().scan(tempDir.toString()));
+        assertEquals(4, classes.size());
+
+        CloneDetector detector = new CloneDetector(20);
+        detector.setContents(new ContentCache(1 << 20, true));
+        CloneDetector.Report report = detector.detect(classes);
+        assertEquals(4, report.getMethodCount());
+        assertEquals(0, report.getUnreadableFileCount());
+        assertEquals(1, report.getGroups().size());
+
+        CloneDetector.Group group = report.getGroups().get(0);
+        List<String> owners = new ArrayList<>();
+        for (int i = 0; i < group.getMembers().size(); i++) {
+            CloneDetector.Member member = group.getMembers().get(i);
+            owners.add(member.getOwner().getName());
+            assertEquals(3, member.getStartLine());
+            assertEquals(11, member.getEndLine());
+        }
+        owners.sort(null);
+        assertEquals(List.of("Copy", "Original", "Renamed"), owners);
+        assertTrue(group.getTokens() >= 20);
+        System.out.println("Verified the copy and the renamed copy join one group of " + group.getTokens()
+                + " tokens, and the unrelated method stays out.");
+        System.out.println("✓ testCopiesAreGroupedTogether passed.");
+        System.out.println("========================================\n");
+    }
+
+    private void write(String name, String source) throws IOException {
+        Files.write(tempDir.resolve(name), source.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package com.analyzer.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrepTest {
+    // Mixed line endings, adjacent matches, a match on the first and last
+    // line, and a last line without a line break
+    private static final String TEXT = "TODO first\r\n"
+            + "a\n"
+            + "b\r"
+            + "c TODO\n"
+            + "TODO again\n"
+            + "d\r\n"
+            + "e\n"
+            + "f\n"
+            + "g\n"
+            + "\n"
+            + "h TODOs\n"
+            + "i\n"
+            + "last TODO";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testContextLines() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testContextLines...");
+        System.out.println("========================================");
+        String path = write(TEXT);
+        Grep grep = new Grep(Pattern.compile("TODO"));
+        assertEquals("literal", grep.getStrategy());
+        grep.setContext(1, 1);
+        Grep.FileResult result = grep.scan(path);
+
+        assertEquals(5, result.getMatchCount());
+        assertEquals("1:TODO first|2-a|3-b|4:c TODO|5:TODO again|6-d|10-|11:h TODOs|12-i|13:last TODO",
+                describe(result));
+        System.out.println("Verified matches and one line of context around each: " + describe(result));
+        System.out.println("✓ testContextLines passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testMaxCountKeepsTrailingContext() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testMaxCountKeepsTrailingContext...");
+        System.out.println("========================================");
+        String path = write(TEXT);
+        Grep grep = new Grep(Pattern.compile("TODO"));
+        grep.setMaxCount(2);
+        grep.setContext(0, 2);
+        Grep.FileResult result = grep.scan(path);
+
+        assertEquals(2, result.getMatchCount());
+        assertEquals("1:TODO first|2-a|3-b|4:c TODO|5-TODO again|6-d", describe(result));
+        System.out.println("Verified the scan stops after 2 matches, with the last one's context: "
+                + describe(result));
+        System.out.println("✓ testMaxCountKeepsTrailingContext passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testBytePathAgreesWithLinePath() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testBytePathAgreesWithLinePath...");
+        System.out.println("========================================");
+        String path = write(TEXT);
+        // MULTILINE changes nothing for one line at a time, but any flag
+        // keeps Grep on the line-by-line regex path
+        String[] regexes = { "TODO", "TODO\\w*$", "a|i|TODO" };
+        int cases = 0;
+        for (String regex : regexes) {
+            for (int maxCount : new int[] { -1, 0, 1, 2 }) {
+                for (int before = 0; before <= 2; before++) {
+                    for (int after = 0; after <= 3; after++) {
+                        for (boolean filesOnly : new boolean[] { false, true }) {
+                            Grep bytes = configure(new Grep(Pattern.compile(regex)), maxCount, before, after,
+                                    filesOnly);
+                            Grep lines = configure(new Grep(Pattern.compile(regex, Pattern.MULTILINE)), maxCount,
+                                    before, after, filesOnly);
+                            assertNotEquals("regex", bytes.getStrategy(), regex);
+                            assertEquals("regex", lines.getStrategy(), regex);
+                            Grep.FileResult expected = lines.scan(path);
+                            Grep.FileResult actual = bytes.scan(path);
+                            String where = regex + " max " + maxCount + " -B " + before + " -A " + after
+                                    + (filesOnly ? " -l" : "");
+                            assertEquals(expected.getMatchCount(), actual.getMatchCount(), where);
+                            assertEquals(describe(expected), describe(actual), where);
+                            cases++;
+                        }
+                    }
+                }
+            }
+            System.out.println("Verified " + regex + " (" + new Grep(Pattern.compile(regex)).getStrategy()
+                    + ") against the line-by-line regex scan.");
+        }
+        System.out.println("Compared " + cases + " combinations of --max-count, -B, -A and -l.");
+        System.out.println("✓ testBytePathAgreesWithLinePath passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static Grep configure(Grep grep, int maxCount, int before, int after, boolean filesOnly) {
+        grep.setMaxCount(maxCount);
+        grep.setContext(before, after);
+        grep.setFilesOnly(filesOnly);
+        return grep;
+    }
+
+    // "number:text" for a match and "number-text" for context, as grep prints
+    private static String describe(Grep.FileResult result) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < result.getLines().size(); i++) {
+            Grep.Line line = result.getLines().get(i);
+            if (i > 0) {
+                sb.append('|');
+            }
+            sb.append(line.getNumber()).append(line.isContext() ? '-' : ':').append(line.getText());
+            assertTrue(line.getMatch() >= 0 && line.getMatch() < result.getMatchCount());
+        }
+        return sb.toString();
+    }
+
+    private String write(String text) throws IOException {
+        Path file = tempDir.resolve("Sample.java");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReplaceAndRemoveFiles() {
+        System.out.println("\n========================================");
+        System.out.println("Running testReplaceAndRemoveFiles...");
+        System.out.println("========================================");
+        GenericList<ClassInfo> classes = MappedIndexTest.parseTestData();
+        Index index = new Index();
+        index.setClasses(classes);
+        IndexSnapshot before = index.snapshot();
+        assertTrue(before.getFileCount() >= 2, "testdata should have several files");
+        String first = before.getFilePaths().get(0);
+        String second = before.getFilePaths().get(1);
+        GenericList<ClassInfo> firstClasses = before.getClassesInFile(first);
+
+        GenericList<ClassInfo> replacement = new GenericList<>();
+        replacement.add(firstClasses.get(0));
+        IndexSnapshot replaced = index.replaceFiles(Collections.singletonMap(first, replacement));
+        assertEquals(before.getVersion() + 1, replaced.getVersion());
+        assertSame(replaced, index.snapshot());
+        assertEquals(before.getClassCount() - firstClasses.size() + 1, replaced.getClassCount());
+        assertEquals(replaced.getClassCount(), replaced.getClasses().size());
+        assertEquals(1, replaced.getClassesInFile(first).size());
+        assertSame(before.getClassesInFile(second), replaced.getClassesInFile(second));
+        assertEquals(firstClasses.size(), before.getClassesInFile(first).size());
+        System.out.println("Verified a replaced file changes the class count and shares untouched files.");
+
+        IndexSnapshot removed = index.replaceFiles(Collections.singletonMap(second, new GenericList<>()));
+        assertEquals(replaced.getVersion() + 1, removed.getVersion());
+        assertEquals(before.getFileCount() - 1, removed.getFileCount());
+        assertTrue(removed.getClassesInFile(second).isEmpty());
+        assertEquals(replaced.getClassCount() - before.getClassesInFile(second).size(), removed.getClassCount());
+        assertEquals(removed.getClassCount(), removed.getClasses().size());
+        System.out.println("Verified an empty list removes the file.");
+
+        Map<String, GenericList<ClassInfo>> added = new HashMap<>();
+        added.put("New.java", before.getClassesInFile(second));
+        IndexSnapshot readded = index.replaceFiles(added);
+        GenericList<String> paths = readded.getFilePaths();
+        assertEquals("New.java", paths.get(paths.size() - 1));
+        assertEquals(removed.getClassCount() + before.getClassesInFile(second).size(), readded.getClassCount());
+        System.out.println("Verified a new path is appended after the existing files.");
+        System.out.println("✓ testReplaceAndRemoveFiles passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testPinnedAndMappedSnapshots() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testPinnedAndMappedSnapshots...");
+        System.out.println("========================================");
+        GenericList<ClassInfo> classes = MappedIndexTest.parseTestData();
+        Index index = new Index();
+        index.setClasses(classes);
+        Index pinned = index.pin();
+        String path = index.snapshot().getFilePaths().get(0);
+        Map<String, GenericList<ClassInfo>> removal = Collections.singletonMap(path, new GenericList<>());
+
+        assertThrows(IllegalStateException.class, () -> pinned.replaceFiles(removal));
+        index.replaceFiles(removal);
+        assertEquals(classes.size(), pinned.snapshot().getClassCount());
+        assertFalse(pinned.snapshot().getClassesInFile(path).isEmpty());
+        System.out.println("Verified a pinned index is read-only and keeps its version.");
+
+        Path file = tempDir.resolve("index.bin");
+        MappedIndex.write(IndexSnapshot.of(1, classes, Parser.Mode.FULL), file);
+        Index mapped = Index.open(file);
+        IndexSnapshot next = mapped.replaceFiles(removal);
+        assertEquals(2, next.getVersion());
+        assertEquals(index.snapshot().getClassCount(), next.getClassCount());
+        MappedIndexTest.assertSameClasses(index.getClasses(), next.getClasses());
+        System.out.println("Verified files can be replaced in a mapped snapshot.");
+        System.out.println("✓ testPinnedAndMappedSnapshots passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testDeclarationsSnapshotWithBodies() {
+        System.out.println("\n========================================");
+        System.out.println("Running testDeclarationsSnapshotWithBodies...");
+        System.out.println("========================================");
+        GenericList<File> files = new Scanner().scan("testdata");
+        GenericList<ClassInfo> full = new Parser().parse(files);
+        Index index = new Index();
+        index.setClasses(new Parser(Parser.Mode.DECLARATIONS).parse(files), Parser.Mode.DECLARATIONS);
+        assertEquals(0, totalComplexity(index.getClasses()));
+
+        Index withBodies = index.pinWithBodies();
+        IndexSnapshot snapshot = withBodies.snapshot();
+        assertEquals(Parser.Mode.FULL, snapshot.getParseMode());
+        assertEquals(index.getVersion(), snapshot.getVersion());
+        MappedIndexTest.assertSameClasses(full, snapshot.getClasses());
+        assertTrue(totalComplexity(snapshot.getClasses()) > 0);
+        assertThrows(IllegalStateException.class, () -> withBodies.setClasses(full));
+        System.out.println("Verified a declarations-only snapshot is parsed again in full, at the same version.");
+
+        assertSame(snapshot, index.pinWithBodies().snapshot());
+        assertSame(snapshot, snapshot.withBodies(new Parser()));
+        System.out.println("Verified the full parse is kept with the version and a full snapshot is its own.");
+        System.out.println("✓ testDeclarationsSnapshotWithBodies passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static int totalComplexity(GenericList<ClassInfo> classes) {
+        int total = 0;
+        for (int i = 0; i < classes.size(); i++) {
+            GenericList<MethodInfo> methods = classes.get(i).getMethods();
+            for (int j = 0; j < methods.size(); j++) {
+                total += methods.get(j).getComplexity();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,131 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Index index;
+
+    @BeforeEach
+    public void indexFixture() throws IOException {
+        write("Main.java", "public class Main { }\n");
+        write("util/Helper.java", "package util;\npublic class Helper { }\n");
+        write("util/Strings.java", "package util;\npublic class Strings { }\n");
+        index = new Index();
+        index.setClasses(new Parser().parse(new Scanner().scan(tempDir.toString())));
+    }
+
+    @Test
+    public void testReindexMergesOneBatch() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testReindexMergesOneBatch...");
+        System.out.println("========================================");
+        try (IndexWatcher watcher = new IndexWatcher(index, tempDir.toString(), new Parser())) {
+            write("Main.java", "public class Main { }\nclass Extra { }\n");
+            write("Added.java", "public class Added { }\n");
+            Files.delete(tempDir.resolve("util/Helper.java"));
+            Files.delete(tempDir.resolve("util/Strings.java"));
+            Files.delete(tempDir.resolve("util"));
+
+            Set<Path> changed = new LinkedHashSet<>();
+            changed.add(tempDir.resolve("Main.java"));
+            changed.add(tempDir.resolve("Added.java"));
+            // Only the directory's own delete event arrives
+            changed.add(tempDir.resolve("util"));
+            IndexSnapshot next = watcher.reindex(changed);
+
+            assertEquals(2, next.getVersion());
+            assertSame(next, index.snapshot());
+            assertEquals(List.of("Added", "Extra", "Main"), names(next.getClasses()));
+            assertEquals(2, next.getFileCount());
+            System.out.println("Verified edits, additions and a deleted directory land in one version.");
+        }
+        System.out.println("✓ testReindexMergesOneBatch passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testEventsFillTheBatch() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testEventsFillTheBatch...");
+        System.out.println("========================================");
+        try (IndexWatcher watcher = new IndexWatcher(index, tempDir.toString(), new Parser())) {
+            Set<Path> changed = new LinkedHashSet<>();
+            watcher.collect(StandardWatchEventKinds.ENTRY_MODIFY, tempDir.resolve("Main.java"), changed);
+            watcher.collect(StandardWatchEventKinds.ENTRY_MODIFY, tempDir.resolve("notes.txt"), changed);
+            watcher.collect(StandardWatchEventKinds.ENTRY_DELETE, tempDir.resolve("gone"), changed);
+            assertEquals(List.of(tempDir.resolve("Main.java"), tempDir.resolve("gone")), new ArrayList<>(changed));
+            System.out.println("Verified sources and deletions are kept, other files ignored.");
+
+            // Files written before the new directory is watched are picked up
+            write("api/v1/Service.java", "package api.v1;\npublic class Service { }\n");
+            write("api/Client.java", "package api;\npublic class Client { }\n");
+            changed.clear();
+            watcher.collect(StandardWatchEventKinds.ENTRY_CREATE, tempDir.resolve("api"), changed);
+            assertEquals(2, watcher.getWatchedDirectoryCount());
+            assertEquals(2, changed.size());
+            assertTrue(changed.contains(tempDir.resolve("api/v1/Service.java")));
+            assertTrue(changed.contains(tempDir.resolve("api/Client.java")));
+            System.out.println("Verified a new directory tree is registered and its sources batched.");
+        }
+        System.out.println("✓ testEventsFillTheBatch passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testChangesAreDebounced() throws IOException, InterruptedException {
+        System.out.println("\n========================================");
+        System.out.println("Running testChangesAreDebounced...");
+        System.out.println("========================================");
+        try (IndexWatcher watcher = new IndexWatcher(index, tempDir.toString(), new Parser(), 500)) {
+            watcher.start();
+            write("First.java", "public class First { }\n");
+            write("Second.java", "public class Second { }\n");
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (index.getVersion() == 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            // Give a second batch, if the writes were split, time to land
+            Thread.sleep(1000);
+            assertEquals(2, index.getVersion());
+            assertEquals(5, index.snapshot().getClassCount());
+            System.out.println("Verified two quick writes are published as one version.");
+        }
+        System.out.println("✓ testChangesAreDebounced passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static List<String> names(GenericList<ClassInfo> classes) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < classes.size(); i++) {
+            names.add(classes.get(i).getName());
+        }
+        names.sort(null);
+        return names;
+    }
+
+    private void write(String path, String source) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package com.analyzer.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Lz4BlockTest {
+
+    @Test
+    public void testRoundTripSourceText() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testRoundTripSourceText...");
+        System.out.println("========================================");
+        byte[] source = Files.readAllBytes(Paths.get("src/main/java/com/analyzer/core/Lz4Block.java"));
+        byte[] compressed = Lz4Block.compress(source);
+        assertNotNull(compressed, "source text should compress");
+        System.out.println("Compressed " + source.length + " bytes to " + compressed.length + ".");
+        assertTrue(compressed.length < source.length);
+        assertArrayEquals(source, Lz4Block.decompress(compressed, source.length));
+        System.out.println("Verified the block decompresses to the original bytes.");
+        System.out.println("✓ testRoundTripSourceText passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testLongRunsAndOverlappingMatches() {
+        System.out.println("\n========================================");
+        System.out.println("Running testLongRunsAndOverlappingMatches...");
+        System.out.println("========================================");
+        byte[] zeros = new byte[100_000];
+        assertRoundTrip(zeros);
+        System.out.println("Verified a long run of one byte (lengths past 255, overlapping copies).");
+
+        byte[] pattern = new byte[70_000];
+        for (int i = 0; i < pattern.length; i++) {
+            pattern[i] = (byte) "abc".charAt(i % 3);
+        }
+        assertRoundTrip(pattern);
+        System.out.println("Verified a repeated 3-byte pattern (offset shorter than the match).");
+
+        // A repeat further back than the 64 KB window cannot be matched
+        byte[] far = new byte[140_000];
+        Random random = new Random(7);
+        byte[] block = new byte[1000];
+        random.nextBytes(block);
+        System.arraycopy(block, 0, far, 0, block.length);
+        for (int i = 1000; i < 100_000; i++) {
+            far[i] = (byte) random.nextInt();
+        }
+        System.arraycopy(block, 0, far, 100_000, block.length);
+        assertArrayEquals(far, Lz4Block.decompress(Lz4Block.compress(far), far.length));
+        System.out.println("Verified data repeating beyond the window.");
+        System.out.println("✓ testLongRunsAndOverlappingMatches passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testIncompressibleAndTinyInputs() {
+        System.out.println("\n========================================");
+        System.out.println("Running testIncompressibleAndTinyInputs...");
+        System.out.println("========================================");
+        byte[] random = new byte[10_000];
+        new Random(42).nextBytes(random);
+        assertNull(Lz4Block.compress(random));
+        System.out.println("Verified random bytes are reported as not worth compressing.");
+
+        for (String text : new String[] { "", "a", "abcd", "aaaaaaaaaaaa" }) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            byte[] compressed = Lz4Block.compress(bytes);
+            if (compressed != null) {
+                assertArrayEquals(bytes, Lz4Block.decompress(compressed, bytes.length));
+            }
+            System.out.println("Verified input of " + bytes.length + " bytes: "
+                    + (compressed == null ? "kept as is" : "round trip"));
+        }
+        System.out.println("✓ testIncompressibleAndTinyInputs passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testDamagedBlockIsRejected() {
+        System.out.println("\n========================================");
+        System.out.println("Running testDamagedBlockIsRejected...");
+        System.out.println("========================================");
+        byte[] source = new byte[5000];
+        Arrays.fill(source, (byte) 'x');
+        byte[] compressed = Lz4Block.compress(source);
+        assertNotNull(compressed);
+
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThrows(IllegalArgumentException.class, () -> Lz4Block.decompress(truncated, source.length));
+        System.out.println("Verified a truncated block is rejected.");
+        assertThrows(IllegalArgumentException.class, () -> Lz4Block.decompress(compressed, source.length + 1));
+        System.out.println("Verified a wrong expected size is rejected.");
+        System.out.println("✓ testDamagedBlockIsRejected passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static void assertRoundTrip(byte[] bytes) {
+        byte[] compressed = Lz4Block.compress(bytes);
+        assertNotNull(compressed);
+        assertTrue(compressed.length < bytes.length / 10, "runs should compress well");
+        assertArrayEquals(bytes, Lz4Block.decompress(compressed, bytes.length));
+    }
+}
@@ -0,0 +1,179 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.FieldInfo;
+import com.analyzer.model.MethodInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteThenOpenRoundTrip() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testWriteThenOpenRoundTrip...");
+        System.out.println("========================================");
+        GenericList<ClassInfo> classes = parseTestData();
+        Path file = tempDir.resolve("index.idx");
+        MappedIndex.write(IndexSnapshot.of(1, classes, Parser.Mode.FULL), file);
+        System.out.println("Wrote " + classes.size() + " classes to " + Files.size(file) + " bytes.");
+
+        Index index = Index.open(file);
+        IndexSnapshot snapshot = index.snapshot();
+        assertEquals(classes.size(), snapshot.getClassCount());
+        System.out.println("Verified the class count is read from the header.");
+        for (int row = 0; row < classes.size(); row++) {
+            assertSameClass(classes.get(row), snapshot.getClass(row));
+        }
+        System.out.println("Verified every class materialized from a single row matches.");
+        assertSameClasses(classes, snapshot.getClasses());
+        System.out.println("Verified the fully materialized list matches.");
+        assertEquals(Parser.Mode.FULL, snapshot.getParseMode());
+
+        Path declarations = tempDir.resolve("declarations.idx");
+        MappedIndex.write(IndexSnapshot.of(1, classes, Parser.Mode.DECLARATIONS), declarations);
+        assertEquals(Parser.Mode.DECLARATIONS, Index.open(declarations).snapshot().getParseMode());
+        System.out.println("Verified the parse mode is stored in the file.");
+        System.out.println("✓ testWriteThenOpenRoundTrip passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testTruncatedFileIsRejected() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testTruncatedFileIsRejected...");
+        System.out.println("========================================");
+        Path file = tempDir.resolve("index.idx");
+        MappedIndex.write(IndexSnapshot.of(1, parseTestData(), Parser.Mode.FULL), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        for (int length : new int[] { 60, bytes.length / 2, bytes.length - 1 }) {
+            Path truncated = tempDir.resolve("truncated-" + length + ".idx");
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            IOException e = assertThrows(IOException.class, () -> MappedIndex.open(truncated));
+            System.out.println("Truncated to " + length + " of " + bytes.length + " bytes: " + e.getMessage());
+        }
+        System.out.println("Verified truncated files fail to open with an IOException.");
+
+        byte[] corrupt = bytes.clone();
+        // Class count, the third int of the header
+        corrupt[8] = (byte) 0x80;
+        Path negative = tempDir.resolve("negative.idx");
+        Files.write(negative, corrupt);
+        assertThrows(IOException.class, () -> MappedIndex.open(negative));
+        System.out.println("Verified a negative count in the header is rejected.");
+        System.out.println("✓ testTruncatedFileIsRejected passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testCorruptRowsAreRejected() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testCorruptRowsAreRejected...");
+        System.out.println("========================================");
+        Path file = tempDir.resolve("index.idx");
+        MappedIndex.write(IndexSnapshot.of(1, parseTestData(), Parser.Mode.FULL), file);
+        byte[] bytes = Files.readAllBytes(file);
+        // The class table follows the 14-int header
+        int firstClass = 14 * 4;
+
+        byte[] overlapping = bytes.clone();
+        ByteBuffer.wrap(overlapping).putInt(firstClass + MappedIndex.CLASS_FIRST_METHOD * 4, 1);
+        Path shifted = tempDir.resolve("shifted.idx");
+        Files.write(shifted, overlapping);
+        IOException e = assertThrows(IOException.class, () -> MappedIndex.open(shifted));
+        System.out.println("Shifted method range: " + e.getMessage());
+
+        byte[] dangling = bytes.clone();
+        ByteBuffer.wrap(dangling).putInt(firstClass + MappedIndex.CLASS_NAME * 4, Integer.MAX_VALUE);
+        Path badName = tempDir.resolve("dangling.idx");
+        Files.write(badName, dangling);
+        e = assertThrows(IOException.class, () -> MappedIndex.open(badName));
+        System.out.println("Dangling string id: " + e.getMessage());
+        System.out.println("✓ testCorruptRowsAreRejected passed.");
+        System.out.println("========================================\n");
+    }
+
+    static GenericList<ClassInfo> parseTestData() {
+        GenericList<File> files = new Scanner().scan("testdata");
+        GenericList<ClassInfo> classes = new Parser().parse(files);
+        assertFalse(classes.isEmpty(), "testdata should contain classes");
+        return classes;
+    }
+
+    static void assertSameClasses(GenericList<ClassInfo> expected, GenericList<ClassInfo> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameClass(expected.get(i), actual.get(i));
+        }
+    }
+
+    static void assertSameClass(ClassInfo expected, ClassInfo actual) {
+        String name = expected.getName();
+        assertEquals(name, actual.getName());
+        assertEquals(expected.getPackageName(), actual.getPackageName(), name);
+        assertEquals(expected.getFilePath(), actual.getFilePath(), name);
+        assertEquals(expected.getTypeReferenceCount(), actual.getTypeReferenceCount(), name);
+        for (int i = 0; i < expected.getTypeReferenceCount(); i++) {
+            assertEquals(expected.getTypeReferenceId(i), actual.getTypeReferenceId(i), name);
+        }
+        assertEquals(expected.getDependencyCount(), actual.getDependencyCount(), name);
+        for (int i = 0; i < expected.getDependencyCount(); i++) {
+            assertEquals(expected.getDependencyId(i), actual.getDependencyId(i), name);
+        }
+        assertEquals(expected.getTermCount(), actual.getTermCount(), name);
+        for (int i = 0; i < expected.getTermCount(); i++) {
+            assertEquals(expected.getTermId(i), actual.getTermId(i), name);
+            assertEquals(expected.getTermFrequency(i), actual.getTermFrequency(i), name);
+        }
+
+        assertEquals(expected.getFields().size(), actual.getFields().size(), name);
+        for (int i = 0; i < expected.getFields().size(); i++) {
+            FieldInfo e = expected.getFields().get(i);
+            FieldInfo a = actual.getFields().get(i);
+            assertEquals(e.getName(), a.getName(), name);
+            assertEquals(e.getType(), a.getType(), name);
+        }
+
+        assertEquals(expected.getMethods().size(), actual.getMethods().size(), name);
+        for (int i = 0; i < expected.getMethods().size(); i++) {
+            MethodInfo e = expected.getMethods().get(i);
+            MethodInfo a = actual.getMethods().get(i);
+            String method = name + "." + e.getName();
+            assertEquals(e.getName(), a.getName(), method);
+            assertEquals(e.getReturnType(), a.getReturnType(), method);
+            assertEquals(e.getLoc(), a.getLoc(), method);
+            assertEquals(e.getStartLine(), a.getStartLine(), method);
+            assertEquals(e.getComplexity(), a.getComplexity(), method);
+            assertEquals(e.getMaxNesting(), a.getMaxNesting(), method);
+            assertEquals(e.getStatementCount(), a.getStatementCount(), method);
+            assertEquals(e.getCallSiteCount(), a.getCallSiteCount(), method);
+            assertEquals(e.getParameters().size(), a.getParameters().size(), method);
+            for (int p = 0; p < e.getParameterCount(); p++) {
+                assertEquals(e.getParameterTypeId(p), a.getParameterTypeId(p), method);
+            }
+            assertEquals(e.getCalleeCount(), a.getCalleeCount(), method);
+            for (int c = 0; c < e.getCalleeCount(); c++) {
+                assertEquals(e.getCalleeId(c), a.getCalleeId(c), method);
+            }
+            assertEquals(e.getTermCount(), a.getTermCount(), method);
+            for (int t = 0; t < e.getTermCount(); t++) {
+                assertEquals(e.getTermId(t), a.getTermId(t), method);
+                assertEquals(e.getTermFrequency(t), a.getTermFrequency(t), method);
+            }
+        }
+    }
+}
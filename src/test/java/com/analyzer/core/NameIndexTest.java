@@ -0,0 +1,52 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameIndexTest {
+
+    @Test
+    public void testTyposFindEveryKind() {
+        System.out.println("\n========================================");
+        System.out.println("Running testTyposFindEveryKind...");
+        System.out.println("========================================");
+        NameIndex names = new NameIndex(MappedIndexTest.parseTestData());
+
+        GenericList<NameIndex.Suggestion> methods = names.suggestNames("getCuont", 5);
+        assertEquals(1, methods.size());
+        assertEquals(NameIndex.Kind.METHOD, methods.get(0).getKind());
+        assertEquals("getCount", methods.get(0).getName());
+        System.out.println("Verified a misspelled method name is suggested as a method.");
+
+        GenericList<NameIndex.Suggestion> helpers = names.suggestNames("Hepler.java", 5);
+        assertEquals(2, helpers.size());
+        assertEquals(NameIndex.Kind.CLASS, helpers.get(0).getKind());
+        assertEquals("Helper", helpers.get(0).getName());
+        assertEquals(NameIndex.Kind.FILE, helpers.get(1).getKind());
+        assertEquals("Helper.java", helpers.get(1).getName());
+        System.out.println("Verified a class and its file are suggested with their kinds.");
+        System.out.println("✓ testTyposFindEveryKind passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testTypeSuggestionsSkipMethods() {
+        System.out.println("\n========================================");
+        System.out.println("Running testTypeSuggestionsSkipMethods...");
+        System.out.println("========================================");
+        NameIndex names = new NameIndex(MappedIndexTest.parseTestData());
+
+        assertTrue(names.suggestTypes("getCuont", 5).isEmpty());
+        System.out.println("Verified a method name does not suggest its class.");
+
+        GenericList<ClassInfo> classes = names.suggestTypes("Mein", 5);
+        assertEquals(1, classes.size());
+        assertEquals("Main", classes.get(0).getName());
+        System.out.println("Verified a misspelled class still resolves once.");
+        System.out.println("✓ testTypeSuggestionsSkipMethods passed.");
+        System.out.println("========================================\n");
+    }
+}
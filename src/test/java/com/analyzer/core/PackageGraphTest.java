@@ -0,0 +1,150 @@
+package com.analyzer.core;
+
+import com.analyzer.cli.DepsCommand;
+import com.analyzer.cli.Output;
+import com.containers.GenericList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackageGraphTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Index index;
+    private PackageGraph graph;
+
+    // a -> b -> c -> a is a three-package cycle and x <-> y a two-package
+    // one; d and e hang off it, and com.company itself depends on e. The
+    // com.company.lib imports name a library, not com.company.
+    @BeforeEach
+    public void indexFixture() throws IOException {
+        write("com/company/Root.java", "package com.company;\nimport com.company.e.E;\npublic class Root { }\n");
+        write("com/company/a/A.java", "package com.company.a;\nimport com.company.b.B;\n"
+                + "public class A { public static void helper() { } }\n");
+        write("com/company/b/B.java", "package com.company.b;\nimport com.company.c.C;\npublic class B { }\n");
+        write("com/company/c/C.java", "package com.company.c;\nimport static com.company.a.A.helper;\n"
+                + "import com.company.lib.Foo;\nimport java.util.List;\npublic class C { }\n");
+        write("com/company/d/D.java", "package com.company.d;\nimport com.company.a.*;\n"
+                + "import com.company.lib.Bar;\npublic class D { }\n");
+        write("com/company/e/E.java", "package com.company.e;\nimport com.company.d.D;\npublic class E { }\n");
+        write("com/other/x/X.java", "package com.other.x;\nimport com.other.y.Y;\n"
+                + "public class X { public static class Nested { } }\n");
+        write("com/other/y/Y.java", "package com.other.y;\nimport com.other.x.X.Nested;\npublic class Y { }\n");
+
+        index = new Index();
+        index.setClasses(new Parser().parse(new Scanner().scan(tempDir.toString())));
+        graph = index.snapshot().getPackageGraph();
+    }
+
+    @Test
+    public void testEdgesAndResolution() {
+        System.out.println("\n========================================");
+        System.out.println("Running testEdgesAndResolution...");
+        System.out.println("========================================");
+        assertEquals(8, graph.getPackageCount());
+        assertEquals(8, graph.getEdgeCount());
+        assertEquals(List.of("com.company.b"), names(graph.dependencies(pkg("com.company.a"))));
+        assertEquals(List.of("com.company.e"), names(graph.dependencies(pkg("com.company"))));
+        System.out.println("Verified one edge per package pair.");
+
+        assertEquals(List.of("com.company.a"), names(graph.dependencies(pkg("com.company.c"))));
+        assertEquals(List.of("com.company.a"), names(graph.dependencies(pkg("com.company.d"))));
+        assertEquals(List.of("com.other.x"), names(graph.dependencies(pkg("com.other.y"))));
+        System.out.println("Verified static, wildcard and nested-type imports resolve to their package.");
+
+        // com.company.lib.Foo, com.company.lib.Bar and java.util.List
+        assertEquals(3, graph.getUnresolvedCount());
+        assertEquals(0, graph.fanIn(pkg("com.company")));
+        System.out.println("Verified a library package under an indexed one stays unresolved.");
+
+        assertEquals(2, graph.fanIn(pkg("com.company.a")));
+        assertEquals(List.of("com.company.c", "com.company.d"), names(graph.dependents(pkg("com.company.a"))));
+        assertEquals(1, graph.fanOut(pkg("com.company.d")));
+        assertEquals(1, graph.fanIn(pkg("com.company.d")));
+        int edge = graph.firstEdge(pkg("com.company.d"));
+        assertEquals(1, graph.edgeWeight(edge));
+        assertEquals("D", index.snapshot().getClass(graph.edgeExampleClass(edge)).getName());
+        System.out.println("Verified fan-in, fan-out, edge weight and example class.");
+        System.out.println("✓ testEdgesAndResolution passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testCycles() {
+        System.out.println("\n========================================");
+        System.out.println("Running testCycles...");
+        System.out.println("========================================");
+        GenericList<int[]> cycles = graph.getCycles();
+        assertEquals(2, cycles.size());
+        assertEquals(List.of("com.company.a", "com.company.b", "com.company.c"), sorted(names(cycles.get(0))));
+        assertEquals(List.of("com.other.x", "com.other.y"), sorted(names(cycles.get(1))));
+        System.out.println("Verified the three-package cycle comes before the two-package one.");
+        System.out.println("✓ testCycles passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testLayerViolations() {
+        System.out.println("\n========================================");
+        System.out.println("Running testLayerViolations...");
+        System.out.println("========================================");
+        // The longest prefix decides: d and e are their own layers, the rest
+        // of com.company is the bottom one
+        String[] args = { "--plain", "--layers", "com.company.e,com.company.d,com.company" };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Output out = Output.to(bytes, args)) {
+            new DepsCommand().execute(args, index, out);
+        }
+        List<String> violations = new ArrayList<>();
+        for (String line : new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\\R")) {
+            if (line.startsWith("violation\t")) {
+                violations.add(line);
+            }
+        }
+        assertEquals(List.of("violation\tcom.company\tcom.company.e\t1\tRoot"), violations);
+        System.out.println("Verified only the dependency on a higher layer is reported: " + violations);
+        System.out.println("✓ testLayerViolations passed.");
+        System.out.println("========================================\n");
+    }
+
+    private int pkg(String name) {
+        for (int p = 0; p < graph.getPackageCount(); p++) {
+            if (graph.packageName(p).equals(name)) {
+                return p;
+            }
+        }
+        fail("no package " + name);
+        return -1;
+    }
+
+    private List<String> names(int[] packages) {
+        List<String> names = new ArrayList<>();
+        for (int p : packages) {
+            names.add(graph.packageName(p));
+        }
+        return names;
+    }
+
+    private static List<String> sorted(List<String> names) {
+        names.sort(null);
+        return names;
+    }
+
+    private void write(String path, String text) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
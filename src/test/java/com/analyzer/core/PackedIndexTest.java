@@ -0,0 +1,87 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteThenReadRoundTrip() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testWriteThenReadRoundTrip...");
+        System.out.println("========================================");
+        GenericList<ClassInfo> classes = MappedIndexTest.parseTestData();
+        for (PackedIndex.Compression compression : PackedIndex.Compression.values()) {
+            Path file = tempDir.resolve("index-" + compression + ".bin");
+            long written = PackedIndex.write(IndexSnapshot.of(1, classes, Parser.Mode.FULL), file, compression);
+            assertEquals(Files.size(file), written);
+            System.out.println(compression + ": wrote " + classes.size() + " classes in " + written + " bytes.");
+
+            assertTrue(PackedIndex.isPacked(file));
+            IndexSnapshot snapshot = PackedIndex.read(file);
+            assertEquals(Parser.Mode.FULL, snapshot.getParseMode());
+            MappedIndexTest.assertSameClasses(classes, snapshot.getClasses());
+            System.out.println("Verified every class reads back the same.");
+
+            Index index = Index.open(file);
+            assertEquals(classes.size(), index.snapshot().getClassCount());
+            System.out.println("Verified Index.open recognizes the dump.");
+        }
+
+        Path declarations = tempDir.resolve("declarations.bin");
+        PackedIndex.write(IndexSnapshot.of(1, classes, Parser.Mode.DECLARATIONS), declarations,
+                PackedIndex.Compression.GZIP);
+        assertEquals(Parser.Mode.DECLARATIONS, PackedIndex.read(declarations).getParseMode());
+        System.out.println("Verified the parse mode is stored in the dump.");
+        System.out.println("✓ testWriteThenReadRoundTrip passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testDamagedFileIsRejected() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testDamagedFileIsRejected...");
+        System.out.println("========================================");
+        Path file = tempDir.resolve("index.bin");
+        PackedIndex.write(IndexSnapshot.of(1, MappedIndexTest.parseTestData(), Parser.Mode.FULL), file,
+                PackedIndex.Compression.NONE);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = tempDir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> PackedIndex.read(truncated));
+        System.out.println("Verified a truncated dump fails with an IOException.");
+
+        Path other = tempDir.resolve("other.bin");
+        Files.write(other, "not an index".getBytes());
+        assertFalse(PackedIndex.isPacked(other));
+        assertThrows(IOException.class, () -> PackedIndex.read(other));
+        System.out.println("Verified a file without the magic number is not taken for a dump.");
+
+        // Magic number and version, then a parse mode of -1 as a five-byte varint
+        Path mode = tempDir.resolve("mode.bin");
+        Files.write(mode, new byte[] { 0x43, 0x41, 0x49, 0x50, 2, -1, -1, -1, -1, 0x0f, 0 });
+        assertThrows(IOException.class, () -> PackedIndex.read(mode));
+        System.out.println("Verified a negative parse mode is rejected.");
+
+        // One class whose name claims Integer.MAX_VALUE bytes but has three
+        Path length = tempDir.resolve("length.bin");
+        Files.write(length, new byte[] { 0x43, 0x41, 0x49, 0x50, 2, 0, 1, 0, -1, -1, -1, -1, 0x07, 'a', 'b', 'c' });
+        assertThrows(IOException.class, () -> PackedIndex.read(length));
+        System.out.println("Verified a string longer than the input fails with an IOException.");
+        System.out.println("✓ testDamagedFileIsRejected passed.");
+        System.out.println("========================================\n");
+    }
+}
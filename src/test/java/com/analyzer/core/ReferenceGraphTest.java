@@ -0,0 +1,169 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceGraphTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GenericList<ClassInfo> classes;
+    private ReferenceGraph graph;
+
+    @BeforeEach
+    public void indexFixture() throws IOException {
+        write("shop/Cart.java", "package shop;\n"
+                + "import java.util.List;\n"
+                + "public class Cart {\n"
+                + "    private List<Item> items;\n"
+                + "    public void add(Item item) {\n"
+                + "        items.add(item);\n"
+                + "        log();\n"
+                + "    }\n"
+                + "    public int total() {\n"
+                + "        int sum = 0;\n"
+                + "        for (Item item : items) {\n"
+                + "            if (item.price() > 0 && sum < 1000) {\n"
+                + "                sum += item.price();\n"
+                + "            }\n"
+                + "        }\n"
+                + "        return sum - discount();\n"
+                + "    }\n"
+                + "    private void log() { }\n"
+                + "    private int discount() { return 5; }\n"
+                + "}\n");
+        write("shop/Item.java", "package shop;\n"
+                + "public class Item {\n"
+                + "    public int price() { return 1; }\n"
+                + "}\n");
+        write("shop/Checkout.java", "package shop;\n"
+                + "public class Checkout {\n"
+                + "    public int pay(Cart cart) {\n"
+                + "        return cart.total() + new Item().price();\n"
+                + "    }\n"
+                + "}\n");
+        classes = new Parser().parse(new Scanner().scan(tempDir.toString()));
+        graph = new ReferenceGraph(classes);
+    }
+
+    @Test
+    public void testCallersAndCallees() {
+        System.out.println("\n========================================");
+        System.out.println("Running testCallersAndCallees...");
+        System.out.println("========================================");
+        assertEquals(3, classes.size());
+        assertEquals(6, graph.getMethodCount());
+
+        int[] total = graph.findMethods("Cart.total");
+        assertEquals(1, total.length);
+        assertEquals(List.of("discount", "price"), sorted(names(graph.callees(total[0]))));
+        assertEquals(List.of("add", "log"), sorted(names(graph.callees(graph.findMethods("add")[0]))));
+        System.out.println("Verified callees are the distinct names a method calls.");
+
+        assertEquals(List.of("Cart.total", "Checkout.pay"), sorted(methods(graph.callers(id("price")))));
+        assertEquals(List.of("Checkout.pay"), methods(graph.callers(id("total"))));
+        assertEquals(0, graph.callers(id("pay")).length);
+        assertEquals(0, graph.callers(id("neverDeclared")).length);
+        System.out.println("Verified callers resolve by method name.");
+
+        assertEquals(0, graph.findMethods("Item.total").length);
+        assertEquals(List.of("Item.price"), methods(graph.findMethods("shop.Item.price")));
+        System.out.println("Verified Class.name queries filter declarations by class.");
+        System.out.println("✓ testCallersAndCallees passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testTypeUsages() {
+        System.out.println("\n========================================");
+        System.out.println("Running testTypeUsages...");
+        System.out.println("========================================");
+        assertEquals(List.of("Cart", "Checkout"), sorted(classNames(graph.usages("Item"))));
+        assertEquals(List.of("Checkout"), classNames(graph.usages("shop.Cart")));
+        assertEquals(0, graph.usages("Checkout").length);
+        assertEquals(List.of("Item"), classNames(graph.classesNamed("shop.Item")));
+        System.out.println("Verified field, parameter, loop and creation types count as usages.");
+        System.out.println("✓ testTypeUsages passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testMethodMetrics() {
+        System.out.println("\n========================================");
+        System.out.println("Running testMethodMetrics...");
+        System.out.println("========================================");
+        MethodInfo total = method(graph.findMethods("Cart.total")[0]);
+        // 1 + for + if + &&
+        assertEquals(4, total.getComplexity());
+        assertEquals(2, total.getMaxNesting());
+        assertEquals(3, total.getCallSiteCount());
+        System.out.println("Verified complexity, nesting and call sites of a loop with a condition.");
+
+        MethodInfo pay = method(graph.findMethods("pay")[0]);
+        assertEquals(1, pay.getComplexity());
+        assertEquals(0, pay.getMaxNesting());
+        assertEquals(3, pay.getCallSiteCount());
+        assertEquals(0, method(graph.findMethods("log")[0]).getStatementCount());
+        System.out.println("Verified an object creation counts as a call site.");
+        System.out.println("✓ testMethodMetrics passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static int id(String name) {
+        return SymbolTable.global().intern(name);
+    }
+
+    private MethodInfo method(int row) {
+        return classes.get(graph.methodClass(row)).getMethods().get(graph.methodIndex(row));
+    }
+
+    private List<String> methods(int[] rows) {
+        List<String> result = new ArrayList<>();
+        for (int row : rows) {
+            result.add(classes.get(graph.methodClass(row)).getName() + "." + method(row).getName());
+        }
+        return result;
+    }
+
+    private List<String> classNames(int[] rows) {
+        List<String> result = new ArrayList<>();
+        for (int row : rows) {
+            result.add(classes.get(row).getName());
+        }
+        return result;
+    }
+
+    private static List<String> names(int[] ids) {
+        List<String> result = new ArrayList<>();
+        for (int id : ids) {
+            result.add(SymbolTable.global().get(id));
+        }
+        return result;
+    }
+
+    private static List<String> sorted(List<String> names) {
+        names.sort(null);
+        return names;
+    }
+
+    private void write(String path, String source) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    }
+}
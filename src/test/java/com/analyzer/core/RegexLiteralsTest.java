@@ -0,0 +1,112 @@
+package com.analyzer.core;
+
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegexLiteralsTest {
+
+    @Test
+    public void testPureLiteralsAreExact() {
+        System.out.println("\n========================================");
+        System.out.println("Running testPureLiteralsAreExact...");
+        System.out.println("========================================");
+        assertLiterals("ArrayList", true, "ArrayList");
+        System.out.println("Verified a plain word is its own exact literal.");
+        assertLiterals("\\.parse\\(", true, ".parse(");
+        System.out.println("Verified escaped punctuation stands for itself.");
+        assertLiterals("TODO|FIXME", true, "TODO", "FIXME");
+        System.out.println("Verified an alternation of literals is exact with one literal per branch.");
+        System.out.println("✓ testPureLiteralsAreExact passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testLongestRequiredRun() {
+        System.out.println("\n========================================");
+        System.out.println("Running testLongestRequiredRun...");
+        System.out.println("========================================");
+        assertLiterals("class\\s+\\w+\\s+extends", false, "extends");
+        System.out.println("Verified the longest run between escapes is required.");
+        assertLiterals("colou?r", false, "colo");
+        System.out.println("Verified an optional character ends the run before it.");
+        assertLiterals("x(ab|cd)yzw", false, "yzw");
+        System.out.println("Verified a nested alternation only ends a run.");
+        assertLiterals("ab+cdef", false, "cdef");
+        System.out.println("Verified a character repeated with + ends the run after it.");
+        System.out.println("✓ testLongestRequiredRun passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testEscapesAreSkippedWhole() {
+        System.out.println("\n========================================");
+        System.out.println("Running testEscapesAreSkippedWhole...");
+        System.out.println("========================================");
+        String[] regexes = { "\\x41rrayList", "\\x{41}rrayList", "\\u0041rrayList", "\\0101rrayList",
+                "\\cArrayList", "\\p{Lu}rrayList", "\\pLrrayList", "(A)\\1rrayList" };
+        for (String regex : regexes) {
+            assertLiterals(regex, false, "rrayList");
+            assertTrue(Pattern.compile(regex).matcher("\u0001rrayList ArrayList AArrayList").find(), regex);
+            System.out.println("Verified " + regex + " requires only the text after the escape.");
+        }
+        assertLiterals("\\k<word>abcd", false, "abcd");
+        System.out.println("Verified a named back reference is not taken for text.");
+        assertNull(RegexLiterals.of("TODO|\\x41BC"));
+        System.out.println("Verified an alternation with an escaped branch gives up.");
+        System.out.println("✓ testEscapesAreSkippedWhole passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testNothingWorthSearchingFor() {
+        System.out.println("\n========================================");
+        System.out.println("Running testNothingWorthSearchingFor...");
+        System.out.println("========================================");
+        String[] regexes = { "\\d+", "a+bc", "foo|ba.r", "TODO|", "(?i)todo", "\\Qa.b\\E", "[abc]+" };
+        for (String regex : regexes) {
+            assertNull(RegexLiterals.of(regex), regex);
+            System.out.println("Verified no literals for: " + regex);
+        }
+        System.out.println("✓ testNothingWorthSearchingFor passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testMatcherCountsEveryLiteral() {
+        System.out.println("\n========================================");
+        System.out.println("Running testMatcherCountsEveryLiteral...");
+        System.out.println("========================================");
+        byte[] text = "TODO: one FIXME two TODOTODO".getBytes(StandardCharsets.US_ASCII);
+        LiteralMatcher single = LiteralMatcher.of("TODO");
+        assertEquals(3, single.count(text, 0, text.length));
+        System.out.println("Verified one literal is counted without overlaps.");
+
+        LiteralMatcher both = LiteralMatcher.anyOf(RegexLiterals.of("TODO|FIXME").getLiterals());
+        assertEquals(4, both.count(text, 0, text.length));
+        System.out.println("Verified several literals are counted as the sum of each.");
+        int[] counts = new int[2];
+        both.countEach(text, 0, text.length, counts);
+        assertArrayEquals(new int[] { 3, 1 }, counts);
+        System.out.println("Verified countEach agrees per literal.");
+        assertEquals(10, both.find(text, 6, text.length));
+        System.out.println("Verified find returns the first of either literal.");
+        System.out.println("✓ testMatcherCountsEveryLiteral passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static void assertLiterals(String regex, boolean exact, String... expected) {
+        RegexLiterals found = RegexLiterals.of(regex);
+        assertNotNull(found, regex);
+        assertEquals(exact, found.isExact(), regex);
+        GenericList<String> literals = found.getLiterals();
+        assertEquals(expected.length, literals.size(), regex);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], literals.get(i), regex);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.analyzer.core;
+
+import com.analyzer.model.ClassInfo;
+import com.analyzer.model.MethodInfo;
+import com.analyzer.model.SymbolTable;
+import com.containers.GenericList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Two classes (documents 0 and 1), then Store's 150 methods (documents
+    // 2 to 151). "needle" is in m0 once, m1 three times and m149 once, next
+    // to 20 "filler"s; "haystack" is in m140 300 times, every other method
+    // has one "filler".
+    private static GenericList<ClassInfo> corpus() {
+        ClassInfo store = new ClassInfo("Store", "shop", "Store.java");
+        store.setTerms(ids("store"), new int[] { 1 });
+        for (int i = 0; i < 150; i++) {
+            MethodInfo m = new MethodInfo("m" + i, "void", 1, i + 1);
+            if (i == 0) {
+                m.setTerms(ids("needle", "filler"), new int[] { 1, 1 });
+            } else if (i == 1) {
+                m.setTerms(ids("needle", "filler"), new int[] { 3, 1 });
+            } else if (i == 140) {
+                m.setTerms(ids("haystack"), new int[] { 300 });
+            } else if (i == 149) {
+                m.setTerms(ids("needle", "filler"), new int[] { 1, 20 });
+            } else {
+                m.setTerms(ids("filler"), new int[] { 1 });
+            }
+            store.addMethod(m);
+        }
+        ClassInfo other = new ClassInfo("Other", "shop", "Other.java");
+        other.setTerms(ids("other"), new int[] { 1 });
+        GenericList<ClassInfo> classes = new GenericList<>();
+        classes.add(store);
+        classes.add(other);
+        return classes;
+    }
+
+    @Test
+    public void testPostingsEncoding() {
+        System.out.println("\n========================================");
+        System.out.println("Running testPostingsEncoding...");
+        System.out.println("========================================");
+        SearchIndex index = new SearchIndex(corpus());
+        assertEquals(152, index.getDocumentCount());
+        assertEquals(5, index.getTermCount());
+        assertTrue(index.isClass(1));
+        assertFalse(index.isClass(2));
+        assertEquals(0, index.row(2));
+        System.out.println("Verified classes are numbered before methods.");
+
+        // Documents 2, 3 and 151 as gaps 2, 1 and 148; 148 takes two bytes
+        int needle = row(index, "needle");
+        assertEquals(3, index.documentFrequency(needle));
+        assertArrayEquals(new byte[] { 2, 1, 1, 3, (byte) 0x94, 0x01, 1 }, postings(index, needle));
+        System.out.println("Verified gaps and frequencies are varints, one byte when under 128.");
+
+        // Document 142 with frequency 300
+        int haystack = row(index, "haystack");
+        assertArrayEquals(new byte[] { (byte) 0x8e, 0x01, (byte) 0xac, 0x02 }, postings(index, haystack));
+        assertEquals(300, index.documentLength(142));
+        assertEquals(21, index.documentLength(151));
+        System.out.println("Verified multi-byte frequencies and document lengths.");
+        System.out.println("✓ testPostingsEncoding passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testBm25Ordering() {
+        System.out.println("\n========================================");
+        System.out.println("Running testBm25Ordering...");
+        System.out.println("========================================");
+        SearchIndex index = new SearchIndex(corpus());
+
+        SearchIndex.Hits hits = index.search("needle", 10, true, true);
+        assertEquals(3, hits.getMatchedCount());
+        assertArrayEquals(new int[] { 3, 2, 151 }, documents(hits));
+        assertTrue(hits.score(0) > hits.score(1) && hits.score(1) > hits.score(2));
+        System.out.println("Verified more occurrences rank higher and longer documents lower.");
+
+        assertEquals(2, index.search("needle", 2, true, true).size());
+        assertEquals(0, index.search("needle", 10, true, false).size());
+        assertArrayEquals(new int[] { 0 }, documents(index.search("Store needle", 10, true, false)));
+        assertEquals(0, index.search("missing", 10, true, true).getMatchedCount());
+        System.out.println("Verified k, the class and method filters and unknown words.");
+
+        // The rare term outweighs the common one
+        hits = index.search("needle filler", 1, false, true);
+        assertEquals(3, hits.document(0));
+        assertEquals(149, hits.getMatchedCount());
+        System.out.println("Verified rarer terms weigh more.");
+        System.out.println("✓ testBm25Ordering passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testMappedRoundTrip() throws IOException {
+        System.out.println("\n========================================");
+        System.out.println("Running testMappedRoundTrip...");
+        System.out.println("========================================");
+        GenericList<ClassInfo> classes = corpus();
+        SearchIndex built = new SearchIndex(classes);
+        Path file = tempDir.resolve("search.idx");
+        MappedIndex.write(IndexSnapshot.of(1, classes, Parser.Mode.FULL), file);
+        SearchIndex mapped = new SearchIndex(MappedIndex.open(file));
+
+        assertEquals(built.getDocumentCount(), mapped.getDocumentCount());
+        assertEquals(built.getTermCount(), mapped.getTermCount());
+        assertEquals(built.getPostingBytes(), mapped.getPostingBytes());
+        for (String term : new String[] { "store", "other", "needle", "filler", "haystack" }) {
+            assertArrayEquals(postings(built, row(built, term)), postings(mapped, row(mapped, term)), term);
+        }
+        System.out.println("Verified the mapped postings are the built ones, byte for byte.");
+
+        for (String query : new String[] { "needle", "needle filler", "haystack store" }) {
+            SearchIndex.Hits a = built.search(query, 10, true, true);
+            SearchIndex.Hits b = mapped.search(query, 10, true, true);
+            assertArrayEquals(documents(a), documents(b), query);
+            for (int i = 0; i < a.size(); i++) {
+                assertEquals(a.score(i), b.score(i), query);
+            }
+        }
+        System.out.println("Verified searches rank and score alike on the mapped index.");
+        System.out.println("✓ testMappedRoundTrip passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static int[] ids(String... terms) {
+        int[] ids = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            ids[i] = SymbolTable.global().intern(terms[i]);
+        }
+        return ids;
+    }
+
+    private static int row(SearchIndex index, String term) {
+        int id = SymbolTable.global().lookup(term);
+        for (int row = 0; row < index.getTermCount(); row++) {
+            if (index.termNameId(row) == id) {
+                return row;
+            }
+        }
+        throw new AssertionError("No term " + term);
+    }
+
+    private static byte[] postings(SearchIndex index, int row) {
+        ByteBuffer bytes = index.postingBytes();
+        int start = index.postingOffset(row);
+        int end = index.postingOffset(row + 1);
+        byte[] result = new byte[end - start];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bytes.get(start + i);
+        }
+        return result;
+    }
+
+    private static int[] documents(SearchIndex.Hits hits) {
+        int[] documents = new int[hits.size()];
+        for (int i = 0; i < documents.length; i++) {
+            documents[i] = hits.document(i);
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,152 @@
+package com.analyzer.query;
+
+import com.analyzer.core.ColumnarIndex;
+import com.analyzer.core.Parser;
+import com.analyzer.core.Scanner;
+import com.analyzer.model.ClassInfo;
+import com.containers.GenericList;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryTest {
+    private static ColumnarIndex columns;
+
+    // The analyzer's own sources: enough methods for the planner's choices
+    // to differ
+    @BeforeAll
+    public static void parseSources() {
+        GenericList<ClassInfo> classes = new Parser().parse(new Scanner().scan("src/main/java"));
+        assertFalse(classes.isEmpty(), "src/main/java should contain classes");
+        columns = new ColumnarIndex(classes);
+    }
+
+    @Test
+    public void testParse() {
+        System.out.println("\n========================================");
+        System.out.println("Running testParse...");
+        System.out.println("========================================");
+        Query query = QueryParser.parse("explain methods where loc > 5 and not params = 0 order by loc desc limit 3");
+        assertTrue(query.isExplain());
+        assertEquals("methods", query.getSource());
+        assertNotNull(query.getWhere());
+        assertEquals("loc", query.getOrderBy());
+        assertTrue(query.isDescending());
+        assertEquals(3, query.getLimit());
+        System.out.println("Verified every clause of a full query is read.");
+
+        Query bare = QueryParser.parse("classes");
+        assertNull(bare.getWhere());
+        assertNull(bare.getOrderBy());
+        assertEquals(-1, bare.getLimit());
+        System.out.println("Verified a bare table name has no where, order or limit.");
+        System.out.println("✓ testParse passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testParseErrors() {
+        System.out.println("\n========================================");
+        System.out.println("Running testParseErrors...");
+        System.out.println("========================================");
+        String[] invalid = { "methods limit 99999999999", "methods limit -1", "methods where", "methods where loc ! 3",
+                "methods order loc", "methods where (loc > 3", "methods limit 3 extra" };
+        for (String text : invalid) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> QueryParser.parse(text),
+                    text);
+            System.out.println("Rejected \"" + text + "\": " + e.getMessage());
+        }
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("methods limit 99999999999"))
+                .getMessage().contains("too large"));
+        System.out.println("Verified an out-of-range limit is a parse error, not a NumberFormatException.");
+
+        Query unknownColumn = QueryParser.parse("methods where size > 3");
+        assertThrows(IllegalArgumentException.class, () -> plan(unknownColumn));
+        Query textAsNumber = QueryParser.parse("methods where loc > 'x'");
+        assertThrows(IllegalArgumentException.class, () -> plan(textAsNumber));
+        System.out.println("Verified unknown columns and mistyped literals fail when planned.");
+        System.out.println("✓ testParseErrors passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testPlanChoices() {
+        System.out.println("\n========================================");
+        System.out.println("Running testPlanChoices...");
+        System.out.println("========================================");
+        int maxLoc = 0;
+        for (int loc : columns.methodLocs()) {
+            maxLoc = Math.max(maxLoc, loc);
+        }
+
+        List<String> range = explain("methods where loc >= " + maxLoc + " and params >= 0");
+        assertTrue(range.get(0).startsWith("Index range on loc"), range.toString());
+        System.out.println("Selective comparison uses the index range: " + range);
+
+        List<String> walk = explain("methods order by loc desc limit 5");
+        assertTrue(walk.get(0).startsWith("Walk index on loc desc"), walk.toString());
+        assertTrue(walk.contains("Stop after 5 rows"), walk.toString());
+        System.out.println("Order by with a limit walks the index: " + walk);
+
+        List<String> scan = explain("methods where name like '*a*' order by loc desc");
+        assertTrue(scan.get(0).startsWith("Full scan of"), scan.toString());
+        assertTrue(scan.contains("Heap sort by loc desc"), scan.toString());
+        System.out.println("A text filter without a limit scans and sorts: " + scan);
+
+        List<String> top = explain("methods where loc >= 0 order by params desc limit 2");
+        assertTrue(top.get(0).startsWith("Walk index on params desc"), top.toString());
+        System.out.println("An unselective range leaves the walk on the order column: " + top);
+        System.out.println("✓ testPlanChoices passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testResultsMatchBruteForce() {
+        System.out.println("\n========================================");
+        System.out.println("Running testResultsMatchBruteForce...");
+        System.out.println("========================================");
+        int[] locs = columns.methodLocs();
+        int[] params = columns.methodParamCounts();
+        for (int bound : new int[] { 0, 3, 10, 40 }) {
+            for (int limit : new int[] { -1, 0, 1, 7 }) {
+                String text = "methods where loc >= " + bound + " and params <= 2 order by loc desc"
+                        + (limit >= 0 ? " limit " + limit : "");
+                QueryPlan plan = plan(QueryParser.parse(text));
+                QueryPlan.Result result = plan.execute();
+
+                List<Integer> expected = new ArrayList<>();
+                for (int row = 0; row < locs.length; row++) {
+                    if (locs[row] >= bound && params[row] <= 2) {
+                        expected.add(locs[row]);
+                    }
+                }
+                expected.sort((a, b) -> Integer.compare(b, a));
+                if (limit >= 0 && expected.size() > limit) {
+                    expected = expected.subList(0, limit);
+                }
+                List<Integer> actual = new ArrayList<>();
+                for (int i = 0; i < result.size(); i++) {
+                    int row = result.row(i);
+                    assertTrue(locs[row] >= bound && params[row] <= 2, text);
+                    actual.add(locs[row]);
+                }
+                assertEquals(expected, actual, text + " planned as " + plan.explain());
+            }
+        }
+        System.out.println("Verified 16 filtered, ordered and limited queries against a plain loop.");
+        System.out.println("✓ testResultsMatchBruteForce passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static QueryPlan plan(Query query) {
+        return QueryPlanner.plan(query, QueryTable.of(query.getSource(), columns));
+    }
+
+    private static List<String> explain(String text) {
+        return plan(QueryParser.parse(text)).explain();
+    }
+}
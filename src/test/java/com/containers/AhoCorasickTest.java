@@ -0,0 +1,181 @@
+package com.containers;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class AhoCorasickTest {
+
+    @Test
+    public void testFindOverlappingPatterns() {
+        System.out.println("\n========================================");
+        System.out.println("Running testFindOverlappingPatterns...");
+        System.out.println("========================================");
+        AhoCorasick ac = automaton("he", "she", "his", "hers");
+        System.out.println("Built automaton for: he, she, his, hers");
+
+        assertEquals(4, ac.patternCount());
+        System.out.println("Verified pattern count is 4.");
+        byte[] text = bytes("ushers");
+        assertEquals(1, ac.find(text, 0, text.length));
+        System.out.println("Verified first match in 'ushers' starts at 1 ('she' ends first).");
+        assertEquals(2, ac.find(text, 2, text.length));
+        System.out.println("Verified searching from 2 finds 'he' at 2.");
+        assertEquals(-1, ac.find(text, 0, 2));
+        System.out.println("Verified no match inside 'us'.");
+        assertEquals(-1, ac.find(bytes("nothing here? no"), 0, 9));
+        System.out.println("Verified no match in a text without any pattern.");
+        System.out.println("✓ testFindOverlappingPatterns passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testCountPerPattern() {
+        System.out.println("\n========================================");
+        System.out.println("Running testCountPerPattern...");
+        System.out.println("========================================");
+        AhoCorasick ac = automaton("he", "she", "his", "hers");
+        int[] counts = new int[4];
+        byte[] text = bytes("ushers and his hershey");
+        ac.count(text, 0, text.length, counts);
+        System.out.println("Counts in 'ushers and his hershey': " + Arrays.toString(counts));
+
+        assertArrayEquals(new int[] { 3, 2, 1, 2 }, counts);
+        System.out.println("Verified he=3, she=2, his=1, hers=2 (patterns counted independently).");
+        System.out.println("✓ testCountPerPattern passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testCountIsNonOverlappingLikeIndexOf() {
+        System.out.println("\n========================================");
+        System.out.println("Running testCountIsNonOverlappingLikeIndexOf...");
+        System.out.println("========================================");
+        AhoCorasick ac = automaton("aa", "aaa", "a");
+        int[] counts = new int[3];
+        byte[] text = bytes("aaaaa");
+        ac.count(text, 0, text.length, counts);
+        System.out.println("Counts in 'aaaaa': " + Arrays.toString(counts));
+
+        assertArrayEquals(new int[] { 2, 1, 5 }, counts);
+        System.out.println("Verified aa=2, aaa=1, a=5, as indexOf skipping past each match would count.");
+        System.out.println("✓ testCountIsNonOverlappingLikeIndexOf passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testDuplicatePatterns() {
+        System.out.println("\n========================================");
+        System.out.println("Running testDuplicatePatterns...");
+        System.out.println("========================================");
+        AhoCorasick ac = automaton("if", "for", "if");
+        System.out.println("Built automaton for: if, for, if");
+        int[] counts = new int[3];
+        byte[] text = bytes("if (x) for (;;) if (y)");
+        ac.count(text, 0, text.length, counts);
+        System.out.println("Counts: " + Arrays.toString(counts));
+
+        assertArrayEquals(new int[] { 2, 1, 2 }, counts);
+        System.out.println("Verified both copies of 'if' are counted.");
+        System.out.println("✓ testDuplicatePatterns passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testHighBytes() {
+        System.out.println("\n========================================");
+        System.out.println("Running testHighBytes...");
+        System.out.println("========================================");
+        AhoCorasick ac = automaton("größe", "ß");
+        byte[] text = bytes("die größe");
+        int[] counts = new int[2];
+        ac.count(text, 0, text.length, counts);
+        System.out.println("Counts in UTF-8 'die größe': " + Arrays.toString(counts));
+
+        assertArrayEquals(new int[] { 1, 1 }, counts);
+        System.out.println("Verified multi-byte patterns match.");
+        assertEquals(8, ac.find(text, 0, text.length));
+        System.out.println("Verified first match is 'ß' at byte offset 8 (it ends before 'größe').");
+        System.out.println("✓ testHighBytes passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testMatchesIndexOfOnRandomText() {
+        System.out.println("\n========================================");
+        System.out.println("Running testMatchesIndexOfOnRandomText...");
+        System.out.println("========================================");
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            String[] patterns = new String[1 + random.nextInt(6)];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = randomString(random, 1 + random.nextInt(4));
+            }
+            String text = randomString(random, random.nextInt(300));
+            AhoCorasick ac = automaton(patterns);
+
+            int[] counts = new int[patterns.length];
+            byte[] bytes = bytes(text);
+            ac.count(bytes, 0, bytes.length, counts);
+            int firstEnd = Integer.MAX_VALUE;
+            for (int i = 0; i < patterns.length; i++) {
+                int expected = 0;
+                int at = text.indexOf(patterns[i]);
+                if (at >= 0) {
+                    firstEnd = Math.min(firstEnd, at + patterns[i].length());
+                }
+                while (at >= 0) {
+                    expected++;
+                    at = text.indexOf(patterns[i], at + patterns[i].length());
+                }
+                assertEquals(expected, counts[i], "pattern " + patterns[i] + " in " + text);
+            }
+            int found = ac.find(bytes, 0, bytes.length);
+            if (firstEnd == Integer.MAX_VALUE) {
+                assertEquals(-1, found);
+            } else {
+                assertTrue(found >= 0 && found < firstEnd, "find in " + text);
+            }
+        }
+        System.out.println("Verified counts and first match against indexOf over 200 random cases.");
+        System.out.println("✓ testMatchesIndexOfOnRandomText passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testEmptyPatternRejected() {
+        System.out.println("\n========================================");
+        System.out.println("Running testEmptyPatternRejected...");
+        System.out.println("========================================");
+        assertThrows(IllegalArgumentException.class, () -> automaton("ok", ""));
+        System.out.println("Verified an empty pattern throws IllegalArgumentException.");
+        AhoCorasick none = automaton();
+        assertEquals(-1, none.find(bytes("abc"), 0, 3));
+        System.out.println("Verified an automaton without patterns finds nothing.");
+        System.out.println("✓ testEmptyPatternRejected passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static AhoCorasick automaton(String... patterns) {
+        GenericList<byte[]> list = new GenericList<>();
+        for (String p : patterns) {
+            list.add(bytes(p));
+        }
+        return new AhoCorasick(list);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+}
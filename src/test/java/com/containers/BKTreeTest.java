@@ -0,0 +1,81 @@
+package com.containers;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BKTreeTest {
+
+    @Test
+    public void testDistance() {
+        System.out.println("\n========================================");
+        System.out.println("Running testDistance...");
+        System.out.println("========================================");
+        assertEquals(0, BKTree.distance("index", "index"));
+        System.out.println("distance(index, index) = 0");
+        assertEquals(3, BKTree.distance("kitten", "sitting"));
+        System.out.println("distance(kitten, sitting) = 3");
+        assertEquals(5, BKTree.distance("", "stack"));
+        System.out.println("distance(\"\", stack) = 5");
+        assertEquals(2, BKTree.distance("Parser", "Parsre"));
+        System.out.println("distance(Parser, Parsre) = 2");
+        System.out.println("✓ testDistance passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testEmptyTree() {
+        System.out.println("\n========================================");
+        System.out.println("Running testEmptyTree...");
+        System.out.println("========================================");
+        BKTree<Integer> t = new BKTree<>();
+        assertTrue(t.isEmpty());
+        System.out.println("Verified tree is empty.");
+        assertTrue(t.search("anything", 3).isEmpty());
+        System.out.println("Verified search on empty tree returns nothing.");
+        System.out.println("✓ testEmptyTree passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testSearchOrdersByDistance() {
+        System.out.println("\n========================================");
+        System.out.println("Running testSearchOrdersByDistance...");
+        System.out.println("========================================");
+        BKTree<Integer> t = new BKTree<>();
+        String[] words = { "book", "books", "cake", "boo", "boon", "cook", "cape", "cart" };
+        for (int i = 0; i < words.length; i++) {
+            t.add(words[i], i);
+            System.out.println("Added: " + words[i] + "=" + i);
+        }
+        t.add("book", 99);
+        System.out.println("Added: book=99 (second value on an existing key)");
+        assertEquals(8, t.size());
+        System.out.println("Verified tree size is 8 distinct keys.");
+
+        GenericList<BKTree.Match<Integer>> near = t.search("book", 1);
+        System.out.println("Search 'book' within 1: " + near);
+        assertEquals("[book(0), boo(1), books(1), boon(1), cook(1)]", join(near));
+        assertEquals("[0, 99]", join(near.get(0).getValues()));
+        System.out.println("Verified exact match carries both values.");
+
+        GenericList<BKTree.Match<Integer>> exact = t.search("cape", 0);
+        System.out.println("Search 'cape' within 0: " + exact);
+        assertEquals(1, exact.size());
+        assertEquals("cape", exact.get(0).getKey());
+
+        assertTrue(t.search("zzzzzz", 2).isEmpty());
+        System.out.println("Verified distant query matches nothing.");
+        System.out.println("✓ testSearchOrdersByDistance passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static String join(GenericList<?> list) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(list.get(i));
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,233 @@
+package com.containers;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class CacheTest {
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        System.out.println("\n========================================");
+        System.out.println("Running testLruEvictsLeastRecentlyUsed...");
+        System.out.println("========================================");
+        Cache<String, Integer> cache = new Cache<>(3, Cache.Policy.LRU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        System.out.println("Put a, b, c into a cache of 3 entries.");
+
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        System.out.println("Used 'a' again, so 'b' is now the least recently used.");
+        cache.put("d", 4);
+        System.out.println("Put 'd'.");
+
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("a"));
+        assertTrue(cache.containsKey("c"));
+        assertTrue(cache.containsKey("d"));
+        assertEquals(3, cache.size());
+        System.out.println("Verified 'b' was evicted and a, c, d remain.");
+        System.out.println("✓ testLruEvictsLeastRecentlyUsed passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testWeightedCapacity() {
+        System.out.println("\n========================================");
+        System.out.println("Running testWeightedCapacity...");
+        System.out.println("========================================");
+        Cache<String, String> cache = new Cache<>(10, Cache.Policy.LRU, String::length);
+        cache.put("one", "aaaa");
+        cache.put("two", "bbbb");
+        System.out.println("Put two values of weight 4 into a capacity of 10.");
+        assertEquals(8, cache.weight());
+
+        cache.put("three", "cccccc");
+        System.out.println("Put a value of weight 6.");
+        assertEquals(2, cache.size());
+        assertFalse(cache.containsKey("one"));
+        assertEquals(10, cache.weight());
+        System.out.println("Verified only 'one' had to go; weight is now 10.");
+
+        cache.put("big", "xxxxxxxxxxx");
+        assertFalse(cache.containsKey("big"));
+        assertEquals(2, cache.size());
+        System.out.println("Verified a value heavier than the whole capacity is not kept.");
+
+        cache.put("two", "b");
+        assertEquals(7, cache.weight());
+        System.out.println("Verified replacing a value re-weighs it (weight now 7).");
+
+        cache.put("four", "dddddddddd");
+        assertEquals(1, cache.size());
+        assertEquals(10, cache.weight());
+        System.out.println("Verified a value of the full capacity evicts everything else.");
+        System.out.println("✓ testWeightedCapacity passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testStats() {
+        System.out.println("\n========================================");
+        System.out.println("Running testStats...");
+        System.out.println("========================================");
+        Cache<Integer, Integer> cache = new Cache<>(2, Cache.Policy.LRU);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+        cache.put(3, 3);
+        Cache.Stats stats = cache.getStats();
+        System.out.println("Stats: " + stats);
+
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+        System.out.println("Verified 2 hits, 1 miss, 1 eviction.");
+        assertTrue(cache.containsKey(2));
+        assertEquals(2, cache.getStats().getHits());
+        System.out.println("Verified containsKey does not count as a hit.");
+        System.out.println("✓ testStats passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testRemoveClearAndForEach() {
+        System.out.println("\n========================================");
+        System.out.println("Running testRemoveClearAndForEach...");
+        System.out.println("========================================");
+        Cache<String, Integer> cache = new Cache<>(100, Cache.Policy.TINY_LFU, v -> v);
+        cache.put("a", 10);
+        cache.put("b", 20);
+        cache.put("c", 30);
+
+        int[] sum = { 0 };
+        cache.forEach((k, v) -> sum[0] += v);
+        assertEquals(60, sum[0]);
+        System.out.println("Verified forEach visits all values (sum 60).");
+
+        assertEquals(Integer.valueOf(20), cache.remove("b"));
+        assertNull(cache.remove("b"));
+        assertEquals(40, cache.weight());
+        System.out.println("Verified remove returns the value once and updates the weight.");
+
+        cache.clear();
+        assertTrue(cache.isEmpty());
+        assertEquals(0, cache.weight());
+        assertNull(cache.get("a"));
+        System.out.println("Verified clear empties the cache.");
+        System.out.println("✓ testRemoveClearAndForEach passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testTinyLfuKeepsHotEntriesThroughScan() {
+        System.out.println("\n========================================");
+        System.out.println("Running testTinyLfuKeepsHotEntriesThroughScan...");
+        System.out.println("========================================");
+        Cache<Integer, Integer> lru = new Cache<>(100, Cache.Policy.LRU);
+        Cache<Integer, Integer> tinyLfu = new Cache<>(100, Cache.Policy.TINY_LFU);
+        for (int c = 0; c < 2; c++) {
+            Cache<Integer, Integer> cache = c == 0 ? lru : tinyLfu;
+            // A hot set of 50 keys, each used many times
+            for (int round = 0; round < 5; round++) {
+                for (int key = 0; key < 50; key++) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+            }
+            // Then a scan over 1000 keys used once
+            for (int key = 1000; key < 2000; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        int lruHot = countPresent(lru, 0, 50);
+        int tinyLfuHot = countPresent(tinyLfu, 0, 50);
+        System.out.println("Hot keys left after the scan: LRU " + lruHot + ", W-TinyLFU " + tinyLfuHot);
+
+        assertEquals(0, lruHot);
+        System.out.println("Verified LRU lost the whole hot set.");
+        // The sketch is approximate, so a hot key sitting in probation can
+        // occasionally lose to a scan key; nearly all must survive
+        assertTrue(tinyLfuHot >= 45, "hot keys kept: " + tinyLfuHot);
+        System.out.println("Verified W-TinyLFU kept nearly all of the hot set.");
+        assertTrue(tinyLfu.size() <= 100);
+        System.out.println("Verified W-TinyLFU stayed within capacity (" + tinyLfu.size() + " entries).");
+        System.out.println("✓ testTinyLfuKeepsHotEntriesThroughScan passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testTinyLfuAdmitsNewPopularEntries() {
+        System.out.println("\n========================================");
+        System.out.println("Running testTinyLfuAdmitsNewPopularEntries...");
+        System.out.println("========================================");
+        Cache<Integer, Integer> cache = new Cache<>(50, Cache.Policy.TINY_LFU);
+        for (int key = 0; key < 50; key++) {
+            cache.put(key, key);
+        }
+        System.out.println("Filled the cache with 50 keys used once.");
+        // A new key requested often enough displaces one of them
+        for (int i = 0; i < 5; i++) {
+            if (cache.get(999) == null) {
+                cache.put(999, 999);
+            }
+        }
+        for (int key = 2000; key < 2010; key++) {
+            cache.put(key, key);
+        }
+        assertTrue(cache.containsKey(999));
+        System.out.println("Verified a frequently requested new key got past the window into the main space.");
+        assertTrue(cache.size() <= 50);
+        System.out.println("✓ testTinyLfuAdmitsNewPopularEntries passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testWeightStaysWithinCapacityUnderRandomUse() {
+        System.out.println("\n========================================");
+        System.out.println("Running testWeightStaysWithinCapacityUnderRandomUse...");
+        System.out.println("========================================");
+        for (Cache.Policy policy : Cache.Policy.values()) {
+            Cache<Integer, int[]> cache = new Cache<>(500, policy, v -> v.length);
+            Random random = new Random(42);
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(300);
+                int op = random.nextInt(10);
+                if (op < 6) {
+                    cache.get(key);
+                } else if (op < 9) {
+                    cache.put(key, new int[random.nextInt(60)]);
+                } else {
+                    cache.remove(key);
+                }
+                assertTrue(cache.weight() <= 500, "weight " + cache.weight());
+            }
+            long[] total = { 0 };
+            cache.forEach((k, v) -> total[0] += v.length);
+            assertEquals(total[0], cache.weight());
+            System.out.println(policy + ": " + cache.size() + " entries, weight " + cache.weight() + "; "
+                    + cache.getStats());
+        }
+        System.out.println("Verified both policies keep the weight within capacity and consistent.");
+        System.out.println("✓ testWeightStaysWithinCapacityUnderRandomUse passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static int countPresent(Cache<Integer, Integer> cache, int from, int to) {
+        int n = 0;
+        for (int key = from; key < to; key++) {
+            if (cache.containsKey(key)) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,96 @@
+package com.containers;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConcurrentCacheTest {
+
+    @Test
+    public void testStripesShareCapacity() {
+        System.out.println("\n========================================");
+        System.out.println("Running testStripesShareCapacity...");
+        System.out.println("========================================");
+        ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(100, Cache.Policy.LRU, null, 3);
+        System.out.println("Asked for 3 stripes, got " + cache.stripeCount());
+
+        assertEquals(4, cache.stripeCount());
+        System.out.println("Verified the stripe count is rounded up to a power of two.");
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertEquals(100, cache.capacity());
+        assertTrue(cache.size() <= 100);
+        assertEquals(cache.size(), cache.weight());
+        System.out.println("Verified 1000 puts leave at most 100 entries (" + cache.size() + ").");
+
+        assertEquals("v999", cache.get(999));
+        assertEquals("v999", cache.remove(999));
+        assertFalse(cache.containsKey(999));
+        System.out.println("Verified get, remove and containsKey route to the key's stripe.");
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        System.out.println("Verified clear empties every stripe.");
+        System.out.println("✓ testStripesShareCapacity passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testConcurrentUse() throws InterruptedException {
+        System.out.println("\n========================================");
+        System.out.println("Running testConcurrentUse...");
+        System.out.println("========================================");
+        ConcurrentCache<Integer, int[]> cache = new ConcurrentCache<>(8192, Cache.Policy.TINY_LFU, v -> v.length, 8);
+        int threadCount = 4;
+        int operations = 20000;
+        AtomicLong gets = new AtomicLong();
+        Thread[] threads = new Thread[threadCount];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threadCount; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    for (int i = 0; i < operations; i++) {
+                        // Skewed keys: low ones are requested far more often
+                        int key = (int) Math.abs(random.nextGaussian() * 200);
+                        int[] value = cache.get(key);
+                        gets.incrementAndGet();
+                        if (value == null) {
+                            cache.put(key, new int[1 + key % 64]);
+                        } else {
+                            assertEquals(1 + key % 64, value.length);
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure[0], () -> "Worker failed: " + failure[0]);
+        System.out.println("Ran " + threadCount + " threads of " + operations + " get-or-put operations.");
+
+        Cache.Stats stats = cache.getStats();
+        System.out.println("Stats: " + stats + "; weight " + cache.weight() + " of " + cache.capacity());
+        assertEquals(gets.get(), stats.getHits() + stats.getMisses());
+        System.out.println("Verified every get was counted once as a hit or a miss.");
+        assertTrue(cache.weight() <= cache.capacity());
+        long[] total = { 0 };
+        cache.forEach((k, v) -> total[0] += v.length);
+        assertEquals(total[0], cache.weight());
+        System.out.println("Verified the weight stays within capacity and matches the entries.");
+        assertTrue(stats.getHitRate() > 0.5);
+        System.out.println("Verified skewed requests mostly hit.");
+        System.out.println("✓ testConcurrentUse passed.");
+        System.out.println("========================================\n");
+    }
+}
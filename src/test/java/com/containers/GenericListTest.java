@@ -164,4 +164,37 @@ public class GenericListTest {
         System.out.println("✓ testPeekRemoveEmptyBehaviour passed.");
         System.out.println("========================================\n");
     }
+
+    @Test
+    public void testReadOnlyView() {
+        System.out.println("\n========================================");
+        System.out.println("Running testReadOnlyView...");
+        System.out.println("========================================");
+        GenericList<Integer> list = new GenericList<>();
+        list.add(3);
+        list.add(1);
+        list.add(2);
+        GenericList<Integer> view = list.readOnly();
+        System.out.println("Created read-only view: " + view);
+
+        assertEquals(3, view.size());
+        assertEquals(Integer.valueOf(1), view.get(1));
+        assertTrue(view.contains(2));
+        assertEquals(2, view.filter(x -> x > 1).size());
+        System.out.println("Verified reads and filter work on the view.");
+
+        assertThrows(UnsupportedOperationException.class, () -> view.add(4));
+        assertThrows(UnsupportedOperationException.class, () -> view.addFirst(4));
+        assertThrows(UnsupportedOperationException.class, view::remove);
+        assertThrows(UnsupportedOperationException.class, () -> view.removeAt(0));
+        assertThrows(UnsupportedOperationException.class, () -> view.update(0, 9));
+        assertThrows(UnsupportedOperationException.class, () -> view.sort(null));
+        assertThrows(UnsupportedOperationException.class, view::clear);
+        System.out.println("Verified every change to the view throws UnsupportedOperationException.");
+        assertEquals(3, view.size());
+        assertEquals(Integer.valueOf(3), view.get(0));
+        System.out.println("Verified the failed changes left the view untouched.");
+        System.out.println("✓ testReadOnlyView passed.");
+        System.out.println("========================================\n");
+    }
 }
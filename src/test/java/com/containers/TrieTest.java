@@ -0,0 +1,102 @@
+package com.containers;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrieTest {
+
+    @Test
+    public void testEmptyTrie() {
+        System.out.println("\n========================================");
+        System.out.println("Running testEmptyTrie...");
+        System.out.println("========================================");
+        Trie<Integer> t = new Trie<>();
+        System.out.println("Created new Trie.");
+
+        assertTrue(t.isEmpty());
+        System.out.println("Verified trie is empty.");
+        assertEquals(0, t.size());
+        System.out.println("Verified trie size is 0.");
+        assertTrue(t.get("missing").isEmpty());
+        System.out.println("Verified get on a missing key returns an empty list.");
+        assertTrue(t.keysWithPrefix("", 10).isEmpty());
+        System.out.println("Verified prefix query on empty trie returns nothing.");
+        System.out.println("✓ testEmptyTrie passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testPutAndGetWithSplits() {
+        System.out.println("\n========================================");
+        System.out.println("Running testPutAndGetWithSplits...");
+        System.out.println("========================================");
+        Trie<Integer> t = new Trie<>();
+        t.put("parse", 1);
+        System.out.println("Put: parse=1");
+        t.put("parser", 2);
+        System.out.println("Put: parser=2");
+        t.put("part", 3);
+        System.out.println("Put: part=3 (splits the 'parse' edge)");
+        t.put("p", 4);
+        System.out.println("Put: p=4");
+        t.put("parse", 5);
+        System.out.println("Put: parse=5 (second value on an existing key)");
+
+        assertEquals(4, t.size());
+        System.out.println("Verified trie size is 4 distinct keys.");
+        assertEquals("[1, 5]", join(t.get("parse")));
+        System.out.println("Get parse: " + t.get("parse"));
+        assertEquals("[2]", join(t.get("parser")));
+        assertEquals("[3]", join(t.get("part")));
+        assertEquals("[4]", join(t.get("p")));
+        System.out.println("Verified parser, part and p.");
+        assertTrue(t.get("par").isEmpty());
+        System.out.println("Verified inner node 'par' holds no value.");
+        assertFalse(t.containsKey("parsers"));
+        System.out.println("Verified 'parsers' is not a key.");
+        System.out.println("✓ testPutAndGetWithSplits passed.");
+        System.out.println("========================================\n");
+    }
+
+    @Test
+    public void testKeysWithPrefix() {
+        System.out.println("\n========================================");
+        System.out.println("Running testKeysWithPrefix...");
+        System.out.println("========================================");
+        Trie<String> t = new Trie<>();
+        String[] keys = { "index", "indexsnapshot", "inspect", "in", "main", "indexer", "input" };
+        for (String key : keys) {
+            t.put(key, key.toUpperCase());
+            System.out.println("Put: " + key);
+        }
+
+        GenericList<String> all = t.keysWithPrefix("in", 10);
+        System.out.println("Prefix 'in': " + all);
+        assertEquals("[in, index, indexer, indexsnapshot, input, inspect]", join(all));
+
+        GenericList<String> mid = t.keysWithPrefix("inde", 10);
+        System.out.println("Prefix 'inde' (ends inside an edge): " + mid);
+        assertEquals("[index, indexer, indexsnapshot]", join(mid));
+
+        GenericList<String> limited = t.keysWithPrefix("in", 2);
+        System.out.println("Prefix 'in' limit 2: " + limited);
+        assertEquals("[in, index]", join(limited));
+
+        assertTrue(t.keysWithPrefix("inx", 10).isEmpty());
+        System.out.println("Verified prefix 'inx' matches nothing.");
+        assertEquals(7, t.keysWithPrefix("", 100).size());
+        System.out.println("Verified empty prefix returns every key.");
+        System.out.println("✓ testKeysWithPrefix passed.");
+        System.out.println("========================================\n");
+    }
+
+    private static String join(GenericList<?> list) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(list.get(i));
+        }
+        return sb.append("]").toString();
+    }
+}